@@ -27,7 +27,7 @@
  * to an initialized maximum. Any attempt to insert/remove a larger value will result in an
  * {@link IllegalArgumentException} thrown. Note that operations spanning multiple values (ie.
  * {@link #containsAll(IntSet)}, {@link #removeAll(IntSet)}) are not performed atomically and are done on a per value
- * basis.
+ * basis, or on a per word basis when the other set is also a {@code ConcurrentSmallIntSet} or a range.
  * @author wburns
  * @since 9.3
  */
@@ -55,6 +55,127 @@ public ConcurrentSmallIntSet(int minCapacityExclusive) {
       array = new AtomicIntegerArray(intLength);
    }
 
+   private ConcurrentSmallIntSet(int[] words, int size) {
+      array = new AtomicIntegerArray(words);
+      currentSize.set(size);
+   }
+
+   /**
+    * Creates a new set with the ints of the given set, filling the words before the set is published instead of
+    * setting the ints one by one.
+    * @param intSet the set to copy
+    * @param minCapacityExclusive The implementation performs sizing to ensure values up to this can be stored
+    * @return the new set
+    */
+   static ConcurrentSmallIntSet copyFrom(IntSet intSet, int minCapacityExclusive) {
+      int[] words = new int[(minCapacityExclusive + 31) >> ADDRESS_BITS_PER_INT];
+      if (intSet instanceof ConcurrentSmallIntSet) {
+         AtomicIntegerArray otherArray = ((ConcurrentSmallIntSet) intSet).array;
+         int length = otherArray.length();
+         for (int i = 0; i < length; ++i) {
+            int value = otherArray.get(i);
+            if (value != 0) {
+               setWord(words, i, value);
+            }
+         }
+      } else if (intSet instanceof RangeSet) {
+         int size = ((RangeSet) intSet).size;
+         for (int i = 0; i < size >> ADDRESS_BITS_PER_INT; ++i) {
+            setWord(words, i, INT_MASK);
+         }
+         if ((size & 31) != 0) {
+            setWord(words, size >> ADDRESS_BITS_PER_INT, INT_MASK >>> -size);
+         }
+      } else {
+         intSet.forEach((IntConsumer) i -> {
+            if (i < 0) {
+               throw new IllegalArgumentException("The provided value " + i + " must be 0 or greater");
+            }
+            setWord(words, i >> ADDRESS_BITS_PER_INT, 1 << i);
+         });
+      }
+      int size = 0;
+      for (int word : words) {
+         size += Integer.bitCount(word);
+      }
+      return new ConcurrentSmallIntSet(words, size);
+   }
+
+   private static void setWord(int[] words, int index, int bits) {
+      if (index >= words.length) {
+         throw new IllegalArgumentException("Provided integer was larger than originally initialized size");
+      }
+      words[index] |= bits;
+   }
+
+   /**
+    * Sets the given bits of a word
+    * @return how many of the bits were not set before
+    */
+   private int orWord(int index, int bits) {
+      while (true) {
+         int num = array.get(index);
+         int num2 = num | bits;
+         if (num == num2) {
+            return 0;
+         }
+         if (array.compareAndSet(index, num, num2)) {
+            int added = Integer.bitCount(num2) - Integer.bitCount(num);
+            currentSize.addAndGet(added);
+            return added;
+         }
+      }
+   }
+
+   /**
+    * Clears the given bits of a word
+    * @return how many of the bits were set before
+    */
+   private int andNotWord(int index, int bits) {
+      while (true) {
+         int num = array.get(index);
+         int num2 = num & ~bits;
+         if (num == num2) {
+            return 0;
+         }
+         if (array.compareAndSet(index, num, num2)) {
+            int removed = Integer.bitCount(num) - Integer.bitCount(num2);
+            currentSize.addAndGet(-removed);
+            return removed;
+         }
+      }
+   }
+
+   /**
+    * @return the bits of the word at the given index that are set in the given set
+    */
+   private static int wordOf(IntSet set, int index) {
+      if (set instanceof ConcurrentSmallIntSet) {
+         AtomicIntegerArray otherArray = ((ConcurrentSmallIntSet) set).array;
+         return index < otherArray.length() ? otherArray.get(index) : 0;
+      }
+      if (set instanceof RangeSet) {
+         int size = ((RangeSet) set).size;
+         int start = index << ADDRESS_BITS_PER_INT;
+         if (size <= start) {
+            return 0;
+         }
+         return size - start >= 32 ? INT_MASK : INT_MASK >>> -size;
+      }
+      int word = 0;
+      int start = index << ADDRESS_BITS_PER_INT;
+      for (int bit = 0; bit < 32; ++bit) {
+         if (set.contains(start + bit)) {
+            word |= 1 << bit;
+         }
+      }
+      return word;
+   }
+
+   private static boolean isWordSet(IntSet set) {
+      return set instanceof ConcurrentSmallIntSet || set instanceof RangeSet;
+   }
+
    private void valueNonZero(int value) {
       if (value < 0) {
          throw new IllegalArgumentException("The provided value " + value + " must be 0 or greater");
@@ -155,6 +276,17 @@ public boolean contains(int i) {
    @Override
    public boolean addAll(IntSet set) {
       boolean changed = false;
+      if (isWordSet(set)) {
+         int words = intIndex(set.size() == 0 ? 0 : lastInt(set) + 32);
+         for (int i = 0; i < words; ++i) {
+            int bits = wordOf(set, i);
+            if (bits != 0) {
+               checkBounds(i);
+               changed |= orWord(i, bits) != 0;
+            }
+         }
+         return changed;
+      }
       for (PrimitiveIterator.OfInt iter = set.iterator(); iter.hasNext(); ) {
          changed |= add(iter.nextInt());
       }
@@ -174,6 +306,15 @@ public boolean containsAll(IntSet set) {
    @Override
    public boolean removeAll(IntSet set) {
       boolean modified = false;
+      if (isWordSet(set)) {
+         for (int i = 0; i < array.length(); ++i) {
+            int bits = wordOf(set, i);
+            if (bits != 0) {
+               modified |= andNotWord(i, bits) != 0;
+            }
+         }
+         return modified;
+      }
       for (PrimitiveIterator.OfInt iter = set.iterator(); iter.hasNext(); ) {
          modified |= remove(iter.nextInt());
       }
@@ -183,25 +324,45 @@ public boolean removeAll(IntSet set) {
    @Override
    public boolean retainAll(IntSet set) {
       boolean modified = false;
+      boolean wordSet = isWordSet(set);
       for (int i = 0; i < array.length(); ++i) {
-         int posValue = array.get(i);
-         int offset = 1;
-         // We iterate through the current value by always checking the least significant bit and shifting right
-         // until the number finally reaches zero
-         while (posValue > 0) {
-            if ((posValue & 1) == 1) {
-               int ourValue = (i << ADDRESS_BITS_PER_INT) + offset - 1;
-               if (!set.contains(ourValue)) {
-                  modified |= remove(ourValue);
+         int value = array.get(i);
+         if (value == 0) {
+            continue;
+         }
+         int removedBits;
+         if (wordSet) {
+            removedBits = value & ~wordOf(set, i);
+         } else {
+            removedBits = 0;
+            for (int bits = value; bits != 0; bits &= bits - 1) {
+               int bit = Integer.numberOfTrailingZeros(bits);
+               if (!set.contains((i << ADDRESS_BITS_PER_INT) + bit)) {
+                  removedBits |= 1 << bit;
                }
             }
-            posValue >>= 1;
-            offset += 1;
+         }
+         if (removedBits != 0) {
+            modified |= andNotWord(i, removedBits) != 0;
          }
       }
       return modified;
    }
 
+   private static int lastInt(IntSet set) {
+      if (set instanceof RangeSet) {
+         return ((RangeSet) set).size - 1;
+      }
+      ConcurrentSmallIntSet other = (ConcurrentSmallIntSet) set;
+      for (int i = other.array.length() - 1; i >= 0; --i) {
+         int value = other.array.get(i);
+         if (value != 0) {
+            return (i << ADDRESS_BITS_PER_INT) + 31 - Integer.numberOfLeadingZeros(value);
+         }
+      }
+      return -1;
+   }
+
    @Override
    public int size() {
       return currentSize.get();
@@ -262,22 +423,16 @@ public final Object[] toArray() {
       int index = 0;
 
       for (int i = 0; i < array.length(); ++i) {
-         int value = array.get(i);
-         int offset = 1;
-         while (value > 0) {
-            if ((value & 1) == 1) {
-               if (index == size) {
-                  size += (size >>> 1) + 1;
-                  r = Arrays.copyOf(r, size);
-               }
-               r[index++] = (i << ADDRESS_BITS_PER_INT) + offset - 1;
+         for (int value = array.get(i); value != 0; value &= value - 1) {
+            if (index == size) {
+               size += (size >>> 1) + 1;
+               r = Arrays.copyOf(r, size);
             }
-            value >>= 1;
-            offset += 1;
+            r[index++] = (i << ADDRESS_BITS_PER_INT) + Integer.numberOfTrailingZeros(value);
          }
       }
 
-      return (index == size) ? r : Arrays.copyOf(r, size);
+      return (index == size) ? r : Arrays.copyOf(r, index);
    }
 
    @SuppressWarnings("unchecked")
@@ -389,22 +544,16 @@ public int[] toIntArray() {
       int index = 0;
 
       for (int i = 0; i < array.length(); ++i) {
-         int value = array.get(i);
-         int offset = 1;
-         while (value != 0) {
-            if ((value & 1) == 1) {
-               if (index == size) {
-                  size += (size >>> 1) + 1;
-                  r = Arrays.copyOf(r, size);
-               }
-               r[index++] = (i << ADDRESS_BITS_PER_INT) + offset - 1;
+         for (int value = array.get(i); value != 0; value &= value - 1) {
+            if (index == size) {
+               size += (size >>> 1) + 1;
+               r = Arrays.copyOf(r, size);
             }
-            value >>>= 1;
-            offset += 1;
+            r[index++] = (i << ADDRESS_BITS_PER_INT) + Integer.numberOfTrailingZeros(value);
          }
       }
 
-      return (index == size) ? r : Arrays.copyOf(r, size);
+      return (index == size) ? r : Arrays.copyOf(r, index);
    }
 
    @Override
@@ -431,14 +580,9 @@ public void forEach(Consumer<? super Integer> action) {
    @Override
    public void forEach(IntConsumer action) {
       for (int i = 0; i < array.length(); ++i) {
-         int value = array.get(i);
-         int offset = 1;
-         while (value != 0) {
-            if ((value & 1) == 1) {
-               action.accept((i << ADDRESS_BITS_PER_INT) + offset - 1);
-            }
-            value >>>= 1;
-            offset += 1;
+         // Visit only the set bits, lowest first
+         for (int value = array.get(i); value != 0; value &= value - 1) {
+            action.accept((i << ADDRESS_BITS_PER_INT) + Integer.numberOfTrailingZeros(value));
          }
       }
    }
@@ -456,17 +600,15 @@ public boolean removeIf(Predicate<? super Integer> filter) {
    public boolean removeIf(IntPredicate filter) {
       boolean modified = false;
       for (int i = 0; i < array.length(); ++i) {
-         int value = array.get(i);
-         int offset = 1;
-         while (value != 0) {
-            if ((value & 1) == 1) {
-               int ourValue = (i << ADDRESS_BITS_PER_INT) + offset - 1;
-               if (filter.test(ourValue)) {
-                  modified |= remove(ourValue);
-               }
+         int removedBits = 0;
+         for (int value = array.get(i); value != 0; value &= value - 1) {
+            int bit = Integer.numberOfTrailingZeros(value);
+            if (filter.test((i << ADDRESS_BITS_PER_INT) + bit)) {
+               removedBits |= 1 << bit;
             }
-            value >>>= 1;
-            offset += 1;
+         }
+         if (removedBits != 0) {
+            modified |= andNotWord(i, removedBits) != 0;
          }
       }
       return modified;
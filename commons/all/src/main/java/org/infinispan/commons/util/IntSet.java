@@ -196,7 +196,7 @@ default int[] toIntArray() {
       PrimitiveIterator.OfInt iter = iterator();
       int i = 0;
       while (iter.hasNext()) {
-         array[i] = iter.next();
+         array[i++] = iter.nextInt();
       }
       return array;
    }
@@ -186,8 +186,6 @@ public static IntSet concurrentSet(int maxExclusive) {
     * @return concurrent copy
     */
    public static IntSet concurrentCopyFrom(IntSet intSet, int maxExclusive) {
-      ConcurrentSmallIntSet cis = new ConcurrentSmallIntSet(maxExclusive);
-      intSet.forEach((IntConsumer) cis::set);
-      return cis;
+      return ConcurrentSmallIntSet.copyFrom(intSet, maxExclusive);
    }
 }
@@ -100,6 +100,10 @@ public SmallIntSet(Set<Integer> set) {
          BitSet bitSet = ((SmallIntSet) set).bitSet;
          this.bitSet = new BitSet(bitSet.size());
          this.bitSet.or(bitSet);
+      } else if (set instanceof RangeSet) {
+         int size = ((RangeSet) set).size;
+         this.bitSet = new BitSet(size);
+         this.bitSet.set(0, size);
       } else if (set instanceof IntSet) {
          this.bitSet = new BitSet();
          ((IntSet) set).forEach((IntConsumer) bitSet::set);
@@ -302,6 +306,10 @@ public boolean containsAll(IntSet set) {
          }
          return true;
       }
+      if (set instanceof RangeSet) {
+         int size = ((RangeSet) set).size;
+         return size <= 0 || bitSet.nextClearBit(0) >= size;
+      }
       PrimitiveIterator.OfInt iter = set.iterator();
       while (iter.hasNext()) {
          if (!bitSet.get(iter.nextInt())) {
@@ -319,6 +327,12 @@ public boolean addAll(IntSet set) {
          bitSet.or(((SmallIntSet) set).bitSet);
          modified = countBefore != bitSet.cardinality();
 
+      } else if (set instanceof RangeSet) {
+         int size = ((RangeSet) set).size;
+         modified = size > 0 && bitSet.nextClearBit(0) < size;
+         if (modified) {
+            bitSet.set(0, size);
+         }
       } else {
          PrimitiveIterator.OfInt iter = set.iterator();
          while (iter.hasNext()) {
@@ -349,6 +363,13 @@ public boolean removeAll(IntSet set) {
          bitSet.andNot(((SmallIntSet) set).bitSet);
          modified = countBefore != bitSet.cardinality();
 
+      } else if (set instanceof RangeSet) {
+         int size = ((RangeSet) set).size;
+         int first = bitSet.nextSetBit(0);
+         modified = first >= 0 && first < size;
+         if (modified) {
+            bitSet.clear(0, size);
+         }
       } else {
          PrimitiveIterator.OfInt iter = set.iterator();
          while (iter.hasNext()) {
@@ -388,6 +409,19 @@ public boolean retainAll(Collection<?> c) {
 
    @Override
    public boolean retainAll(IntSet c) {
+      if (c instanceof SmallIntSet) {
+         int countBefore = bitSet.cardinality();
+         bitSet.and(((SmallIntSet) c).bitSet);
+         return countBefore != bitSet.cardinality();
+      }
+      if (c instanceof RangeSet) {
+         int size = Math.max(0, ((RangeSet) c).size);
+         boolean modified = bitSet.nextSetBit(size) >= 0;
+         if (modified) {
+            bitSet.clear(size, bitSet.length());
+         }
+         return modified;
+      }
       boolean modified = false;
       for (int i = bitSet.nextSetBit(0); i >= 0; i = bitSet.nextSetBit(i + 1)) {
          if (!c.contains(i)) {
@@ -0,0 +1,119 @@
+package org.infinispan.commons.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * This benchmark tests the bulk operations of the {@link IntSet} implementations used to track segments, as done by
+ * the publishers and the state transfer: or ({@code addAll}), and ({@code retainAll}), and not ({@code removeAll}),
+ * iteration and concurrent copies. Half of the segments are owned, the other set holds every third segment.
+ */
+@State(Scope.Benchmark)
+@Fork(2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 4, time = 1)
+@Measurement(iterations = 8, time = 1)
+public class IntSetBenchmark {
+
+   @Param({ "256", "4096" })
+   public int numSegments;
+   @Param({ "small", "concurrent" })
+   public String type;
+
+   private IntSet owned;
+   private IntSet other;
+   private IntSet range;
+
+   @Setup
+   public void init() {
+      owned = newSet();
+      other = newSet();
+      for (int i = 0; i < numSegments; ++i) {
+         if ((i & 1) == 0) {
+            owned.set(i);
+         }
+         if (i % 3 == 0) {
+            other.set(i);
+         }
+      }
+      range = IntSets.immutableRangeSet(numSegments);
+   }
+
+   private IntSet newSet() {
+      return "concurrent".equals(type) ? IntSets.concurrentSet(numSegments) : IntSets.mutableEmptySet(numSegments);
+   }
+
+   private IntSet copyOfOwned() {
+      return "concurrent".equals(type) ? IntSets.concurrentCopyFrom(owned, numSegments) : IntSets.mutableCopyFrom(owned);
+   }
+
+   @Benchmark
+   public IntSet or() {
+      IntSet set = copyOfOwned();
+      set.addAll(other);
+      return set;
+   }
+
+   @Benchmark
+   public IntSet and() {
+      IntSet set = copyOfOwned();
+      set.retainAll(other);
+      return set;
+   }
+
+   @Benchmark
+   public IntSet andNot() {
+      IntSet set = copyOfOwned();
+      set.removeAll(other);
+      return set;
+   }
+
+   @Benchmark
+   public IntSet andNotRange() {
+      // The segments not owned, as computed by the state transfer
+      IntSet set = IntSets.mutableCopyFrom(range);
+      set.removeAll(owned);
+      return set;
+   }
+
+   @Benchmark
+   public IntSet orRange() {
+      IntSet set = copyOfOwned();
+      set.addAll(range);
+      return set;
+   }
+
+   @Benchmark
+   public void forEach(Blackhole bh) {
+      owned.forEach((IntConsumer) bh::consume);
+   }
+
+   @Benchmark
+   public int[] toIntArray() {
+      return owned.toIntArray();
+   }
+
+   @Benchmark
+   public IntSet concurrentCopyFromRange() {
+      return IntSets.concurrentCopyFrom(range, numSegments);
+   }
+
+   @Benchmark
+   public IntSet concurrentCopyFromOwned() {
+      return IntSets.concurrentCopyFrom(owned, numSegments);
+   }
+}
@@ -524,4 +524,61 @@ public void testToByteSet() {
          }
       }
    }
+
+   @Test
+   public void testHighBitOfWord() {
+      intSet.add(31);
+      intSet.add(32);
+      intSet.add(63);
+
+      assertArrayEquals(new int[] { 31, 32, 63 }, intSet.toIntArray());
+      assertArrayEquals(new Object[] { 31, 32, 63 }, intSet.toArray());
+      Set<Integer> results = new HashSet<>();
+      intSet.forEach((IntConsumer) results::add);
+      assertEquals(Util.asSet(31, 32, 63), results);
+
+      assertTrue(intSet.removeIf((int i) -> i == 31));
+      assertEquals(Util.asSet(32, 63), intSet);
+   }
+
+   @Test
+   public void testBulkOperationsWithRange() {
+      intSet.add(3);
+      intSet.add(40);
+
+      assertFalse(intSet.containsAll(new RangeSet(4)));
+      assertTrue(intSet.addAll(new RangeSet(35)));
+      assertEquals(36, intSet.size());
+      assertTrue(intSet.containsAll(new RangeSet(35)));
+      assertFalse(intSet.addAll(new RangeSet(35)));
+
+      assertTrue(intSet.retainAll(new RangeSet(33)));
+      assertEquals(new RangeSet(33), intSet);
+      assertFalse(intSet.retainAll(new RangeSet(33)));
+
+      assertTrue(intSet.removeAll(new RangeSet(32)));
+      assertEquals(Collections.singleton(32), intSet);
+      assertFalse(intSet.removeAll(new RangeSet(32)));
+   }
+
+   @Test
+   public void testBulkOperationsWithSameType() {
+      IntSet other = IntSets.mutableCopyFrom(intSet);
+      IntSet sameType = intSet instanceof ConcurrentSmallIntSet ? IntSets.concurrentCopyFrom(other, 64) : other;
+      sameType.add(1);
+      sameType.add(31);
+      sameType.add(50);
+
+      intSet.add(31);
+      intSet.add(2);
+      assertTrue(intSet.addAll(sameType));
+      assertEquals(Util.asSet(1, 2, 31, 50), intSet);
+
+      assertTrue(intSet.retainAll(sameType));
+      assertEquals(Util.asSet(1, 31, 50), intSet);
+
+      sameType.remove(1);
+      assertTrue(intSet.removeAll(sameType));
+      assertEquals(Collections.singleton(1), intSet);
+   }
 }
@@ -0,0 +1,374 @@
+package org.infinispan.compression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.infinispan.commons.CacheException;
+import org.infinispan.commons.io.ByteBuffer;
+import org.infinispan.commons.io.ByteBufferImpl;
+import org.infinispan.commons.time.TimeService;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.configuration.cache.MemoryConfiguration;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
+import org.infinispan.factories.annotations.Stop;
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
+
+import net.jcip.annotations.GuardedBy;
+
+/**
+ * Compresses the values of a cache with {@link Deflater}, when they are larger than the configured threshold and
+ * compress well enough to be worth it.
+ * <p>
+ * A compressed value starts with a two bytes marker, the id of the dictionary it was compressed with and its
+ * uncompressed length, followed by the DEFLATE stream. The values read from a store are only decompressed when the
+ * compression is enabled, and a value written uncompressed that happens to start with the marker, e.g. with a user
+ * marshaller, is written after a header without compression, so it can't be mistaken for a compressed value. The
+ * values written while the compression was enabled can't be read after disabling it.
+ * <p>
+ * The values of the off-heap data container can be compressed with a preset dictionary, made of the first values
+ * above the threshold. The dictionary only lives in memory, so it is never used for the values written to the stores.
+ *
+ * @since 12.1
+ */
+@MBean(objectName = "Compression", description = "Statistics of the compression of the values of the cache")
+@Scope(Scopes.NAMED_CACHE)
+public class ValueCompressor {
+   private static final byte MARKER_0 = 0;
+   private static final byte MARKER_1 = (byte) 0xDF;
+   private static final byte NO_DICTIONARY = 0;
+   private static final byte TRAINED_DICTIONARY = 1;
+   // Not an actual dictionary, the value follows the header uncompressed
+   private static final byte STORED = 2;
+   // Marker, dictionary id and uncompressed length
+   static final int HEADER_LENGTH = 2 + 1 + 4;
+   // Collect samples worth a few dictionaries before training it, so that the most recent samples can be preferred
+   private static final int SAMPLES_PER_DICTIONARY = 4;
+   private static final int MAX_POOLED = Runtime.getRuntime().availableProcessors();
+
+   @Inject Configuration configuration;
+   @Inject TimeService timeService;
+
+   private final Queue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+   private final Queue<Inflater> inflaters = new ConcurrentLinkedQueue<>();
+   private final LongAdder compressedValues = new LongAdder();
+   private final LongAdder uncompressedValues = new LongAdder();
+   private final LongAdder uncompressedBytes = new LongAdder();
+   private final LongAdder compressedBytes = new LongAdder();
+   private final LongAdder compressionAttempts = new LongAdder();
+   private final LongAdder compressionNanos = new LongAdder();
+   private final LongAdder decompressedValues = new LongAdder();
+   private final LongAdder decompressionNanos = new LongAdder();
+
+   @GuardedBy("samples")
+   private final List<byte[]> samples = new ArrayList<>();
+   @GuardedBy("samples")
+   private int sampleBytes;
+   private volatile byte[] dictionary;
+
+   private int threshold;
+   private int dictionarySize;
+
+   public ValueCompressor() {
+   }
+
+   public ValueCompressor(int threshold, int dictionarySize, TimeService timeService) {
+      this.threshold = threshold;
+      this.dictionarySize = dictionarySize;
+      this.timeService = timeService;
+   }
+
+   @Start
+   public void start() {
+      MemoryConfiguration memoryConfiguration = configuration.memory();
+      threshold = memoryConfiguration.compressionThreshold();
+      dictionarySize = memoryConfiguration.compressionDictionarySize();
+   }
+
+   @Stop
+   public void stop() {
+      Deflater deflater;
+      while ((deflater = deflaters.poll()) != null) {
+         deflater.end();
+      }
+      Inflater inflater;
+      while ((inflater = inflaters.poll()) != null) {
+         inflater.end();
+      }
+   }
+
+   /**
+    * Compresses a value of the data container, with the trained dictionary if there is one.
+    *
+    * @return the compressed value, or null if the value is too small or doesn't compress well enough
+    */
+   public byte[] compress(byte[] bytes, int offset, int length) {
+      if (length < threshold) {
+         uncompressedValues.increment();
+         return null;
+      }
+      byte[] dictionary = this.dictionary;
+      if (dictionary == null && dictionarySize > 0) {
+         sample(bytes, offset, length);
+      }
+      return deflate(bytes, offset, length, dictionary);
+   }
+
+   /**
+    * Compresses a value written to the stores, never with a dictionary.
+    *
+    * @return the compressed value, or the given value if it is too small or doesn't compress well enough
+    */
+   public ByteBuffer compress(ByteBuffer value) {
+      if (value == null) {
+         return null;
+      }
+      byte[] compressed = null;
+      if (value.getLength() < threshold) {
+         uncompressedValues.increment();
+      } else {
+         compressed = deflate(value.getBuf(), value.getOffset(), value.getLength(), null);
+      }
+      if (compressed != null) {
+         return ByteBufferImpl.create(compressed);
+      }
+      return isCompressed(value) ? stored(value) : value;
+   }
+
+   /**
+    * @return the uncompressed bytes of a value returned by {@link #compress(byte[], int, int)}
+    */
+   public byte[] decompress(byte[] bytes, int offset, int length) {
+      long start = timeService.time();
+      byte[] uncompressed = inflate(bytes, offset, length, dictionary(bytes[offset + 2]));
+      decompressionNanos.add(timeService.time() - start);
+      decompressedValues.increment();
+      return uncompressed;
+   }
+
+   /**
+    * @return the uncompressed value of a value returned by {@link #compress(ByteBuffer)}
+    */
+   public ByteBuffer decompress(ByteBuffer value) {
+      if (!isCompressed(value)) {
+         return value;
+      }
+      byte[] buf = value.getBuf();
+      int offset = value.getOffset();
+      if (buf[offset + 2] == STORED) {
+         return ByteBufferImpl.create(buf, offset + HEADER_LENGTH, value.getLength() - HEADER_LENGTH);
+      }
+      return ByteBufferImpl.create(decompress(buf, offset, value.getLength()));
+   }
+
+   private static ByteBuffer stored(ByteBuffer value) {
+      int length = value.getLength();
+      byte[] stored = new byte[HEADER_LENGTH + length];
+      stored[0] = MARKER_0;
+      stored[1] = MARKER_1;
+      stored[2] = STORED;
+      putInt(stored, 3, length);
+      System.arraycopy(value.getBuf(), value.getOffset(), stored, HEADER_LENGTH, length);
+      return ByteBufferImpl.create(stored);
+   }
+
+   private static boolean isCompressed(ByteBuffer value) {
+      if (value == null || value.getLength() < HEADER_LENGTH) {
+         return false;
+      }
+      byte[] buf = value.getBuf();
+      int offset = value.getOffset();
+      return buf[offset] == MARKER_0 && buf[offset + 1] == MARKER_1;
+   }
+
+   private byte[] dictionary(byte id) {
+      if (id == NO_DICTIONARY) {
+         return null;
+      }
+      byte[] dictionary = this.dictionary;
+      if (id != TRAINED_DICTIONARY || dictionary == null) {
+         throw new CacheException("Value compressed with unknown dictionary " + id);
+      }
+      return dictionary;
+   }
+
+   private byte[] deflate(byte[] bytes, int offset, int length, byte[] dictionary) {
+      long start = timeService.time();
+      compressionAttempts.increment();
+      // Keep the value as it is unless compression saves at least an eighth of it
+      int limit = HEADER_LENGTH + length - (length >> 3);
+      byte[] compressed = new byte[limit];
+      int position = HEADER_LENGTH;
+      Deflater deflater = deflaters.poll();
+      if (deflater == null) {
+         deflater = new Deflater(Deflater.BEST_SPEED);
+      }
+      try {
+         if (dictionary != null) {
+            deflater.setDictionary(dictionary);
+         }
+         deflater.setInput(bytes, offset, length);
+         deflater.finish();
+         while (!deflater.finished()) {
+            if (position == limit) {
+               compressionNanos.add(timeService.time() - start);
+               uncompressedValues.increment();
+               return null;
+            }
+            position += deflater.deflate(compressed, position, limit - position);
+         }
+      } finally {
+         deflater.reset();
+         release(deflaters, deflater);
+      }
+      compressed[0] = MARKER_0;
+      compressed[1] = MARKER_1;
+      compressed[2] = dictionary == null ? NO_DICTIONARY : TRAINED_DICTIONARY;
+      putInt(compressed, 3, length);
+      byte[] result = position == limit ? compressed : Arrays.copyOf(compressed, position);
+      compressionNanos.add(timeService.time() - start);
+      compressedValues.increment();
+      uncompressedBytes.add(length);
+      compressedBytes.add(result.length);
+      return result;
+   }
+
+   private byte[] inflate(byte[] bytes, int offset, int length, byte[] dictionary) {
+      Inflater inflater = inflaters.poll();
+      if (inflater == null) {
+         inflater = new Inflater();
+      }
+      try {
+         return inflate(inflater, bytes, offset, length, dictionary);
+      } finally {
+         inflater.reset();
+         release(inflaters, inflater);
+      }
+   }
+
+   private static byte[] inflate(Inflater inflater, byte[] bytes, int offset, int length, byte[] dictionary) {
+      byte[] uncompressed = new byte[getInt(bytes, offset + 3)];
+      inflater.setInput(bytes, offset + HEADER_LENGTH, length - HEADER_LENGTH);
+      int position = 0;
+      try {
+         while (position < uncompressed.length) {
+            int inflated = inflater.inflate(uncompressed, position, uncompressed.length - position);
+            if (inflated == 0) {
+               if (inflater.needsDictionary() && dictionary != null) {
+                  inflater.setDictionary(dictionary);
+               } else if (inflater.finished() || inflater.needsInput() || inflater.needsDictionary()) {
+                  throw new CacheException("Corrupted compressed value");
+               }
+            }
+            position += inflated;
+         }
+      } catch (DataFormatException e) {
+         throw new CacheException(e);
+      }
+      return uncompressed;
+   }
+
+   private static int getInt(byte[] bytes, int offset) {
+      return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16) | ((bytes[offset + 2] & 0xFF) << 8) |
+            (bytes[offset + 3] & 0xFF);
+   }
+
+   private static void putInt(byte[] bytes, int offset, int value) {
+      bytes[offset] = (byte) (value >>> 24);
+      bytes[offset + 1] = (byte) (value >>> 16);
+      bytes[offset + 2] = (byte) (value >>> 8);
+      bytes[offset + 3] = (byte) value;
+   }
+
+   private static <T> void release(Queue<T> pool, T t) {
+      if (pool.size() < MAX_POOLED) {
+         pool.offer(t);
+      } else if (t instanceof Deflater) {
+         ((Deflater) t).end();
+      } else {
+         ((Inflater) t).end();
+      }
+   }
+
+   private void sample(byte[] bytes, int offset, int length) {
+      synchronized (samples) {
+         if (dictionary != null) {
+            return;
+         }
+         samples.add(Arrays.copyOfRange(bytes, offset, offset + length));
+         sampleBytes += length;
+         if (sampleBytes < SAMPLES_PER_DICTIONARY * dictionarySize) {
+            return;
+         }
+         // DEFLATE references the end of the dictionary with the shortest distances, so the samples are appended from
+         // the oldest to the most recent and only the last bytes are kept
+         byte[] trained = new byte[Math.min(dictionarySize, sampleBytes)];
+         int position = trained.length;
+         for (int i = samples.size() - 1; i >= 0 && position > 0; i--) {
+            byte[] sample = samples.get(i);
+            int toCopy = Math.min(sample.length, position);
+            position -= toCopy;
+            System.arraycopy(sample, sample.length - toCopy, trained, position, toCopy);
+         }
+         samples.clear();
+         dictionary = trained;
+      }
+   }
+
+   @ManagedAttribute(description = "Number of values that have been compressed",
+         displayName = "Compressed values", measurementType = MeasurementType.TRENDSUP)
+   public long getCompressedValues() {
+      return compressedValues.sum();
+   }
+
+   @ManagedAttribute(description = "Number of values that were not compressed, because they were too small or " +
+         "did not compress well enough", displayName = "Uncompressed values", measurementType = MeasurementType.TRENDSUP)
+   public long getUncompressedValues() {
+      return uncompressedValues.sum();
+   }
+
+   @ManagedAttribute(description = "Ratio between the original and the compressed size of the compressed values",
+         displayName = "Compression ratio")
+   public double getCompressionRatio() {
+      long compressed = compressedBytes.sum();
+      return compressed == 0 ? 0 : (double) uncompressedBytes.sum() / compressed;
+   }
+
+   @ManagedAttribute(description = "Number of bytes saved by the compression of the values",
+         displayName = "Bytes saved", units = Units.BYTES, measurementType = MeasurementType.TRENDSUP)
+   public long getBytesSaved() {
+      return uncompressedBytes.sum() - compressedBytes.sum();
+   }
+
+   @ManagedAttribute(description = "Average time spent compressing a value above the threshold, including the " +
+         "values that did not compress well enough", displayName = "Average compression time", units = Units.NANOSECONDS)
+   public long getAverageCompressionTime() {
+      long count = compressionAttempts.sum();
+      return count == 0 ? 0 : compressionNanos.sum() / count;
+   }
+
+   @ManagedAttribute(description = "Average time spent decompressing a value",
+         displayName = "Average decompression time", units = Units.NANOSECONDS)
+   public long getAverageDecompressionTime() {
+      long count = decompressedValues.sum();
+      return count == 0 ? 0 : decompressionNanos.sum() / count;
+   }
+
+   @ManagedAttribute(description = "Whether the dictionary has been trained from the values of the cache",
+         displayName = "Dictionary trained")
+   public boolean isDictionaryTrained() {
+      return dictionary != null;
+   }
+}
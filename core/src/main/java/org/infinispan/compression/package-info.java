@@ -0,0 +1,4 @@
+/**
+ * Compression of the values stored off-heap and written to the stores of a cache.
+ */
+package org.infinispan.compression;
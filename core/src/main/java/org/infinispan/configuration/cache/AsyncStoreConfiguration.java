@@ -8,6 +8,7 @@
 import org.infinispan.commons.configuration.attributes.AttributeSet;
 import org.infinispan.commons.configuration.elements.DefaultElementDefinition;
 import org.infinispan.commons.configuration.elements.ElementDefinition;
+import org.infinispan.commons.util.ByteQuantity;
 
 /**
  * Configuration for the async cache store. If enabled, this provides you with asynchronous writes
@@ -22,9 +23,14 @@ public class AsyncStoreConfiguration implements ConfigurationInfo {
    @Deprecated
    public static final AttributeDefinition<Integer> THREAD_POOL_SIZE = AttributeDefinition.builder("threadPoolSize", 1).immutable().build();
    public static final AttributeDefinition<Boolean> FAIL_SILENTLY = AttributeDefinition.builder("failSilently", false).immutable().build();
+   public static final AttributeDefinition<String> MODIFICATION_QUEUE_MEMORY = AttributeDefinition.builder("modificationQueueMemory", null, String.class).immutable().build();
+   public static final AttributeDefinition<Long> FLUSH_INTERVAL = AttributeDefinition.builder("flushInterval", 0L).immutable().build();
+   public static final AttributeDefinition<Integer> FLUSH_SIZE = AttributeDefinition.builder("flushSize", Integer.MAX_VALUE).immutable().build();
+   public static final AttributeDefinition<Integer> FLUSH_CONCURRENCY = AttributeDefinition.builder("flushConcurrency", 4).immutable().build();
 
    static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(AsyncStoreConfiguration.class, ENABLED, MODIFICATION_QUEUE_SIZE, THREAD_POOL_SIZE, FAIL_SILENTLY);
+      return new AttributeSet(AsyncStoreConfiguration.class, ENABLED, MODIFICATION_QUEUE_SIZE, THREAD_POOL_SIZE, FAIL_SILENTLY,
+            MODIFICATION_QUEUE_MEMORY, FLUSH_INTERVAL, FLUSH_SIZE, FLUSH_CONCURRENCY);
    }
 
    static ElementDefinition ELEMENT_DEFINITION = new DefaultElementDefinition(WRITE_BEHIND.getLocalName());
@@ -33,6 +39,10 @@ static AttributeSet attributeDefinitionSet() {
    private final Attribute<Integer> modificationQueueSize;
    private final Attribute<Integer> threadPoolSize;
    private final Attribute<Boolean> failSilently;
+   private final Attribute<String> modificationQueueMemory;
+   private final Attribute<Long> flushInterval;
+   private final Attribute<Integer> flushSize;
+   private final Attribute<Integer> flushConcurrency;
 
    private final AttributeSet attributes;
 
@@ -42,6 +52,10 @@ static AttributeSet attributeDefinitionSet() {
       this.modificationQueueSize = attributes.attribute(MODIFICATION_QUEUE_SIZE);
       this.threadPoolSize = attributes.attribute(THREAD_POOL_SIZE);
       this.failSilently = attributes.attribute(FAIL_SILENTLY);
+      this.modificationQueueMemory = attributes.attribute(MODIFICATION_QUEUE_MEMORY);
+      this.flushInterval = attributes.attribute(FLUSH_INTERVAL);
+      this.flushSize = attributes.attribute(FLUSH_SIZE);
+      this.flushConcurrency = attributes.attribute(FLUSH_CONCURRENCY);
    }
 
    @Override
@@ -79,6 +93,47 @@ public boolean failSilently() {
       return failSilently.get();
    }
 
+   /**
+    * The maximum amount of memory, as a quantity of bytes with an optional unit (e.g. 10MB), that the modifications
+    * waiting to be written to the store may use. When set, the modification queue is bounded by its memory instead
+    * of by {@link #modificationQueueSize()}.
+    */
+   public String modificationQueueMemory() {
+      return modificationQueueMemory.get();
+   }
+
+   /**
+    * @return the value of {@link #modificationQueueMemory()} in bytes or -1 if the queue is bounded by its size
+    */
+   public long modificationQueueMemoryBytes() {
+      String memory = modificationQueueMemory.get();
+      return memory != null ? ByteQuantity.parse(memory) : -1;
+   }
+
+   /**
+    * The time in milliseconds that modifications are accumulated before being written to the store, so that more
+    * writes to the same key can be coalesced. If 0, modifications are written as soon as possible.
+    */
+   public long flushInterval() {
+      return flushInterval.get();
+   }
+
+   /**
+    * The maximum number of modifications written to the store in a single batch. Once this many modifications are
+    * waiting to be written, a batch is written without waiting for the {@link #flushInterval()}.
+    */
+   public int flushSize() {
+      return flushSize.get();
+   }
+
+   /**
+    * The maximum number of batches written to the store concurrently. The segments are split among this many queues,
+    * each of them writing one batch at a time, so that the modifications of a key are always written in order.
+    */
+   public int flushConcurrency() {
+      return flushConcurrency.get();
+   }
+
    public AttributeSet attributes() {
       return attributes;
    }
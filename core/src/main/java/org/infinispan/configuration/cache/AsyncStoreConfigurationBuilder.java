@@ -2,13 +2,19 @@
 
 import static org.infinispan.configuration.cache.AsyncStoreConfiguration.ENABLED;
 import static org.infinispan.configuration.cache.AsyncStoreConfiguration.FAIL_SILENTLY;
+import static org.infinispan.configuration.cache.AsyncStoreConfiguration.FLUSH_CONCURRENCY;
+import static org.infinispan.configuration.cache.AsyncStoreConfiguration.FLUSH_INTERVAL;
+import static org.infinispan.configuration.cache.AsyncStoreConfiguration.FLUSH_SIZE;
+import static org.infinispan.configuration.cache.AsyncStoreConfiguration.MODIFICATION_QUEUE_MEMORY;
 import static org.infinispan.configuration.cache.AsyncStoreConfiguration.MODIFICATION_QUEUE_SIZE;
 import static org.infinispan.configuration.cache.AsyncStoreConfiguration.THREAD_POOL_SIZE;
+import static org.infinispan.util.logging.Log.CONFIG;
 
 import org.infinispan.commons.configuration.Builder;
 import org.infinispan.commons.configuration.ConfigurationBuilderInfo;
 import org.infinispan.commons.configuration.attributes.AttributeSet;
 import org.infinispan.commons.configuration.elements.ElementDefinition;
+import org.infinispan.commons.util.ByteQuantity;
 import org.infinispan.configuration.global.GlobalConfiguration;
 
 /**
@@ -92,9 +98,66 @@ public AsyncStoreConfigurationBuilder<S> failSilently(boolean failSilently) {
       return this;
    }
 
+   /**
+    * Bounds the modification queue of the async store by the memory used by the modifications, instead of by their
+    * number. The value is a quantity of bytes with an optional unit, e.g. 10MB.
+    */
+   public AsyncStoreConfigurationBuilder<S> modificationQueueMemory(String memory) {
+      attributes.attribute(MODIFICATION_QUEUE_MEMORY).set(memory);
+      return this;
+   }
+
+   /**
+    * Bounds the modification queue of the async store by the memory used by the modifications, instead of by their
+    * number.
+    */
+   public AsyncStoreConfigurationBuilder<S> modificationQueueMemory(long bytes) {
+      return modificationQueueMemory(String.valueOf(bytes));
+   }
+
+   /**
+    * Sets the time in milliseconds that modifications are accumulated before being written to the store, so that more
+    * writes to the same key can be coalesced. If 0, modifications are written as soon as possible.
+    */
+   public AsyncStoreConfigurationBuilder<S> flushInterval(long flushInterval) {
+      attributes.attribute(FLUSH_INTERVAL).set(flushInterval);
+      return this;
+   }
+
+   /**
+    * Sets the maximum number of modifications written to the store in a single batch. Once this many modifications
+    * are waiting to be written, a batch is written without waiting for the flush interval.
+    */
+   public AsyncStoreConfigurationBuilder<S> flushSize(int flushSize) {
+      attributes.attribute(FLUSH_SIZE).set(flushSize);
+      return this;
+   }
+
+   /**
+    * Sets the maximum number of batches written to the store concurrently. Modifications to the same key are always
+    * written in order.
+    */
+   public AsyncStoreConfigurationBuilder<S> flushConcurrency(int flushConcurrency) {
+      attributes.attribute(FLUSH_CONCURRENCY).set(flushConcurrency);
+      return this;
+   }
+
    @Override
    public
    void validate() {
+      if (attributes.attribute(FLUSH_INTERVAL).get() < 0) {
+         throw CONFIG.invalidAsyncStoreFlushConfiguration(FLUSH_INTERVAL.name());
+      }
+      if (attributes.attribute(FLUSH_SIZE).get() < 1) {
+         throw CONFIG.invalidAsyncStoreFlushConfiguration(FLUSH_SIZE.name());
+      }
+      if (attributes.attribute(FLUSH_CONCURRENCY).get() < 1) {
+         throw CONFIG.invalidAsyncStoreFlushConfiguration(FLUSH_CONCURRENCY.name());
+      }
+      String memory = attributes.attribute(MODIFICATION_QUEUE_MEMORY).get();
+      if (memory != null && ByteQuantity.parse(memory) <= 0) {
+         throw CONFIG.invalidAsyncStoreFlushConfiguration(MODIFICATION_QUEUE_MEMORY.name());
+      }
    }
 
    @Override
@@ -58,10 +58,13 @@ public Object readAttributeValue(String enclosing, AttributeDefinition attribute
    public static final AttributeDefinition<Integer> INVALIDATION_BATCH_SIZE = AttributeDefinition.builder("invalidationBatchSize",  128).immutable().build();
    public static final AttributeDefinition<BiasAcquisition> BIAS_ACQUISITION = AttributeDefinition.builder("biasAcquisition", BiasAcquisition.ON_WRITE).immutable().build();
    public static final AttributeDefinition<Long> BIAS_LIFESPAN = AttributeDefinition.builder("biasLifespan", TimeUnit.MINUTES.toMillis(5)).immutable().build();
+   public static final AttributeDefinition<ReadOwnerMode> READ_OWNER_MODE = AttributeDefinition.builder("readOwnerMode", ReadOwnerMode.PRIMARY).immutable().build();
+   public static final AttributeDefinition<Long> MAX_READ_STALENESS = AttributeDefinition.builder("maxReadStaleness", -1L).immutable().build();
    private final List<ConfigurationInfo> elements;
 
    static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(ClusteringConfiguration.class, CACHE_MODE, REMOTE_TIMEOUT, INVALIDATION_BATCH_SIZE, BIAS_ACQUISITION, BIAS_LIFESPAN);
+      return new AttributeSet(ClusteringConfiguration.class, CACHE_MODE, REMOTE_TIMEOUT, INVALIDATION_BATCH_SIZE, BIAS_ACQUISITION, BIAS_LIFESPAN,
+            READ_OWNER_MODE, MAX_READ_STALENESS);
    }
 
    public static final ElementDefinition ELEMENT_DEFINITION = new DefaultElementDefinition(CLUSTERING.getLocalName(), false);
@@ -144,6 +147,21 @@ public long biasLifespan() {
       return attributes.attribute(BIAS_LIFESPAN).get();
    }
 
+   /**
+    * For distributed caches, specifies which owner is asked first when reading a key that is not owned locally.
+    */
+   public ReadOwnerMode readOwnerMode() {
+      return attributes.attribute(READ_OWNER_MODE).get();
+   }
+
+   /**
+    * For distributed caches, the maximum staleness (in milliseconds) of a value read from a backup owner,
+    * or {@code -1} if values read from backup owners are not checked.
+    */
+   public long maxReadStaleness() {
+      return attributes.attribute(MAX_READ_STALENESS).get();
+   }
+
    /**
     * Configure hash sub element
     */
@@ -4,6 +4,8 @@
 import static org.infinispan.configuration.cache.ClusteringConfiguration.BIAS_LIFESPAN;
 import static org.infinispan.configuration.cache.ClusteringConfiguration.CACHE_MODE;
 import static org.infinispan.configuration.cache.ClusteringConfiguration.INVALIDATION_BATCH_SIZE;
+import static org.infinispan.configuration.cache.ClusteringConfiguration.MAX_READ_STALENESS;
+import static org.infinispan.configuration.cache.ClusteringConfiguration.READ_OWNER_MODE;
 import static org.infinispan.configuration.cache.ClusteringConfiguration.REMOTE_TIMEOUT;
 import static org.infinispan.util.logging.Log.CONFIG;
 
@@ -112,6 +114,29 @@ public ClusteringConfigurationBuilder biasLifespan(long l, TimeUnit unit) {
       return this;
    }
 
+   /**
+    * Used in distributed caches. Specifies which owner is asked first when reading a key that is not owned locally.
+    * Reading from the backup owners as well as from the primary owner spreads the load of the hot keys across all
+    * their owners, but a read from a backup owner may miss a write that is still in progress.
+    * <p>
+    * A single read can also use {@link ReadOwnerMode#BALANCED} with {@link org.infinispan.context.Flag#READ_FROM_ANY_OWNER}.
+    */
+   public ClusteringConfigurationBuilder readOwnerMode(ReadOwnerMode readOwnerMode) {
+      attributes.attribute(READ_OWNER_MODE).set(readOwnerMode);
+      return this;
+   }
+
+   /**
+    * Used in distributed caches that read from backup owners. A value read from a backup owner is at least as new as
+    * the value of the primary owner at most this long ago, otherwise the key is read again from the primary owner.
+    * The check compares the {@link org.infinispan.container.versioning.EntryVersion} of the entries, so the keys
+    * without a version are always read from the primary owner. Defaults to {@code -1}, meaning no check.
+    */
+   public ClusteringConfigurationBuilder maxReadStaleness(long l, TimeUnit unit) {
+      attributes.attribute(MAX_READ_STALENESS).set(l < 0 ? -1 : unit.toMillis(l));
+      return this;
+   }
+
    /**
     * Configure hash sub element
     */
@@ -171,6 +196,9 @@ public void validate() {
          if (hash().numOwners() == 1 && partitionHandling().whenSplit() != PartitionHandling.ALLOW_READ_WRITES)
             throw CONFIG.singleOwnerNotSetToAllowReadWrites();
       }
+      if (!cacheMode().isDistributed() &&
+            (attributes.attribute(READ_OWNER_MODE).isModified() || attributes.attribute(MAX_READ_STALENESS).isModified()))
+         throw CONFIG.readOwnerModeAppliesOnlyToDistributed();
    }
 
    @Override
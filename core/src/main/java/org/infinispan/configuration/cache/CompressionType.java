@@ -0,0 +1,20 @@
+package org.infinispan.configuration.cache;
+
+/**
+ * Enumeration defining how the values of a cache are compressed in the off-heap data container and in the stores.
+ *
+ * @since 12.1
+ */
+public enum CompressionType {
+
+   /**
+    * Values are kept as they are.
+    */
+   NONE,
+
+   /**
+    * Values are compressed with the DEFLATE algorithm of the JDK at its fastest level, optionally with a preset
+    * dictionary trained from the values of the cache.
+    */
+   DEFLATE
+}
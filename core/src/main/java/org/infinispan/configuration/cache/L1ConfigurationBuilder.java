@@ -118,6 +118,9 @@ public void validate() {
          if (memoryConfigurationBuilder.evictionStrategy() == EvictionStrategy.EXCEPTION) {
             throw CONFIG.l1NotValidWithExpirationEviction();
          }
+         if (memoryConfigurationBuilder.mappedLocation() != null) {
+            throw CONFIG.mappedLocationRequiresUnboundedOffHeap();
+         }
       }
    }
 
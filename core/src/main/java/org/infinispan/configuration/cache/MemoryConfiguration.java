@@ -25,11 +25,17 @@ public class MemoryConfiguration implements Matchable<MemoryConfiguration>, Conf
    public static final AttributeDefinition<String> MAX_SIZE = AttributeDefinition.builder("maxSize", null, String.class).build();
    public static final AttributeDefinition<Long> MAX_COUNT = AttributeDefinition.builder("maxCount", -1L).build();
    public static final AttributeDefinition<EvictionStrategy> WHEN_FULL = AttributeDefinition.builder("whenFull", EvictionStrategy.NONE).immutable().build();
+   public static final AttributeDefinition<OffHeapAllocatorType> ALLOCATOR = AttributeDefinition.builder("allocator", OffHeapAllocatorType.UNPOOLED).immutable().build();
+   public static final AttributeDefinition<String> MAPPED_LOCATION = AttributeDefinition.builder("mappedLocation", null, String.class).immutable().build();
+   public static final AttributeDefinition<CompressionType> COMPRESSION = AttributeDefinition.builder("compression", CompressionType.NONE).immutable().build();
+   public static final AttributeDefinition<Integer> COMPRESSION_THRESHOLD = AttributeDefinition.builder("compressionThreshold", 256).immutable().build();
+   public static final AttributeDefinition<Integer> COMPRESSION_DICTIONARY_SIZE = AttributeDefinition.builder("compressionDictionarySize", 0).immutable().build();
 
    private final MemoryStorageConfiguration memoryStorageConfiguration;
 
    static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(MemoryConfiguration.class, STORAGE, MAX_SIZE, MAX_COUNT, WHEN_FULL);
+      return new AttributeSet(MemoryConfiguration.class, STORAGE, MAX_SIZE, MAX_COUNT, WHEN_FULL, ALLOCATOR, MAPPED_LOCATION,
+            COMPRESSION, COMPRESSION_THRESHOLD, COMPRESSION_DICTIONARY_SIZE);
    }
 
    private final AttributeSet attributes;
@@ -165,6 +171,42 @@ public EvictionStrategy whenFull() {
       return attributes.attribute(WHEN_FULL).get();
    }
 
+   /**
+    * @return The {@link OffHeapAllocatorType} used to manage native memory when the storage is off-heap.
+    */
+   public OffHeapAllocatorType allocator() {
+      return attributes.attribute(ALLOCATOR).get();
+   }
+
+   /**
+    * @return The directory holding the memory-mapped segment files of the off-heap data container or null if the
+    * off-heap entries are not mapped to files.
+    */
+   public String mappedLocation() {
+      return attributes.attribute(MAPPED_LOCATION).get();
+   }
+
+   /**
+    * @return The {@link CompressionType} applied to the values stored off-heap and written to the stores.
+    */
+   public CompressionType compression() {
+      return attributes.attribute(COMPRESSION).get();
+   }
+
+   /**
+    * @return The size in bytes under which values are not compressed.
+    */
+   public int compressionThreshold() {
+      return attributes.attribute(COMPRESSION_THRESHOLD).get();
+   }
+
+   /**
+    * @return The size in bytes of the dictionary trained from the values of the cache, or 0 if no dictionary is used.
+    */
+   public int compressionDictionarySize() {
+      return attributes.attribute(COMPRESSION_DICTIONARY_SIZE).get();
+   }
+
    /**
     * Returns whether remove eviction is in use
     */
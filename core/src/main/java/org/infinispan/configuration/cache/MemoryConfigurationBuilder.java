@@ -252,6 +252,76 @@ public EvictionStrategy whenFull() {
       return attributes.attribute(MemoryConfiguration.WHEN_FULL).get();
    }
 
+   /**
+    * Sets the allocator used to manage native memory when {@link StorageType#OFF_HEAP} storage is in use. This has
+    * no effect on heap based storage.
+    * @param allocator the allocator to use
+    * @return this
+    */
+   public MemoryConfigurationBuilder allocator(OffHeapAllocatorType allocator) {
+      attributes.attribute(MemoryConfiguration.ALLOCATOR).set(allocator);
+      return this;
+   }
+
+   public OffHeapAllocatorType allocator() {
+      return attributes.attribute(MemoryConfiguration.ALLOCATOR).get();
+   }
+
+   /**
+    * Sets the directory where the entries of an unbounded {@link StorageType#OFF_HEAP} container are memory-mapped,
+    * one file per segment. Entries mapped to files are available again as soon as the cache is restarted, provided the
+    * cache was stopped cleanly. Relative paths are resolved against the global persistent location.
+    * @param location the directory holding the segment files
+    * @return this
+    */
+   public MemoryConfigurationBuilder mappedLocation(String location) {
+      attributes.attribute(MemoryConfiguration.MAPPED_LOCATION).set(location);
+      return this;
+   }
+
+   public String mappedLocation() {
+      return attributes.attribute(MemoryConfiguration.MAPPED_LOCATION).get();
+   }
+
+   /**
+    * Sets how values are compressed. Compression applies to the values of an {@link StorageType#OFF_HEAP} data
+    * container, which are copied on every read anyway, and to the values written to the stores of the cache.
+    * @param compression the compression to use
+    * @return this
+    */
+   public MemoryConfigurationBuilder compression(CompressionType compression) {
+      attributes.attribute(MemoryConfiguration.COMPRESSION).set(compression);
+      return this;
+   }
+
+   public CompressionType compression() {
+      return attributes.attribute(MemoryConfiguration.COMPRESSION).get();
+   }
+
+   /**
+    * Sets the size in bytes under which values are not compressed, as the compression of small values saves little
+    * memory for the CPU it costs. Defaults to 256.
+    * @param threshold the minimum size of a compressed value
+    * @return this
+    */
+   public MemoryConfigurationBuilder compressionThreshold(int threshold) {
+      attributes.attribute(MemoryConfiguration.COMPRESSION_THRESHOLD).set(threshold);
+      return this;
+   }
+
+   /**
+    * Sets the size in bytes of a preset dictionary trained from the first values of the cache, which improves the
+    * compression of small values sharing the same structure, such as JSON documents. The dictionary is only used for
+    * the off-heap data container, the values written to the stores must be readable after a restart without it.
+    * Defaults to 0, meaning no dictionary, and cannot exceed 32768.
+    * @param dictionarySize the size of the dictionary
+    * @return this
+    */
+   public MemoryConfigurationBuilder compressionDictionarySize(int dictionarySize) {
+      attributes.attribute(MemoryConfiguration.COMPRESSION_DICTIONARY_SIZE).set(dictionarySize);
+      return this;
+   }
+
    /**
     * The configured eviction strategy, please see {@link MemoryConfigurationBuilder#evictionStrategy(EvictionStrategy)}.
     * @return the configured eviction stategy
@@ -318,6 +388,16 @@ public void validate() {
             }
          }
       }
+      if (mappedLocation() != null && (storage() != StorageType.OFF_HEAP || strategy.isEnabled())) {
+         throw CONFIG.mappedLocationRequiresUnboundedOffHeap();
+      }
+      if (attributes.attribute(MemoryConfiguration.COMPRESSION_THRESHOLD).get() < 0) {
+         throw CONFIG.invalidCompressionConfiguration(MemoryConfiguration.COMPRESSION_THRESHOLD.name());
+      }
+      int dictionarySize = attributes.attribute(MemoryConfiguration.COMPRESSION_DICTIONARY_SIZE).get();
+      if (dictionarySize < 0 || dictionarySize > 32768) {
+         throw CONFIG.invalidCompressionConfiguration(MemoryConfiguration.COMPRESSION_DICTIONARY_SIZE.name());
+      }
       checkBinaryRequirement();
    }
 
@@ -0,0 +1,23 @@
+package org.infinispan.configuration.cache;
+
+/**
+ * Enumeration defining the allocators that can be used to manage the native memory of an
+ * {@link StorageType#OFF_HEAP} data container.
+ *
+ * @since 12.1
+ */
+public enum OffHeapAllocatorType {
+
+   /**
+    * Every entry is allocated and freed individually with the system allocator. This has no memory reserved up front,
+    * but churn heavy workloads can fragment the native memory so the process footprint grows past the configured size.
+    */
+   UNPOOLED,
+
+   /**
+    * Entries are allocated from size-class slabs that are never handed back to the system allocator while the cache
+    * is running, freed chunks being recycled through free lists instead. This bounds fragmentation at the cost of
+    * rounding each allocation up to its size class.
+    */
+   POOLED
+}
@@ -22,8 +22,12 @@ public class PersistenceConfiguration implements Matchable<PersistenceConfigurat
    public static final AttributeDefinition<Integer> AVAILABILITY_INTERVAL = AttributeDefinition.builder("availabilityInterval", 1000).immutable().build();
    public static final AttributeDefinition<Integer> CONNECTION_ATTEMPTS = AttributeDefinition.builder("connectionAttempts", 10).immutable().build();
    public static final AttributeDefinition<Integer> CONNECTION_INTERVAL = AttributeDefinition.builder("connectionInterval", 50).immutable().build();
+   public static final AttributeDefinition<Boolean> PRELOAD_IN_BACKGROUND = AttributeDefinition.builder("preloadInBackground", false).immutable().build();
+   public static final AttributeDefinition<Integer> PRELOAD_CONCURRENCY = AttributeDefinition.builder("preloadConcurrency", 1).immutable().build();
+   public static final AttributeDefinition<Integer> PRELOAD_RATE = AttributeDefinition.builder("preloadRate", 0).immutable().build();
    static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(PersistenceConfiguration.class, PASSIVATION, AVAILABILITY_INTERVAL, CONNECTION_ATTEMPTS, CONNECTION_INTERVAL);
+      return new AttributeSet(PersistenceConfiguration.class, PASSIVATION, AVAILABILITY_INTERVAL, CONNECTION_ATTEMPTS, CONNECTION_INTERVAL,
+            PRELOAD_IN_BACKGROUND, PRELOAD_CONCURRENCY, PRELOAD_RATE);
    }
 
    static ElementDefinition ELEMENT_DEFINITION = new DefaultElementDefinition(PERSISTENCE.getLocalName());
@@ -32,6 +36,9 @@ static AttributeSet attributeDefinitionSet() {
    private final Attribute<Integer> availabilityInterval;
    private final Attribute<Integer> connectionAttempts;
    private final Attribute<Integer> connectionInterval;
+   private final Attribute<Boolean> preloadInBackground;
+   private final Attribute<Integer> preloadConcurrency;
+   private final Attribute<Integer> preloadRate;
    private final AttributeSet attributes;
    private final List<StoreConfiguration> stores;
    private final List<ConfigurationInfo> subElements = new ArrayList<>();
@@ -43,6 +50,9 @@ static AttributeSet attributeDefinitionSet() {
       this.availabilityInterval = attributes.attribute(AVAILABILITY_INTERVAL);
       this.connectionAttempts = attributes.attribute(CONNECTION_ATTEMPTS);
       this.connectionInterval = attributes.attribute(CONNECTION_INTERVAL);
+      this.preloadInBackground = attributes.attribute(PRELOAD_IN_BACKGROUND);
+      this.preloadConcurrency = attributes.attribute(PRELOAD_CONCURRENCY);
+      this.preloadRate = attributes.attribute(PRELOAD_RATE);
       this.stores = stores;
       this.subElements.addAll(stores);
    }
@@ -77,6 +87,28 @@ public int connectionInterval() {
       return connectionInterval.get();
    }
 
+   /**
+    * If true, the cache starts without waiting for the preload, which continues in the background. Until the preload
+    * completes, reads of keys that have not been preloaded yet are loaded from the store.
+    */
+   public boolean preloadInBackground() {
+      return preloadInBackground.get();
+   }
+
+   /**
+    * The number of segments of a segmented store that are preloaded in parallel.
+    */
+   public int preloadConcurrency() {
+      return preloadConcurrency.get();
+   }
+
+   /**
+    * The maximum number of entries preloaded per second, or 0 if the preload is not throttled.
+    */
+   public int preloadRate() {
+      return preloadRate.get();
+   }
+
    public List<StoreConfiguration> stores() {
       return stores;
    }
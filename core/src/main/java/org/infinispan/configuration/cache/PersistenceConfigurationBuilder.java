@@ -4,6 +4,9 @@
 import static org.infinispan.configuration.cache.PersistenceConfiguration.CONNECTION_ATTEMPTS;
 import static org.infinispan.configuration.cache.PersistenceConfiguration.CONNECTION_INTERVAL;
 import static org.infinispan.configuration.cache.PersistenceConfiguration.PASSIVATION;
+import static org.infinispan.configuration.cache.PersistenceConfiguration.PRELOAD_CONCURRENCY;
+import static org.infinispan.configuration.cache.PersistenceConfiguration.PRELOAD_IN_BACKGROUND;
+import static org.infinispan.configuration.cache.PersistenceConfiguration.PRELOAD_RATE;
 import static org.infinispan.configuration.parsing.Element.CLUSTER_LOADER;
 import static org.infinispan.configuration.parsing.Element.FILE_STORE;
 import static org.infinispan.configuration.parsing.Element.STORE;
@@ -138,6 +141,34 @@ public PersistenceConfigurationBuilder connectionInterval(int interval) {
       return this;
    }
 
+   /**
+    * @param preloadInBackground If true, the cache starts serving requests without waiting for the preload, which
+    *                            continues in the background. Until the preload completes, reads of keys that have not
+    *                            been preloaded yet are loaded from the store, and entries written or removed in the
+    *                            meantime are not overwritten by the preload. It cannot be used with passivation.
+    */
+   public PersistenceConfigurationBuilder preloadInBackground(boolean preloadInBackground) {
+      attributes.attribute(PRELOAD_IN_BACKGROUND).set(preloadInBackground);
+      return this;
+   }
+
+   /**
+    * @param concurrency The number of segments preloaded in parallel from a segmented store. Defaults to 1.
+    */
+   public PersistenceConfigurationBuilder preloadConcurrency(int concurrency) {
+      attributes.attribute(PRELOAD_CONCURRENCY).set(concurrency);
+      return this;
+   }
+
+   /**
+    * @param entriesPerSecond The maximum number of entries preloaded per second, to limit the load on the store and
+    *                         the node while the preload runs. 0, the default, doesn't throttle the preload.
+    */
+   public PersistenceConfigurationBuilder preloadRate(int entriesPerSecond) {
+      attributes.attribute(PRELOAD_RATE).set(entriesPerSecond);
+      return this;
+   }
+
    /**
     * If true, data is written to the cache store only when it is evicted from memory, which is known as 'passivation'.
     * When the data is requested again it is activated, which returns the data to memory and removes it from the
@@ -241,6 +272,16 @@ public void validate() {
       if (numPreload > 1) {
          throw CONFIG.onlyOnePreloadStoreAllowed();
       }
+      if (numPreload > 0 && attributes.attribute(PRELOAD_IN_BACKGROUND).get() && passivation()) {
+         // Passivating an entry written before its segment was read would let the preload insert the older value
+         throw CONFIG.preloadInBackgroundWithPassivation();
+      }
+      if (attributes.attribute(PRELOAD_CONCURRENCY).get() < 1) {
+         throw CONFIG.invalidPreloadConfiguration(PRELOAD_CONCURRENCY.name());
+      }
+      if (attributes.attribute(PRELOAD_RATE).get() < 0) {
+         throw CONFIG.invalidPreloadConfiguration(PRELOAD_RATE.name());
+      }
 
       // If a store is present, the reaper expiration thread must be enabled.
       if (!stores.isEmpty()) {
@@ -0,0 +1,23 @@
+package org.infinispan.configuration.cache;
+
+/**
+ * Specifies which owner a distributed cache reads an entry from, when the local node is not an owner.
+ *
+ * @since 12.1
+ */
+public enum ReadOwnerMode {
+   /**
+    * Reads from the primary owner first, and from the backup owners only if the primary owner does not respond in
+    * time.
+    */
+   PRIMARY,
+   /**
+    * Reads from the closest owner first, i.e. an owner on the same machine, then on the same rack, then in the same
+    * site, as configured in the transport. Same as {@link #PRIMARY} without topology information.
+    */
+   LOCAL_FIRST,
+   /**
+    * Reads from a random owner first, so that the reads of a key are spread across all its owners.
+    */
+   BALANCED,
+}
@@ -1,6 +1,7 @@
 package org.infinispan.configuration.cache;
 
 import static org.infinispan.configuration.cache.AbstractStoreConfiguration.SEGMENTED;
+import static org.infinispan.configuration.cache.SingleFileStoreConfiguration.COMPACT_INDEX;
 import static org.infinispan.configuration.cache.SingleFileStoreConfiguration.FRAGMENTATION_FACTOR;
 import static org.infinispan.configuration.cache.SingleFileStoreConfiguration.LOCATION;
 import static org.infinispan.configuration.cache.SingleFileStoreConfiguration.MAX_ENTRIES;
@@ -92,8 +93,23 @@ public SingleFileStoreConfigurationBuilder fragmentationFactor(float fragmentati
       return this;
    }
 
+   /**
+    * Instead of keeping every key in memory, the index of the store can keep only a hash of the serialized key and
+    * the position of its entry in the file, in primitive arrays. This reduces the memory used by the index and the
+    * garbage collection overhead of large stores, at the expense of reading the key from the file on every lookup and
+    * of reading and unmarshalling the keys when iterating over the store. The index is rebuilt from the file on
+    * startup without unmarshalling the keys. It cannot be used together with {@link #maxEntries(int)}.
+    */
+   public SingleFileStoreConfigurationBuilder compactIndex(boolean compactIndex) {
+      attributes.attribute(COMPACT_INDEX).set(compactIndex);
+      return this;
+   }
+
    @Override
    public void validate() {
+      if (attributes.attribute(COMPACT_INDEX).get() && attributes.attribute(MAX_ENTRIES).get() > 0) {
+         throw Log.CONFIG.fileStoreCompactIndexWithMaxEntries();
+      }
       Attribute<Boolean> segmentedAttribute = attributes.attribute(SEGMENTED);
       if ((!segmentedAttribute.isModified() || segmentedAttribute.get()) && !NOTIFIED_SEGMENTED) {
          NOTIFIED_SEGMENTED = true;
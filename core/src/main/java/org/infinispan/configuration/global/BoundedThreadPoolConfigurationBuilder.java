@@ -5,13 +5,16 @@
 import static org.infinispan.configuration.global.BoundedThreadPoolConfiguration.MAX_THREADS;
 import static org.infinispan.configuration.global.BoundedThreadPoolConfiguration.NON_BLOCKING;
 import static org.infinispan.configuration.global.BoundedThreadPoolConfiguration.QUEUE_LENGTH;
+import static org.infinispan.configuration.global.BoundedThreadPoolConfiguration.VIRTUAL_THREADS;
 import static org.infinispan.configuration.global.CachedThreadPoolConfiguration.NAME;
 import static org.infinispan.configuration.global.CachedThreadPoolConfiguration.THREAD_FACTORY;
+import static org.infinispan.util.logging.Log.CONFIG;
 
 import org.infinispan.commons.configuration.Builder;
 import org.infinispan.commons.configuration.attributes.AttributeSet;
 import org.infinispan.factories.threads.CoreExecutorFactory;
 import org.infinispan.factories.threads.DefaultThreadFactory;
+import org.infinispan.factories.threads.VirtualThreads;
 
 /*
  * @since 10.0
@@ -80,12 +83,33 @@ public Boolean isNonBlocking() {
       return attributes.attribute(NON_BLOCKING).get();
    }
 
+   /**
+    * Runs each task on a new virtual thread instead of reusing the pool threads. The number of tasks running at the same
+    * time is still limited to {@link #maxThreads(Integer)}, and at most {@link #queueLength(Integer)} tasks wait for a
+    * slot. Only valid for blocking thread pools, the core threads and keep alive time are ignored. If the JVM doesn't
+    * support virtual threads, a warning is logged and the pool is a regular bounded pool.
+    */
+   public BoundedThreadPoolConfigurationBuilder virtualThreads(boolean virtualThreads) {
+      attributes.attribute(VIRTUAL_THREADS).set(virtualThreads);
+      return this;
+   }
+
+   public boolean isVirtualThreads() {
+      return attributes.attribute(VIRTUAL_THREADS).get();
+   }
+
    public String name() {
       return attributes.attribute(NAME).get();
    }
 
    @Override
    public void validate() {
+      if (isVirtualThreads() && Boolean.TRUE.equals(isNonBlocking())) {
+         throw CONFIG.virtualThreadsNonBlockingThreadPool(name());
+      }
+      if (isVirtualThreads() && !VirtualThreads.isSupported()) {
+         CONFIG.virtualThreadsFallback(name());
+      }
    }
 
    @Override
@@ -114,8 +138,13 @@ public String toString() {
    public ThreadPoolConfiguration asThreadPoolConfigurationBuilder() {
       ThreadPoolConfigurationBuilder builder = new ThreadPoolConfigurationBuilder(getGlobalConfig());
       boolean isNonBlocking = isNonBlocking();
-      builder.threadPoolFactory(CoreExecutorFactory.executorFactory(maxThreads(), coreThreads(), queueLength(),
-            keepAliveTime(), isNonBlocking));
+      // Without virtual threads, a regular pool is better than starting a platform thread for each task
+      if (isVirtualThreads() && VirtualThreads.isSupported()) {
+         builder.threadPoolFactory(CoreExecutorFactory.virtualThreadExecutorFactory(maxThreads(), queueLength()));
+      } else {
+         builder.threadPoolFactory(CoreExecutorFactory.executorFactory(maxThreads(), coreThreads(), queueLength(),
+               keepAliveTime(), isNonBlocking));
+      }
       builder.name(name());
       if (threadFactory() != null) {
          DefaultThreadFactory threadFactory = getGlobalConfig().threads().getThreadFactory(threadFactory()).create().getThreadFactory(isNonBlocking);
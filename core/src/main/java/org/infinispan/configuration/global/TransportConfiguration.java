@@ -32,10 +32,15 @@ public class TransportConfiguration implements ConfigurationInfo {
    public static final AttributeDefinition<String> STACK = AttributeDefinition.builder("stack", null, String.class).build();
    public static final AttributeDefinition<String> TRANSPORT_EXECUTOR = AttributeDefinition.builder("executor", "transport-pool", String.class).build();
    public static final AttributeDefinition<String> REMOTE_EXECUTOR = AttributeDefinition.builder("remoteCommandExecutor", "remote-command-pool", String.class).build();
+   public static final AttributeDefinition<Long> COMMAND_BATCH_WINDOW = AttributeDefinition.builder("commandBatchWindow", 0L)
+         .immutable().build();
+   public static final AttributeDefinition<Integer> COMMAND_BATCH_SIZE = AttributeDefinition.builder("commandBatchSize", 65536)
+         .immutable().build();
 
    static AttributeSet attributeSet() {
       return new AttributeSet(TransportConfiguration.class, CLUSTER_NAME, MACHINE_ID, RACK_ID, SITE_ID, NODE_NAME,
-            DISTRIBUTED_SYNC_TIMEOUT, INITIAL_CLUSTER_SIZE, INITIAL_CLUSTER_TIMEOUT, STACK, TRANSPORT_EXECUTOR, REMOTE_EXECUTOR);
+            DISTRIBUTED_SYNC_TIMEOUT, INITIAL_CLUSTER_SIZE, INITIAL_CLUSTER_TIMEOUT, STACK, TRANSPORT_EXECUTOR, REMOTE_EXECUTOR,
+            COMMAND_BATCH_WINDOW, COMMAND_BATCH_SIZE);
    }
 
    static ElementDefinition ELEMENT_DEFINITION = new DefaultElementDefinition(Element.TRANSPORT.getLocalName());
@@ -49,6 +54,8 @@ static AttributeSet attributeSet() {
    private final Attribute<Long> distributedSyncTimeout;
    private final Attribute<Integer> initialClusterSize;
    private final Attribute<Long> initialClusterTimeout;
+   private final Attribute<Long> commandBatchWindow;
+   private final Attribute<Integer> commandBatchSize;
    private final AttributeSet attributes;
    private final JGroupsConfiguration jgroupsConfiguration;
    private final ThreadPoolConfiguration transportThreadPool;
@@ -74,6 +81,8 @@ static AttributeSet attributeSet() {
       initialClusterSize = attributes.attribute(INITIAL_CLUSTER_SIZE);
       initialClusterTimeout = attributes.attribute(INITIAL_CLUSTER_TIMEOUT);
       nodeName = attributes.attribute(NODE_NAME);
+      commandBatchWindow = attributes.attribute(COMMAND_BATCH_WINDOW);
+      commandBatchSize = attributes.attribute(COMMAND_BATCH_SIZE);
    }
 
    @Override
@@ -113,6 +122,21 @@ public long initialClusterTimeout() {
       return initialClusterTimeout.get();
    }
 
+   /**
+    * @return the time in microseconds the commands sent to a node are delayed, so that they can be sent together in a
+    * single message. {@code 0} means the commands are sent immediately, one message each.
+    */
+   public long commandBatchWindow() {
+      return commandBatchWindow.get();
+   }
+
+   /**
+    * @return the maximum size in bytes of the message batching the commands sent to a node
+    */
+   public int commandBatchSize() {
+      return commandBatchSize.get();
+   }
+
    public Transport transport() {
       return jgroupsConfiguration.transport();
    }
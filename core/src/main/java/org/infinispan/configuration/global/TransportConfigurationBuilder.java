@@ -117,6 +117,25 @@ public TransportConfigurationBuilder initialClusterTimeout(long initialClusterTi
       return this;
    }
 
+   /**
+    * Enables the batching of the commands sent to the same node: the commands are delayed for at most the given time,
+    * and the ones sent to the same node in the meantime are packed in a single message. Defaults to {@code 0}, which
+    * sends every command in its own message.
+    */
+   public TransportConfigurationBuilder commandBatchWindow(long commandBatchWindow, TimeUnit unit) {
+      attributes.attribute(COMMAND_BATCH_WINDOW).set(unit.toMicros(commandBatchWindow));
+      return this;
+   }
+
+   /**
+    * Sets the maximum size in bytes of a message batching several commands. A batch is sent as soon as it reaches
+    * this size, and larger commands are sent on their own. Defaults to 64KB.
+    */
+   public TransportConfigurationBuilder commandBatchSize(int commandBatchSize) {
+      attributes.attribute(COMMAND_BATCH_SIZE).set(commandBatchSize);
+      return this;
+   }
+
    /**
     * Class that represents a network transport. Must implement
     * org.infinispan.remoting.transport.Transport
@@ -193,6 +212,12 @@ void validate() {
       if(attributes.attribute(CLUSTER_NAME).get() == null){
           throw new CacheConfigurationException("Transport clusterName cannot be null");
       }
+      if (attributes.attribute(COMMAND_BATCH_WINDOW).get() < 0) {
+         throw new CacheConfigurationException("Transport commandBatchWindow cannot be negative");
+      }
+      if (attributes.attribute(COMMAND_BATCH_SIZE).get() <= 0) {
+         throw new CacheConfigurationException("Transport commandBatchSize must be positive");
+      }
    }
 
    public JGroupsConfigurationBuilder jgroups() {
@@ -18,6 +18,7 @@ public enum Attribute {
     ADDRESS_COUNT,
     AFTER,
     ALIASES,
+    ALLOCATOR,
     @Deprecated
     ALLOW_DUPLICATE_DOMAINS("duplicate-domains"),
     @Deprecated
@@ -40,7 +41,13 @@ public enum Attribute {
     CHUNK_SIZE,
     CLASS,
     CLUSTER,
+    COMMAND_BATCH_SIZE,
+    COMMAND_BATCH_WINDOW,
     COMMIT_INTERVAL,
+    COMPACT_INDEX,
+    COMPRESSION,
+    COMPRESSION_DICTIONARY_SIZE,
+    COMPRESSION_THRESHOLD,
     COMPLETED_TX_TIMEOUT("complete-timeout"),
     CONCURRENCY_LEVEL,
     CONFIGURATION,
@@ -67,8 +74,11 @@ public enum Attribute {
     FAIL_SILENTLY,
     FAILURE_POLICY_CLASS,
     FETCH_STATE,
+    FLUSH_CONCURRENCY,
+    FLUSH_INTERVAL,
     @Deprecated
     FLUSH_LOCK_TIMEOUT,
+    FLUSH_SIZE,
     FRAGMENTATION_FACTOR,
     GAUGES,
     GROUP_NAME,
@@ -95,12 +105,14 @@ public enum Attribute {
     LOCKING,
     LOW_LEVEL_TRACE,
     MACHINE_ID("machine"),
+    MAPPED_LOCATION,
     MAPPER,
     MARSHALLER_CLASS("marshaller"),
     MAX_BATCH_SIZE,
     MAX_COUNT,
     MAX_ENTRIES,
     MAX_IDLE,
+    MAX_READ_STALENESS,
     MAX_RETRIES,
     MIN_SIZE,
     MAX_BUFFERED_ENTRIES,
@@ -112,6 +124,7 @@ public enum Attribute {
     MEDIA_TYPE,
     MODE,
     NODE_NAME,
+    MODIFICATION_QUEUE_MEMORY,
     MODIFICATION_QUEUE_SIZE,
     MODULE,
     NAME,
@@ -129,6 +142,9 @@ public enum Attribute {
     POSITION,
     PREFIX,
     PRELOAD,
+    PRELOAD_CONCURRENCY,
+    PRELOAD_IN_BACKGROUND,
+    PRELOAD_RATE,
     PRIORITY,
     PURGE,
     QUEUE_COUNT,
@@ -139,6 +155,7 @@ public enum Attribute {
     RACK_ID("rack"),
     RAM_BUFFER_SIZE,
     READ_ONLY,
+    READ_OWNER_MODE,
     REAPER_WAKE_UP_INTERVAL("reaper-interval"),
     RECOVERY_INFO_CACHE_NAME("recovery-cache"),
     REFRESH_INTERVAL,
@@ -195,6 +212,7 @@ public enum Attribute {
     VALUE_EQUIVALENCE,
     VERSION,
     VERSIONING_SCHEME("scheme"),
+    VIRTUAL_THREADS,
     WAIT_TIME,
     WHEN_SPLIT,
     WHEN_FULL,
@@ -27,6 +27,7 @@
 import org.infinispan.configuration.cache.CacheMode;
 import org.infinispan.configuration.cache.ClusterLoaderConfigurationBuilder;
 import org.infinispan.configuration.cache.ClusteringConfigurationBuilder;
+import org.infinispan.configuration.cache.CompressionType;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.configuration.cache.ContentTypeConfigurationBuilder;
@@ -39,7 +40,9 @@
 import org.infinispan.configuration.cache.InterceptorConfiguration;
 import org.infinispan.configuration.cache.InterceptorConfigurationBuilder;
 import org.infinispan.configuration.cache.MemoryConfigurationBuilder;
+import org.infinispan.configuration.cache.OffHeapAllocatorType;
 import org.infinispan.configuration.cache.PartitionHandlingConfigurationBuilder;
+import org.infinispan.configuration.cache.ReadOwnerMode;
 import org.infinispan.configuration.cache.SecurityConfigurationBuilder;
 import org.infinispan.configuration.cache.SingleFileStoreConfigurationBuilder;
 import org.infinispan.configuration.cache.StorageType;
@@ -590,6 +593,21 @@ private void parseMemory(final XMLExtendedStreamReader reader, final Configurati
                case WHEN_FULL:
                   memoryBuilder.whenFull(EvictionStrategy.valueOf(value));
                   break;
+               case ALLOCATOR:
+                  memoryBuilder.allocator(OffHeapAllocatorType.valueOf(value));
+                  break;
+               case MAPPED_LOCATION:
+                  memoryBuilder.mappedLocation(value);
+                  break;
+               case COMPRESSION:
+                  memoryBuilder.compression(CompressionType.valueOf(value));
+                  break;
+               case COMPRESSION_THRESHOLD:
+                  memoryBuilder.compressionThreshold(Integer.parseInt(value));
+                  break;
+               case COMPRESSION_DICTIONARY_SIZE:
+                  memoryBuilder.compressionDictionarySize(Integer.parseInt(value));
+                  break;
                default:
                   throw ParseUtils.unexpectedAttribute(reader, i);
             }
@@ -1193,6 +1211,14 @@ protected void parseDistributedCache(XMLExtendedStreamReader reader, Configurati
                builder.clustering().hash().capacityFactor(Float.parseFloat(value));
                break;
             }
+            case READ_OWNER_MODE: {
+               builder.clustering().readOwnerMode(ReadOwnerMode.valueOf(value));
+               break;
+            }
+            case MAX_READ_STALENESS: {
+               builder.clustering().maxReadStaleness(Long.parseLong(value), TimeUnit.MILLISECONDS);
+               break;
+            }
             default: {
                this.parseSegmentedCacheAttribute(reader, i, attribute, value, builder, holder.getClassLoader(), baseCacheMode);
             }
@@ -1328,6 +1354,15 @@ private void parsePersistence(final XMLExtendedStreamReader reader, final Config
             case CONNECTION_INTERVAL:
                builder.persistence().connectionInterval(Integer.parseInt(value));
                break;
+            case PRELOAD_IN_BACKGROUND:
+               builder.persistence().preloadInBackground(Boolean.parseBoolean(value));
+               break;
+            case PRELOAD_CONCURRENCY:
+               builder.persistence().preloadConcurrency(Integer.parseInt(value));
+               break;
+            case PRELOAD_RATE:
+               builder.persistence().preloadRate(Integer.parseInt(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -1402,6 +1437,10 @@ protected void parseFileStore(XMLExtendedStreamReader reader, ConfigurationBuild
                storeBuilder.fragmentationFactor(Float.parseFloat(value));
                break;
             }
+            case COMPACT_INDEX: {
+               storeBuilder.compactIndex(Boolean.parseBoolean(value));
+               break;
+            }
             default: {
                parseStoreAttribute(reader, i, storeBuilder);
             }
@@ -1511,6 +1550,22 @@ public static void parseStoreWriteBehind(XMLExtendedStreamReader reader, AsyncSt
                storeBuilder.modificationQueueSize(Integer.parseInt(value));
                break;
             }
+            case MODIFICATION_QUEUE_MEMORY: {
+               storeBuilder.modificationQueueMemory(value);
+               break;
+            }
+            case FLUSH_INTERVAL: {
+               storeBuilder.flushInterval(Long.parseLong(value));
+               break;
+            }
+            case FLUSH_SIZE: {
+               storeBuilder.flushSize(Integer.parseInt(value));
+               break;
+            }
+            case FLUSH_CONCURRENCY: {
+               storeBuilder.flushConcurrency(Integer.parseInt(value));
+               break;
+            }
             case FAIL_SILENTLY:
                storeBuilder.failSilently(Boolean.parseBoolean(value));
                break;
@@ -274,6 +274,7 @@ private void parseBoundedQueueThreadPool(XMLExtendedStreamReader reader, Configu
       int coreThreads = 0;
       int queueLength = 0;
       long keepAlive = 0;
+      boolean virtualThreads = false;
 
       for (int i = 0; i < reader.getAttributeCount(); i++) {
          ParseUtils.requireNoNamespaceAttribute(reader, i);
@@ -305,6 +306,13 @@ private void parseBoundedQueueThreadPool(XMLExtendedStreamReader reader, Configu
                keepAlive = Long.parseLong(value);
                break;
             }
+            case VIRTUAL_THREADS: {
+               if (isNonBlocking) {
+                  throw ParseUtils.unexpectedAttribute(reader, i);
+               }
+               virtualThreads = Boolean.parseBoolean(value);
+               break;
+            }
             default: {
                throw ParseUtils.unexpectedAttribute(reader, i);
             }
@@ -312,7 +320,8 @@ private void parseBoundedQueueThreadPool(XMLExtendedStreamReader reader, Configu
       }
 
       threadsBuilder.addBoundedThreadPool(name).threadFactory(threadFactoryName).coreThreads(coreThreads)
-            .maxThreads(maxThreads).queueLength(queueLength).keepAliveTime(keepAlive).nonBlocking(isNonBlocking);
+            .maxThreads(maxThreads).queueLength(queueLength).keepAliveTime(keepAlive).nonBlocking(isNonBlocking)
+            .virtualThreads(virtualThreads);
       ParseUtils.requireNoContent(reader);
    }
 
@@ -1006,6 +1015,14 @@ private void parseTransport(XMLExtendedStreamReader reader, ConfigurationBuilder
                }
                break;
             }
+            case COMMAND_BATCH_WINDOW: {
+               transport.commandBatchWindow(Long.parseLong(value), TimeUnit.MICROSECONDS);
+               break;
+            }
+            case COMMAND_BATCH_SIZE: {
+               transport.commandBatchSize(Integer.parseInt(value));
+               break;
+            }
             default: {
                throw ParseUtils.unexpectedAttribute(reader, i);
             }
@@ -1226,6 +1243,22 @@ public static void parseStoreWriteBehind(XMLExtendedStreamReader reader, AsyncSt
                storeBuilder.modificationQueueSize(Integer.parseInt(value));
                break;
             }
+            case MODIFICATION_QUEUE_MEMORY: {
+               storeBuilder.modificationQueueMemory(value);
+               break;
+            }
+            case FLUSH_INTERVAL: {
+               storeBuilder.flushInterval(Long.parseLong(value));
+               break;
+            }
+            case FLUSH_SIZE: {
+               storeBuilder.flushSize(Integer.parseInt(value));
+               break;
+            }
+            case FLUSH_CONCURRENCY: {
+               storeBuilder.flushConcurrency(Integer.parseInt(value));
+               break;
+            }
             case FAIL_SILENTLY:
                storeBuilder.failSilently(Boolean.parseBoolean(value));
                break;
@@ -34,6 +34,10 @@ private void writeStoreWriteBehind(XMLExtendedStreamWriter writer, StoreConfigur
          writer.writeStartElement(Element.WRITE_BEHIND);
          writeBehind.write(writer, AsyncStoreConfiguration.MODIFICATION_QUEUE_SIZE, Attribute.MODIFICATION_QUEUE_SIZE);
          writeBehind.write(writer, AsyncStoreConfiguration.FAIL_SILENTLY, Attribute.FAIL_SILENTLY);
+         writeBehind.write(writer, AsyncStoreConfiguration.MODIFICATION_QUEUE_MEMORY, Attribute.MODIFICATION_QUEUE_MEMORY);
+         writeBehind.write(writer, AsyncStoreConfiguration.FLUSH_INTERVAL, Attribute.FLUSH_INTERVAL);
+         writeBehind.write(writer, AsyncStoreConfiguration.FLUSH_SIZE, Attribute.FLUSH_SIZE);
+         writeBehind.write(writer, AsyncStoreConfiguration.FLUSH_CONCURRENCY, Attribute.FLUSH_CONCURRENCY);
          writer.writeEndElement();
       }
    }
@@ -3,6 +3,8 @@
 import static org.infinispan.configuration.parsing.Attribute.BIAS_ACQUISITION;
 import static org.infinispan.configuration.parsing.Attribute.BIAS_LIFESPAN;
 import static org.infinispan.configuration.parsing.Attribute.INVALIDATION_BATCH_SIZE;
+import static org.infinispan.configuration.parsing.Attribute.MAX_READ_STALENESS;
+import static org.infinispan.configuration.parsing.Attribute.READ_OWNER_MODE;
 import static org.infinispan.configuration.serializing.SerializeUtils.writeOptional;
 import static org.infinispan.configuration.serializing.SerializeUtils.writeTypedProperties;
 import static org.infinispan.util.logging.Log.CONFIG;
@@ -74,6 +76,7 @@
 import org.infinispan.factories.threads.DefaultThreadFactory;
 import org.infinispan.factories.threads.EnhancedQueueExecutorFactory;
 import org.infinispan.factories.threads.NonBlockingThreadPoolExecutorFactory;
+import org.infinispan.factories.threads.VirtualThreadExecutorFactory;
 import org.infinispan.protostream.SerializationContextInitializer;
 import org.infinispan.remoting.transport.jgroups.EmbeddedJGroupsChannelConfigurator;
 import org.infinispan.remoting.transport.jgroups.FileJGroupsChannelConfigurator;
@@ -100,6 +103,7 @@ public class Serializer extends AbstractStoreSerializer implements Configuration
       THREAD_POOL_FACTORIES.put(CachedThreadPoolExecutorFactory.class.getName(), Element.CACHED_THREAD_POOL);
       THREAD_POOL_FACTORIES.put(NonBlockingThreadPoolExecutorFactory.class.getName(), Element.BLOCKING_BOUNDED_QUEUE_THREAD_POOL);
       THREAD_POOL_FACTORIES.put(EnhancedQueueExecutorFactory.class.getName(), Element.BLOCKING_BOUNDED_QUEUE_THREAD_POOL);
+      THREAD_POOL_FACTORIES.put(VirtualThreadExecutorFactory.class.getName(), Element.BLOCKING_BOUNDED_QUEUE_THREAD_POOL);
       THREAD_POOL_FACTORIES.put(ScheduledThreadPoolExecutorFactory.class.getName(), Element.SCHEDULED_THREAD_POOL);
    }
 
@@ -200,6 +204,11 @@ private void writeThreadPool(XMLExtendedStreamWriter writer, String name, Thread
             writer.writeAttribute(Attribute.CORE_THREADS, Integer.toString(pool.coreThreads()));
             writer.writeAttribute(Attribute.QUEUE_LENGTH, Integer.toString(pool.queueLength()));
             writer.writeAttribute(Attribute.KEEP_ALIVE_TIME, Long.toString(pool.keepAlive()));
+         } else if (threadPoolFactory instanceof VirtualThreadExecutorFactory) {
+            VirtualThreadExecutorFactory pool = (VirtualThreadExecutorFactory) threadPoolFactory;
+            writer.writeAttribute(Attribute.MAX_THREADS, Integer.toString(pool.maxThreads()));
+            writer.writeAttribute(Attribute.QUEUE_LENGTH, Integer.toString(pool.queueLength()));
+            writer.writeAttribute(Attribute.VIRTUAL_THREADS, "true");
          }
          writer.writeEndElement();
       }
@@ -368,6 +377,13 @@ private void writeDistributedCache(XMLExtendedStreamWriter writer, String name,
       writer.writeStartElement(Element.DISTRIBUTED_CACHE);
       configuration.clustering().hash().attributes().write(writer);
       configuration.clustering().l1().attributes().write(writer);
+      ClusteringConfiguration clustering = configuration.clustering();
+      if (clustering.attributes().attribute(ClusteringConfiguration.READ_OWNER_MODE).isModified()) {
+         writer.writeAttribute(READ_OWNER_MODE, clustering.readOwnerMode().toString());
+      }
+      if (clustering.attributes().attribute(ClusteringConfiguration.MAX_READ_STALENESS).isModified()) {
+         writer.writeAttribute(MAX_READ_STALENESS, Long.toString(clustering.maxReadStaleness()));
+      }
       writeCommonClusteredCacheAttributes(writer, configuration);
       writeCommonCacheAttributesElements(writer, name, configuration);
       GroupsConfiguration groups = configuration.clustering().hash().groups();
@@ -436,6 +452,8 @@ private void writeTransport(XMLExtendedStreamWriter writer, GlobalConfiguration
          attributes.write(writer, TransportConfiguration.DISTRIBUTED_SYNC_TIMEOUT, Attribute.LOCK_TIMEOUT);
          attributes.write(writer, TransportConfiguration.INITIAL_CLUSTER_SIZE, Attribute.INITIAL_CLUSTER_SIZE);
          attributes.write(writer, TransportConfiguration.INITIAL_CLUSTER_TIMEOUT, Attribute.INITIAL_CLUSTER_TIMEOUT);
+         attributes.write(writer, TransportConfiguration.COMMAND_BATCH_WINDOW, Attribute.COMMAND_BATCH_WINDOW);
+         attributes.write(writer, TransportConfiguration.COMMAND_BATCH_SIZE, Attribute.COMMAND_BATCH_SIZE);
          writer.writeEndElement();
       }
    }
@@ -642,6 +660,11 @@ private void writeMemory(XMLExtendedStreamWriter writer, Configuration configura
             attributes.write(writer, MemoryConfiguration.MAX_SIZE, Attribute.MAX_SIZE);
          }
          attributes.write(writer, MemoryConfiguration.WHEN_FULL, Attribute.WHEN_FULL);
+         attributes.write(writer, MemoryConfiguration.ALLOCATOR, Attribute.ALLOCATOR);
+         attributes.write(writer, MemoryConfiguration.MAPPED_LOCATION, Attribute.MAPPED_LOCATION);
+         attributes.write(writer, MemoryConfiguration.COMPRESSION, Attribute.COMPRESSION);
+         attributes.write(writer, MemoryConfiguration.COMPRESSION_THRESHOLD, Attribute.COMPRESSION_THRESHOLD);
+         attributes.write(writer, MemoryConfiguration.COMPRESSION_DICTIONARY_SIZE, Attribute.COMPRESSION_DICTIONARY_SIZE);
          writer.writeEndElement();
       }
    }
@@ -721,6 +744,9 @@ private void writePersistence(XMLExtendedStreamWriter writer, Configuration conf
          attributes.write(writer, PersistenceConfiguration.AVAILABILITY_INTERVAL, Attribute.AVAILABILITY_INTERVAL);
          attributes.write(writer, PersistenceConfiguration.CONNECTION_ATTEMPTS, Attribute.CONNECTION_ATTEMPTS);
          attributes.write(writer, PersistenceConfiguration.CONNECTION_INTERVAL, Attribute.CONNECTION_INTERVAL);
+         attributes.write(writer, PersistenceConfiguration.PRELOAD_IN_BACKGROUND, Attribute.PRELOAD_IN_BACKGROUND);
+         attributes.write(writer, PersistenceConfiguration.PRELOAD_CONCURRENCY, Attribute.PRELOAD_CONCURRENCY);
+         attributes.write(writer, PersistenceConfiguration.PRELOAD_RATE, Attribute.PRELOAD_RATE);
          for (StoreConfiguration store : persistence.stores()) {
             writeStore(writer, store);
          }
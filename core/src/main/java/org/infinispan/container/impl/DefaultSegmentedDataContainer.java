@@ -265,9 +265,33 @@ public void forEachSegment(ObjIntConsumer<PeekableTouchableMap<K, V>> segmentMap
       }
    }
 
+   /**
+    * Creates the map holding the entries of the given segment, by default using the map supplier.
+    * @param segment the segment the map is for
+    * @return the new map
+    */
+   protected PeekableTouchableMap<K, V> newMap(int segment) {
+      return mapSupplier.get();
+   }
+
+   /**
+    * Releases the map of the given segment once it was removed from this container.
+    * @param segment the segment the map was for
+    * @param map the removed map
+    */
+   protected void closeMap(int segment, PeekableTouchableMap<K, V> map) {
+      if (map instanceof AutoCloseable) {
+         try {
+            ((AutoCloseable) map).close();
+         } catch (Exception e) {
+            throw new CacheException(e);
+         }
+      }
+   }
+
    private void startNewMap(int segment) {
       if (maps.get(segment) == null) {
-         PeekableTouchableMap<K, V> newMap = mapSupplier.get();
+         PeekableTouchableMap<K, V> newMap = newMap(segment);
          // Just in case of concurrent starts - this shouldn't be possible
          if (!maps.compareAndSet(segment, null, newMap) && newMap instanceof AutoCloseable) {
             try {
@@ -280,18 +304,12 @@ private void startNewMap(int segment) {
    }
 
    private void stopMap(int segment, boolean notifyListener) {
-      ConcurrentMap<K, InternalCacheEntry<K, V>> map = maps.getAndSet(segment, null);
+      PeekableTouchableMap<K, V> map = maps.getAndSet(segment, null);
       if (map != null) {
          if (notifyListener && !map.isEmpty()) {
             listeners.forEach(c -> c.accept(map.values()));
          }
-         if (map instanceof AutoCloseable) {
-            try {
-               ((AutoCloseable) map).close();
-            } catch (Exception e) {
-               throw new CacheException(e);
-            }
-         }
+         closeMap(segment, map);
       }
    }
 }
@@ -0,0 +1,152 @@
+package org.infinispan.container.offheap;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongConsumer;
+
+import net.jcip.annotations.GuardedBy;
+
+/**
+ * Delays releasing memory until no reader that may still hold its address is running, so that optimistic readers
+ * never touch memory that was returned to the operating system.
+ * <p>
+ * Readers announce themselves with {@link #enter()} and {@link #exit(long)}, which only update a counter of the
+ * current epoch on a stripe owned by the reading thread. Retired addresses are collected for the current epoch, and
+ * releasing them advances the epoch and waits for the counters of the epochs that were current while they were
+ * reachable to drop to zero. Nothing ever blocks: addresses whose readers are still running are simply kept until the
+ * next call to {@link #reclaim()}.
+ * @since 12.1
+ */
+class DeferredReclamation {
+   // Keep each counter on its own cache line
+   private static final int PADDING = 8;
+
+   private final LongConsumer release;
+   private final int stripeMask;
+   // Counters of the readers of the even and odd epochs, for each stripe
+   private final AtomicLongArray readers;
+   private volatile long epoch;
+   // Whether there are retired addresses that are not released yet, read without the lock
+   private volatile boolean pending;
+
+   @GuardedBy("this")
+   private long[] retired = new long[16];
+   @GuardedBy("this")
+   private int retiredCount;
+   // Addresses retired before the current epoch, released once the readers of the previous epoch are gone
+   @GuardedBy("this")
+   private long[] draining = new long[16];
+   @GuardedBy("this")
+   private int drainingCount;
+
+   DeferredReclamation(int stripes, LongConsumer release) {
+      this.release = release;
+      this.stripeMask = stripes - 1;
+      this.readers = new AtomicLongArray(2 * stripes * PADDING);
+   }
+
+   private int counter(long epoch) {
+      int stripe = (int) Thread.currentThread().getId() & stripeMask;
+      return ((int) (epoch & 1) * (stripeMask + 1) + stripe) * PADDING;
+   }
+
+   /**
+    * Registers a reader, no address retired after this method returns is released before {@link #exit(long)} is
+    * invoked with the returned value.
+    * @return the epoch the reader was registered in
+    */
+   long enter() {
+      while (true) {
+         long current = epoch;
+         int counter = counter(current);
+         readers.incrementAndGet(counter);
+         // The epoch may have advanced (and its counter checked) before the increment was visible
+         if (epoch == current) {
+            return current;
+         }
+         readers.decrementAndGet(counter);
+      }
+   }
+
+   void exit(long epoch) {
+      readers.decrementAndGet(counter(epoch));
+   }
+
+   private boolean hasReaders(long epoch) {
+      int start = (int) (epoch & 1) * (stripeMask + 1) * PADDING;
+      for (int i = 0; i <= stripeMask; ++i) {
+         if (readers.get(start + i * PADDING) != 0) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Releases the address once no reader that was registered before this invocation is running anymore.
+    * @param address the address that is no longer reachable by new readers
+    */
+   synchronized void retire(long address) {
+      if (retiredCount == retired.length) {
+         retired = Arrays.copyOf(retired, retiredCount << 1);
+      }
+      retired[retiredCount++] = address;
+      pending = true;
+      reclaim();
+   }
+
+   /**
+    * @return whether there are retired addresses that are not released yet
+    */
+   boolean isPending() {
+      return pending;
+   }
+
+   /**
+    * Releases the retired addresses that no reader can access anymore.
+    */
+   synchronized void reclaim() {
+      long current = epoch;
+      // The readers of the previous epoch must be gone before either releasing the addresses retired until then
+      // or advancing the epoch again, as the next epoch shares their counters
+      if (hasReaders(current - 1)) {
+         return;
+      }
+      releaseDraining();
+      if (retiredCount > 0) {
+         long[] swap = draining;
+         draining = retired;
+         drainingCount = retiredCount;
+         retired = swap;
+         retiredCount = 0;
+         epoch = current + 1;
+         // Readers still registered in the old epoch could have read the addresses before they were retired
+         if (!hasReaders(current)) {
+            releaseDraining();
+         }
+      }
+      pending = drainingCount > 0;
+   }
+
+   @GuardedBy("this")
+   private void releaseDraining() {
+      for (int i = 0; i < drainingCount; ++i) {
+         release.accept(draining[i]);
+         draining[i] = 0;
+      }
+      drainingCount = 0;
+   }
+
+   /**
+    * Releases all retired addresses regardless of any registered reader, only used once there can't be any.
+    */
+   synchronized void releaseAll() {
+      releaseDraining();
+      for (int i = 0; i < retiredCount; ++i) {
+         release.accept(retired[i]);
+         retired[i] = 0;
+      }
+      retiredCount = 0;
+      pending = false;
+   }
+}
@@ -0,0 +1,156 @@
+package org.infinispan.container.offheap;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.infinispan.commons.CacheException;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.commons.marshall.WrappedBytes;
+import org.infinispan.configuration.global.GlobalConfiguration;
+import org.infinispan.container.impl.DefaultSegmentedDataContainer;
+import org.infinispan.container.impl.PeekableTouchableMap;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.factories.annotations.ComponentName;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.persistence.PersistenceUtil;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * Segmented off-heap data container whose entries are stored in memory-mapped files, one per segment, instead of
+ * memory obtained from the system allocator. The entries use the same layout as the other off-heap containers, only
+ * the bucket tables of the maps reside in regular off-heap memory.
+ * <p>
+ * When the cache is stopped the segment files are flushed and marked as closed cleanly. The next time the cache
+ * starts the files are mapped again and their entries are added back to the maps without being read from a store.
+ * Files that were not closed cleanly are discarded. Removing a segment drops its file without visiting the entries.
+ * <p>
+ * This implementation doesn't support bounding or temporary entries (L1).
+ * @since 12.1
+ */
+public class MappedOffHeapDataContainer extends DefaultSegmentedDataContainer<WrappedBytes, WrappedBytes> {
+   private static final Log log = LogFactory.getLog(MappedOffHeapDataContainer.class, Log.class);
+
+   @Inject protected OffHeapMemoryAllocator allocator;
+   @Inject protected OffHeapResizeStatistics resizeStatistics;
+   @Inject @ComponentName(KnownComponentNames.INTERNAL_MARSHALLER)
+   protected StreamingMarshaller marshaller;
+   @Inject protected GlobalConfiguration globalConfiguration;
+   @Inject @ComponentName(KnownComponentNames.CACHE_NAME)
+   protected String cacheName;
+
+   private final AtomicReferenceArray<MappedSegmentFile> files;
+   private Path location;
+
+   public MappedOffHeapDataContainer(int numSegments) {
+      super(() -> {
+         throw new IllegalStateException("Maps are created for a specific segment");
+      }, numSegments);
+      files = new AtomicReferenceArray<>(numSegments);
+   }
+
+   @Override
+   public void start() {
+      location = PersistenceUtil.getQualifiedLocation(globalConfiguration, configuration.memory().mappedLocation(),
+            cacheName, "memory");
+      super.start();
+   }
+
+   @Override
+   public void stop() {
+      // Entries are kept in the files so they are available after a restart
+      for (int i = 0; i < maps.length(); ++i) {
+         PeekableTouchableMap<WrappedBytes, WrappedBytes> map = maps.getAndSet(i, null);
+         if (map != null) {
+            ((OffHeapConcurrentMap) map).release();
+            try {
+               files.getAndSet(i, null).close();
+            } catch (IOException e) {
+               throw new CacheException(e);
+            }
+         }
+      }
+   }
+
+   @Override
+   protected PeekableTouchableMap<WrappedBytes, WrappedBytes> newMap(int segment) {
+      MappedSegmentFile file = new MappedSegmentFile(location.resolve(segment + ".dat"));
+      OffHeapEntryFactoryImpl segmentEntryFactory = new OffHeapEntryFactoryImpl();
+      segmentEntryFactory.marshaller = marshaller;
+      segmentEntryFactory.allocator = file;
+      segmentEntryFactory.timeService = timeService;
+      segmentEntryFactory.internalEntryFactory = entryFactory;
+      segmentEntryFactory.configuration = configuration;
+      // No compressor, the dictionary the values could be compressed with would not survive a restart
+      segmentEntryFactory.start();
+
+      OffHeapConcurrentMap map = new OffHeapConcurrentMap(new SegmentAllocator(file, allocator), segmentEntryFactory,
+            null, resizeStatistics);
+      try {
+         int restored = file.open(map::restore);
+         if (log.isTraceEnabled()) {
+            log.tracef("Mapped segment %d of cache %s from %s with %d entries", segment, cacheName, file.getFile(),
+                  restored);
+         }
+      } catch (IOException e) {
+         map.release();
+         throw new CacheException(e);
+      }
+      files.set(segment, file);
+      return map;
+   }
+
+   @Override
+   protected void closeMap(int segment, PeekableTouchableMap<WrappedBytes, WrappedBytes> map) {
+      // The entries are freed all at once with the file
+      ((OffHeapConcurrentMap) map).release();
+      MappedSegmentFile file = files.getAndSet(segment, null);
+      if (file != null) {
+         try {
+            file.delete();
+         } catch (IOException e) {
+            throw new CacheException(e);
+         }
+      }
+   }
+
+   /**
+    * Allocator of a segment map: the bucket tables come from the allocator of the cache while the entries, which are
+    * allocated by the entry factory of the segment, are returned to the segment file. It doesn't
+    * {@link #retainsFreedMemory() retain freed memory}, as the file is unmapped when the segment is removed.
+    */
+   private static class SegmentAllocator implements OffHeapMemoryAllocator {
+      private final MappedSegmentFile file;
+      private final OffHeapMemoryAllocator tableAllocator;
+
+      SegmentAllocator(MappedSegmentFile file, OffHeapMemoryAllocator tableAllocator) {
+         this.file = file;
+         this.tableAllocator = tableAllocator;
+      }
+
+      @Override
+      public long allocate(long memoryLength) {
+         return tableAllocator.allocate(memoryLength);
+      }
+
+      @Override
+      public void deallocate(long memoryAddress, long size) {
+         if (file.contains(memoryAddress)) {
+            file.deallocate(memoryAddress, size);
+         } else {
+            tableAllocator.deallocate(memoryAddress, size);
+         }
+      }
+
+      @Override
+      public long getAllocatedAmount() {
+         return file.getAllocatedAmount();
+      }
+
+      @Override
+      public long estimateAllocationSize(long size) {
+         return tableAllocator.estimateAllocationSize(size);
+      }
+   }
+}
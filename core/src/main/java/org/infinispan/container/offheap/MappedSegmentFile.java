@@ -0,0 +1,360 @@
+package org.infinispan.container.offheap;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+import org.infinispan.commons.CacheException;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import net.jcip.annotations.GuardedBy;
+import sun.misc.Unsafe;
+
+/**
+ * Allocator that carves the entries of a single segment out of a memory-mapped file, so that they outlive the
+ * process. The file is made of a small header followed by extents that are mapped as the segment grows. Every
+ * allocation is preceded by an 8 byte chunk header holding the length of the chunk and whether it is live, which
+ * allows the live entries to be found again by walking the extents when the file is reopened.
+ * <p>
+ * Freed chunks are kept on free lists by exact length and reused by the next allocation of the same length. They
+ * are not unmapped while the file is open, but the whole file is as soon as the segment is closed or deleted, which
+ * optimistic readers that started before can't detect. So this allocator doesn't
+ * {@link #retainsFreedMemory() retain freed memory} and its entries are always read with the read lock.
+ * <p>
+ * The contents of the file are only trusted when it was closed cleanly with {@link #close()}, as the state of the
+ * mapped pages after a crash is undefined. A file that wasn't closed cleanly is discarded when it is opened.
+ * @since 12.1
+ */
+class MappedSegmentFile implements OffHeapMemoryAllocator {
+   private static final Log log = LogFactory.getLog(MappedSegmentFile.class, Log.class);
+   private static final OffHeapMemory MEMORY = OffHeapMemory.INSTANCE;
+   private static final Unsafe UNSAFE = UnsafeHolder.UNSAFE;
+   private static final long BUFFER_ADDRESS_OFFSET = bufferAddressOffset();
+
+   private static final int MAGIC = 0x4953_4d53;
+   private static final int VERSION = 1;
+   private static final long STATE_OPEN = 0;
+   private static final long STATE_CLOSED = 1;
+   // magic (int), version (int), state (long)
+   static final int FILE_HEADER_SIZE = 4 + 4 + 8;
+   // Every extent starts with its length, so they can be mapped again without any other index
+   static final int EXTENT_HEADER_SIZE = 8;
+   static final int CHUNK_HEADER_SIZE = 8;
+   static final long EXTENT_SIZE = 64L << 20;
+   private static final long LIVE = 1L << 63;
+
+   private final Path file;
+   private final long extentSize;
+
+   private FileChannel channel;
+   // Keeps the mapped buffers reachable, the memory is unmapped when they are garbage collected
+   @GuardedBy("this")
+   private final List<MappedByteBuffer> buffers = new ArrayList<>();
+   // Start and end addresses of the extents, read without locking by contains
+   private volatile long[] extentBounds = new long[0];
+   @GuardedBy("this")
+   private long fileLength;
+   @GuardedBy("this")
+   private long nextChunk;
+   @GuardedBy("this")
+   private long extentEnd;
+   @GuardedBy("this")
+   private final Map<Long, FreeList> freeLists = new HashMap<>();
+   private volatile long allocated;
+
+   MappedSegmentFile(Path file) {
+      this(file, EXTENT_SIZE);
+   }
+
+   MappedSegmentFile(Path file, long extentSize) {
+      this.file = file;
+      this.extentSize = extentSize;
+   }
+
+   private static long bufferAddressOffset() {
+      try {
+         return UNSAFE.objectFieldOffset(Buffer.class.getDeclaredField("address"));
+      } catch (NoSuchFieldException e) {
+         throw new CacheException(e);
+      }
+   }
+
+   Path getFile() {
+      return file;
+   }
+
+   /**
+    * Opens the file, creating it if needed. If the file was closed cleanly the address of every live entry it holds
+    * is passed to the given consumer, otherwise its contents are discarded.
+    * @param liveEntryConsumer consumer of the addresses of the entries found in the file
+    * @return how many entries were found in the file
+    */
+   synchronized int open(LongConsumer liveEntryConsumer) throws IOException {
+      Files.createDirectories(file.getParent());
+      channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      int entries = 0;
+      long size = channel.size();
+      if (size > 0 && readClosedHeader()) {
+         entries = mapExtents(size, liveEntryConsumer);
+      } else {
+         if (size > 0) {
+            log.discardingMappedSegmentFile(file);
+            channel.truncate(0);
+         }
+         fileLength = FILE_HEADER_SIZE;
+      }
+      // The file is no longer consistent once entries are modified, until it is closed again
+      writeHeader(STATE_OPEN);
+      channel.force(true);
+      return entries;
+   }
+
+   private boolean readClosedHeader() throws IOException {
+      ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+      if (readFully(header, 0) < FILE_HEADER_SIZE) {
+         return false;
+      }
+      header.flip();
+      return header.getInt() == MAGIC && header.getInt() == VERSION && header.getLong() == STATE_CLOSED;
+   }
+
+   private void writeHeader(long state) throws IOException {
+      ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+      header.putInt(MAGIC).putInt(VERSION).putLong(state).flip();
+      while (header.hasRemaining()) {
+         channel.write(header, header.position());
+      }
+   }
+
+   private int readFully(ByteBuffer buffer, long position) throws IOException {
+      int read = 0;
+      while (buffer.hasRemaining()) {
+         int count = channel.read(buffer, position + read);
+         if (count < 0) {
+            break;
+         }
+         read += count;
+      }
+      return read;
+   }
+
+   @GuardedBy("this")
+   private int mapExtents(long size, LongConsumer liveEntryConsumer) throws IOException {
+      int entries = 0;
+      ByteBuffer extentHeader = ByteBuffer.allocate(EXTENT_HEADER_SIZE);
+      fileLength = FILE_HEADER_SIZE;
+      while (fileLength + EXTENT_HEADER_SIZE <= size) {
+         extentHeader.clear();
+         readFully(extentHeader, fileLength);
+         extentHeader.flip();
+         long length = extentHeader.getLong();
+         if (length <= EXTENT_HEADER_SIZE || fileLength + length > size) {
+            break;
+         }
+         long extent = mapExtent(length);
+         long chunk = extent + EXTENT_HEADER_SIZE;
+         long end = extent + length;
+         while (chunk + CHUNK_HEADER_SIZE <= end) {
+            long header = UNSAFE.getLong(chunk);
+            if (header == 0) {
+               // Never allocated past this point
+               break;
+            }
+            long chunkLength = header & ~LIVE;
+            if ((header & LIVE) != 0) {
+               MEMORY.trackBlock(chunk + CHUNK_HEADER_SIZE, chunkLength - CHUNK_HEADER_SIZE);
+               allocated += chunkLength;
+               liveEntryConsumer.accept(chunk + CHUNK_HEADER_SIZE);
+               entries++;
+            } else {
+               freeList(chunkLength).push(chunk);
+            }
+            chunk += chunkLength;
+         }
+         // Only the tail of the last extent is used for new chunks
+         nextChunk = chunk;
+         extentEnd = end;
+      }
+      return entries;
+   }
+
+   @GuardedBy("this")
+   private long mapExtent(long length) throws IOException {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, fileLength, length);
+      long address = UNSAFE.getLong(buffer, BUFFER_ADDRESS_OFFSET);
+      buffers.add(buffer);
+      long[] bounds = Arrays.copyOf(extentBounds, extentBounds.length + 2);
+      bounds[bounds.length - 2] = address;
+      bounds[bounds.length - 1] = address + length;
+      extentBounds = bounds;
+      fileLength += length;
+      if (log.isTraceEnabled()) {
+         log.tracef("Mapped extent of %d bytes of %s at 0x%016x", length, file, address);
+      }
+      return address;
+   }
+
+   @GuardedBy("this")
+   private FreeList freeList(long chunkLength) {
+      return freeLists.computeIfAbsent(chunkLength, l -> new FreeList());
+   }
+
+   private static long chunkLength(long size) {
+      return (size + CHUNK_HEADER_SIZE + 7) & ~7L;
+   }
+
+   @Override
+   public synchronized long allocate(long memoryLength) {
+      long chunkLength = chunkLength(memoryLength);
+      FreeList freeList = freeLists.get(chunkLength);
+      long chunk = freeList != null ? freeList.pop() : 0;
+      if (chunk == 0) {
+         chunk = carve(chunkLength);
+      }
+      UNSAFE.putLong(chunk, chunkLength | LIVE);
+      allocated += chunkLength;
+      long address = chunk + CHUNK_HEADER_SIZE;
+      MEMORY.trackBlock(address, memoryLength);
+      return address;
+   }
+
+   @GuardedBy("this")
+   private long carve(long chunkLength) {
+      if (nextChunk + chunkLength > extentEnd) {
+         // The rest of the current extent is left unused, its first chunk header is still 0
+         long length = Math.max(extentSize, chunkLength + EXTENT_HEADER_SIZE);
+         long extent;
+         try {
+            extent = mapExtent(length);
+         } catch (IOException e) {
+            throw new CacheException(e);
+         }
+         UNSAFE.putLong(extent, length);
+         nextChunk = extent + EXTENT_HEADER_SIZE;
+         extentEnd = extent + length;
+      }
+      long chunk = nextChunk;
+      nextChunk += chunkLength;
+      return chunk;
+   }
+
+   @Override
+   public synchronized void deallocate(long memoryAddress, long size) {
+      MEMORY.untrackBlock(memoryAddress);
+      long chunk = memoryAddress - CHUNK_HEADER_SIZE;
+      long chunkLength = UNSAFE.getLong(chunk) & ~LIVE;
+      UNSAFE.putLong(chunk, chunkLength);
+      allocated -= chunkLength;
+      freeList(chunkLength).push(chunk);
+   }
+
+   /**
+    * @return whether the given address was handed out by this allocator
+    */
+   boolean contains(long memoryAddress) {
+      long[] bounds = extentBounds;
+      for (int i = 0; i < bounds.length; i += 2) {
+         if (memoryAddress >= bounds[i] && memoryAddress < bounds[i + 1]) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   @Override
+   public long getAllocatedAmount() {
+      return allocated;
+   }
+
+   @Override
+   public long estimateAllocationSize(long size) {
+      return chunkLength(size);
+   }
+
+   /**
+    * Flushes the mapped extents and marks the file as closed cleanly, so that its entries are found again the next
+    * time it is opened. No entry may be accessed after this method is invoked.
+    */
+   synchronized void close() throws IOException {
+      if (channel == null) {
+         return;
+      }
+      for (MappedByteBuffer buffer : buffers) {
+         buffer.force();
+      }
+      writeHeader(STATE_CLOSED);
+      channel.force(true);
+      release();
+   }
+
+   /**
+    * Closes and deletes the file, dropping all of its entries at once. No entry may be accessed after this method is
+    * invoked.
+    */
+   synchronized void delete() throws IOException {
+      if (channel != null) {
+         release();
+      }
+      Files.deleteIfExists(file);
+   }
+
+   @GuardedBy("this")
+   private void release() throws IOException {
+      if (log.isTraceEnabled()) {
+         untrackLiveChunks();
+      }
+      channel.close();
+      channel = null;
+      // There is no supported way to unmap the buffers, they are unmapped once collected
+      buffers.clear();
+      freeLists.clear();
+      extentBounds = new long[0];
+      allocated = 0;
+   }
+
+   @GuardedBy("this")
+   private void untrackLiveChunks() {
+      long[] bounds = extentBounds;
+      for (int i = 0; i < bounds.length; i += 2) {
+         long chunk = bounds[i] + EXTENT_HEADER_SIZE;
+         while (chunk + CHUNK_HEADER_SIZE <= bounds[i + 1]) {
+            long header = UNSAFE.getLong(chunk);
+            if (header == 0) {
+               break;
+            }
+            if ((header & LIVE) != 0) {
+               MEMORY.untrackBlock(chunk + CHUNK_HEADER_SIZE);
+            }
+            chunk += header & ~LIVE;
+         }
+      }
+   }
+
+   private static class FreeList {
+      private long[] chunks = new long[16];
+      private int size;
+
+      void push(long chunk) {
+         if (size == chunks.length) {
+            chunks = Arrays.copyOf(chunks, size << 1);
+         }
+         chunks[size++] = chunk;
+      }
+
+      long pop() {
+         return size == 0 ? 0 : chunks[--size];
+      }
+   }
+}
@@ -10,19 +10,17 @@
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
-import java.util.PrimitiveIterator;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.StampedLock;
 import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
 import java.util.function.LongConsumer;
-import java.util.stream.LongStream;
 
 import org.infinispan.commons.marshall.WrappedBytes;
-import org.infinispan.commons.util.IntSet;
-import org.infinispan.commons.util.IntSets;
 import org.infinispan.commons.util.IteratorMapper;
 import org.infinispan.commons.util.ProcessorInfo;
 import org.infinispan.commons.util.Util;
@@ -55,8 +53,13 @@
  * <p>
  * A map must be started after creating to create the initial memory lookup, which is also store in the native heap.
  * When the size of the map reaches the load factor, that is .75 times the capacity, the map will attempt to resize
- * by increasing its internal memory lookup to have an array of buckets twice as big. Normal operations can still
- * proceed during this, allowing for minimal downtime during a resize.
+ * by increasing its internal memory lookup to have an array of buckets twice as big. The buckets are then transferred
+ * incrementally from the old memory lookup to the new one: every write operation first transfers up to
+ * {@link #TRANSFER_STRIDE} buckets of its own lock region, and every insertion also helps with another lock region.
+ * Thus no operation ever waits for more than a bounded amount of buckets to be transferred, and operations on a
+ * bucket that has not been transferred yet simply use the old memory lookup. All write locks are only held to swap the
+ * memory lookups at the start and the end of a resize. The progress and duration of resizes are tracked by
+ * {@link OffHeapResizeStatistics}.
  * <p>
  * This map is created assuming some knowledge of expiration in the Infinispan system. Thus operations that do not
  * expose this information via its APIs are not supported. These methods are {@code keySet}, {@code containsKey} and
@@ -70,6 +73,14 @@
  * write lock for the lock region, are ({@code put}, {@code remove}, {@code replace}, {@code compute}. A clear
  * will acquire all write locks when invoked. This allows the clear to also resize the map down to the initial size.
  * <p>
+ * When the allocator {@link OffHeapMemoryAllocator#retainsFreedMemory() retains freed memory}, {@code peek} (and
+ * {@code get} if there is no {@link EntryListener}) first try an optimistic read of their lock region instead, so
+ * that readers do not write to the lock state shared with other readers. Every address or length read from native
+ * memory is validated against the optimistic stamp before it is dereferenced, which ensures the reader only ever
+ * reads memory that belonged to an entry or lookup at some point, and the reader is registered with the allocator so
+ * that such memory isn't released while it reads. Only if a write happened to the lock region while reading does the
+ * read fall back to acquiring the read lock.
+ * <p>
  * When this map is constructed it is also possible to provide an {@link EntryListener} that is invoked when various
  * operations are performed in the map. Note that the various modification callbacks <b>MUST</b> free the old address,
  * or else a memory leak will occur. Please see the various methods for clarification on these methods.
@@ -109,6 +120,8 @@ public class OffHeapConcurrentMap implements ConcurrentMap<WrappedBytes, Interna
    private final static int LOCK_SHIFT = 31 - Integer.numberOfTrailingZeros(LOCK_COUNT);
    // The number of bits required to shift to the right to get the bucket size from a given pointer address
    private final static int LOCK_REGION_SHIFT = Integer.numberOfTrailingZeros(LOCK_COUNT);
+   // How many buckets of the old memory lookup a single operation transfers at most during a resize
+   final static int TRANSFER_STRIDE = 64;
 
    private final AtomicLong size = new AtomicLong();
    private final StripedLock locks;
@@ -117,6 +130,9 @@ public class OffHeapConcurrentMap implements ConcurrentMap<WrappedBytes, Interna
    private final OffHeapEntryFactory offHeapEntryFactory;
 
    private final EntryListener listener;
+   private final OffHeapResizeStatistics resizeStatistics;
+   // Whether get and peek can read without acquiring the read lock, see the class javadoc
+   private final boolean optimisticReads;
 
    // Once this threshold size is met, the underlying buckets will be re-sized if possible
    // This variable can be read outside of locks - thus is volatile, however should only be modified while holding
@@ -124,17 +140,25 @@ public class OffHeapConcurrentMap implements ConcurrentMap<WrappedBytes, Interna
    @GuardedBy("locks#lockAll")
    private volatile int sizeThreshold;
 
-   // Non null during a resize operation - this will be initialized to contain all of the numbers equal to how many
-   // locks we have - This and oldMemoryLookup should always be either both null or not null at the same time.
+   // Non null during a resize operation - holds for each lock region how many of its buckets in the old lookup have
+   // already been transferred. Buckets are transferred in order, so any bucket of the old lookup below the cursor of
+   // its region is empty. An element may only be updated while holding the write lock of its region.
+   // This and oldMemoryLookup should always be either both null or not null at the same time.
+   @GuardedBy("locks")
+   private int[] transferCursors;
+   // How many lock regions still have buckets to transfer in the current resize
+   private final AtomicInteger pendingRegions = new AtomicInteger();
+   // The lock region where an insertion starts looking for buckets to transfer, so helpers spread over the regions
+   private final AtomicInteger nextHelpRegion = new AtomicInteger();
    @GuardedBy("locks")
-   private IntSet pendingBlocks;
+   private long resizeStartNanos;
    // Always non null, unless map has been stopped
    @GuardedBy("locks")
    private MemoryAddressHash memoryLookup;
    @GuardedBy("locks")
    private int memoryShift;
    // Non null during a resize operation - this will contain the previous old lookup and may or may not contain valid
-   // elements depending upon if a lock region is still pending transfer - This and pendingBlocks should always be
+   // elements depending upon if a bucket is still pending transfer - This and transferCursors should always be
    // either both null or not null at the same time.
    @GuardedBy("locks")
    private MemoryAddressHash oldMemoryLookup;
@@ -143,9 +167,17 @@ public class OffHeapConcurrentMap implements ConcurrentMap<WrappedBytes, Interna
 
    public OffHeapConcurrentMap(OffHeapMemoryAllocator allocator,
          OffHeapEntryFactory offHeapEntryFactory, EntryListener listener) {
+      this(allocator, offHeapEntryFactory, listener, new OffHeapResizeStatistics());
+   }
+
+   public OffHeapConcurrentMap(OffHeapMemoryAllocator allocator,
+         OffHeapEntryFactory offHeapEntryFactory, EntryListener listener, OffHeapResizeStatistics resizeStatistics) {
       this.allocator = Objects.requireNonNull(allocator);
       this.offHeapEntryFactory = Objects.requireNonNull(offHeapEntryFactory);
       this.listener = listener;
+      this.resizeStatistics = Objects.requireNonNull(resizeStatistics);
+      // Trace mode checks every address access against the allocated blocks, which a speculative read may not be in
+      this.optimisticReads = allocator.retainsFreedMemory() && !log.isTraceEnabled();
 
       locks = new StripedLock(LOCK_COUNT);
 
@@ -171,12 +203,7 @@ public boolean touchKey(Object k, long currentTimeMillis) {
       long writeStamp = stampedLock.writeLock();
       try {
          checkDeallocation();
-         MemoryAddressHash memoryLookup;
-         if (pendingBlocks != null && pendingBlocks.contains(lockOffset)) {
-            memoryLookup = this.oldMemoryLookup;
-         } else {
-            memoryLookup = this.memoryLookup;
-         }
+         MemoryAddressHash memoryLookup = getMemoryLookup(hashCode, lockOffset);
          return lockedTouch(memoryLookup, (WrappedBytes) k, hashCode, currentTimeMillis);
       } finally {
          stampedLock.unlockWrite(writeStamp);
@@ -207,7 +234,7 @@ private boolean lockedTouch(MemoryAddressHash memoryLookup, WrappedBytes k, int
          long newAddress = offHeapEntryFactory.updateMaxIdle(actualAddress, currentTimeMillis);
          if (newAddress != 0) {
             // Replaces the old value with the newly created one
-            performPut(bucketAddress, actualAddress, newAddress, k, memoryOffset, false, false);
+            performPut(memoryLookup, bucketAddress, actualAddress, newAddress, k, memoryOffset, false, false);
          } else {
             entryRetrieved(actualAddress);
          }
@@ -343,6 +370,34 @@ private int getBucketRegionSize(int bucketTotal) {
       return bucketTotal >>> LOCK_REGION_SHIFT;
    }
 
+   /**
+    * Returns the position of a bucket within its lock region.
+    * @param bucketOffset offset of the bucket in its memory lookup
+    * @param shift the shift of the memory lookup
+    * @return position of the bucket within its lock region
+    */
+   private static int getRegionPosition(int bucketOffset, int shift) {
+      // A lookup has 2^(31 - shift) buckets, so a lock region has 2^(LOCK_SHIFT - shift) of them
+      return bucketOffset & ((1 << (LOCK_SHIFT - shift)) - 1);
+   }
+
+   /**
+    * Returns the memory lookup that currently holds the bucket for the given hash code. This is the old memory lookup
+    * if there is a resize in progress and the bucket hasn't yet been transferred.
+    * @param hashCode hashCode of the key to find the memory lookup for
+    * @param lockOffset the lock offset of the key
+    * @return the memory lookup to use for the key
+    */
+   @GuardedBy("locks#readLock")
+   private MemoryAddressHash getMemoryLookup(int hashCode, int lockOffset) {
+      int[] transferCursors = this.transferCursors;
+      if (transferCursors != null &&
+            getRegionPosition(getOffset(hashCode, oldMemoryShift), oldMemoryShift) >= transferCursors[lockOffset]) {
+         return oldMemoryLookup;
+      }
+      return memoryLookup;
+   }
+
    private void checkDeallocation() {
       if (memoryLookup == null) {
          throw new IllegalStateException("Map was already shut down!");
@@ -391,142 +446,155 @@ StripedLock getLocks() {
    }
 
    /**
-    * This method checks if the map must be resized and if so starts the operation. This caller <b>MUST NOT</b>
-    * hold any locks when invoked.
+    * This method checks if the map must be resized and if so starts the operation. If a resize is already in progress
+    * this instead helps to transfer a bounded number of buckets. This caller <b>MUST NOT</b> hold any locks when
+    * invoked.
     */
    private void checkResize() {
-      // We don't do a resize if we aren't to the boundary or if we are in a pending resize
-      if (size.get() < sizeThreshold || oldMemoryLookup != null) {
+      if (oldMemoryLookup != null) {
+         helpTransfer();
+         return;
+      }
+      // We don't do a resize if we aren't to the boundary
+      if (size.get() < sizeThreshold) {
          return;
       }
-      boolean onlyHelp = false;
-      IntSet localPendingBlocks;
       locks.lockAll();
       try {
          // Don't replace blocks if it was already done - means we had concurrent requests
          if (oldMemoryLookup != null) {
-            onlyHelp = true;
-            localPendingBlocks = this.pendingBlocks;
-         } else {
-            int newBucketCount = memoryLookup.getPointerCount() << 1;
-            if (newBucketCount == MAX_ADDRESS_COUNT) {
-               sizeThreshold = Integer.MAX_VALUE;
-            }
+            return;
+         }
+         int newBucketCount = memoryLookup.getPointerCount() << 1;
+         if (newBucketCount == MAX_ADDRESS_COUNT) {
+            sizeThreshold = Integer.MAX_VALUE;
+         }
 
-            // We couldn't resize
-            if (!sizeMemoryBuckets(newBucketCount)) {
-               return;
-            }
-            localPendingBlocks = IntSets.concurrentSet(LOCK_COUNT);
-            for (int i = 0; i < LOCK_COUNT; ++i) {
-               localPendingBlocks.set(i);
-            }
-            this.pendingBlocks = localPendingBlocks;
+         // We couldn't resize
+         if (!sizeMemoryBuckets(newBucketCount)) {
+            return;
          }
+         transferCursors = new int[LOCK_COUNT];
+         pendingRegions.set(LOCK_COUNT);
+         resizeStartNanos = System.nanoTime();
+         resizeStatistics.resizeStarted(oldMemoryLookup.getPointerCount());
       } finally {
          locks.unlockAll();
       }
+   }
 
-      // Try to complete without waiting if possible for locks
-      helpCompleteTransfer(localPendingBlocks, true);
-
-      if (!onlyHelp) {
-         if (!localPendingBlocks.isEmpty()) {
-            // We attempted to transfer without waiting on locks - but we didn't finish them all yet - so now we have
-            // to wait to ensure they are all transferred
-            helpCompleteTransfer(localPendingBlocks, false);
-            // Now everything should be empty for sure
-            assert localPendingBlocks.isEmpty();
+   /**
+    * Transfers up to {@link #TRANSFER_STRIDE} buckets of the first lock region that still has buckets pending, starting
+    * at a different region for every invocation. Regions whose lock is currently held are skipped, as their owner will
+    * transfer some buckets itself. This <b>MUST NOT</b> be invoked while holding any lock.
+    */
+   private void helpTransfer() {
+      int start = nextHelpRegion.getAndIncrement();
+      for (int i = 0; i < LOCK_COUNT; ++i) {
+         int lockOffset = (start + i) & (LOCK_COUNT - 1);
+         StampedLock lock = locks.getLockWithOffset(lockOffset);
+         long stamp = lock.tryWriteLock();
+         if (stamp == 0) {
+            continue;
          }
-
-         // Now that all blocks have been transferred we can replace references
-         locks.lockAll();
+         boolean transferred;
+         boolean completed;
          try {
-            // This means that someone else completed the transfer for us - only clear can do that currently
-            if (this.pendingBlocks == null) {
+            int[] transferCursors = this.transferCursors;
+            if (transferCursors == null) {
                return;
             }
-            transferComplete();
+            int regionSize = getBucketRegionSize(oldMemoryLookup.getPointerCount());
+            transferred = transferCursors[lockOffset] != regionSize;
+            completed = transferred && transferStep(lockOffset);
          } finally {
-            locks.unlockAll();
+            lock.unlockWrite(stamp);
+         }
+         if (completed) {
+            completeTransfer();
+         }
+         if (transferred) {
+            return;
          }
       }
    }
 
    /**
-    * Invoked when a transfer has completed to clean up the old memory lookup
+    * Transfers up to {@link #TRANSFER_STRIDE} buckets of the given lock region from the old memory lookup to the
+    * current one. This <b>MUST</b> be invoked by any write operation before doing anything, so that a resize always
+    * progresses. If this returns {@code true} the caller <b>MUST</b> invoke {@link #completeTransfer()} after it has
+    * released its lock.
+    * @param lockOffset the lock offset to transfer buckets of
+    * @return whether this transferred the last pending bucket of the resize
     */
-   @GuardedBy("locks#lockAll")
-   private void transferComplete() {
-      MemoryAddressHash oldMemoryLookup = this.oldMemoryLookup;
-      this.pendingBlocks = null;
-      if (listener != null) {
-         boolean resized = listener.resize(-oldMemoryLookup.getPointerCount());
-         assert resized : "Resize of negative pointers should always work!";
+   @GuardedBy("locks#writeLock")
+   private boolean transferStep(int lockOffset) {
+      int[] transferCursors = this.transferCursors;
+      if (transferCursors == null) {
+         return false;
       }
-      this.oldMemoryLookup = null;
-
-      oldMemoryLookup.deallocate();
+      int regionSize = getBucketRegionSize(oldMemoryLookup.getPointerCount());
+      int cursor = transferCursors[lockOffset];
+      if (cursor == regionSize) {
+         return false;
+      }
+      int count = Math.min(TRANSFER_STRIDE, regionSize - cursor);
+      transfer(lockOffset * regionSize + cursor, count);
+      transferCursors[lockOffset] = cursor + count;
+      resizeStatistics.bucketsTransferred(count);
+      return cursor + count == regionSize && pendingRegions.decrementAndGet() == 0;
    }
 
    /**
-    * This <b>MUST NOT</b>  be invoked while holding any lock
-    * @param tryLock whether the lock acquisition only does a try, returning earlier with some lock segments not transferred possibly
+    * Replaces the references to the old memory lookup once all of its buckets were transferred. This <b>MUST NOT</b>
+    * be invoked while holding any lock.
     */
-   private void helpCompleteTransfer(IntSet pendingBlocks, boolean tryLock) {
-      if (pendingBlocks != null) {
-         PrimitiveIterator.OfInt iterator = pendingBlocks.iterator();
-         while (iterator.hasNext()) {
-            int offset = iterator.nextInt();
-            StampedLock lock = locks.getLockWithOffset(offset);
-
-            long stamp;
-            if (tryLock) {
-               // If we can't get it - just assume another person is working on it - so try next one
-               if ((stamp = lock.tryWriteLock()) == 0) {
-                  continue;
-               }
-            } else {
-               stamp = lock.writeLock();
-            }
-            try {
-               // Only run it now that we have lock if someone else just didn't finish it
-               if (pendingBlocks.remove(offset)) {
-                  transfer(offset);
-               }
-            } finally {
-               lock.unlockWrite(stamp);
-            }
+   private void completeTransfer() {
+      locks.lockAll();
+      try {
+         // The map may have been cleared in the mean time and possibly a new resize started
+         if (transferCursors != null && pendingRegions.get() == 0) {
+            transferComplete();
          }
+      } finally {
+         locks.unlockAll();
       }
    }
 
    /**
-    * Ensures that the block that maps to the given lock offset is transferred. This method <b>MUST</b> be invoked by
-    * any write operation before doing anything. This ensures that the write operation only needs to modify the
-    * current memory lookup.
-    * @param lockOffset the lock offset to confirm has been transferred
+    * Invoked when a transfer has completed to clean up the old memory lookup. This is also invoked when the map is
+    * cleared during a resize, in which case some buckets were never transferred.
     */
-   @GuardedBy("locks#writeLock")
-   private void ensureTransferred(int lockOffset) {
-      if (pendingBlocks != null) {
-         if (pendingBlocks.remove(lockOffset)) {
-            transfer(lockOffset);
-         }
+   @GuardedBy("locks#lockAll")
+   private void transferComplete() {
+      MemoryAddressHash oldMemoryLookup = this.oldMemoryLookup;
+      int oldPointerCount = oldMemoryLookup.getPointerCount();
+      int regionSize = getBucketRegionSize(oldPointerCount);
+      int skipped = 0;
+      for (int cursor : transferCursors) {
+         skipped += regionSize - cursor;
+      }
+      this.transferCursors = null;
+      pendingRegions.set(0);
+      resizeStatistics.resizeCompleted(oldPointerCount, skipped, System.nanoTime() - resizeStartNanos);
+      if (listener != null) {
+         boolean resized = listener.resize(-oldPointerCount);
+         assert resized : "Resize of negative pointers should always work!";
       }
+      this.oldMemoryLookup = null;
+
+      oldMemoryLookup.deallocate();
    }
 
    /**
-    * Transfers all the entries that map to the given lock offset position from the old lookup to the current one.
-    * @param lockOffset the offset in the lock array - this is the same between all memory lookups
+    * Transfers all the entries in the given buckets from the old lookup to the current one. The entries of a bucket
+    * of the old lookup always map to the same lock region in the current lookup.
+    * @param oldOffset the offset of the first bucket to transfer in the old lookup
+    * @param count how many buckets to transfer
     */
    @GuardedBy("locks#writeLock")
-   private void transfer(int lockOffset) {
-      int pointerCount = oldMemoryLookup.getPointerCount();
-      int blockSize = getBucketRegionSize(pointerCount);
-
-      LongStream memoryLocations = oldMemoryLookup.removeAll(lockOffset * blockSize, blockSize);
-      memoryLocations.forEach(address -> {
+   private void transfer(int oldOffset, int count) {
+      oldMemoryLookup.removeAll(oldOffset, count).forEach(address -> {
          while (address != 0) {
             long nextAddress = offHeapEntryFactory.getNext(address);
             offHeapEntryFactory.setNext(address, 0);
@@ -536,7 +604,7 @@ private void transfer(int lockOffset) {
             long newBucketAddress = memoryLookup.getMemoryAddressOffset(memoryOffset);
 
             // We should be only inserting a new value - thus we don't worry about key or return value
-            performPut(newBucketAddress, address, address, null, memoryOffset,false, true);
+            performPut(memoryLookup, newBucketAddress, address, address, null, memoryOffset, false, true);
 
             address = nextAddress;
          }
@@ -555,6 +623,60 @@ public void close() {
       }
    }
 
+   /**
+    * Releases the bucket tables of this map without visiting its entries, which are left allocated. This is only
+    * useful when the memory of the entries is reclaimed as a whole by their allocator, the map can't be used anymore
+    * after this method is invoked.
+    */
+   void release() {
+      locks.lockAll();
+      try {
+         checkDeallocation();
+         if (oldMemoryLookup != null) {
+            transferComplete();
+         }
+         if (listener != null) {
+            boolean resized = listener.resize(-memoryLookup.getPointerCount());
+            assert resized : "Resize of negative pointers should always work!";
+         }
+         memoryLookup.deallocate();
+         memoryLookup = null;
+         size.set(0);
+      } finally {
+         locks.unlockAll();
+      }
+   }
+
+   /**
+    * Adds an entry that already resides in memory, such as one that survived a restart, to this map. The entry
+    * must not be present in the map already.
+    * @param address the address of the entry
+    */
+   void restore(long address) {
+      int hashCode = offHeapEntryFactory.getHashCode(address);
+      int lockOffset = getLockOffset(hashCode);
+      boolean transferCompleted;
+      StampedLock stampedLock = locks.getLockWithOffset(lockOffset);
+      long writeStamp = stampedLock.writeLock();
+      try {
+         checkDeallocation();
+         transferCompleted = transferStep(lockOffset);
+
+         // The link may still point to an entry of the previous run
+         offHeapEntryFactory.setNext(address, 0);
+         MemoryAddressHash memoryLookup = getMemoryLookup(hashCode, lockOffset);
+         int memoryOffset = getMemoryOffset(memoryLookup, hashCode);
+         long bucketAddress = memoryLookup.getMemoryAddressOffset(memoryOffset);
+         performPut(memoryLookup, bucketAddress, address, address, null, memoryOffset, false, false);
+      } finally {
+         stampedLock.unlockWrite(writeStamp);
+      }
+      if (transferCompleted) {
+         completeTransfer();
+      }
+      checkResize();
+   }
+
    @Override
    public int size() {
       return (int) Math.min(size.get(), Integer.MAX_VALUE);
@@ -572,14 +694,17 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> compute(WrappedBytes key,
       int lockOffset = getLockOffset(hashCode);
       InternalCacheEntry<WrappedBytes, WrappedBytes> result;
       InternalCacheEntry<WrappedBytes, WrappedBytes> prev;
+      boolean transferCompleted;
+      boolean written = false;
       StampedLock stampedLock = locks.getLockWithOffset(lockOffset);
       long writeStamp = stampedLock.writeLock();
       try {
          checkDeallocation();
 
-         ensureTransferred(lockOffset);
+         transferCompleted = transferStep(lockOffset);
 
-         int memoryOffset = getMemoryOffset(hashCode);
+         MemoryAddressHash memoryLookup = getMemoryLookup(hashCode, lockOffset);
+         int memoryOffset = getMemoryOffset(memoryLookup, hashCode);
          long bucketAddress = memoryLookup.getMemoryAddressOffset(memoryOffset);
          long actualAddress = bucketAddress == 0 ? 0 : performGet(bucketAddress, key, hashCode);
          if (actualAddress != 0) {
@@ -591,23 +716,70 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> compute(WrappedBytes key,
          if (prev == result) {
             // noop
          } else if (result != null) {
+            // The value is only known now, it is compressed after releasing the lock
             long newAddress = offHeapEntryFactory.create(key, hashCode, result);
+            written = true;
             // TODO: Technically actualAddress could be a 0 and bucketAddress != 0, which means we will loop through
             // entire bucket for no reason as it will never match (doing key equality checks)
-            performPut(bucketAddress, actualAddress, newAddress, key, memoryOffset, false, false);
+            performPut(memoryLookup, bucketAddress, actualAddress, newAddress, key, memoryOffset, false, false);
          } else {
             // result is null here - so we remove the entry
-            performRemove(bucketAddress, actualAddress, key, null, memoryOffset, false);
+            performRemove(memoryLookup, bucketAddress, actualAddress, key, null, memoryOffset, false);
          }
       } finally {
          stampedLock.unlockWrite(writeStamp);
       }
+      if (transferCompleted) {
+         completeTransfer();
+      }
+      if (written) {
+         compressWrittenValue(key, hashCode, result.getValue());
+      }
       if (prev == null && result != null) {
          checkResize();
       }
       return result;
    }
 
+   /**
+    * Compresses the value written by {@link #compute(WrappedBytes, BiFunction)} without holding the lock, then
+    * replaces the entry with a compressed copy if it still has the same value. The entry is copied from memory, so
+    * it doesn't matter if it was written again with the same value in the meantime.
+    */
+   private void compressWrittenValue(WrappedBytes key, int hashCode, WrappedBytes value) {
+      byte[] compressedValue = offHeapEntryFactory.compressValue(value);
+      if (compressedValue == null) {
+         return;
+      }
+      int lockOffset = getLockOffset(hashCode);
+      boolean transferCompleted;
+      StampedLock stampedLock = locks.getLockWithOffset(lockOffset);
+      long writeStamp = stampedLock.writeLock();
+      try {
+         if (this.memoryLookup == null) {
+            // Shut down since the entry was written
+            return;
+         }
+         transferCompleted = transferStep(lockOffset);
+
+         MemoryAddressHash memoryLookup = getMemoryLookup(hashCode, lockOffset);
+         int memoryOffset = getMemoryOffset(memoryLookup, hashCode);
+         long bucketAddress = memoryLookup.getMemoryAddressOffset(memoryOffset);
+         long actualAddress = bucketAddress == 0 ? 0 : performGet(bucketAddress, key, hashCode);
+         if (actualAddress != 0) {
+            long newAddress = offHeapEntryFactory.copyWithCompressedValue(actualAddress, value, compressedValue);
+            if (newAddress != 0) {
+               performPut(memoryLookup, bucketAddress, actualAddress, newAddress, key, memoryOffset, false, false);
+            }
+         }
+      } finally {
+         stampedLock.unlockWrite(writeStamp);
+      }
+      if (transferCompleted) {
+         completeTransfer();
+      }
+   }
+
    @Override
    public boolean containsKey(Object key) {
       throw new UnsupportedOperationException();
@@ -622,15 +794,27 @@ private InternalCacheEntry<WrappedBytes, WrappedBytes> peekOrGet(WrappedBytes k,
       int hashCode = k.hashCode();
       int lockOffset = getLockOffset(hashCode);
       StampedLock stampedLock = locks.getLockWithOffset(lockOffset);
+      // The listener must only be notified of a retrieval while the entry can't be removed
+      if (optimisticReads && (peek || listener == null)) {
+         long token = allocator.beginOptimisticRead();
+         try {
+            long stamp = stampedLock.tryOptimisticRead();
+            if (stamp != 0 && memoryLookup != null) {
+               InternalCacheEntry<WrappedBytes, WrappedBytes> ice = optimisticPeekOrGet(stampedLock, stamp, k,
+                     hashCode, lockOffset);
+               // Once a stamp is invalid it stays invalid, so this also covers the validations done while reading
+               if (stampedLock.validate(stamp)) {
+                  return ice;
+               }
+            }
+         } finally {
+            allocator.endOptimisticRead(token);
+         }
+      }
       long readStamp = stampedLock.readLock();
       try {
          checkDeallocation();
-         MemoryAddressHash memoryLookup;
-         if (pendingBlocks != null && pendingBlocks.contains(lockOffset)) {
-            memoryLookup = this.oldMemoryLookup;
-         } else {
-            memoryLookup = this.memoryLookup;
-         }
+         MemoryAddressHash memoryLookup = getMemoryLookup(hashCode, lockOffset);
          return lockedPeekOrGet(memoryLookup, k, hashCode, peek);
       } finally {
          stampedLock.unlockRead(readStamp);
@@ -656,6 +840,41 @@ private InternalCacheEntry<WrappedBytes, WrappedBytes> lockedPeekOrGet(MemoryAdd
       return null;
    }
 
+   /**
+    * Same as {@link #lockedPeekOrGet(MemoryAddressHash, WrappedBytes, int, boolean)} but without holding the read
+    * lock. The fields guarded by the locks may be inconsistent with each other and native memory may be freed
+    * concurrently, so everything read must be validated against the stamp before it is used to read further. The
+    * returned value is only meaningful if the stamp is still valid after this method returns.
+    */
+   private InternalCacheEntry<WrappedBytes, WrappedBytes> optimisticPeekOrGet(StampedLock stampedLock, long stamp,
+         WrappedBytes k, int hashCode, int lockOffset) {
+      BooleanSupplier validator = () -> stampedLock.validate(stamp);
+      MemoryAddressHash memoryLookup = this.memoryLookup;
+      int memoryShift = this.memoryShift;
+      int[] transferCursors = this.transferCursors;
+      if (transferCursors != null) {
+         // Only plain arithmetic on these until they are validated below
+         int oldMemoryShift = this.oldMemoryShift;
+         if (getRegionPosition(getOffset(hashCode, oldMemoryShift), oldMemoryShift) >= transferCursors[lockOffset]) {
+            memoryLookup = this.oldMemoryLookup;
+            memoryShift = oldMemoryShift;
+         }
+      }
+      // The lookup must match the shift or we could read past its end
+      if (memoryLookup == null || !stampedLock.validate(stamp)) {
+         return null;
+      }
+      long address = memoryLookup.getMemoryAddressOffset(getOffset(hashCode, memoryShift));
+      while (address != 0 && stampedLock.validate(stamp)) {
+         long nextAddress = offHeapEntryFactory.getNext(address);
+         if (offHeapEntryFactory.equalsKeyOptimistic(address, k, hashCode, validator)) {
+            return offHeapEntryFactory.fromMemoryOptimistic(address, validator);
+         }
+         address = nextAddress;
+      }
+      return null;
+   }
+
    /**
     * Gets the actual address for the given key in the given bucket or 0 if it isn't present or expired
     * @param bucketHeadAddress the starting address of the bucket
@@ -698,19 +917,26 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> put(WrappedBytes key,
       InternalCacheEntry<WrappedBytes, WrappedBytes> returnedValue;
       int hashCode = key.hashCode();
       int lockOffset = getLockOffset(hashCode);
+      boolean transferCompleted;
+      // Compress the value before acquiring the lock
+      byte[] compressedValue = offHeapEntryFactory.compressValue(value.getValue());
       StampedLock stampedLock = locks.getLockWithOffset(lockOffset);
       long writeStamp = stampedLock.writeLock();
       try {
          checkDeallocation();
-         ensureTransferred(lockOffset);
+         transferCompleted = transferStep(lockOffset);
 
-         int memoryOffset = getMemoryOffset(hashCode);
+         MemoryAddressHash memoryLookup = getMemoryLookup(hashCode, lockOffset);
+         int memoryOffset = getMemoryOffset(memoryLookup, hashCode);
          long address = memoryLookup.getMemoryAddressOffset(memoryOffset);
-         long newAddress = offHeapEntryFactory.create(key, hashCode, value);
-         returnedValue = performPut(address, 0, newAddress, key, memoryOffset, true, false);
+         long newAddress = offHeapEntryFactory.create(key, hashCode, value, compressedValue);
+         returnedValue = performPut(memoryLookup, address, 0, newAddress, key, memoryOffset, true, false);
       } finally {
          stampedLock.unlockWrite(writeStamp);
       }
+      if (transferCompleted) {
+         completeTransfer();
+      }
       // If we added a new entry, check the resize
       if (returnedValue == null) {
          checkResize();
@@ -722,6 +948,7 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> put(WrappedBytes key,
     * Performs the actual put operation, adding the new address into the memoryOffset bucket
     * and possibly removing the old entry with the same key.
     * Always adds the new entry at the end of the bucket's linked list.
+    * @param memoryLookup the memory lookup holding the bucket
     * @param bucketHeadAddress the entry address of the first element in the lookup
     * @param actualAddress the actual address if it is known or 0. By passing this != 0 equality checks can be bypassed.
     *                      If a value of 0 is provided this will use key equality.
@@ -731,8 +958,9 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> put(WrappedBytes key,
     * @return {@code true} if the entry doesn't exists in memory and was newly create, {@code false} otherwise
     */
    @GuardedBy("locks#writeLock")
-   private InternalCacheEntry<WrappedBytes, WrappedBytes> performPut(long bucketHeadAddress, long actualAddress,
-         long newAddress, WrappedBytes key, int memoryOffset, boolean requireReturn, boolean transfer) {
+   private InternalCacheEntry<WrappedBytes, WrappedBytes> performPut(MemoryAddressHash memoryLookup,
+         long bucketHeadAddress, long actualAddress, long newAddress, WrappedBytes key, int memoryOffset,
+         boolean requireReturn, boolean transfer) {
       // Have to start new linked node list
       if (bucketHeadAddress == 0) {
          memoryLookup.putMemoryAddressOffset(memoryOffset, newAddress);
@@ -806,20 +1034,25 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> remove(Object key) {
       }
       int hashCode = key.hashCode();
       int lockOffset = getLockOffset(hashCode);
+      boolean transferCompleted = false;
       StampedLock stampedLock = locks.getLockWithOffset(lockOffset);
       long writeStamp = stampedLock.writeLock();
       try {
          checkDeallocation();
-         ensureTransferred(lockOffset);
+         transferCompleted = transferStep(lockOffset);
 
-         int memoryOffset = getMemoryOffset(hashCode);
+         MemoryAddressHash memoryLookup = getMemoryLookup(hashCode, lockOffset);
+         int memoryOffset = getMemoryOffset(memoryLookup, hashCode);
          long address = memoryLookup.getMemoryAddressOffset(memoryOffset);
          if (address == 0) {
             return null;
          }
-         return performRemove(address, 0, (WrappedBytes) key, null, memoryOffset,true);
+         return performRemove(memoryLookup, address, 0, (WrappedBytes) key, null, memoryOffset,true);
       } finally {
          stampedLock.unlockWrite(writeStamp);
+         if (transferCompleted) {
+            completeTransfer();
+         }
       }
    }
 
@@ -834,16 +1067,17 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> remove(Object key) {
    @GuardedBy("locks#writeLock")
    void remove(WrappedBytes key, long address) {
       int hashCode = key.hashCode();
-      ensureTransferred(getLockOffset(hashCode));
-
-      int memoryOffset = getMemoryOffset(hashCode);
+      // The caller holds the lock, so it can't complete a resize - it only uses whichever lookup has the entry
+      MemoryAddressHash memoryLookup = getMemoryLookup(hashCode, getLockOffset(hashCode));
+      int memoryOffset = getMemoryOffset(memoryLookup, hashCode);
       long bucketAddress = memoryLookup.getMemoryAddressOffset(memoryOffset);
       assert bucketAddress != 0;
-      performRemove(bucketAddress, address, key, null, memoryOffset, false);
+      performRemove(memoryLookup, bucketAddress, address, key, null, memoryOffset, false);
    }
 
    /**
     * Performs the actual remove operation removing the new address from its appropriate bucket.
+    * @param memoryLookup the memory lookup holding the bucket
     * @param bucketHeadAddress the starting address of the bucket
     * @param actualAddress the actual address if it is known or 0. By passing this != 0 equality checks can be bypassed.
     *                      If a value of 0 is provided this will use key equality. key is not required when this != 0
@@ -854,8 +1088,9 @@ void remove(WrappedBytes key, long address) {
     *                      the entry is not needed)
     */
    @GuardedBy("locks#writeLock")
-   private InternalCacheEntry<WrappedBytes, WrappedBytes> performRemove(long bucketHeadAddress, long actualAddress,
-         WrappedBytes key, WrappedBytes value, int memoryOffset, boolean requireReturn) {
+   private InternalCacheEntry<WrappedBytes, WrappedBytes> performRemove(MemoryAddressHash memoryLookup,
+         long bucketHeadAddress, long actualAddress, WrappedBytes key, WrappedBytes value, int memoryOffset,
+         boolean requireReturn) {
       long prevAddress = 0;
       long address = bucketHeadAddress;
       InternalCacheEntry<WrappedBytes, WrappedBytes> ice = null;
@@ -966,17 +1201,22 @@ public boolean remove(Object key, Object value) {
       }
       int hashCode = key.hashCode();
       int lockOffset = getLockOffset(hashCode);
+      boolean transferCompleted = false;
       StampedLock stampedLock = locks.getLockWithOffset(lockOffset);
       long writeStamp = stampedLock.writeLock();
       try {
          checkDeallocation();
-         ensureTransferred(lockOffset);
+         transferCompleted = transferStep(lockOffset);
 
-         int memoryOffset = getMemoryOffset(hashCode);
+         MemoryAddressHash memoryLookup = getMemoryLookup(hashCode, lockOffset);
+         int memoryOffset = getMemoryOffset(memoryLookup, hashCode);
          long address = memoryLookup.getMemoryAddressOffset(memoryOffset);
-         return address != 0 && performRemove(address, 0, (WrappedBytes) key, (WrappedBytes) innerValue, memoryOffset, true) != null;
+         return address != 0 && performRemove(memoryLookup, address, 0, (WrappedBytes) key, (WrappedBytes) innerValue, memoryOffset, true) != null;
       } finally {
          stampedLock.unlockWrite(writeStamp);
+         if (transferCompleted) {
+            completeTransfer();
+         }
       }
    }
 
@@ -985,17 +1225,24 @@ public boolean replace(WrappedBytes key, InternalCacheEntry<WrappedBytes, Wrappe
          InternalCacheEntry<WrappedBytes, WrappedBytes> newValue) {
       int hashCode = key.hashCode();
       int lockOffset = getLockOffset(hashCode);
+      boolean transferCompleted = false;
+      byte[] compressedValue = offHeapEntryFactory.compressValue(newValue.getValue());
       StampedLock stampedLock = locks.getLockWithOffset(lockOffset);
       long writeStamp = stampedLock.writeLock();
       try {
          checkDeallocation();
-         ensureTransferred(lockOffset);
+         transferCompleted = transferStep(lockOffset);
 
-         int memoryOffset = getMemoryOffset(hashCode);
+         MemoryAddressHash memoryLookup = getMemoryLookup(hashCode, lockOffset);
+         int memoryOffset = getMemoryOffset(memoryLookup, hashCode);
          long address = memoryLookup.getMemoryAddressOffset(memoryOffset);
-         return address != 0 && performReplace(address, key, hashCode, memoryOffset, oldValue, newValue) != null;
+         return address != 0 && performReplace(memoryLookup, address, key, hashCode, memoryOffset, oldValue, newValue,
+               compressedValue) != null;
       } finally {
          stampedLock.unlockWrite(writeStamp);
+         if (transferCompleted) {
+            completeTransfer();
+         }
       }
    }
 
@@ -1004,38 +1251,46 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> replace(WrappedBytes key,
          InternalCacheEntry<WrappedBytes, WrappedBytes> value) {
       int hashCode = key.hashCode();
       int lockOffset = getLockOffset(hashCode);
+      boolean transferCompleted = false;
+      byte[] compressedValue = offHeapEntryFactory.compressValue(value.getValue());
       StampedLock stampedLock = locks.getLockWithOffset(lockOffset);
       long writeStamp = stampedLock.writeLock();
       try {
          checkDeallocation();
-         ensureTransferred(lockOffset);
+         transferCompleted = transferStep(lockOffset);
 
-         int memoryOffset = getMemoryOffset(hashCode);
+         MemoryAddressHash memoryLookup = getMemoryLookup(hashCode, lockOffset);
+         int memoryOffset = getMemoryOffset(memoryLookup, hashCode);
          long address = memoryLookup.getMemoryAddressOffset(memoryOffset);
          if (address == 0) {
             return null;
          }
-         return performReplace(address, key, hashCode, memoryOffset, null, value);
+         return performReplace(memoryLookup, address, key, hashCode, memoryOffset, null, value, compressedValue);
       } finally {
          stampedLock.unlockWrite(writeStamp);
+         if (transferCompleted) {
+            completeTransfer();
+         }
       }
    }
 
    /**
     * Performs the actual replace operation removing the old entry and if removed writes the new entry into the same
     * bucket.
+    * @param memoryLookup the memory lookup holding the bucket
     * @param bucketHeadAddress the starting address of the bucket
     * @param key the key of the entry
     * @param hashCode the hasCode of the key
     * @param memoryOffset the offset in the memory bucket where this key mapped to
     * @param oldValue optional old value to match against - if null then any value will be replaced
     * @param newValue new value to place into the map replacing the old if possible
+    * @param compressedValue the value of newValue compressed before acquiring the lock or null
     * @return replaced value or null if the entry wasn't present
     */
    @GuardedBy("locks#writeLock")
-   private InternalCacheEntry<WrappedBytes, WrappedBytes> performReplace(long bucketHeadAddress, WrappedBytes key,
-         int hashCode, int memoryOffset, InternalCacheEntry<WrappedBytes, WrappedBytes> oldValue,
-         InternalCacheEntry<WrappedBytes, WrappedBytes> newValue) {
+   private InternalCacheEntry<WrappedBytes, WrappedBytes> performReplace(MemoryAddressHash memoryLookup,
+         long bucketHeadAddress, WrappedBytes key, int hashCode, int memoryOffset, InternalCacheEntry<WrappedBytes, WrappedBytes> oldValue,
+         InternalCacheEntry<WrappedBytes, WrappedBytes> newValue, byte[] compressedValue) {
       long prevAddress = 0;
       // We only use the head pointer for the first iteration
       long address = bucketHeadAddress;
@@ -1058,7 +1313,7 @@ private InternalCacheEntry<WrappedBytes, WrappedBytes> performReplace(long bucke
                ice = offHeapEntryFactory.fromMemory(address);
             }
 
-            long newAddress = offHeapEntryFactory.create(key, hashCode, newValue);
+            long newAddress = offHeapEntryFactory.create(key, hashCode, newValue, compressedValue);
 
             entryReplaced(newAddress, address);
             if (prevAddress != 0) {
@@ -1116,6 +1371,10 @@ public boolean remove(Object o) {
     * over a lock region and that region is resized it must now extrapolate given by the size of the increase of size
     * which buckets the corresponding resize have moved to. Luckily this operation is still efficient as resized buckets
     * are stored contiguously.
+    * <p>
+    * The iteration always uses the positions of the current memory lookup. If the bucket for a position has not yet
+    * been transferred, the entries are read from the bucket it will be transferred from in the old memory lookup instead,
+    * only keeping the ones that map to the position.
     */
    private class ValueIterator implements Iterator<InternalCacheEntry<WrappedBytes, WrappedBytes>> {
       int bucketPosition;
@@ -1166,13 +1425,7 @@ boolean readNextBucket() {
          long readStamp = stampedLock.readLock();
          try {
             checkDeallocation();
-            MemoryAddressHash memoryAddressHash;
-            if (pendingBlocks != null && pendingBlocks.contains(lockOffset)) {
-               memoryAddressHash = oldMemoryLookup;
-            } else {
-               memoryAddressHash = memoryLookup;
-            }
-            int pointerCount = memoryAddressHash.getPointerCount();
+            int pointerCount = memoryLookup.getPointerCount();
             if (bucketCount == -1) {
                bucketCount = pointerCount;
                bucketLockStop = getBucketRegionSize(bucketCount);
@@ -1189,14 +1442,27 @@ boolean readNextBucket() {
             // Normal iteration just keep adding entries until either we complete the lock bucket region or
             // we read bytes over the read threshold
             while (!(completedLockBucket = bucketLockStop == bucketPosition)) {
-               long address = memoryAddressHash.getMemoryAddressOffsetNoTraceIfAbsent(bucketPosition++);
-               if (address != 0) {
-                  long nextAddress;
-                  do {
-                     nextAddress = offHeapEntryFactory.getNext(address);
+               int position = bucketPosition++;
+               long address;
+               boolean filter = false;
+               int oldPosition = transferCursors != null ? position >>> (oldMemoryShift - memoryShift) : 0;
+               if (transferCursors != null &&
+                     getRegionPosition(oldPosition, oldMemoryShift) >= transferCursors[lockOffset]) {
+                  // Not transferred yet, the bucket in the old lookup also has the entries of the sibling position
+                  address = oldMemoryLookup.getMemoryAddressOffsetNoTraceIfAbsent(oldPosition);
+                  filter = true;
+               } else {
+                  address = memoryLookup.getMemoryAddressOffsetNoTraceIfAbsent(position);
+               }
+               while (address != 0) {
+                  long nextAddress = offHeapEntryFactory.getNext(address);
+                  if (!filter || getOffset(offHeapEntryFactory.getHashCode(address), memoryShift) == position) {
                      values.add(offHeapEntryFactory.fromMemory(address));
                      foundValue = true;
-                  } while ((address = nextAddress) != 0);
+                  }
+                  address = nextAddress;
+               }
+               if (foundValue) {
                   // We read a single bucket now return to get the value back
                   break;
                }
@@ -1224,7 +1490,7 @@ private void resizeIteration(int newBucketSize) {
 
          bucketPosition = bucketPosition << bucketIncreaseShift;
          bucketLockStop = bucketLockStop << bucketIncreaseShift;
-         bucketLockShift = Integer.numberOfTrailingZeros(bucketLockStop);
+         bucketLockShift += bucketIncreaseShift;
          bucketCount = newBucketSize;
       }
 
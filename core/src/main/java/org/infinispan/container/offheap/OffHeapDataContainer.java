@@ -22,12 +22,13 @@
 public class OffHeapDataContainer extends AbstractInternalDataContainer<WrappedBytes, WrappedBytes> {
    @Inject protected OffHeapMemoryAllocator allocator;
    @Inject protected OffHeapEntryFactory offHeapEntryFactory;
+   @Inject protected OffHeapResizeStatistics resizeStatistics;
 
    private OffHeapConcurrentMap map;
 
    @Start
    public void start() {
-      map = new OffHeapConcurrentMap(allocator, offHeapEntryFactory, null);
+      map = new OffHeapConcurrentMap(allocator, offHeapEntryFactory, null, resizeStatistics);
    }
 
    @Stop
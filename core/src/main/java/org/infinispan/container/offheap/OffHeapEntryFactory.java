@@ -1,5 +1,7 @@
 package org.infinispan.container.offheap;
 
+import java.util.function.BooleanSupplier;
+
 import org.infinispan.commons.marshall.WrappedBytes;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.container.impl.KeyValueMetadataSizeCalculator;
@@ -22,6 +24,42 @@ public interface OffHeapEntryFactory extends KeyValueMetadataSizeCalculator<Wrap
     */
    long create(WrappedBytes key, int hashCode, InternalCacheEntry<WrappedBytes, WrappedBytes> ice);
 
+   /**
+    * Compresses the value of an entry, so that it doesn't have to be done while holding the lock that
+    * {@link #create(WrappedBytes, int, InternalCacheEntry, byte[])} is invoked with.
+    * @param value the value of the entry, may be {@code null}
+    * @return the compressed value, or {@code null} if the value must be stored as it is
+    */
+   default byte[] compressValue(WrappedBytes value) {
+      return null;
+   }
+
+   /**
+    * Same as {@link #create(WrappedBytes, int, InternalCacheEntry)}, but the value is stored as returned by
+    * {@link #compressValue(WrappedBytes)}.
+    * @param key the key to use
+    * @param hashCode the hashCode of the key
+    * @param ice the internal entry to use
+    * @param compressedValue the compressed value, or {@code null} to store the value of the entry as it is
+    * @return the address of where the entry was created
+    */
+   default long create(WrappedBytes key, int hashCode, InternalCacheEntry<WrappedBytes, WrappedBytes> ice,
+         byte[] compressedValue) {
+      return create(key, hashCode, ice);
+   }
+
+   /**
+    * Copies the entry at the given address with the compressed value instead of its value, unless the entry is
+    * already compressed or its value is no longer {@code value}.
+    * @param address the address of the entry to copy
+    * @param value the value the compressed value was created from
+    * @param compressedValue the value returned by {@link #compressValue(WrappedBytes)}
+    * @return the address of the copy, or 0 if the entry was not copied
+    */
+   default long copyWithCompressedValue(long address, WrappedBytes value, byte[] compressedValue) {
+      return 0;
+   }
+
    /**
     * Returns how many bytes in memory this address location uses assuming it is an {@link InternalCacheEntry}.
     *
@@ -67,6 +105,17 @@ public interface OffHeapEntryFactory extends KeyValueMetadataSizeCalculator<Wrap
     */
    InternalCacheEntry<WrappedBytes, WrappedBytes> fromMemory(long address);
 
+   /**
+    * Create an entry from the off-heap pointer without holding any lock, so the entry may be concurrently freed and
+    * its memory reused by another entry. The sizes read from the header are checked with the validator before any
+    * memory they describe is read, and the copied bytes are checked again before they are parsed. This method must
+    * only be used when the allocator {@link OffHeapMemoryAllocator#retainsFreedMemory() retains freed memory}.
+    * @param address the address of the entry to read
+    * @param validator returns whether the memory read so far is still consistent
+    * @return the entry created on heap from off-heap or null if the validator failed
+    */
+   InternalCacheEntry<WrappedBytes, WrappedBytes> fromMemoryOptimistic(long address, BooleanSupplier validator);
+
    /**
     * Returns whether the given key as bytes is the same key as the key stored in the entry for the given address.
     * @param address the address of the entry's key to check
@@ -86,6 +135,18 @@ default boolean equalsKey(long address, WrappedBytes wrappedBytes) {
     */
    boolean equalsKey(long address, WrappedBytes wrappedBytes, int hashCode);
 
+   /**
+    * Same as {@link #equalsKey(long, WrappedBytes, int)} except that it can be invoked without holding any lock. The
+    * key length is checked with the validator before reading the key bytes. The returned value is meaningless unless
+    * the validator still succeeds after this method returns.
+    * @param address the address of the entry's key to check
+    * @param wrappedBytes the key to check equality with
+    * @param hashCode the hashCode of the key
+    * @param validator returns whether the memory read so far is still consistent
+    * @return whether or not the keys are equal
+    */
+   boolean equalsKeyOptimistic(long address, WrappedBytes wrappedBytes, int hashCode, BooleanSupplier validator);
+
 
    /**
     * Returns whether entry is expired or not.
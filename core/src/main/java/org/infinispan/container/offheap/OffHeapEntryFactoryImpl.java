@@ -1,10 +1,11 @@
 package org.infinispan.container.offheap;
 
-import static org.infinispan.container.offheap.UnpooledOffHeapMemoryAllocator.estimateSizeOverhead;
 import static org.infinispan.container.offheap.UnpooledOffHeapMemoryAllocator.offHeapEntrySize;
 
 import java.io.IOException;
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.marshall.StreamingMarshaller;
@@ -12,6 +13,7 @@
 import org.infinispan.commons.marshall.WrappedBytes;
 import org.infinispan.commons.time.TimeService;
 import org.infinispan.commons.util.Util;
+import org.infinispan.compression.ValueCompressor;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.entries.ExpiryHelper;
 import org.infinispan.container.entries.InternalCacheEntry;
@@ -43,6 +45,7 @@ public class OffHeapEntryFactoryImpl implements OffHeapEntryFactory {
    @Inject TimeService timeService;
    @Inject InternalEntryFactory internalEntryFactory;
    @Inject Configuration configuration;
+   @Inject ValueCompressor compressor;
 
    private boolean evictionEnabled;
 
@@ -55,6 +58,9 @@ public class OffHeapEntryFactoryImpl implements OffHeapEntryFactory {
    private static final byte MORTAL = 1 << 3;
    private static final byte TRANSIENT = 1 << 4;
    private static final byte TRANSIENT_MORTAL = 1 << 5;
+   // Set along with the types above when the value is compressed
+   private static final byte COMPRESSED = 1 << 6;
+   private static final byte TYPE_MASK = IMMORTAL | MORTAL | TRANSIENT | TRANSIENT_MORTAL;
 
    /**
     * HEADER is composed of type (byte), hashCode (int), keyLength (int), valueLength (int), internalMetadataLength
@@ -69,6 +75,20 @@ public void start() {
 
    @Override
    public long create(WrappedBytes key, int hashCode, InternalCacheEntry<WrappedBytes, WrappedBytes> ice) {
+      return create(key, hashCode, ice, null);
+   }
+
+   @Override
+   public byte[] compressValue(WrappedBytes value) {
+      if (compressor == null || value == null || value.getLength() == 0) {
+         return null;
+      }
+      return compressor.compress(value.getBytes(), value.backArrayOffset(), value.getLength());
+   }
+
+   @Override
+   public long create(WrappedBytes key, int hashCode, InternalCacheEntry<WrappedBytes, WrappedBytes> ice,
+         byte[] compressedValue) {
       byte type;
       boolean shouldWriteMetadataSize = false;
       byte[] metadataBytes;
@@ -127,6 +147,14 @@ public long create(WrappedBytes key, int hashCode, InternalCacheEntry<WrappedByt
       int metadataSize = metadataBytes.length;
       WrappedBytes value = ice.getValue();
       int valueSize = value != null ? value.getLength() : 0;
+      byte[] valueBytes = value != null ? value.getBytes() : null;
+      int valueOffset = value != null ? value.backArrayOffset() : 0;
+      if (compressedValue != null) {
+         type |= COMPRESSED;
+         valueBytes = compressedValue;
+         valueOffset = 0;
+         valueSize = compressedValue.length;
+      }
 
       byte[] internalMetadataBytes = shouldWriteInternalMetadata(ice.getInternalMetadata()) ?
                                      marshall(ice.getInternalMetadata()) :
@@ -165,7 +193,7 @@ public long create(WrappedBytes key, int hashCode, InternalCacheEntry<WrappedByt
       offset += metadataSize;
 
       if (valueSize > 0) {
-         MEMORY.putBytes(value.getBytes(), value.backArrayOffset(), memoryAddress, offset, valueSize);
+         MEMORY.putBytes(valueBytes, valueOffset, memoryAddress, offset, valueSize);
          offset += valueSize;
       }
 
@@ -179,6 +207,62 @@ public long create(WrappedBytes key, int hashCode, InternalCacheEntry<WrappedByt
       return memoryAddress;
    }
 
+   @Override
+   public long copyWithCompressedValue(long address, WrappedBytes value, byte[] compressedValue) {
+      int headerOffset = evictionEnabled ? 24 : 8;
+      byte type = MEMORY.getByte(address, headerOffset);
+      if ((type & COMPRESSED) != 0) {
+         return 0;
+      }
+      int keyLength = MEMORY.getInt(address, headerOffset + 5);
+      int valueLengthOffset = headerOffset + 9;
+      int metadataLength;
+      if ((type & (CUSTOM | HAS_VERSION)) != 0) {
+         metadataLength = MEMORY.getInt(address, valueLengthOffset);
+         valueLengthOffset += 4;
+      } else {
+         switch (type & TYPE_MASK) {
+            case MORTAL:
+            case TRANSIENT:
+               metadataLength = 16;
+               break;
+            case TRANSIENT_MORTAL:
+               metadataLength = 32;
+               break;
+            default:
+               metadataLength = 0;
+               break;
+         }
+      }
+      int valueLength = MEMORY.getInt(address, valueLengthOffset);
+      int internalMetadataLength = MEMORY.getInt(address, valueLengthOffset + 4);
+      int valueOffset = valueLengthOffset + 8 + keyLength + metadataLength;
+      // The entry may have been written again since the value was compressed
+      if (valueLength != value.getLength()) {
+         return 0;
+      }
+      for (int i = 0; i < valueLength; i++) {
+         if (MEMORY.getByte(address, valueOffset + i) != value.getByte(i)) {
+            return 0;
+         }
+      }
+
+      // Copy the header, key and metadata, then the compressed value and the internal metadata
+      byte[] head = new byte[valueOffset - headerOffset];
+      MEMORY.getBytes(address, headerOffset, head, 0, head.length);
+      byte[] internalMetadataBytes = new byte[internalMetadataLength];
+      MEMORY.getBytes(address, valueOffset + valueLength, internalMetadataBytes, 0, internalMetadataLength);
+      head[0] |= COMPRESSED;
+      Bits.putInt(head, valueLengthOffset - headerOffset, compressedValue.length);
+
+      long newAddress = allocator.allocate(valueOffset + compressedValue.length + internalMetadataLength);
+      MEMORY.putLong(newAddress, headerOffset - 8, 0);
+      MEMORY.putBytes(head, 0, newAddress, headerOffset, head.length);
+      MEMORY.putBytes(compressedValue, 0, newAddress, valueOffset, compressedValue.length);
+      MEMORY.putBytes(internalMetadataBytes, 0, newAddress, valueOffset + compressedValue.length, internalMetadataLength);
+      return newAddress;
+   }
+
    @Override
    public long getSize(long entryAddress, boolean includeAllocationOverhead) {
       int headerOffset = evictionEnabled ? 24 : 8;
@@ -194,7 +278,7 @@ public long getSize(long entryAddress, boolean includeAllocationOverhead) {
          metadataLength = MEMORY.getInt(entryAddress, headerOffset);
          headerOffset += 4;
       } else {
-         switch (type) {
+         switch (type & TYPE_MASK) {
             case MORTAL:
             case TRANSIENT:
                metadataLength = 16;
@@ -215,7 +299,7 @@ public long getSize(long entryAddress, boolean includeAllocationOverhead) {
       headerOffset += 4;
 
       int size = headerOffset + keyLength + metadataLength + valueLength + internalMetadataLength;
-      return includeAllocationOverhead ? estimateSizeOverhead(size) : size;
+      return includeAllocationOverhead ? allocator.estimateAllocationSize(size) : size;
    }
 
    @Override
@@ -273,6 +357,15 @@ public byte[] getKey(long address) {
     */
    @Override
    public InternalCacheEntry<WrappedBytes, WrappedBytes> fromMemory(long address) {
+      return fromMemory(address, null);
+   }
+
+   @Override
+   public InternalCacheEntry<WrappedBytes, WrappedBytes> fromMemoryOptimistic(long address, BooleanSupplier validator) {
+      return fromMemory(address, Objects.requireNonNull(validator));
+   }
+
+   private InternalCacheEntry<WrappedBytes, WrappedBytes> fromMemory(long address, BooleanSupplier validator) {
       // 16 bytes for eviction if needed (optional)
       // 8 bytes for linked pointer
       int offset = evictionEnabled ? 24 : 8;
@@ -281,24 +374,24 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> fromMemory(long address) {
       offset += 1;
       int hashCode = MEMORY.getInt(address, offset);
       offset += 4;
-      byte[] keyBytes = new byte[MEMORY.getInt(address, offset)];
+      int keyLength = MEMORY.getInt(address, offset);
       offset += 4;
 
-      byte[] metadataBytes;
-      switch (metadataType) {
+      int metadataLength;
+      switch (metadataType & ~COMPRESSED) {
          case IMMORTAL:
-            metadataBytes = Util.EMPTY_BYTE_ARRAY;
+            metadataLength = 0;
             break;
          case MORTAL:
          case TRANSIENT:
-            metadataBytes = new byte[16];
+            metadataLength = 16;
             break;
          case TRANSIENT_MORTAL:
-            metadataBytes = new byte[32];
+            metadataLength = 32;
             break;
          default:
             // This means we had CUSTOM or HAS_VERSION so we have to read it all
-            metadataBytes = new byte[MEMORY.getInt(address, offset)];
+            metadataLength = MEMORY.getInt(address, offset);
             offset += 4;
       }
 
@@ -308,6 +401,13 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> fromMemory(long address) {
       int internalMetadataSize = MEMORY.getInt(address, offset);
       offset += 4;
 
+      // The lengths could be garbage if the entry was concurrently freed, so they must be valid before being used
+      if (validator != null && !validator.getAsBoolean()) {
+         return null;
+      }
+
+      byte[] keyBytes = new byte[keyLength];
+      byte[] metadataBytes = metadataLength == 0 ? Util.EMPTY_BYTE_ARRAY : new byte[metadataLength];
       MEMORY.getBytes(address, offset, keyBytes, 0, keyBytes.length);
       offset += keyBytes.length;
       MEMORY.getBytes(address, offset, metadataBytes, 0, metadataBytes.length);
@@ -324,14 +424,27 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> fromMemory(long address) {
          valueWrappedBytes = null;
       }
 
-      PrivateMetadata internalMetadata = PrivateMetadata.empty();
+      byte[] internalMetadataBytes = null;
       if (internalMetadataSize > 0) {
-         byte[] internalMetadataBytes = new byte[internalMetadataSize];
+         internalMetadataBytes = new byte[internalMetadataSize];
          MEMORY.getBytes(address, offset, internalMetadataBytes, 0, internalMetadataSize);
          offset += internalMetadataSize;
-         internalMetadata = unmarshall(internalMetadataBytes);
       }
 
+      // Everything was copied on heap, only parse it if the entry wasn't modified while copying
+      if (validator != null && !validator.getAsBoolean()) {
+         return null;
+      }
+
+      if ((metadataType & COMPRESSED) != 0) {
+         byte[] compressedBytes = valueWrappedBytes.getBytes();
+         valueWrappedBytes = new WrappedByteArray(compressor.decompress(compressedBytes, 0, compressedBytes.length));
+      }
+
+      PrivateMetadata internalMetadata = internalMetadataBytes == null ?
+                                         PrivateMetadata.empty() :
+                                         unmarshall(internalMetadataBytes);
+
 
       Metadata metadata;
       // This is a custom metadata
@@ -348,8 +461,8 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> fromMemory(long address) {
          long lastUsed;
          offset = 0;
          boolean hasVersion = (metadataType & HAS_VERSION) == HAS_VERSION;
-         // Ignore CUSTOM and VERSION to find type
-         switch (metadataType & 0xFC) {
+         // Ignore CUSTOM, VERSION and COMPRESSED to find type
+         switch (metadataType & TYPE_MASK) {
             case IMMORTAL:
                lifespan = -1;
                maxIdle = -1;
@@ -407,6 +520,15 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> fromMemory(long address) {
 
    @Override
    public boolean equalsKey(long address, WrappedBytes wrappedBytes, int hashCode) {
+      return equalsKey(address, wrappedBytes, hashCode, null);
+   }
+
+   @Override
+   public boolean equalsKeyOptimistic(long address, WrappedBytes wrappedBytes, int hashCode, BooleanSupplier validator) {
+      return equalsKey(address, wrappedBytes, hashCode, Objects.requireNonNull(validator));
+   }
+
+   private boolean equalsKey(long address, WrappedBytes wrappedBytes, int hashCode, BooleanSupplier validator) {
       // 16 bytes for eviction if needed (optional)
       // 8 bytes for linked pointer
       int headerOffset = evictionEnabled ? 24 : 8;
@@ -431,6 +553,10 @@ public boolean equalsKey(long address, WrappedBytes wrappedBytes, int hashCode)
 
       // This is for the internal metadata size which we don't need to read
       headerOffset += 4;
+      // The type and key length decide which bytes we read below, so they must be valid
+      if (validator != null && !validator.getAsBoolean()) {
+         return false;
+      }
       // Finally read each byte individually so we don't have to copy them into a byte[]
       for (int i = 0; i < keyLength; i++) {
          byte b = MEMORY.getByte(address, headerOffset + i);
@@ -495,7 +621,7 @@ public boolean isExpired(long address) {
             offset += 4;
          }
 
-         switch (metadataType & 0xFC) {
+         switch (metadataType & TYPE_MASK) {
             case MORTAL:
                metadataBytes = new byte[16];
                MEMORY.getBytes(address, offset, metadataBytes, 0, metadataBytes.length);
@@ -549,7 +675,7 @@ public long calculateSize(WrappedBytes key, WrappedBytes value, Metadata metadat
       long internalMetadataSize = shouldWriteInternalMetadata(internalMetadata) ?
                                   marshall(internalMetadata).length :
                                   0;
-      return estimateSizeOverhead(totalSize + metadataSize + internalMetadataSize);
+      return allocator.estimateAllocationSize(totalSize + metadataSize + internalMetadataSize);
    }
 
    @Override
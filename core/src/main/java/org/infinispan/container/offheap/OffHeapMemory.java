@@ -159,6 +159,36 @@ long allocate(long size) {
       return address;
    }
 
+   /**
+    * Allocates a region of memory that is carved into smaller blocks by a pooling allocator. The region itself is not
+    * tracked, instead each block handed out of it must be registered with {@link #trackBlock(long, long)}.
+    */
+   long allocateRegion(long size) {
+      return UNSAFE.allocateMemory(size);
+   }
+
+   void freeRegion(long address) {
+      UNSAFE.freeMemory(address);
+   }
+
+   void trackBlock(long address, long size) {
+      if (log.isTraceEnabled()) {
+         Long prev = allocatedBlocks.put(address, size);
+         if (prev != null) {
+            throw new IllegalArgumentException();
+         }
+      }
+   }
+
+   void untrackBlock(long address) {
+      if (log.isTraceEnabled()) {
+         Long prev = allocatedBlocks.remove(address);
+         if (prev == null) {
+            throw new IllegalArgumentException();
+         }
+      }
+   }
+
    void free(long address) {
       if (log.isTraceEnabled()) {
          Long prev = allocatedBlocks.remove(address);
@@ -23,4 +23,43 @@ public interface OffHeapMemoryAllocator {
    void deallocate(long memoryAddress, long size);
 
    long getAllocatedAmount();
+
+   /**
+    * Returns how much memory an allocation of the given size really occupies, taking into account any rounding and
+    * housekeeping done by the allocator. This is the amount {@link #getAllocatedAmount()} changes by.
+    * @param size the desired size of the allocation
+    * @return the resulting size taking into account the allocator overhead
+    */
+   default long estimateAllocationSize(long size) {
+      return UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(size);
+   }
+
+   /**
+    * Returns whether memory that was deallocated stays addressable while a reader that invoked
+    * {@link #beginOptimisticRead()} before the deallocation hasn't invoked {@link #endOptimisticRead(long)} yet, that
+    * is it is either reused for other allocations or only released to the operating system once those readers are
+    * done. When this is the case such readers may speculatively read memory that is concurrently freed, as long as
+    * they validate what they read before using it.
+    * @return whether freed memory remains readable by optimistic readers
+    */
+   default boolean retainsFreedMemory() {
+      return false;
+   }
+
+   /**
+    * Registers an optimistic reader, memory deallocated after this method returns remains addressable until
+    * {@link #endOptimisticRead(long)} is invoked with the returned value. Only meaningful if
+    * {@link #retainsFreedMemory()} returns {@code true}.
+    * @return the value to pass to {@link #endOptimisticRead(long)}
+    */
+   default long beginOptimisticRead() {
+      return 0;
+   }
+
+   /**
+    * Unregisters an optimistic reader, which must not read any memory it didn't validate afterwards.
+    * @param token the value returned by {@link #beginOptimisticRead()}
+    */
+   default void endOptimisticRead(long token) {
+   }
 }
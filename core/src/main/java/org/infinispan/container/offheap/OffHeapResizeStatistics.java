@@ -0,0 +1,121 @@
+package org.infinispan.container.offheap;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.Units;
+
+/**
+ * Collects statistics about the resizes of the bucket tables of all the {@link OffHeapConcurrentMap} instances of a
+ * cache. A resize transfers the buckets of the old table incrementally as part of the write operations, so a resize
+ * may be in progress for a while and several maps (one per segment) can be resizing at the same time.
+ * @since 12.1
+ */
+@MBean(objectName = "OffHeapResize", description = "Statistics about the resizes of the off-heap bucket tables")
+@Scope(Scopes.NAMED_CACHE)
+public class OffHeapResizeStatistics {
+   private final LongAdder resizesStarted = new LongAdder();
+   private final LongAdder resizesCompleted = new LongAdder();
+   private final LongAdder bucketsToTransfer = new LongAdder();
+   private final LongAdder bucketsTransferred = new LongAdder();
+   private final LongAdder bucketsCompleted = new LongAdder();
+   private final LongAdder totalResizeNanos = new LongAdder();
+   private final AtomicLong maxResizeNanos = new AtomicLong();
+   private volatile long lastResizeNanos;
+
+   void resizeStarted(int bucketCount) {
+      resizesStarted.increment();
+      bucketsToTransfer.add(bucketCount);
+   }
+
+   void bucketsTransferred(int bucketCount) {
+      bucketsTransferred.add(bucketCount);
+   }
+
+   /**
+    * @param bucketCount how many buckets the resize had to transfer
+    * @param bucketsSkipped how many buckets weren't transferred because the map was cleared or closed
+    * @param durationNanos how long it took since the resize started
+    */
+   void resizeCompleted(int bucketCount, int bucketsSkipped, long durationNanos) {
+      bucketsTransferred.add(bucketsSkipped);
+      bucketsCompleted.add(bucketCount);
+      totalResizeNanos.add(durationNanos);
+      lastResizeNanos = durationNanos;
+      maxResizeNanos.accumulateAndGet(durationNanos, Math::max);
+      resizesCompleted.increment();
+   }
+
+   @ManagedAttribute(
+         description = "Number of bucket table resizes that have completed",
+         displayName = "Completed resizes"
+   )
+   public long getResizeCount() {
+      return resizesCompleted.sum();
+   }
+
+   @ManagedAttribute(
+         description = "Number of bucket table resizes that are still transferring buckets",
+         displayName = "Resizes in progress"
+   )
+   public long getResizesInProgress() {
+      return Math.max(0, resizesStarted.sum() - resizesCompleted.sum());
+   }
+
+   @ManagedAttribute(
+         description = "Number of buckets that still have to be transferred by the resizes in progress",
+         displayName = "Pending resize buckets"
+   )
+   public long getPendingResizeBuckets() {
+      return Math.max(0, bucketsToTransfer.sum() - bucketsTransferred.sum());
+   }
+
+   @ManagedAttribute(
+         description = "Percentage of the buckets of the resizes in progress that have been transferred",
+         displayName = "Resize progress",
+         units = Units.PERCENTAGE
+   )
+   public double getResizeProgress() {
+      long completed = bucketsCompleted.sum();
+      long total = bucketsToTransfer.sum() - completed;
+      long transferred = bucketsTransferred.sum() - completed;
+      if (total <= 0 || transferred >= total)
+         return 1;
+      return (double) transferred / total;
+   }
+
+   @ManagedAttribute(
+         description = "Duration of the last completed resize, from when the new table was allocated until all buckets were transferred",
+         displayName = "Last resize duration",
+         units = Units.MILLISECONDS
+   )
+   public long getLastResizeDuration() {
+      return TimeUnit.NANOSECONDS.toMillis(lastResizeNanos);
+   }
+
+   @ManagedAttribute(
+         description = "Longest duration of a completed resize",
+         displayName = "Maximum resize duration",
+         units = Units.MILLISECONDS
+   )
+   public long getMaxResizeDuration() {
+      return TimeUnit.NANOSECONDS.toMillis(maxResizeNanos.get());
+   }
+
+   @ManagedAttribute(
+         description = "Average duration of a completed resize",
+         displayName = "Average resize duration",
+         units = Units.MILLISECONDS
+   )
+   public long getAverageResizeDuration() {
+      long count = resizesCompleted.sum();
+      if (count == 0)
+         return 0;
+      return TimeUnit.NANOSECONDS.toMillis(totalResizeNanos.sum() / count);
+   }
+}
@@ -0,0 +1,403 @@
+package org.infinispan.container.offheap;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.infinispan.commons.util.ProcessorInfo;
+import org.infinispan.commons.util.Util;
+import org.infinispan.factories.annotations.Stop;
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.jmx.annotations.DataType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.Units;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * Memory allocator that carves allocations out of large slabs, where each slab only holds chunks of a single size
+ * class. Freed chunks are never handed back to the system allocator while the cache is running, instead they are
+ * pushed onto a free list so they can be reused by the next allocation of the same size class. This keeps the native
+ * memory footprint close to the configured size even with a high churn of entries.
+ * <p>
+ * Free lists are striped by thread so that threads allocating and freeing concurrently don't contend on the same
+ * lock. A thread first tries its own stripe and only looks at the other stripes when its own is empty, before finally
+ * carving a new chunk from the current slab of the size class.
+ * <p>
+ * Allocations larger than {@link #MAX_POOLED_SIZE} (such as the bucket arrays of the off-heap maps) are rare and
+ * go directly to the system allocator. To allow optimistic readers to speculatively read memory that is concurrently
+ * freed (see {@link #retainsFreedMemory()}), they are only released once every reader registered before their
+ * deallocation has completed, while the slabs are never released before the allocator is stopped.
+ * @since 12.1
+ */
+@MBean(objectName = "OffHeapMemoryAllocator", description = "Slab based allocator of the native memory used by the off-heap data container")
+@Scope(Scopes.NAMED_CACHE)
+public class PooledOffHeapMemoryAllocator implements OffHeapMemoryAllocator {
+   private static final Log log = LogFactory.getLog(PooledOffHeapMemoryAllocator.class, Log.class);
+   private static final OffHeapMemory MEMORY = OffHeapMemory.INSTANCE;
+
+   /**
+    * Size of the slabs requested from the system allocator, some of it may be unused if it is not a multiple of the
+    * chunk size.
+    */
+   static final int SLAB_SIZE = 1 << 20;
+   /**
+    * Largest allocation that is served from a slab
+    */
+   static final int MAX_POOLED_SIZE = 1 << 16;
+   private static final int[] SIZE_CLASSES = sizeClasses();
+   private static final int MAX_STRIPES = 64;
+
+   private final SizeClass[] sizeClasses;
+   private final int stripeMask;
+
+   private final LongAdder pooledAllocated = new LongAdder();
+   private final LongAdder pooledRequested = new LongAdder();
+   private final LongAdder unpooledAllocated = new LongAdder();
+   private final DeferredReclamation reclamation;
+
+   public PooledOffHeapMemoryAllocator() {
+      this(Math.min(MAX_STRIPES, Util.findNextHighestPowerOfTwo(ProcessorInfo.availableProcessors())));
+   }
+
+   PooledOffHeapMemoryAllocator(int stripes) {
+      int stripeCount = Util.findNextHighestPowerOfTwo(stripes);
+      stripeMask = stripeCount - 1;
+      sizeClasses = new SizeClass[SIZE_CLASSES.length];
+      for (int i = 0; i < sizeClasses.length; ++i) {
+         sizeClasses[i] = new SizeClass(SIZE_CLASSES[i], stripeCount);
+      }
+      reclamation = new DeferredReclamation(stripeCount, MEMORY::free);
+   }
+
+   /**
+    * Size classes are spaced by 16 bytes up to 256 bytes, where most entries fall, and then by a quarter of the
+    * previous power of two so that the rounding never wastes more than 20% of a chunk.
+    */
+   private static int[] sizeClasses() {
+      int[] classes = new int[64];
+      int count = 0;
+      for (int size = 16; size <= 256; size += 16) {
+         classes[count++] = size;
+      }
+      for (int base = 256; base < MAX_POOLED_SIZE; base <<= 1) {
+         int step = base >> 2;
+         for (int i = 1; i <= 4; ++i) {
+            classes[count++] = base + i * step;
+         }
+      }
+      return Arrays.copyOf(classes, count);
+   }
+
+   /**
+    * @return the index of the smallest size class that can hold the given size or -1 if it is too large to be pooled
+    */
+   static int sizeClassIndex(long size) {
+      if (size > MAX_POOLED_SIZE) {
+         return -1;
+      }
+      int index = Arrays.binarySearch(SIZE_CLASSES, (int) size);
+      return index >= 0 ? index : -index - 1;
+   }
+
+   private int stripe() {
+      return (int) Thread.currentThread().getId() & stripeMask;
+   }
+
+   @Override
+   public long allocate(long memoryLength) {
+      int index = sizeClassIndex(memoryLength);
+      if (reclamation.isPending()) {
+         reclamation.reclaim();
+      }
+      if (index < 0) {
+         return allocateUnpooled(memoryLength);
+      }
+      SizeClass sizeClass = sizeClasses[index];
+      long memoryLocation = sizeClass.take(stripe());
+      MEMORY.trackBlock(memoryLocation, sizeClass.chunkSize);
+      pooledAllocated.add(sizeClass.chunkSize);
+      pooledRequested.add(memoryLength);
+      if (log.isTraceEnabled()) {
+         log.tracef("Allocated pooled off-heap memory at 0x%016x with %d bytes. Total size: %d", memoryLocation,
+               sizeClass.chunkSize, getAllocatedAmount());
+      }
+      return memoryLocation;
+   }
+
+   private long allocateUnpooled(long memoryLength) {
+      long estimatedMemoryLength = UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(memoryLength);
+      long memoryLocation = MEMORY.allocate(memoryLength);
+      unpooledAllocated.add(estimatedMemoryLength);
+      if (log.isTraceEnabled()) {
+         log.tracef("Allocated off-heap memory at 0x%016x with %d bytes. Total size: %d", memoryLocation,
+               estimatedMemoryLength, getAllocatedAmount());
+      }
+      return memoryLocation;
+   }
+
+   @Override
+   public void deallocate(long memoryAddress, long size) {
+      int index = sizeClassIndex(size);
+      if (index < 0) {
+         long estimatedMemoryLength = UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(size);
+         unpooledAllocated.add(-estimatedMemoryLength);
+         if (log.isTraceEnabled()) {
+            log.tracef("Deallocating off-heap memory at 0x%016x with %d bytes. Total size: %d", memoryAddress,
+                  estimatedMemoryLength, getAllocatedAmount());
+         }
+         reclamation.retire(memoryAddress);
+         return;
+      }
+      SizeClass sizeClass = sizeClasses[index];
+      MEMORY.untrackBlock(memoryAddress);
+      pooledAllocated.add(-sizeClass.chunkSize);
+      pooledRequested.add(-size);
+      if (log.isTraceEnabled()) {
+         log.tracef("Returning pooled off-heap memory at 0x%016x with %d bytes. Total size: %d", memoryAddress,
+               sizeClass.chunkSize, getAllocatedAmount());
+      }
+      sizeClass.freeLists[stripe()].push(memoryAddress);
+   }
+
+   @Override
+   public long estimateAllocationSize(long size) {
+      int index = sizeClassIndex(size);
+      return index < 0 ? UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(size) : SIZE_CLASSES[index];
+   }
+
+   /**
+    * Freed slab chunks are only recycled for allocations of the same size class and slabs are only released when this
+    * allocator is stopped, while allocations larger than {@link #MAX_POOLED_SIZE} are only released once no optimistic
+    * read that started before they were deallocated is running.
+    */
+   @Override
+   public boolean retainsFreedMemory() {
+      return true;
+   }
+
+   @Override
+   public long beginOptimisticRead() {
+      return reclamation.enter();
+   }
+
+   @Override
+   public void endOptimisticRead(long token) {
+      reclamation.exit(token);
+   }
+
+   @ManagedAttribute(
+         description = "Amount of memory in bytes allocated to off-heap entries and tables, including the rounding up to size classes",
+         displayName = "Allocated memory",
+         units = Units.BYTES
+   )
+   @Override
+   public long getAllocatedAmount() {
+      return pooledAllocated.sum() + unpooledAllocated.sum();
+   }
+
+   @ManagedAttribute(
+         description = "Amount of memory in bytes reserved from the system allocator by the slabs",
+         displayName = "Slab memory",
+         units = Units.BYTES
+   )
+   public long getSlabMemory() {
+      long total = 0;
+      for (SizeClass sizeClass : sizeClasses) {
+         total += sizeClass.reservedBytes();
+      }
+      return total;
+   }
+
+   @ManagedAttribute(
+         description = "Number of slabs reserved from the system allocator",
+         displayName = "Slab count"
+   )
+   public int getSlabCount() {
+      int total = 0;
+      for (SizeClass sizeClass : sizeClasses) {
+         total += sizeClass.slabCount();
+      }
+      return total;
+   }
+
+   @ManagedAttribute(
+         description = "Percentage of the slab memory that is currently allocated to entries",
+         displayName = "Slab occupancy",
+         units = Units.PERCENTAGE
+   )
+   public double getSlabOccupancy() {
+      long reserved = getSlabMemory();
+      if (reserved == 0)
+         return 0;
+      return (double) pooledAllocated.sum() / reserved;
+   }
+
+   @ManagedAttribute(
+         description = "Percentage of the allocated slab chunks that is wasted by rounding up to a size class",
+         displayName = "Internal fragmentation",
+         units = Units.PERCENTAGE
+   )
+   public double getFragmentation() {
+      long allocated = pooledAllocated.sum();
+      if (allocated == 0)
+         return 0;
+      return 1 - (double) pooledRequested.sum() / allocated;
+   }
+
+   @ManagedAttribute(
+         description = "Number of slab chunks allocated to entries, per size class",
+         displayName = "Chunks in use per size class",
+         dataType = DataType.TRAIT
+   )
+   public String getSizeClassOccupancy() {
+      StringBuilder sb = new StringBuilder("{");
+      for (SizeClass sizeClass : sizeClasses) {
+         int slabs = sizeClass.slabCount();
+         if (slabs == 0)
+            continue;
+         if (sb.length() > 1)
+            sb.append(", ");
+         sb.append(sizeClass.chunkSize).append('=').append(sizeClass.chunksInUse()).append('/')
+           .append(slabs * sizeClass.chunksPerSlab);
+      }
+      return sb.append('}').toString();
+   }
+
+   /**
+    * Releases all slabs, and the large allocations still waiting for optimistic readers, back to the system allocator.
+    * Containers are stopped before this component, so any entries they held have already been deallocated.
+    */
+   @Stop
+   public void stop() {
+      reclamation.releaseAll();
+      for (SizeClass sizeClass : sizeClasses) {
+         sizeClass.release();
+      }
+      pooledAllocated.reset();
+      pooledRequested.reset();
+   }
+
+   private static final class SizeClass {
+      final int chunkSize;
+      final int chunksPerSlab;
+      final FreeList[] freeLists;
+
+      // Following fields are guarded by this
+      private long[] slabs = new long[4];
+      private int slabCount;
+      private long nextChunk;
+      private long slabEnd;
+      private long carvedChunks;
+
+      SizeClass(int chunkSize, int stripes) {
+         this.chunkSize = chunkSize;
+         this.chunksPerSlab = SLAB_SIZE / chunkSize;
+         this.freeLists = new FreeList[stripes];
+         for (int i = 0; i < stripes; ++i) {
+            freeLists[i] = new FreeList();
+         }
+      }
+
+      long take(int stripe) {
+         int mask = freeLists.length - 1;
+         for (int i = 0; i < freeLists.length; ++i) {
+            FreeList freeList = freeLists[(stripe + i) & mask];
+            // Racy check to avoid locking empty stripes, carving a chunk when there is a free one is harmless
+            if (!freeList.isEmpty()) {
+               long address = freeList.pop();
+               if (address != 0) {
+                  return address;
+               }
+            }
+         }
+         return carve();
+      }
+
+      private synchronized long carve() {
+         if (nextChunk == slabEnd) {
+            long slabLength = (long) chunksPerSlab * chunkSize;
+            long slab = MEMORY.allocateRegion(slabLength);
+            if (slabCount == slabs.length) {
+               slabs = Arrays.copyOf(slabs, slabCount << 1);
+            }
+            slabs[slabCount++] = slab;
+            nextChunk = slab;
+            slabEnd = slab + slabLength;
+            if (log.isTraceEnabled()) {
+               log.tracef("Reserved slab at 0x%016x with %d chunks of %d bytes", slab, chunksPerSlab, chunkSize);
+            }
+         }
+         long address = nextChunk;
+         nextChunk += chunkSize;
+         carvedChunks++;
+         return address;
+      }
+
+      synchronized int slabCount() {
+         return slabCount;
+      }
+
+      synchronized long reservedBytes() {
+         return (long) slabCount * chunksPerSlab * chunkSize;
+      }
+
+      long chunksInUse() {
+         long free = 0;
+         for (FreeList freeList : freeLists) {
+            free += freeList.size;
+         }
+         synchronized (this) {
+            return carvedChunks - free;
+         }
+      }
+
+      synchronized void release() {
+         for (FreeList freeList : freeLists) {
+            freeList.clear();
+         }
+         for (int i = 0; i < slabCount; ++i) {
+            MEMORY.freeRegion(slabs[i]);
+            slabs[i] = 0;
+         }
+         slabCount = 0;
+         nextChunk = 0;
+         slabEnd = 0;
+         carvedChunks = 0;
+      }
+   }
+
+   private static final class FreeList {
+      // Guarded by this, but can be read without the lock as a hint
+      private volatile int size;
+      private long[] addresses = new long[16];
+
+      boolean isEmpty() {
+         return size == 0;
+      }
+
+      synchronized void push(long address) {
+         int currentSize = size;
+         if (currentSize == addresses.length) {
+            addresses = Arrays.copyOf(addresses, currentSize << 1);
+         }
+         addresses[currentSize] = address;
+         size = currentSize + 1;
+      }
+
+      synchronized long pop() {
+         int currentSize = size;
+         if (currentSize == 0) {
+            return 0;
+         }
+         size = --currentSize;
+         return addresses[currentSize];
+      }
+
+      synchronized void clear() {
+         size = 0;
+         addresses = new long[16];
+      }
+   }
+}
@@ -1,12 +1,16 @@
 package org.infinispan.container.offheap;
 
 import java.lang.invoke.MethodHandles;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.StampedLock;
 import java.util.function.Supplier;
 
 import org.infinispan.commons.marshall.WrappedBytes;
+import org.infinispan.commons.util.ProcessorInfo;
+import org.infinispan.commons.util.Util;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.container.impl.AbstractDelegatingInternalDataContainer;
 import org.infinispan.container.impl.AbstractInternalDataContainer;
@@ -30,12 +34,24 @@
 import org.infinispan.util.logging.LogFactory;
 
 /**
+ * Bounded off-heap container that evicts entries in approximately least recently used order.
+ * <p>
+ * Instead of a single LRU list the entries are spread over a number of {@link LruStripe stripes} by their hash code,
+ * each one with its own LRU list and lock. When the container is full an entry is evicted from the head of each
+ * stripe in turn. Retrieving an entry only moves it to the end of its list if the lock of the stripe can be acquired
+ * without waiting, so that reads never block each other. Under contention the order is thus only approximate, in the
+ * same way as it is for the on-heap bounded containers.
  * @author wburns
  * @since 9.4
  */
 @Scope(Scopes.NAMED_CACHE)
 public class SegmentedBoundedOffHeapDataContainer extends AbstractDelegatingInternalDataContainer<WrappedBytes, WrappedBytes> {
    private static final Log log = LogFactory.getLog(MethodHandles.lookup().lookupClass());
+   private static final AtomicLongFieldUpdater<SegmentedBoundedOffHeapDataContainer> CURRENT_SIZE_UPDATER =
+         AtomicLongFieldUpdater.newUpdater(SegmentedBoundedOffHeapDataContainer.class, "currentSize");
+   private static final int MAX_LRU_STRIPES = 256;
+   // The minimum amount (of entries or bytes) that a stripe should be able to hold
+   private static final int MIN_STRIPE_SIZE = 64;
 
    private final OffHeapListener offHeapListener;
 
@@ -43,20 +59,21 @@ public class SegmentedBoundedOffHeapDataContainer extends AbstractDelegatingInte
 
    @Inject protected OffHeapMemoryAllocator allocator;
    @Inject protected OffHeapEntryFactory offHeapEntryFactory;
+   @Inject protected OffHeapResizeStatistics resizeStatistics;
 
    @Inject protected EvictionManager evictionManager;
    @Inject protected ComponentRef<PassivationManager> passivator;
    @Inject protected DataOperationOrderer orderer;
 
    protected final long maxSize;
-   protected final Lock lruLock;
    protected final boolean useCount;
    protected final int numSegments;
 
-   // Must be updated inside lruLock#writeLock - but can be read outside of lock
+   // Only updated atomically through CURRENT_SIZE_UPDATER
    protected volatile long currentSize;
-   protected long firstAddress;
-   protected long lastAddress;
+   private final LruStripe[] lruStripes;
+   private final int lruStripeMask;
+   private final AtomicInteger nextEvictionStripe = new AtomicInteger();
 
    protected DefaultSegmentedDataContainer dataContainer;
 
@@ -67,8 +84,11 @@ public SegmentedBoundedOffHeapDataContainer(int numSegments, long maxSize, Evict
       this.maxSize = maxSize;
       this.useCount = type == EvictionType.COUNT;
       OffHeapMapSupplier offHeapMapSupplier = new OffHeapMapSupplier();
-      this.lruLock = new ReentrantLock();
-      firstAddress = 0;
+      lruStripes = new LruStripe[lruStripeCount(maxSize)];
+      for (int i = 0; i < lruStripes.length; ++i) {
+         lruStripes[i] = new LruStripe();
+      }
+      lruStripeMask = lruStripes.length - 1;
 
       dataContainer = new DefaultSegmentedDataContainer<>(offHeapMapSupplier, numSegments);
    }
@@ -140,16 +160,17 @@ protected OffHeapConcurrentMap getMapThatContainsKey(byte[] key) {
    }
 
    /**
-    * This method repeatedly removes the head of the LRU list until there the current size is less than or equal to
-    * `maxSize`.
+    * This method repeatedly removes the head of the LRU list of a stripe until the current size is less than or equal
+    * to `maxSize`. The stripes are visited in a round robin fashion, so that entries are evicted evenly from all of
+    * them.
     * <p>
-    * We need to hold the LRU lock in order to check the current size and to read the head entry,
+    * We need to hold the stripe lock in order to read the head entry,
     * and then we need to hold the head entry's write lock in order to remove it.
-    * The problem is that the correct acquisition order is entry write lock first, LRU lock second,
-    * and we need to hold the LRU lock so that we know which entry write lock to acquire.
+    * The problem is that the correct acquisition order is entry write lock first, stripe lock second,
+    * and we need to hold the stripe lock so that we know which entry write lock to acquire.
     * <p>
     * To work around it, we first try to acquire the entry write lock without blocking.
-    * If that fails, we release the LRU lock and we acquire the locks in the correct order, hoping that
+    * If that fails, we release the stripe lock and we acquire the locks in the correct order, hoping that
     * the LRU head doesn't change while we wait. Because the entry write locks are striped, we actually
     * tolerate a LRU head change as long as the new head entry is in the same lock stripe.
     * If the LRU list head changes, we release both locks and try again.
@@ -165,13 +186,21 @@ private void ensureSize() {
          StampedLock stampedLock;
          long writeStamp;
          OffHeapConcurrentMap map;
-         lruLock.lock();
+         LruStripe stripe = nextEvictionStripe();
+         if (stripe == null) {
+            // All stripes are empty, which means that only the bucket tables are left
+            break;
+         }
+         stripe.lock.lock();
          try {
             if (currentSize <= maxSize) {
                break;
             }
-            // We shouldn't be able to get into this state
-            assert firstAddress > 0;
+            long firstAddress = stripe.firstAddress;
+            if (firstAddress == 0) {
+               // The stripe was emptied concurrently
+               continue;
+            }
             // We read the key before hashCode due to how off-heap bytes are written (key requires reading metadata
             // which comes before hashCode, which should keep hashCode bytes in memory register in most cases)
             byte[] key = offHeapEntryFactory.getKey(firstAddress);
@@ -192,33 +221,36 @@ private void ensureSize() {
                continue;
             }
          } finally {
-            lruLock.unlock();
+            stripe.lock.unlock();
          }
 
          // If we got here it means we were unable to acquire the write lock, so we have to attempt a blocking
-         // write lock and then acquire the lruLock, since they have to be acquired in that order (exception using
+         // write lock and then acquire the stripe lock, since they have to be acquired in that order (exception using
          // try lock as above)
          if (addressToRemove == 0) {
             writeStamp = stampedLock.writeLock();
             try {
-               lruLock.lock();
+               stripe.lock.lock();
                try {
                   if (currentSize <= maxSize) {
                      break;
                   }
                   // Now that we have locks we have to verify the first address is protected by the same lock still
-                  byte[] key = offHeapEntryFactory.getKey(firstAddress);
-
-                  OffHeapConcurrentMap protectedMap = getMapThatContainsKey(key);
-                  if (protectedMap == map) {
-                     int hashCode = offHeapEntryFactory.getHashCode(firstAddress);
-                     StampedLock innerLock = map.getStampedLock(hashCode);
-                     if (innerLock == stampedLock) {
-                        addressToRemove = firstAddress;
+                  long firstAddress = stripe.firstAddress;
+                  if (firstAddress != 0) {
+                     byte[] key = offHeapEntryFactory.getKey(firstAddress);
+
+                     OffHeapConcurrentMap protectedMap = getMapThatContainsKey(key);
+                     if (protectedMap == map) {
+                        int hashCode = offHeapEntryFactory.getHashCode(firstAddress);
+                        StampedLock innerLock = map.getStampedLock(hashCode);
+                        if (innerLock == stampedLock) {
+                           addressToRemove = firstAddress;
+                        }
                      }
                   }
                } finally {
-                  lruLock.unlock();
+                  stripe.lock.unlock();
                }
             } finally {
                if (addressToRemove == 0) {
@@ -245,11 +277,53 @@ private void ensureSize() {
       }
    }
 
+   /**
+    * Returns the next stripe in round robin order that has any entries, or null if all of them are empty.
+    */
+   private LruStripe nextEvictionStripe() {
+      int start = nextEvictionStripe.getAndIncrement();
+      for (int i = 0; i < lruStripes.length; ++i) {
+         LruStripe stripe = lruStripes[(start + i) & lruStripeMask];
+         if (stripe.firstAddress != 0) {
+            return stripe;
+         }
+      }
+      return null;
+   }
+
+   private LruStripe stripeForEntry(long address) {
+      int hashCode = offHeapEntryFactory.getHashCode(address);
+      // The lock regions of the maps use the high bits of the hash, so use the low bits to spread over the stripes
+      return lruStripes[(hashCode ^ (hashCode >>> 16)) & lruStripeMask];
+   }
+
+   private void addToSize(long change) {
+      CURRENT_SIZE_UPDATER.addAndGet(this, change);
+   }
+
+   static int lruStripeCount(long maxSize) {
+      int stripes = Math.min(Util.findNextHighestPowerOfTwo(ProcessorInfo.availableProcessors()) << 2, MAX_LRU_STRIPES);
+      // Small containers would evict entries that are far from being the least recently used with many stripes
+      long stripesForSize = Long.highestOneBit(Math.max(1, maxSize / MIN_STRIPE_SIZE));
+      return (int) Math.min(stripes, stripesForSize);
+   }
+
+   /**
+    * A LRU list of the entries whose hash maps to this stripe. The list is linked through the first 16 bytes of each
+    * entry, see {@link OffHeapLruNode}.
+    */
+   private static class LruStripe {
+      final Lock lock = new ReentrantLock();
+      // Must be updated while holding the lock but can be read outside of it to find a stripe to evict from
+      volatile long firstAddress;
+      long lastAddress;
+   }
+
    private class OffHeapMapSupplier implements Supplier<PeekableTouchableMap<WrappedBytes,
             WrappedBytes>> {
       @Override
       public PeekableTouchableMap<WrappedBytes, WrappedBytes> get() {
-         return new OffHeapConcurrentMap(allocator, offHeapEntryFactory, offHeapListener);
+         return new OffHeapConcurrentMap(allocator, offHeapEntryFactory, offHeapListener, resizeStatistics);
       }
    }
 
@@ -260,109 +334,105 @@ public boolean resize(int pointerCount) {
          if (useCount) {
             return true;
          }
-         lruLock.lock();
-         try {
-            boolean isNegative = pointerCount < 0;
-            long memoryUsed = ((long) Math.abs(pointerCount)) << 3;
-            long change = UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(memoryUsed);
-
-            // We only attempt to deny resizes that are an increase in pointers
-            if (!isNegative) {
-               long changeSizeForAllSegments = change * numSegments;
-               // If the pointers for all segments alone would fill the entire memory cache region, don't let it resize
-               if (changeSizeForAllSegments < 0 || changeSizeForAllSegments >= maxSize) {
-                  return false;
-               }
-            }
-            if (isNegative) {
-               currentSize -= change;
-            } else {
-               currentSize += change;
+         boolean isNegative = pointerCount < 0;
+         long memoryUsed = ((long) Math.abs(pointerCount)) << 3;
+         long change = allocator.estimateAllocationSize(memoryUsed);
+
+         // We only attempt to deny resizes that are an increase in pointers
+         if (!isNegative) {
+            long changeSizeForAllSegments = change * numSegments;
+            // If the pointers for all segments alone would fill the entire memory cache region, don't let it resize
+            if (changeSizeForAllSegments < 0 || changeSizeForAllSegments >= maxSize) {
+               return false;
             }
-         } finally {
-            lruLock.unlock();
          }
+         addToSize(isNegative ? -change : change);
          return true;
       }
 
       @Override
       public void entryCreated(long newAddress) {
          long newSize = getSize(newAddress);
-         lruLock.lock();
+         addToSize(newSize);
+         LruStripe stripe = stripeForEntry(newAddress);
+         stripe.lock.lock();
          try {
-            currentSize += newSize;
-            addEntryAddressToEnd(newAddress);
+            addEntryAddressToEnd(stripe, newAddress);
          } finally {
-            lruLock.unlock();
+            stripe.lock.unlock();
          }
       }
 
       @Override
       public void entryRemoved(long removedAddress) {
          long removedSize = getSize(removedAddress);
-         lruLock.lock();
+         LruStripe stripe = stripeForEntry(removedAddress);
+         stripe.lock.lock();
          try {
-            // Current size has to be updated in the lock
-            currentSize -=  removedSize;
-            removeNode(removedAddress);
+            removeNode(stripe, removedAddress);
          } finally {
-            lruLock.unlock();
+            stripe.lock.unlock();
          }
+         addToSize(-removedSize);
       }
 
       @Override
       public void entryReplaced(long newAddress, long oldAddress) {
          long oldSize = getSize(oldAddress);
          long newSize = getSize(newAddress);
-         lruLock.lock();
+         // Both entries have the same key, so they are always in the same stripe
+         LruStripe stripe = stripeForEntry(oldAddress);
+         stripe.lock.lock();
          try {
-            removeNode(oldAddress);
-            addEntryAddressToEnd(newAddress);
-
-            currentSize += newSize;
-            currentSize -= oldSize;
+            removeNode(stripe, oldAddress);
+            addEntryAddressToEnd(stripe, newAddress);
          } finally {
-            lruLock.unlock();
+            stripe.lock.unlock();
          }
+         addToSize(newSize - oldSize);
       }
 
       @Override
       public void entryRetrieved(long entryAddress) {
-         lruLock.lock();
-         try {
-            if (log.isTraceEnabled()) {
-               log.tracef("Moving entry 0x%016x to the end of the LRU list", entryAddress);
+         LruStripe stripe = stripeForEntry(entryAddress);
+         // Reads must not block each other, so if the stripe is busy the access is just not recorded
+         if (stripe.lock.tryLock()) {
+            try {
+               if (log.isTraceEnabled()) {
+                  log.tracef("Moving entry 0x%016x to the end of the LRU list", entryAddress);
+               }
+               moveToEnd(stripe, entryAddress);
+            } finally {
+               stripe.lock.unlock();
             }
-            moveToEnd(entryAddress);
-         } finally {
-            lruLock.unlock();
          }
       }
 
       /**
        * Method to be invoked when adding a new entry address to the end of the lru nodes.  This occurs for newly created
        * entries.
-       * This method should only be invoked after acquiring the lruLock
+       * This method should only be invoked after acquiring the lock of the stripe
        *
+       * @param stripe the stripe the entry belongs to
        * @param entryAddress the new entry address pointer *NOT* the lru node
        */
-      private void addEntryAddressToEnd(long entryAddress) {
+      private void addEntryAddressToEnd(LruStripe stripe, long entryAddress) {
          if (log.isTraceEnabled()) {
             log.tracef("Adding entry 0x%016x to the end of the LRU list", entryAddress);
          }
          // This means it is the first entry
-         if (lastAddress == 0) {
-            firstAddress = entryAddress;
-            lastAddress = entryAddress;
+         if (stripe.lastAddress == 0) {
+            stripe.firstAddress = entryAddress;
+            stripe.lastAddress = entryAddress;
             // Have to make sure the memory is cleared so we don't use unitialized values
             OffHeapLruNode.setPrevious(entryAddress, 0);
          } else {
             // Writes back pointer to the old lastAddress
-            OffHeapLruNode.setPrevious(entryAddress, lastAddress);
+            OffHeapLruNode.setPrevious(entryAddress, stripe.lastAddress);
             // Write the forward pointer in old lastAddress to point to us
-            OffHeapLruNode.setNext(lastAddress, entryAddress);
+            OffHeapLruNode.setNext(stripe.lastAddress, entryAddress);
             // Finally make us the last address
-            lastAddress = entryAddress;
+            stripe.lastAddress = entryAddress;
          }
          // Since we are last there is no pointer after us
          OffHeapLruNode.setNext(entryAddress, 0);
@@ -370,12 +440,13 @@ private void addEntryAddressToEnd(long entryAddress) {
 
       /**
        * Removes the address node and updates previous and next lru node pointers properly
-       * The {@link BoundedOffHeapDataContainer#lruLock} <b>must</b> be held when invoking this
+       * The lock of the stripe <b>must</b> be held when invoking this
+       * @param stripe the stripe the entry belongs to
        * @param address
        */
-      private void removeNode(long address) {
+      private void removeNode(LruStripe stripe, long address) {
          boolean middleNode = true;
-         if (address == lastAddress) {
+         if (address == stripe.lastAddress) {
             if (log.isTraceEnabled()) {
                log.tracef("Removed entry 0x%016x from the end of the LRU list", address);
             }
@@ -383,10 +454,10 @@ private void removeNode(long address) {
             if (previousLRUNode != 0) {
                OffHeapLruNode.setNext(previousLRUNode, 0);
             }
-            lastAddress = previousLRUNode;
+            stripe.lastAddress = previousLRUNode;
             middleNode = false;
          }
-         if (address == firstAddress) {
+         if (address == stripe.firstAddress) {
             if (log.isTraceEnabled()) {
                log.tracef("Removed entry 0x%016x from the beginning of the LRU list", address);
             }
@@ -394,7 +465,7 @@ private void removeNode(long address) {
             if (nextLRUNode != 0) {
                OffHeapLruNode.setPrevious(nextLRUNode, 0);
             }
-            firstAddress = nextLRUNode;
+            stripe.firstAddress = nextLRUNode;
             middleNode = false;
          }
          if (middleNode) {
@@ -414,17 +485,18 @@ private void removeNode(long address) {
       /**
        * Method to be invoked when moving an existing lru node to the end.  This occurs when the entry is accessed for this
        * node.
-       * This method should only be invoked after acquiring the lruLock.
+       * This method should only be invoked after acquiring the lock of the stripe.
        *
+       * @param stripe the stripe the entry belongs to
        * @param lruNode the node to move to the end
        */
-      private void moveToEnd(long lruNode) {
-         if (lruNode != lastAddress) {
+      private void moveToEnd(LruStripe stripe, long lruNode) {
+         if (lruNode != stripe.lastAddress) {
             long nextLruNode = OffHeapLruNode.getNext(lruNode);
             assert nextLruNode != 0;
-            if (lruNode == firstAddress) {
+            if (lruNode == stripe.firstAddress) {
                OffHeapLruNode.setPrevious(nextLruNode, 0);
-               firstAddress = nextLruNode;
+               stripe.firstAddress = nextLruNode;
             } else {
                long prevLruNode = OffHeapLruNode.getPrevious(lruNode);
                assert prevLruNode != 0;
@@ -432,11 +504,11 @@ private void moveToEnd(long lruNode) {
                OffHeapLruNode.setPrevious(nextLruNode, prevLruNode);
             }
             // Link the previous last node to our new last node
-            OffHeapLruNode.setNext(lastAddress, lruNode);
+            OffHeapLruNode.setNext(stripe.lastAddress, lruNode);
             // Sets the previous node of our new tail node to the previous tail node
-            OffHeapLruNode.setPrevious(lruNode, lastAddress);
+            OffHeapLruNode.setPrevious(lruNode, stripe.lastAddress);
             OffHeapLruNode.setNext(lruNode, 0);
-            lastAddress = lruNode;
+            stripe.lastAddress = lruNode;
          }
       }
    }
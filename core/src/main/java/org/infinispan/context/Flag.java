@@ -258,6 +258,14 @@ public enum Flag {
     * Some things do not need to be checked in this case.
     */
    BACKUP_WRITE,
+
+   /**
+    * Reads the entry from a random owner first, like {@link org.infinispan.configuration.cache.ReadOwnerMode#BALANCED},
+    * instead of the owner selected by the cache configuration. The maximum read staleness of the cache still applies.
+    * <p>
+    * Only affects reads in distributed caches, when the local node is not an owner.
+    */
+   READ_FROM_ANY_OWNER,
    ;
 
    private static final Flag[] CACHED_VALUES = values();
@@ -46,6 +46,7 @@ public class FlagBitSets {
    public static final long IRAC_STATE = EnumUtil.bitSetOf(Flag.IRAC_STATE);
    public static final long ALREADY_HAS_LOCK = EnumUtil.bitSetOf(Flag.ALREADY_HAS_LOCK);
    public static final long BACKUP_WRITE = EnumUtil.bitSetOf(Flag.BACKUP_WRITE);
+   public static final long READ_FROM_ANY_OWNER = EnumUtil.bitSetOf(Flag.READ_FROM_ANY_OWNER);
 
    /**
     * Creates a copy of a Flag BitSet removing instances of FAIL_SILENTLY.
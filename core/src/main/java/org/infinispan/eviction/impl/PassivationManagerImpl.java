@@ -9,7 +9,10 @@
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.infinispan.commons.time.TimeService;
+import org.infinispan.commons.util.IntSet;
+import org.infinispan.commons.util.IntSets;
 import org.infinispan.commons.util.IteratorMapper;
+import org.infinispan.commons.util.ProcessorInfo;
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.entries.InternalCacheEntry;
@@ -31,6 +34,9 @@
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+
 public class PassivationManagerImpl extends AbstractPassivationManager {
    private static final Log log = LogFactory.getLog(PassivationManagerImpl.class);
 
@@ -117,14 +123,28 @@ public CompletionStage<Void> passivateAllAsync() throws PersistenceException {
       }
 
       int count = container.sizeIncludingExpired();
-      Iterable<MarshallableEntry<Object, Object>> iterable = () -> new IteratorMapper<>(container.iterator(), e -> marshalledEntryFactory.create((InternalCacheEntry) e));
-      return persistenceManager.writeEntries(iterable, PRIVATE)
-                               .thenRun(() -> {
-                                  long durationMillis = timeService.timeDuration(start, TimeUnit.MILLISECONDS);
-                                  if (CONTAINER.isDebugEnabled()) {
-                                     CONTAINER.debugf("Passivated %d entries in %s", count, Util.prettyPrintTime(durationMillis));
-                                  }
-                               });
+      CompletionStage<Void> stage;
+      if (cfg.clustering().cacheMode().needsStateTransfer()) {
+         // The container is segmented, write several segments in parallel with a batch each
+         stage = Flowable.range(0, cfg.clustering().hash().numSegments())
+               .flatMapCompletable(segment -> Completable.fromCompletionStage(
+                     persistenceManager.writeEntries(entries(IntSets.immutableSet(segment)), PRIVATE)),
+                     false, ProcessorInfo.availableProcessors())
+               .toCompletionStage(null);
+      } else {
+         stage = persistenceManager.writeEntries(entries(null), PRIVATE);
+      }
+      return stage.thenRun(() -> {
+         long durationMillis = timeService.timeDuration(start, TimeUnit.MILLISECONDS);
+         if (CONTAINER.isDebugEnabled()) {
+            CONTAINER.debugf("Passivated %d entries in %s", count, Util.prettyPrintTime(durationMillis));
+         }
+      });
+   }
+
+   private Iterable<MarshallableEntry<Object, Object>> entries(IntSet segments) {
+      return () -> new IteratorMapper<>(segments == null ? container.iterator() : container.iterator(segments),
+            e -> marshalledEntryFactory.create((InternalCacheEntry) e));
    }
 
    @Override
@@ -30,6 +30,9 @@
    public int getPoolSize() {
       if (executor instanceof ThreadPoolExecutor) {
          return ((ThreadPoolExecutor) executor).getPoolSize();
+      } else if (executor instanceof VirtualThreadExecutor) {
+         // Each active task has its own thread
+         return ((VirtualThreadExecutor) executor).getActiveCount();
       } else {
          return -1;
       }
@@ -43,6 +46,8 @@ public int getPoolSize() {
    public int getActiveCount() {
       if (executor instanceof ThreadPoolExecutor) {
          return ((ThreadPoolExecutor) executor).getActiveCount();
+      } else if (executor instanceof VirtualThreadExecutor) {
+         return ((VirtualThreadExecutor) executor).getActiveCount();
       } else {
          return -1;
       }
@@ -57,6 +62,8 @@ public int getActiveCount() {
    public int getMaximumPoolSize() {
       if (executor instanceof ThreadPoolExecutor) {
          return ((ThreadPoolExecutor) executor).getMaximumPoolSize();
+      } else if (executor instanceof VirtualThreadExecutor) {
+         return ((VirtualThreadExecutor) executor).getMaxConcurrency();
       } else {
          return -1;
       }
@@ -68,6 +75,8 @@ public void setMaximumPoolSize(int maximumPoolSize) {
          if (!(((ThreadPoolExecutor)executor).getQueue() instanceof SynchronousQueue)) {
             ((ThreadPoolExecutor) executor).setCorePoolSize(maximumPoolSize);
          }
+      } else if (executor instanceof VirtualThreadExecutor) {
+         ((VirtualThreadExecutor) executor).setMaxConcurrency(maximumPoolSize);
       } else {
          throw new UnsupportedOperationException();
       }
@@ -81,6 +90,8 @@ public void setMaximumPoolSize(int maximumPoolSize) {
    public int getLargestPoolSize() {
       if (executor instanceof ThreadPoolExecutor) {
          return ((ThreadPoolExecutor) executor).getLargestPoolSize();
+      } else if (executor instanceof VirtualThreadExecutor) {
+         return ((VirtualThreadExecutor) executor).getLargestActiveCount();
       } else {
          return -1;
       }
@@ -94,6 +105,8 @@ public int getLargestPoolSize() {
    public int getQueueSize() {
       if (executor instanceof ThreadPoolExecutor) {
          return ((ThreadPoolExecutor) executor).getQueue().size();
+      } else if (executor instanceof VirtualThreadExecutor) {
+         return ((VirtualThreadExecutor) executor).getQueueSize();
       } else {
          return -1;
       }
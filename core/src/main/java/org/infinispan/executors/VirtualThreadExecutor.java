@@ -0,0 +1,215 @@
+package org.infinispan.executors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.infinispan.commons.util.concurrent.BlockingRejectedExecutionHandler;
+
+/**
+ * Executor that runs every task on a new thread from its {@link ThreadFactory}, instead of a pool of reused threads.
+ * <p>
+ * It is meant for blocking tasks with a thread factory that creates virtual threads, see
+ * {@link org.infinispan.factories.threads.VirtualThreads}, so that a task blocked on I/O or on a lock doesn't hold a
+ * platform thread. The number of tasks running concurrently is still limited, so that a latency spike doesn't turn
+ * into an unbounded number of concurrent store operations, and the tasks over the limit wait in a bounded queue. A
+ * task rejected because the queue is full is handled by the {@link BlockingRejectedExecutionHandler}, like with the
+ * bounded thread pools.
+ *
+ * @since 12.1
+ */
+public class VirtualThreadExecutor extends AbstractExecutorService {
+   private final ThreadFactory threadFactory;
+   private final int maxQueueLength;
+   private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+   private final AtomicInteger queueLength = new AtomicInteger();
+   private final AtomicInteger activeCount = new AtomicInteger();
+   private final AtomicInteger largestActiveCount = new AtomicInteger();
+   private final LongAdder completedTasks = new LongAdder();
+   private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+   private volatile int maxConcurrency;
+   private volatile boolean shutdown;
+
+   public VirtualThreadExecutor(ThreadFactory threadFactory, int maxConcurrency, int maxQueueLength) {
+      this.threadFactory = threadFactory;
+      this.maxConcurrency = maxConcurrency;
+      this.maxQueueLength = maxQueueLength;
+   }
+
+   @Override
+   public void execute(Runnable task) {
+      if (shutdown) {
+         BlockingRejectedExecutionHandler.getInstance().rejectedExecution(task, this);
+         return;
+      }
+      if (tryAcquire()) {
+         start(task);
+         return;
+      }
+      if (queueLength.incrementAndGet() > maxQueueLength) {
+         queueLength.decrementAndGet();
+         BlockingRejectedExecutionHandler.getInstance().rejectedExecution(task, this);
+         return;
+      }
+      queue.offer(task);
+      // A running task may have completed before the task was queued
+      startQueuedTasks();
+   }
+
+   private boolean tryAcquire() {
+      while (true) {
+         int active = activeCount.get();
+         if (active >= maxConcurrency) {
+            return false;
+         }
+         if (activeCount.compareAndSet(active, active + 1)) {
+            largestActiveCount.accumulateAndGet(active + 1, Math::max);
+            return true;
+         }
+      }
+   }
+
+   private void release() {
+      if (activeCount.decrementAndGet() == 0 && shutdown && queue.isEmpty()) {
+         synchronized (this) {
+            notifyAll();
+         }
+      }
+   }
+
+   private Runnable pollQueue() {
+      Runnable task = queue.poll();
+      if (task != null) {
+         queueLength.decrementAndGet();
+      }
+      return task;
+   }
+
+   private void startQueuedTasks() {
+      while (!queue.isEmpty() && tryAcquire()) {
+         Runnable task = pollQueue();
+         if (task == null) {
+            release();
+         } else {
+            start(task);
+         }
+      }
+   }
+
+   private void start(Runnable task) {
+      try {
+         threadFactory.newThread(() -> run(task)).start();
+      } catch (Throwable t) {
+         release();
+         throw t;
+      }
+   }
+
+   private void run(Runnable firstTask) {
+      Thread thread = Thread.currentThread();
+      threads.add(thread);
+      try {
+         // Keep running the queued tasks, instead of starting a new thread for each of them
+         Runnable task = firstTask;
+         while (task != null) {
+            try {
+               task.run();
+            } finally {
+               completedTasks.increment();
+            }
+            task = pollQueue();
+         }
+      } finally {
+         threads.remove(thread);
+         release();
+         startQueuedTasks();
+      }
+   }
+
+   public int getActiveCount() {
+      return activeCount.get();
+   }
+
+   public int getLargestActiveCount() {
+      return largestActiveCount.get();
+   }
+
+   public int getMaxConcurrency() {
+      return maxConcurrency;
+   }
+
+   public void setMaxConcurrency(int maxConcurrency) {
+      this.maxConcurrency = maxConcurrency;
+      startQueuedTasks();
+   }
+
+   public int getQueueSize() {
+      return queueLength.get();
+   }
+
+   public long getCompletedTaskCount() {
+      return completedTasks.sum();
+   }
+
+   @Override
+   public void shutdown() {
+      synchronized (this) {
+         shutdown = true;
+         notifyAll();
+      }
+   }
+
+   @Override
+   public List<Runnable> shutdownNow() {
+      shutdown();
+      List<Runnable> tasks = new ArrayList<>();
+      Runnable task;
+      while ((task = pollQueue()) != null) {
+         tasks.add(task);
+      }
+      threads.forEach(Thread::interrupt);
+      return tasks;
+   }
+
+   @Override
+   public boolean isShutdown() {
+      return shutdown;
+   }
+
+   @Override
+   public boolean isTerminated() {
+      return shutdown && activeCount.get() == 0 && queue.isEmpty();
+   }
+
+   @Override
+   public synchronized boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+      long remainingNanos = unit.toNanos(timeout);
+      long deadline = System.nanoTime() + remainingNanos;
+      while (!isTerminated()) {
+         if (remainingNanos <= 0) {
+            return false;
+         }
+         TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+         remainingNanos = deadline - System.nanoTime();
+      }
+      return true;
+   }
+
+   @Override
+   public String toString() {
+      return "VirtualThreadExecutor{" +
+            "activeCount=" + activeCount.get() +
+            ", maxConcurrency=" + maxConcurrency +
+            ", queueSize=" + queueLength.get() +
+            ", maxQueueLength=" + maxQueueLength +
+            '}';
+   }
+}
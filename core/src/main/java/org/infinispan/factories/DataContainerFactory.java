@@ -14,10 +14,12 @@
 import org.infinispan.container.impl.PeekableTouchableContainerMap;
 import org.infinispan.container.impl.PeekableTouchableMap;
 import org.infinispan.container.offheap.BoundedOffHeapDataContainer;
+import org.infinispan.container.offheap.MappedOffHeapDataContainer;
 import org.infinispan.container.offheap.OffHeapConcurrentMap;
 import org.infinispan.container.offheap.OffHeapDataContainer;
 import org.infinispan.container.offheap.OffHeapEntryFactory;
 import org.infinispan.container.offheap.OffHeapMemoryAllocator;
+import org.infinispan.container.offheap.OffHeapResizeStatistics;
 import org.infinispan.container.offheap.SegmentedBoundedOffHeapDataContainer;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.factories.annotations.DefaultFactoryFor;
@@ -47,7 +49,9 @@ public Object construct(String componentName) {
       //handle case when < 0 value signifies unbounded container or when we are not removal based
       if (strategy.isExceptionBased() || !strategy.isEnabled()) {
          if (offHeap) {
-            if (shouldSegment) {
+            if (memoryConfiguration.mappedLocation() != null) {
+               return new MappedOffHeapDataContainer(clusteringConfiguration.hash().numSegments());
+            } else if (shouldSegment) {
                int segments = clusteringConfiguration.hash().numSegments();
                Supplier<PeekableTouchableMap<WrappedBytes, WrappedBytes>> mapSupplier =
                      this::createAndStartOffHeapConcurrentMap;
@@ -105,6 +109,7 @@ public Object construct(String componentName) {
    OffHeapConcurrentMap createAndStartOffHeapConcurrentMap() {
       OffHeapEntryFactory entryFactory = componentRegistry.getOrCreateComponent(OffHeapEntryFactory.class);
       OffHeapMemoryAllocator memoryAllocator = componentRegistry.getOrCreateComponent(OffHeapMemoryAllocator.class);
-      return new OffHeapConcurrentMap(memoryAllocator, entryFactory, null);
+      OffHeapResizeStatistics resizeStatistics = componentRegistry.getOrCreateComponent(OffHeapResizeStatistics.class);
+      return new OffHeapConcurrentMap(memoryAllocator, entryFactory, null, resizeStatistics);
    }
 }
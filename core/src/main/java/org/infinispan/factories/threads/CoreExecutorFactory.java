@@ -26,4 +26,9 @@ public static ThreadPoolExecutorFactory<? extends ExecutorService> executorFacto
       }
       return EnhancedQueueExecutorFactory.create(maxThreads, queueLength);
    }
+
+   public static ThreadPoolExecutorFactory<? extends ExecutorService> virtualThreadExecutorFactory(int maxThreads,
+         int queueLength) {
+      return VirtualThreadExecutorFactory.create(maxThreads, queueLength);
+   }
 }
@@ -99,10 +99,22 @@ public Thread newThread(final Runnable target) {
       return createThread(target);
    }
 
+   /**
+    * Creates a virtual thread, named like the other threads of this factory.
+    *
+    * @throws UnsupportedOperationException if the JVM can't create virtual threads, see {@link VirtualThreads}
+    */
+   public Thread newVirtualThread(final Runnable target) {
+      return initThread(VirtualThreads.newThread(target));
+   }
+
    private Thread createThread(final Runnable target) {
+      return initThread(actualThreadCreate(threadGroup, target));
+   }
+
+   private Thread initThread(Thread thread) {
       final ThreadNameInfo nameInfo = new ThreadNameInfo(globalThreadIndexSequence.getAndIncrement(),
             factoryThreadIndexSequence.getAndIncrement(), factoryIndex, node, component);
-      Thread thread = actualThreadCreate(threadGroup, target);
       thread.setName(nameInfo.format(thread, threadNamePattern));
       thread.setPriority(initialPriority);
       thread.setDaemon(true);
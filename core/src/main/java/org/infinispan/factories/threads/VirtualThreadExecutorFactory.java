@@ -0,0 +1,55 @@
+package org.infinispan.factories.threads;
+
+import static org.infinispan.commons.logging.Log.CONFIG;
+
+import java.util.concurrent.ThreadFactory;
+
+import org.infinispan.commons.executors.NonBlockingResource;
+import org.infinispan.executors.VirtualThreadExecutor;
+import org.infinispan.util.logging.Log;
+
+/**
+ * Executor Factory used for blocking executors which start a new thread for each task with {@link VirtualThreadExecutor}.
+ * <p>
+ * The threads are virtual threads, named by the thread factory when it is a {@link DefaultThreadFactory}, so the JVM
+ * must support them, see {@link VirtualThreads}. The maximum number of threads limits the number of tasks running
+ * concurrently, and the queue length the number of tasks waiting for a slot.
+ *
+ * @since 12.1
+ */
+public class VirtualThreadExecutorFactory extends AbstractThreadPoolExecutorFactory<VirtualThreadExecutor> {
+   protected VirtualThreadExecutorFactory(int maxThreads, int queueLength) {
+      super(maxThreads, 0, queueLength, 0);
+   }
+
+   public static VirtualThreadExecutorFactory create(int maxThreads, int queueLength) {
+      return new VirtualThreadExecutorFactory(maxThreads, queueLength);
+   }
+
+   @Override
+   public VirtualThreadExecutor createExecutor(ThreadFactory factory) {
+      if (factory instanceof NonBlockingResource) {
+         throw new IllegalStateException("Executor factory configured to be blocking and received a thread" +
+               " factory that creates non-blocking threads!");
+      }
+      ThreadFactory virtualThreadFactory;
+      if (factory instanceof DefaultThreadFactory) {
+         virtualThreadFactory = ((DefaultThreadFactory) factory)::newVirtualThread;
+      } else {
+         virtualThreadFactory = VirtualThreads::newThread;
+      }
+      return new VirtualThreadExecutor(virtualThreadFactory, maxThreads, queueLength);
+   }
+
+   @Override
+   public void validate() {
+      if (!VirtualThreads.isSupported())
+         throw Log.CONFIG.virtualThreadsNotSupported();
+
+      if (maxThreads <= 0)
+         throw CONFIG.illegalValueThreadPoolParameter("max threads", "> 0");
+
+      if (queueLength < 0)
+         throw CONFIG.illegalValueThreadPoolParameter("work queue length", ">= 0");
+   }
+}
@@ -0,0 +1,74 @@
+package org.infinispan.factories.threads;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import org.infinispan.commons.CacheException;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * Creates virtual threads when the JVM supports them. {@code Thread.ofVirtual()} is looked up at runtime, so that the
+ * same code runs on the JDK versions without virtual threads.
+ *
+ * @since 12.1
+ */
+public final class VirtualThreads {
+   private static final Log log = LogFactory.getLog(VirtualThreads.class);
+
+   // Thread.ofVirtual(), null if the JVM can't create virtual threads
+   private static final MethodHandle OF_VIRTUAL;
+   // Thread.Builder.unstarted(Runnable)
+   private static final MethodHandle UNSTARTED;
+
+   static {
+      MethodHandle ofVirtual = null;
+      MethodHandle unstarted = null;
+      try {
+         MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+         Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+         Class<?> ofVirtualClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+         ofVirtual = lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(ofVirtualClass));
+         unstarted = lookup.findVirtual(builderClass, "unstarted", MethodType.methodType(Thread.class, Runnable.class));
+         // Virtual threads are a preview feature of JDK 19 and 20, the method throws without --enable-preview
+         ofVirtual.invoke();
+      } catch (Throwable t) {
+         if (log.isTraceEnabled())
+            log.tracef(t, "Virtual threads are not supported");
+         ofVirtual = null;
+         unstarted = null;
+      }
+      OF_VIRTUAL = ofVirtual;
+      UNSTARTED = unstarted;
+   }
+
+   private VirtualThreads() {
+   }
+
+   /**
+    * @return whether the JVM can create virtual threads
+    */
+   public static boolean isSupported() {
+      return OF_VIRTUAL != null;
+   }
+
+   /**
+    * Creates a virtual thread that is not started yet.
+    *
+    * @throws UnsupportedOperationException if the JVM can't create virtual threads
+    */
+   public static Thread newThread(Runnable target) {
+      if (OF_VIRTUAL == null) {
+         throw new UnsupportedOperationException("Virtual threads are not supported by this JVM");
+      }
+      try {
+         // The builders are not thread safe, so each thread gets its own
+         return (Thread) UNSTARTED.invoke(OF_VIRTUAL.invoke(), target);
+      } catch (RuntimeException | Error e) {
+         throw e;
+      } catch (Throwable t) {
+         throw new CacheException(t);
+      }
+   }
+}
@@ -88,6 +88,7 @@ public abstract class BaseDistributionInterceptor extends ClusteringInterceptor
 
    protected boolean isL1Enabled;
    protected boolean isReplicated;
+   private ReadOwnerSelector readOwnerSelector;
 
    private final ReadOnlyManyHelper readOnlyManyHelper = new ReadOnlyManyHelper();
    private final InvocationSuccessFunction<AbstractDataWriteCommand> primaryReturnHandler = this::primaryReturnHandler;
@@ -102,6 +103,8 @@ public void configure() {
       // Can't rely on the super injectConfiguration() to be called before our injectDependencies() method2
       isL1Enabled = cacheConfiguration.clustering().l1().enabled();
       isReplicated = cacheConfiguration.clustering().cacheMode().isReplicated();
+      readOwnerSelector = new ReadOwnerSelector(cacheConfiguration.clustering().readOwnerMode(),
+                                                cacheConfiguration.clustering().maxReadStaleness(), timeService);
    }
 
    @Override
@@ -178,23 +181,56 @@ protected <C extends FlagAffectedCommand & TopologyAffectedCommand> CompletionSt
       getCommand.setTopologyId(topologyId);
       getCommand.setWrite(isWrite);
 
+      if (!isWrite && readOwnerSelector.readsFromBackups(command.getFlagsBitSet())) {
+         return remoteGetFromAnyOwner(ctx, command, key, info, getCommand);
+      }
       return rpcManager.invokeCommandStaggered(info.readOwners(), getCommand, new RemoteGetSingleKeyCollector(),
                                                rpcManager.getSyncRpcOptions())
-                       .thenAccept(response -> {
-                          Object responseValue = response.getResponseValue();
-                          if (responseValue == null) {
-                             if (rvrl != null) {
-                                rvrl.remoteValueNotFound(key);
-                             }
-                             wrapRemoteEntry(ctx, key, NullCacheEntry.getInstance(), isWrite);
-                             return;
-                          }
-                          InternalCacheEntry ice = ((InternalCacheValue) responseValue).toInternalCacheEntry(key);
-                          if (rvrl != null) {
-                             rvrl.remoteValueFound(ice);
-                          }
-                          wrapRemoteEntry(ctx, key, ice, isWrite);
-                       });
+                       .thenAccept(response -> wrapRemoteGetResponse(ctx, key, response, isWrite));
+   }
+
+   private CompletionStage<Void> remoteGetFromAnyOwner(InvocationContext ctx, FlagAffectedCommand command, Object key,
+                                                       DistributionInfo info, ClusteredGetCommand getCommand) {
+      if (!readOwnerSelector.canReadFromBackups(key)) {
+         return remoteGetFromPrimary(ctx, key, info, getCommand);
+      }
+      List<Address> targets = readOwnerSelector.orderTargets(info.readOwners(), rpcManager.getAddress(),
+                                                             command.getFlagsBitSet());
+      if (log.isTraceEnabled()) {
+         log.tracef("Reading key %s from any owner, in order %s", key, targets);
+      }
+      // With a staleness bound, a value too old is ignored and the next owner is asked
+      RemoteGetSingleKeyCollector collector = readOwnerSelector.hasStalenessBound() ?
+            new BoundedStalenessCollector(readOwnerSelector, key, info.primary()) :
+            new RemoteGetSingleKeyCollector();
+      return rpcManager.invokeCommandStaggered(targets, getCommand, collector, rpcManager.getSyncRpcOptions())
+                       .thenAccept(response -> wrapRemoteGetResponse(ctx, key, response, false));
+   }
+
+   private CompletionStage<Void> remoteGetFromPrimary(InvocationContext ctx, Object key, DistributionInfo info,
+                                                      ClusteredGetCommand getCommand) {
+      // Without a recent read from the primary owner there is nothing to check a backup owner's value against,
+      // so only the primary owner is asked, and its value allows the next reads to use the backup owners
+      return rpcManager.invokeCommand(info.primary(), getCommand,
+                                      new BoundedStalenessCollector(readOwnerSelector, key, info.primary()),
+                                      rpcManager.getSyncRpcOptions())
+                       .thenAccept(response -> wrapRemoteGetResponse(ctx, key, response, false));
+   }
+
+   private void wrapRemoteGetResponse(InvocationContext ctx, Object key, SuccessfulResponse response, boolean isWrite) {
+      Object responseValue = response.getResponseValue();
+      if (responseValue == null) {
+         if (rvrl != null) {
+            rvrl.remoteValueNotFound(key);
+         }
+         wrapRemoteEntry(ctx, key, NullCacheEntry.getInstance(), isWrite);
+         return;
+      }
+      InternalCacheEntry ice = ((InternalCacheValue) responseValue).toInternalCacheEntry(key);
+      if (rvrl != null) {
+         rvrl.remoteValueFound(ice);
+      }
+      wrapRemoteEntry(ctx, key, ice, isWrite);
    }
 
    protected void wrapRemoteEntry(InvocationContext ctx, Object key, CacheEntry ice, boolean isWrite) {
@@ -652,7 +688,12 @@ public Object visitReadOnlyKeyCommand(InvocationContext ctx, ReadOnlyKeyCommand
       }
       if (readNeedsRemoteValue(command)) {
          LocalizedCacheTopology cacheTopology = checkTopologyId(command);
-         Collection<Address> owners = cacheTopology.getDistribution(key).readOwners();
+         List<Address> owners = cacheTopology.getDistribution(key).readOwners();
+         // The function result has no version to check the staleness
+         if (readOwnerSelector.readsFromBackups(command.getFlagsBitSet()) && !readOwnerSelector.hasStalenessBound()) {
+            owners = readOwnerSelector.orderTargets(owners, rpcManager.getAddress(),
+                                                    command.getFlagsBitSet());
+         }
          if (log.isTraceEnabled())
             log.tracef("Doing a remote get for key %s in topology %d to %s", key, cacheTopology.getTopologyId(), owners);
 
@@ -0,0 +1,51 @@
+package org.infinispan.interceptors.distribution;
+
+import org.infinispan.container.entries.InternalCacheValue;
+import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.responses.SuccessfulResponse;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * Return the first successful response for a staggered remote get that is either from the primary owner, or from a
+ * backup owner and fresh enough according to {@link ReadOwnerSelector#isFreshEnough(Object, InternalCacheValue)}.
+ * <p>
+ * A value that is too old is ignored and the request goes on with the next owner. The value read from the primary
+ * owner is recorded with {@link ReadOwnerSelector#recordPrimaryRead(Object, InternalCacheValue)}.
+ *
+ * @since 12.1
+ */
+class BoundedStalenessCollector extends RemoteGetSingleKeyCollector {
+   private static final Log log = LogFactory.getLog(BoundedStalenessCollector.class);
+
+   private final ReadOwnerSelector readOwnerSelector;
+   private final Object key;
+   private final Address primary;
+
+   BoundedStalenessCollector(ReadOwnerSelector readOwnerSelector, Object key, Address primary) {
+      this.readOwnerSelector = readOwnerSelector;
+      this.key = key;
+      this.primary = primary;
+   }
+
+   @Override
+   public SuccessfulResponse addResponse(Address sender, Response response) {
+      SuccessfulResponse successfulResponse = super.addResponse(sender, response);
+      if (successfulResponse == null) {
+         return null;
+      }
+      InternalCacheValue value = (InternalCacheValue) successfulResponse.getResponseValue();
+      if (sender.equals(primary)) {
+         readOwnerSelector.recordPrimaryRead(key, value);
+         return successfulResponse;
+      }
+      if (readOwnerSelector.isFreshEnough(key, value)) {
+         return successfulResponse;
+      }
+      if (log.isTraceEnabled()) {
+         log.tracef("Value of key %s read from backup owner %s is too old, waiting for the other owners", key, sender);
+      }
+      return null;
+   }
+}
@@ -0,0 +1,186 @@
+package org.infinispan.interceptors.distribution;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.commons.time.TimeService;
+import org.infinispan.configuration.cache.ReadOwnerMode;
+import org.infinispan.container.entries.InternalCacheValue;
+import org.infinispan.container.versioning.EntryVersion;
+import org.infinispan.container.versioning.InequalVersionComparisonResult;
+import org.infinispan.context.impl.FlagBitSets;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.metadata.impl.PrivateMetadata;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.remoting.transport.TopologyAwareAddress;
+
+/**
+ * Picks the order in which the owners of a key are asked for its value, according to the
+ * {@link ReadOwnerMode} of the cache, and checks the staleness of the values read from backup owners.
+ * <p>
+ * The staleness check needs the {@link EntryVersion} of the value read from the primary owner: a value read from any
+ * owner is accepted for {@code maxReadStaleness} after reading the key from the primary owner, as long as its version
+ * is not older. So it is at least as new as the value of the primary owner {@code maxReadStaleness} ago.
+ *
+ * @since 12.1
+ */
+class ReadOwnerSelector {
+   // Forget all the primary reads instead of tracking a huge number of keys
+   private static final int MAX_TRACKED_KEYS = 1 << 16;
+
+   private final ReadOwnerMode mode;
+   private final long maxStalenessNanos;
+   private final TimeService timeService;
+   private final ConcurrentMap<Object, PrimaryRead> primaryReads = new ConcurrentHashMap<>();
+
+   ReadOwnerSelector(ReadOwnerMode mode, long maxStalenessMillis, TimeService timeService) {
+      this.mode = mode;
+      this.maxStalenessNanos = maxStalenessMillis < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(maxStalenessMillis);
+      this.timeService = timeService;
+   }
+
+   /**
+    * @return {@code true} if a read with the given flags may use a backup owner before the primary owner.
+    */
+   boolean readsFromBackups(long flagsBitSet) {
+      return mode != ReadOwnerMode.PRIMARY || (flagsBitSet & FlagBitSets.READ_FROM_ANY_OWNER) != 0;
+   }
+
+   /**
+    * @return {@code true} if the values read from backup owners must be checked with {@link #isFreshEnough(Object, InternalCacheValue)}.
+    */
+   boolean hasStalenessBound() {
+      return maxStalenessNanos >= 0;
+   }
+
+   /**
+    * @return {@code true} if the key was read from its primary owner recently enough to check the staleness of
+    *       a value read from a backup owner.
+    */
+   boolean canReadFromBackups(Object key) {
+      if (!hasStalenessBound()) {
+         return true;
+      }
+      PrimaryRead primaryRead = primaryReads.get(key);
+      if (primaryRead == null) {
+         return false;
+      }
+      if (timeService.isTimeExpired(primaryRead.expirationTime)) {
+         primaryReads.remove(key, primaryRead);
+         return false;
+      }
+      return true;
+   }
+
+   /**
+    * Orders the read owners of a key, the primary owner being the first one in {@code readOwners}.
+    */
+   List<Address> orderTargets(List<Address> readOwners, Address localAddress, long flagsBitSet) {
+      if (readOwners.size() < 2) {
+         return readOwners;
+      }
+      ReadOwnerMode effectiveMode = (flagsBitSet & FlagBitSets.READ_FROM_ANY_OWNER) != 0 ? ReadOwnerMode.BALANCED : mode;
+      switch (effectiveMode) {
+         case BALANCED:
+            int first = ThreadLocalRandom.current().nextInt(readOwners.size());
+            if (first == 0) {
+               return readOwners;
+            }
+            List<Address> rotated = new ArrayList<>(readOwners.size());
+            rotated.addAll(readOwners.subList(first, readOwners.size()));
+            rotated.addAll(readOwners.subList(0, first));
+            return rotated;
+         case LOCAL_FIRST:
+            if (!(localAddress instanceof TopologyAwareAddress)) {
+               return readOwners;
+            }
+            TopologyAwareAddress local = (TopologyAwareAddress) localAddress;
+            List<Address> sorted = new ArrayList<>(readOwners);
+            // Stable sort, the owners at the same distance keep the primary owner first
+            sorted.sort(Comparator.comparingInt(owner -> distance(local, owner)));
+            return sorted;
+         default:
+            return readOwners;
+      }
+   }
+
+   void recordPrimaryRead(Object key, InternalCacheValue value) {
+      if (!hasStalenessBound()) {
+         return;
+      }
+      EntryVersion version = null;
+      if (value != null) {
+         version = versionOf(value);
+         if (version == null) {
+            // Can't check the staleness of the backup reads without a version
+            return;
+         }
+      }
+      if (primaryReads.size() >= MAX_TRACKED_KEYS) {
+         primaryReads.clear();
+      }
+      primaryReads.put(key, new PrimaryRead(version, timeService.expectedEndTime(maxStalenessNanos, TimeUnit.NANOSECONDS)));
+   }
+
+   /**
+    * @return {@code true} if {@code value} is at least as new as the value last read from the primary owner.
+    */
+   boolean isFreshEnough(Object key, InternalCacheValue value) {
+      if (!hasStalenessBound()) {
+         return true;
+      }
+      PrimaryRead primaryRead = primaryReads.get(key);
+      if (primaryRead == null) {
+         return false;
+      }
+      if (value == null || primaryRead.version == null) {
+         // Without tombstones, a missing entry is only known to be fresh if it was also missing on the primary owner
+         return value == null && primaryRead.version == null;
+      }
+      EntryVersion version = versionOf(value);
+      if (version == null) {
+         return false;
+      }
+      InequalVersionComparisonResult result = version.compareTo(primaryRead.version);
+      return result == InequalVersionComparisonResult.EQUAL || result == InequalVersionComparisonResult.AFTER;
+   }
+
+   private static EntryVersion versionOf(InternalCacheValue value) {
+      PrivateMetadata internalMetadata = value.getInternalMetadata();
+      if (internalMetadata != null && internalMetadata.entryVersion() != null) {
+         return internalMetadata.entryVersion();
+      }
+      Metadata metadata = value.getMetadata();
+      return metadata != null ? metadata.version() : null;
+   }
+
+   private static int distance(TopologyAwareAddress local, Address owner) {
+      if (!(owner instanceof TopologyAwareAddress)) {
+         return 3;
+      }
+      TopologyAwareAddress address = (TopologyAwareAddress) owner;
+      if (local.isSameMachine(address)) {
+         return 0;
+      } else if (local.isSameRack(address)) {
+         return 1;
+      } else if (local.isSameSite(address)) {
+         return 2;
+      }
+      return 3;
+   }
+
+   private static final class PrimaryRead {
+      final EntryVersion version;
+      final long expirationTime;
+
+      PrimaryRead(EntryVersion version, long expirationTime) {
+         this.version = version;
+         this.expirationTime = expirationTime;
+      }
+   }
+}
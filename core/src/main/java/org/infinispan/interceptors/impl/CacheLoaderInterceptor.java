@@ -5,9 +5,12 @@
 import static org.infinispan.persistence.manager.PersistenceManager.AccessMode.SHARED;
 
 import java.util.AbstractSet;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Spliterator;
@@ -116,6 +119,7 @@
 
    protected final AtomicLong cacheLoads = new AtomicLong(0);
    protected final AtomicLong cacheMisses = new AtomicLong(0);
+   protected final AtomicLong coalescedLoads = new AtomicLong(0);
 
    @Inject protected PersistenceManager persistenceManager;
    @Inject protected CacheNotifier notifier;
@@ -162,7 +166,26 @@ public Object visitGetCacheEntryCommand(InvocationContext ctx,
 
    @Override
    public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) {
-      return visitManyDataCommand(ctx, command, command.getKeys());
+      if (activation) {
+         // The load of each key must be ordered with its passivation
+         return visitManyDataCommand(ctx, command, command.getKeys());
+      }
+      List<Object> keysToLoad = null;
+      for (Object key : command.getKeys()) {
+         if (!skipLoad(command, key, ctx)) {
+            if (keysToLoad == null) {
+               keysToLoad = new ArrayList<>();
+            }
+            keysToLoad.add(key);
+         }
+      }
+      if (keysToLoad == null) {
+         return invokeNext(ctx, command);
+      }
+      CompletionStage<Void> stage = keysToLoad.size() == 1 ?
+            loadInContext(ctx, keysToLoad.get(0), command) :
+            loadAllInContext(ctx, keysToLoad, command);
+      return asyncInvokeNext(ctx, command, stage);
    }
 
    @Override
@@ -353,32 +376,33 @@ protected final CompletionStage<Void> loadIfNeeded(final InvocationContext ctx,
     * @return a stage that when complete will have the entry loaded into the provided context
     */
    protected CompletionStage<Void> loadInContext(InvocationContext ctx, Object key, FlagAffectedCommand cmd) {
+      Consumer<? super InternalCacheEntry<K, V>> action = wrapInContext(ctx, key, cmd);
 
       CompletableFuture<InternalCacheEntry<K, V>> cf = new CompletableFuture<>();
-
       CompletionStage<InternalCacheEntry<K, V>> otherCF = pendingLoads.putIfAbsent(key, cf);
 
-      Consumer<? super InternalCacheEntry<K, V>> action = entry -> {
-         if (entry != null) {
-            entryFactory.wrapExternalEntry(ctx, key, entry, true, cmd instanceof WriteCommand);
-         }
-         CacheEntry contextEntry = ctx.lookupEntry(key);
-         if (contextEntry instanceof MVCCEntry) {
-            ((MVCCEntry) contextEntry).setLoaded(true);
-         }
-      };
-
       // If another thread is completing the request, then resume on a different CPU thread so we don't have to
       // wait until the other command completes
       if (otherCF != null) {
-         if (log.isTraceEnabled()) {
-            log.tracef("Piggybacking on concurrent cache loader for key %s", key);
-         }
-         return otherCF.thenAcceptAsync(action, nonBlockingExecutor);
+         return piggyback(key, otherCF).thenAcceptAsync(action, nonBlockingExecutor);
       }
 
       int segment = SegmentSpecificCommand.extractSegment(cmd, key, partitioner);
-      CompletionStage<InternalCacheEntry<K, V>> result = loadAndStoreInDataContainer(ctx, key, segment, cmd);
+      return completePendingLoad(key, cf, doLoadAndStoreInDataContainer(ctx, key, segment, cmd)).thenAccept(action);
+   }
+
+   private CompletionStage<InternalCacheEntry<K, V>> piggyback(Object key, CompletionStage<InternalCacheEntry<K, V>> otherCF) {
+      if (log.isTraceEnabled()) {
+         log.tracef("Piggybacking on concurrent cache loader for key %s", key);
+      }
+      if (getStatisticsEnabled()) {
+         coalescedLoads.incrementAndGet();
+      }
+      return otherCF;
+   }
+
+   private CompletionStage<InternalCacheEntry<K, V>> completePendingLoad(Object key,
+         CompletableFuture<InternalCacheEntry<K, V>> cf, CompletionStage<InternalCacheEntry<K, V>> result) {
       result.whenComplete((value, throwable) -> {
          // Make sure we clean up our pendingLoads properly and before completing any responses
          pendingLoads.remove(key);
@@ -388,11 +412,130 @@ protected CompletionStage<Void> loadInContext(InvocationContext ctx, Object key,
             cf.complete(value);
          }
       });
-      return cf.thenAccept(action);
+      return cf;
    }
 
+   private Consumer<? super InternalCacheEntry<K, V>> wrapInContext(InvocationContext ctx, Object key,
+         FlagAffectedCommand cmd) {
+      return entry -> {
+         if (entry != null) {
+            entryFactory.wrapExternalEntry(ctx, key, entry, true, cmd instanceof WriteCommand);
+         }
+         CacheEntry contextEntry = ctx.lookupEntry(key);
+         if (contextEntry instanceof MVCCEntry) {
+            ((MVCCEntry) contextEntry).setLoaded(true);
+         }
+      };
+   }
+
+   /**
+    * Same as {@link #loadInContext(InvocationContext, Object, FlagAffectedCommand)} for multiple keys, except that
+    * the keys that are not already being loaded are loaded from the stores with a single bulk load.
+    * @param ctx context for this invocation
+    * @param keys keys to find the entries for
+    * @param cmd the command that initiated this load
+    * @return a stage that when complete will have the entries loaded into the provided context
+    */
+   protected CompletionStage<Void> loadAllInContext(InvocationContext ctx, Collection<?> keys, FlagAffectedCommand cmd) {
+      AggregateCompletionStage<Void> stage = CompletionStages.aggregateCompletionStage();
+      Map<Object, CompletableFuture<InternalCacheEntry<K, V>>> ownLoads = new HashMap<>();
+      for (Object key : keys) {
+         CompletableFuture<InternalCacheEntry<K, V>> cf = new CompletableFuture<>();
+         CompletionStage<InternalCacheEntry<K, V>> otherCF = pendingLoads.putIfAbsent(key, cf);
+         if (otherCF != null) {
+            stage.dependsOn(piggyback(key, otherCF).thenAcceptAsync(wrapInContext(ctx, key, cmd), nonBlockingExecutor));
+         } else {
+            ownLoads.put(key, cf);
+            stage.dependsOn(cf.thenAccept(wrapInContext(ctx, key, cmd)));
+         }
+      }
+      if (!ownLoads.isEmpty()) {
+         loadAllAndStoreInDataContainer(ctx, ownLoads.keySet(), cmd).whenComplete((entries, throwable) -> {
+            // Make sure we clean up our pendingLoads properly and before completing any responses
+            for (Object key : ownLoads.keySet()) {
+               pendingLoads.remove(key);
+            }
+            for (Map.Entry<Object, CompletableFuture<InternalCacheEntry<K, V>>> entry : ownLoads.entrySet()) {
+               if (throwable != null) {
+                  entry.getValue().completeExceptionally(throwable);
+               } else {
+                  entry.getValue().complete(entries.get(entry.getKey()));
+               }
+            }
+         });
+      }
+      return stage.freeze();
+   }
+
+   private CompletionStage<Map<Object, InternalCacheEntry<K, V>>> loadAllAndStoreInDataContainer(InvocationContext ctx,
+         Collection<?> keys, FlagAffectedCommand cmd) {
+      Map<Object, InternalCacheEntry<K, V>> entries = new ConcurrentHashMap<>();
+      AggregateCompletionStage<Map<Object, InternalCacheEntry<K, V>>> stage =
+            CompletionStages.aggregateCompletionStage(entries);
+      List<Object> keysToLoad = new ArrayList<>(keys.size());
+      for (Object key : keys) {
+         int segment = partitioner.getSegment(key);
+         InternalCacheEntry<K, V> entry = dataContainer.peek(segment, key);
+         if (entry == null) {
+            keysToLoad.add(key);
+         } else if (!entry.canExpire() || !entry.isExpired(timeService.wallClockTime())) {
+            entries.put(key, entry);
+         } else {
+            // Expired entries are only loaded from loaders that aren't stores, which is left to the single key path
+            // The key is already registered in pendingLoads, so it must not be coalesced again
+            stage.dependsOn(doLoadAndStoreInDataContainer(ctx, key, segment, cmd).thenAccept(ice -> {
+               if (ice != null) {
+                  entries.put(key, ice);
+               }
+            }));
+         }
+      }
+      if (!keysToLoad.isEmpty()) {
+         if (log.isTraceEnabled()) {
+            log.tracef("Loading entries for keys %s", keysToLoad);
+         }
+         boolean hasListeners = notifier.hasListener(CacheEntryLoaded.class) || notifier.hasListener(CacheEntryActivated.class);
+         Flowable<InternalCacheEntry<K, V>> loaded = Flowable.fromPublisher(
+               persistenceManager.<K, V>loadFromAllStores(keysToLoad, ctx.isOriginLocal(), true))
+               .map(me -> {
+                  Object key = me.getKey();
+                  return storeInDataContainer(key, partitioner.getSegment(key), me);
+               });
+         if (hasListeners) {
+            loaded = loaded.concatMapSingle(ice -> Single.fromCompletionStage(notifyLoaded(ice, ctx, cmd)));
+         }
+         stage.dependsOn(loaded
+               .doOnNext(ice -> entries.put(ice.getKey(), ice))
+               .ignoreElements()
+               .toCompletionStage(null)
+               .thenRun(() -> {
+                  for (Object key : keysToLoad) {
+                     if (!entries.containsKey(key)) {
+                        entryMissed(key);
+                     }
+                  }
+               }));
+      }
+      return stage.freeze();
+   }
+
+   /**
+    * Loads the entry for the given key into the data container, sharing the load with any concurrent load of the
+    * same key, so that e.g. remote gets that miss the data container do not hit the stores once each.
+    */
+   @Override
    public CompletionStage<InternalCacheEntry<K, V>> loadAndStoreInDataContainer(InvocationContext ctx, Object key,
                                                                                 int segment, FlagAffectedCommand cmd) {
+      CompletableFuture<InternalCacheEntry<K, V>> cf = new CompletableFuture<>();
+      CompletionStage<InternalCacheEntry<K, V>> otherCF = pendingLoads.putIfAbsent(key, cf);
+      if (otherCF != null) {
+         return piggyback(key, otherCF);
+      }
+      return completePendingLoad(key, cf, doLoadAndStoreInDataContainer(ctx, key, segment, cmd));
+   }
+
+   protected CompletionStage<InternalCacheEntry<K, V>> doLoadAndStoreInDataContainer(InvocationContext ctx, Object key,
+                                                                                    int segment, FlagAffectedCommand cmd) {
       InternalCacheEntry<K, V> entry = dataContainer.peek(segment, key);
       boolean includeStores = true;
       if (entry != null) {
@@ -408,32 +551,9 @@ public CompletionStage<InternalCacheEntry<K, V>> loadAndStoreInDataContainer(Inv
       CompletionStage<InternalCacheEntry<K, V>> resultStage = persistenceManager.<K, V>loadFromAllStores(key, segment,
             ctx.isOriginLocal(), includeStores).thenApply(me -> {
          if (me != null) {
-            InternalCacheEntry<K, V> ice = PersistenceUtil.convert(me, iceFactory);
-            if (getStatisticsEnabled()) {
-               cacheLoads.incrementAndGet();
-            }
-            if (log.isTraceEnabled()) {
-               log.tracef("Loaded entry: %s for key %s from store and attempting to insert into data container",
-                     ice, key);
-            }
-
-            DataContainer.ComputeAction<K, V> putIfAbsentOrExpired = (k, oldEntry, factory) -> {
-               if (oldEntry != null &&
-                     (!oldEntry.canExpire() || !oldEntry.isExpired(timeService.wallClockTime()))) {
-                  return oldEntry;
-               }
-               return ice;
-            };
-
-            dataContainer.compute(segment, (K) key, putIfAbsentOrExpired);
-            return ice;
+            return storeInDataContainer(key, segment, me);
          } else {
-            if (log.isTraceEnabled()) {
-               log.tracef("Missed entry load for key %s from store", key);
-            }
-            if (getStatisticsEnabled()) {
-               cacheMisses.incrementAndGet();
-            }
+            entryMissed(key);
             return null;
          }
       });
@@ -441,10 +561,7 @@ public CompletionStage<InternalCacheEntry<K, V>> loadAndStoreInDataContainer(Inv
       if (notifier.hasListener(CacheEntryLoaded.class) || notifier.hasListener(CacheEntryActivated.class)) {
          return resultStage.thenCompose(ice -> {
             if (ice != null) {
-               V value = ice.getValue();
-               CompletionStage<Void> notificationStage = sendNotification(key, value, true, ctx, cmd);
-               notificationStage = notificationStage.thenCompose(v -> sendNotification(key, value, false, ctx, cmd));
-               return notificationStage.thenApply(ignore -> ice);
+               return notifyLoaded(ice, ctx, cmd);
             } else {
                return CompletableFutures.completedNull();
             }
@@ -453,6 +570,46 @@ public CompletionStage<InternalCacheEntry<K, V>> loadAndStoreInDataContainer(Inv
       return resultStage;
    }
 
+   private InternalCacheEntry<K, V> storeInDataContainer(Object key, int segment, MarshallableEntry<K, V> me) {
+      InternalCacheEntry<K, V> ice = PersistenceUtil.convert(me, iceFactory);
+      if (getStatisticsEnabled()) {
+         cacheLoads.incrementAndGet();
+      }
+      if (log.isTraceEnabled()) {
+         log.tracef("Loaded entry: %s for key %s from store and attempting to insert into data container",
+               ice, key);
+      }
+
+      DataContainer.ComputeAction<K, V> putIfAbsentOrExpired = (k, oldEntry, factory) -> {
+         if (oldEntry != null &&
+               (!oldEntry.canExpire() || !oldEntry.isExpired(timeService.wallClockTime()))) {
+            return oldEntry;
+         }
+         return ice;
+      };
+
+      dataContainer.compute(segment, (K) key, putIfAbsentOrExpired);
+      return ice;
+   }
+
+   private void entryMissed(Object key) {
+      if (log.isTraceEnabled()) {
+         log.tracef("Missed entry load for key %s from store", key);
+      }
+      if (getStatisticsEnabled()) {
+         cacheMisses.incrementAndGet();
+      }
+   }
+
+   private CompletionStage<InternalCacheEntry<K, V>> notifyLoaded(InternalCacheEntry<K, V> ice, InvocationContext ctx,
+         FlagAffectedCommand cmd) {
+      K key = ice.getKey();
+      V value = ice.getValue();
+      CompletionStage<Void> notificationStage = sendNotification(key, value, true, ctx, cmd);
+      notificationStage = notificationStage.thenCompose(v -> sendNotification(key, value, false, ctx, cmd));
+      return notificationStage.thenApply(ignore -> ice);
+   }
+
    private boolean skipLoad(FlagAffectedCommand cmd, Object key, InvocationContext ctx) {
       CacheEntry e = ctx.lookupEntry(key);
       if (e == null) {
@@ -541,10 +698,20 @@ public long getCacheLoaderMisses() {
       return cacheMisses.get();
    }
 
+   @ManagedAttribute(
+         description = "Number of loads from cache store that were shared with a concurrent load of the same key",
+         displayName = "Number of coalesced cache store loads",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getCacheLoaderCoalescedLoads() {
+      return coalescedLoads.get();
+   }
+
    @Override
    public void resetStatistics() {
       cacheLoads.set(0);
       cacheMisses.set(0);
+      coalescedLoads.set(0);
    }
 
    /**
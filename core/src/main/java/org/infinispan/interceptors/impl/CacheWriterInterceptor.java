@@ -5,6 +5,7 @@
 
 import java.util.List;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import javax.transaction.InvalidTransactionException;
@@ -52,6 +53,7 @@
 import org.infinispan.jmx.annotations.MBean;
 import org.infinispan.jmx.annotations.ManagedAttribute;
 import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
 import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.persistence.spi.MarshallableEntry;
 import org.infinispan.persistence.spi.MarshallableEntryFactory;
@@ -440,6 +442,48 @@ public int getNumberOfPersistedEntries() {
       return (int) Math.min(size, Integer.MAX_VALUE);
    }
 
+   @ManagedAttribute(
+         description = "Number of modifications waiting to be written by the write-behind stores",
+         displayName = "Write-behind queue size"
+   )
+   public long getWriteBehindQueueSize() {
+      return persistenceManager.getWriteBehindStatistics().getQueueSize();
+   }
+
+   @ManagedAttribute(
+         description = "Estimated memory in bytes used by the modifications waiting to be written by the write-behind stores",
+         displayName = "Write-behind queue memory"
+   )
+   public long getWriteBehindQueueMemory() {
+      return persistenceManager.getWriteBehindStatistics().getQueueMemory();
+   }
+
+   @ManagedAttribute(
+         description = "Fraction of the modifications of the write-behind stores that were replaced by later modifications before being written",
+         displayName = "Write-behind coalescing ratio"
+   )
+   public double getWriteBehindCoalescingRatio() {
+      return persistenceManager.getWriteBehindStatistics().getCoalescingRatio();
+   }
+
+   @ManagedAttribute(
+         description = "Average time in milliseconds to write a batch of modifications of the write-behind stores",
+         displayName = "Write-behind average flush time",
+         units = Units.MILLISECONDS
+   )
+   public long getWriteBehindAverageFlushTime() {
+      return persistenceManager.getWriteBehindStatistics().getAverageFlushTime(TimeUnit.MILLISECONDS);
+   }
+
+   @ManagedAttribute(
+         description = "Maximum time in milliseconds to write a batch of modifications of the write-behind stores",
+         displayName = "Write-behind maximum flush time",
+         units = Units.MILLISECONDS
+   )
+   public long getWriteBehindMaxFlushTime() {
+      return persistenceManager.getWriteBehindStatistics().getMaxFlushTime(TimeUnit.MILLISECONDS);
+   }
+
    CompletionStage<Void> storeEntry(InvocationContext ctx, Object key, FlagAffectedCommand command) {
       return storeEntry(ctx, key, command, true);
    }
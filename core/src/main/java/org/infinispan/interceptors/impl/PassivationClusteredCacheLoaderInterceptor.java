@@ -16,9 +16,9 @@
    @Inject ActivationManager activationManager;
 
    @Override
-   public CompletionStage<InternalCacheEntry<K, V>> loadAndStoreInDataContainer(InvocationContext ctx, Object key,
-                                                                                int segment, FlagAffectedCommand cmd) {
-      Supplier<CompletionStage<InternalCacheEntry<K, V>>> supplier = () -> super.loadAndStoreInDataContainer(ctx, key, segment, cmd);
+   protected CompletionStage<InternalCacheEntry<K, V>> doLoadAndStoreInDataContainer(InvocationContext ctx, Object key,
+                                                                                    int segment, FlagAffectedCommand cmd) {
+      Supplier<CompletionStage<InternalCacheEntry<K, V>>> supplier = () -> super.doLoadAndStoreInDataContainer(ctx, key, segment, cmd);
       return PassivationCacheLoaderInterceptor.handlePassivationLoad(key, segment, orderer, activationManager, supplier);
    }
 }
@@ -6,6 +6,7 @@
 
 import org.infinispan.commons.io.ByteBuffer;
 import org.infinispan.commons.marshall.Marshaller;
+import org.infinispan.compression.ValueCompressor;
 import org.infinispan.metadata.Metadata;
 import org.infinispan.metadata.impl.PrivateMetadata;
 import org.infinispan.persistence.spi.MarshallableEntry;
@@ -29,24 +30,36 @@
    volatile transient Metadata metadata;
    volatile transient PrivateMetadata internalMetadata;
    transient org.infinispan.commons.marshall.Marshaller marshaller;
+   transient ValueCompressor compressor;
 
    MarshallableEntryImpl() {}
 
    MarshallableEntryImpl(K key, V value, Metadata metadata, PrivateMetadata internalMetadata, long created, long lastUsed, Marshaller marshaller) {
+      this(key, value, metadata, internalMetadata, created, lastUsed, marshaller, null);
+   }
+
+   MarshallableEntryImpl(K key, V value, Metadata metadata, PrivateMetadata internalMetadata, long created, long lastUsed,
+                         Marshaller marshaller, ValueCompressor compressor) {
       this.key = key;
       this.value = value;
       this.metadata = metadata;
       this.internalMetadata = internalMetadata;
       this.keyBytes = marshall(key, marshaller);
-      this.valueBytes = marshall(value, marshaller);
+      this.valueBytes = compressor == null ? marshall(value, marshaller) : compressor.compress(marshall(value, marshaller));
       this.metadataBytes = marshall(metadata, marshaller);
       this.internalMetadataBytes = marshall(internalMetadata, marshaller);
       this.created = created;
       this.lastUsed = lastUsed;
       this.marshaller = marshaller;
+      this.compressor = compressor;
    }
 
    MarshallableEntryImpl(ByteBuffer key, ByteBuffer valueBytes, ByteBuffer metadataBytes, ByteBuffer internalMetadataBytes, long created, long lastUsed, Marshaller marshaller) {
+      this(key, valueBytes, metadataBytes, internalMetadataBytes, created, lastUsed, marshaller, null);
+   }
+
+   MarshallableEntryImpl(ByteBuffer key, ByteBuffer valueBytes, ByteBuffer metadataBytes, ByteBuffer internalMetadataBytes,
+                         long created, long lastUsed, Marshaller marshaller, ValueCompressor compressor) {
       this.keyBytes = key;
       this.valueBytes = valueBytes;
       this.metadataBytes = metadataBytes;
@@ -54,10 +67,17 @@
       this.created = created;
       this.lastUsed = lastUsed;
       this.marshaller = marshaller;
+      this.compressor = compressor;
    }
 
    MarshallableEntryImpl(K key, ByteBuffer valueBytes, ByteBuffer metadataBytes, ByteBuffer internalMetadataBytes, long created, long lastUsed, Marshaller marshaller) {
-      this(marshall(key, marshaller), valueBytes, metadataBytes, internalMetadataBytes, created, lastUsed, marshaller);
+      this(key, valueBytes, metadataBytes, internalMetadataBytes, created, lastUsed, marshaller, null);
+   }
+
+   MarshallableEntryImpl(K key, ByteBuffer valueBytes, ByteBuffer metadataBytes, ByteBuffer internalMetadataBytes,
+                         long created, long lastUsed, Marshaller marshaller, ValueCompressor compressor) {
+      this(marshall(key, marshaller), valueBytes, metadataBytes, internalMetadataBytes, created, lastUsed, marshaller,
+            compressor);
       this.key = key;
    }
 
@@ -78,7 +98,7 @@ public V getValue() {
          if (valueBytes == null) {
             return null;
          }
-         value = unmarshall(valueBytes);
+         value = unmarshall(uncompressedValueBytes());
       }
       return value;
    }
@@ -206,7 +226,7 @@ public String toString() {
       }
       sb.append(", value=").append(value);
       if (value == null && valueBytes != null && marshaller != null) {
-         sb.append('/').append(this.<Object>unmarshall(valueBytes));
+         sb.append('/').append(this.<Object>unmarshall(uncompressedValueBytes()));
       }
       sb.append(", metadata=").append(metadata);
       if (metadata == null && metadataBytes != null && marshaller != null) {
@@ -222,6 +242,11 @@ public String toString() {
       return sb.toString();
    }
 
+   private ByteBuffer uncompressedValueBytes() {
+      // Without compression the value is never checked for the compression header, it could be a valid value
+      return compressor != null ? compressor.decompress(valueBytes) : valueBytes;
+   }
+
    static ByteBuffer marshall(Object obj, Marshaller marshaller) {
       if (obj == null)
          return null;
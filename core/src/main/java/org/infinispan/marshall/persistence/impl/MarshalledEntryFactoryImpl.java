@@ -2,6 +2,7 @@
 
 import org.infinispan.commons.io.ByteBuffer;
 import org.infinispan.commons.marshall.Marshaller;
+import org.infinispan.compression.ValueCompressor;
 import org.infinispan.factories.KnownComponentNames;
 import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
@@ -24,6 +25,7 @@ public class MarshalledEntryFactoryImpl implements MarshallableEntryFactory {
 
    @Inject @ComponentName(KnownComponentNames.PERSISTENCE_MARSHALLER)
    Marshaller marshaller;
+   @Inject ValueCompressor compressor;
 
    public MarshalledEntryFactoryImpl() {
    }
@@ -39,14 +41,14 @@ public MarshallableEntry create(ByteBuffer key, ByteBuffer valueBytes) {
 
    @Override
    public MarshallableEntry create(ByteBuffer key, ByteBuffer valueBytes, ByteBuffer metadataBytes, ByteBuffer internalMetadataBytes, long created, long lastUsed) {
-      return new MarshallableEntryImpl<>(key, valueBytes, metadataBytes, internalMetadataBytes, created, lastUsed, marshaller);
+      return new MarshallableEntryImpl<>(key, valueBytes, metadataBytes, internalMetadataBytes, created, lastUsed, marshaller, compressor);
    }
 
    @Override
    public MarshallableEntry create(Object key, ByteBuffer valueBytes, ByteBuffer metadataBytes,
          ByteBuffer internalMetadataBytes, long created, long lastUsed) {
       return new MarshallableEntryImpl<>(key, valueBytes, metadataBytes, internalMetadataBytes, created, lastUsed,
-            marshaller);
+            marshaller, compressor);
    }
 
    @Override
@@ -62,12 +64,12 @@ public MarshallableEntry create(Object key, Object value) {
    @Override
    public MarshallableEntry create(Object key, Object value, Metadata metadata, PrivateMetadata internalMetadata,
          long created, long lastUsed) {
-      return new MarshallableEntryImpl<>(key, value, metadata, internalMetadata, created, lastUsed, marshaller);
+      return new MarshallableEntryImpl<>(key, value, metadata, internalMetadata, created, lastUsed, marshaller, compressor);
    }
 
    @Override
    public MarshallableEntry create(Object key, MarshalledValue value) {
-      return new MarshallableEntryImpl<>(key, value.getValueBytes(), value.getMetadataBytes(), value.getInternalMetadataBytes(), value.getCreated(), value.getLastUsed(), marshaller);
+      return new MarshallableEntryImpl<>(key, value.getValueBytes(), value.getMetadataBytes(), value.getInternalMetadataBytes(), value.getCreated(), value.getLastUsed(), marshaller, compressor);
    }
 
    @Override
@@ -84,6 +84,17 @@ public ByteBuffer getInternalMetadataBytes() {
       return internalMetadataBytes;
    }
 
+   /**
+    * @return the number of bytes of the value, metadata and timestamps, used to size the buffer they're marshalled to
+    */
+   int size() {
+      return length(valueBytes) + length(metadataBytes) + length(internalMetadataBytes) + 2 * Long.BYTES;
+   }
+
+   private static int length(ByteBuffer buffer) {
+      return buffer == null ? 0 : buffer.getLength();
+   }
+
    @Override
    public boolean equals(Object o) {
       if (this == o) return true;
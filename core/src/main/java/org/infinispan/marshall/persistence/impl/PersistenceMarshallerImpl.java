@@ -37,6 +37,14 @@ public ImmutableSerializationContext getSerializationContext() {
       return ctxRegistry.getPersistenceCtx();
    }
 
+   @Override
+   public int sizeEstimate(Object o) {
+      if (o instanceof MarshalledValueImpl)
+         return ((MarshalledValueImpl) o).size() + WRAPPED_BYTES_OVERHEAD;
+
+      return super.sizeEstimate(o);
+   }
+
    @Override
    public void register(SerializationContextInitializer initializer) {
       ctxRegistry.addContextInitializer(MarshallerType.PERSISTENCE, initializer);
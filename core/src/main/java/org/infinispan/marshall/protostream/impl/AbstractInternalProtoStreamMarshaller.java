@@ -1,6 +1,5 @@
 package org.infinispan.marshall.protostream.impl;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -8,10 +7,12 @@
 import org.infinispan.commons.dataconversion.MediaType;
 import org.infinispan.commons.io.ByteBuffer;
 import org.infinispan.commons.io.ByteBufferImpl;
+import org.infinispan.commons.io.ExposedByteArrayOutputStream;
 import org.infinispan.commons.marshall.BufferSizePredictor;
 import org.infinispan.commons.marshall.Marshaller;
 import org.infinispan.commons.marshall.MarshallingException;
 import org.infinispan.commons.marshall.StreamAwareMarshaller;
+import org.infinispan.commons.marshall.WrappedBytes;
 import org.infinispan.factories.KnownComponentNames;
 import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
@@ -33,6 +34,8 @@
 @Scope(Scopes.GLOBAL)
 public abstract class AbstractInternalProtoStreamMarshaller implements Marshaller, StreamAwareMarshaller {
    private static final int PROTOSTREAM_DEFAULT_BUFFER_SIZE = 4096;
+   // Upper bound of the bytes ProtoStream adds around a wrapped byte[] field: type id, tags and lengths
+   protected static final int WRAPPED_BYTES_OVERHEAD = 32;
 
    @Inject protected SerializationContextRegistry ctxRegistry;
    @Inject @ComponentName(KnownComponentNames.USER_MARSHALLER)
@@ -57,9 +60,17 @@ public Marshaller getUserMarshaller() {
       return userMarshaller;
    }
 
+   /**
+    * Marshalls the object into a buffer sized from {@link #sizeEstimate(Object)} and returns it without trimming, so
+    * byte[] values such as {@link WrappedBytes} are copied once instead of once per buffer growth plus a final copy.
+    */
    @Override
    public ByteBuffer objectToBuffer(Object o) {
-      return ByteBufferImpl.create(objectToByteBuffer(o, -1));
+      if (o == null)
+         return ByteBufferImpl.EMPTY_INSTANCE;
+
+      ExposedByteArrayOutputStream baos = marshall(o, sizeEstimate(o));
+      return ByteBufferImpl.create(baos.getRawBuffer(), 0, baos.size());
    }
 
    @Override
@@ -67,13 +78,18 @@ public byte[] objectToByteBuffer(Object obj, int estimatedSize) {
       if (obj == null)
          return null;
 
+      ExposedByteArrayOutputStream baos = marshall(obj, estimatedSize < 0 ? PROTOSTREAM_DEFAULT_BUFFER_SIZE : estimatedSize);
+      byte[] raw = baos.getRawBuffer();
+      return raw.length == baos.size() ? raw : baos.toByteArray();
+   }
+
+   private ExposedByteArrayOutputStream marshall(Object obj, int size) {
       try {
          if (requiresWrapping(obj))
             obj = new MarshallableUserObject<>(obj);
-         int size = estimatedSize < 0 ? PROTOSTREAM_DEFAULT_BUFFER_SIZE : estimatedSize;
-         ByteArrayOutputStream baos = new ByteArrayOutputStream(size);
+         ExposedByteArrayOutputStream baos = new ExposedByteArrayOutputStream(size);
          ProtobufUtil.toWrappedStream(getSerializationContext(), baos, obj, size);
-         return baos.toByteArray();
+         return baos;
       } catch (Throwable t) {
          log.cannotMarshall(obj.getClass(), t);
          if (t instanceof MarshallingException)
@@ -129,6 +145,9 @@ public boolean isMarshallable(Object o) {
 
    @Override
    public int sizeEstimate(Object o) {
+      if (o instanceof WrappedBytes)
+         return ((WrappedBytes) o).getLength() + WRAPPED_BYTES_OVERHEAD;
+
       if (isMarshallableWithProtoStream(o))
          return PROTOSTREAM_DEFAULT_BUFFER_SIZE;
 
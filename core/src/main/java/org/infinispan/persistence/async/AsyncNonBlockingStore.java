@@ -2,8 +2,11 @@
 
 import java.lang.invoke.MethodHandles;
 import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
@@ -16,8 +19,10 @@
 
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.IllegalLifecycleStateException;
+import org.infinispan.commons.io.ByteBuffer;
 import org.infinispan.commons.marshall.WrappedByteArray;
 import org.infinispan.commons.reactive.RxJavaInterop;
+import org.infinispan.commons.time.TimeService;
 import org.infinispan.commons.util.IntSet;
 import org.infinispan.configuration.cache.AsyncStoreConfiguration;
 import org.infinispan.configuration.cache.Configuration;
@@ -29,6 +34,8 @@
 import org.infinispan.persistence.spi.NonBlockingStore;
 import org.infinispan.persistence.support.DelegatingNonBlockingStore;
 import org.infinispan.persistence.support.SegmentPublisherWrapper;
+import org.infinispan.persistence.support.SingleSegmentPublisher;
+import org.infinispan.util.concurrent.AggregateCompletionStage;
 import org.infinispan.util.concurrent.CompletableFutures;
 import org.infinispan.util.concurrent.CompletionStages;
 import org.infinispan.util.logging.Log;
@@ -37,21 +44,29 @@
 
 import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Maybe;
 import io.reactivex.rxjava3.flowables.ConnectableFlowable;
 import io.reactivex.rxjava3.functions.Function;
 import net.jcip.annotations.GuardedBy;
 
 /**
  * A delegating NonBlockingStore implementation that batches write operations and runs the resulting batches on the
- * delegate store in a non overlapping manner. That is that only a single batch will be running at a time.
+ * delegate store.
  * <p>
- * Whenever a write operation is performed it will also attempt to start a batch write immediately to the delegate store.
- * Any concurrent writes during this time may be included in the batch. Any additional writes will be enqueued until
- * the batch completes in which case it will automatically submit the pending batch, if there is one.  Write operations
- * to the same key in the same batch will be coalesced with only the last write being written to the underlying store.
- * If the number of enqueued pending write operations becomes equal or larger than the modification queue, then any
- * subsequent write will be added to the queue, but the returned Stage will not complete until the current batch completes
- * in an attempt to provide some backpressure to slow writes.
+ * Write operations are enqueued in one of {@link AsyncStoreConfiguration#flushConcurrency()} queues, chosen by the
+ * segment of the key for segmented stores or by the key itself otherwise. Each queue runs a single batch at a time on
+ * the delegate store, so that the modifications of a key are always written in order, but the queues write their
+ * batches concurrently. A batch is started as soon as a write operation is enqueued, or once
+ * {@link AsyncStoreConfiguration#flushInterval()} has elapsed if configured, and holds at most
+ * {@link AsyncStoreConfiguration#flushSize()} modifications. Any additional writes will be enqueued until the batch of
+ * their queue completes in which case it will automatically submit the pending batch, if there is one. Write
+ * operations to the same key in the same batch will be coalesced with only the last write being written to the
+ * underlying store. A clear waits for the batches being written, and the queues wait for the clear in turn.
+ * <p>
+ * If the number of enqueued pending write operations, or their memory if
+ * {@link AsyncStoreConfiguration#modificationQueueMemory()} is configured, becomes larger than the limit, then any
+ * subsequent write will be added to the queue, but the returned Stage will not complete until the current batch of its
+ * queue completes in an attempt to provide some backpressure to slow writes.
  * <p>
  * Read operations may be resolved by this store immediately if the given key is still being updated in the
  * delegate store or if it is enqueued for the next batch. If the key is in neither it will query the underlying store
@@ -63,44 +78,59 @@
  */
 public class AsyncNonBlockingStore<K, V> extends DelegatingNonBlockingStore<K, V> {
    private static final Log log = LogFactory.getLog(MethodHandles.lookup().lookupClass());
+   // Estimate of the memory used by a modification in the queue, besides the bytes of its entry
+   private static final int MODIFICATION_OVERHEAD = 64;
    private final NonBlockingStore<K, V> actual;
 
    private Executor nonBlockingExecutor;
+   private TimeService timeService;
    private int segmentCount;
+   private boolean segmented;
    private int modificationQueueSize;
+   private long modificationQueueMemory;
+   private long flushInterval;
+   private int flushSize;
    private PersistenceConfiguration persistenceConfiguration;
    private AsyncStoreConfiguration asyncConfiguration;
 
-   // "Non blocking" scheduler used for the purpose of delaying retry batch operations on failures
+   // "Non blocking" scheduler used for the purpose of delaying retry batch operations on failures and the flushes
    private ScheduledExecutorService scheduler;
 
-   // This variable will be non null if there is a pending batch being sent to the underlying store
-   // If a request causes the modification queue to overflow it will receive a stage back that is only complete
-   // when this future is completed (aka. previous replication has completed)
-   @GuardedBy("this")
-   private CompletableFuture<Void> batchFuture;
+   // The queues of modifications, each of them sends at most one batch at a time to the underlying store
+   private FlushQueue[] queues;
 
    // This variable will be non null if the underlying store has been found to be not available
-   // Note that the async store will still be available as long as the queue size (ie. modificationMap.size) is not
-   // greater than the configured modificationQueueSize
+   // Note that the async store will still be available as long as the queue is not full
    @GuardedBy("this")
    private CompletableFuture<Void> delegateAvailableFuture;
 
-   // Any pending modifications will be enqueued in this map
-   @GuardedBy("this")
-   private Map<Object, Modification> pendingModifications = new HashMap<>();
    // If there is a pending clear this will be true
    @GuardedBy("this")
    private boolean hasPendingClear;
-   // The next two variables are held temporarily until a replication of the values is complete. We need to retain
-   // these values until we are sure the entries are actually in the store - note these variables are only written to
-   // via reference (thus the map is safe to read outside of this lock, but the reference must be read in synchronized)
-   // This map contains all the modifications currently being replicated to the delegating store
-   @GuardedBy("this")
-   private Map<Object, Modification> replicatingModifications = Collections.emptyMap();
    // True if there is an outstanding clear that is being ran on the delegating store
    @GuardedBy("this")
    private boolean isReplicatingClear;
+   // This variable will be non null while there is a pending clear or a clear being ran on the delegating store, it
+   // is completed once the clear completes
+   @GuardedBy("this")
+   private CompletableFuture<Void> clearFuture;
+
+   // The number of modifications in all the queues, pending or being replicated, and their estimated memory
+   @GuardedBy("this")
+   private int queueSize;
+   @GuardedBy("this")
+   private long queueMemory;
+
+   @GuardedBy("this")
+   private long submittedModifications;
+   @GuardedBy("this")
+   private long coalescedModifications;
+   @GuardedBy("this")
+   private long flushes;
+   @GuardedBy("this")
+   private long flushTimeNanos;
+   @GuardedBy("this")
+   private long maxFlushTimeNanos;
    private volatile boolean stopped = true;
 
    public AsyncNonBlockingStore(NonBlockingStore<K, V> actual) {
@@ -114,10 +144,21 @@ public CompletionStage<Void> start(InitializationContext ctx) {
       scheduler = ctx.getCache().getCacheManager().getGlobalComponentRegistry().getComponent(
             ScheduledExecutorService.class, KnownComponentNames.TIMEOUT_SCHEDULE_EXECUTOR);
       StoreConfiguration storeConfiguration = ctx.getConfiguration();
-      segmentCount = storeConfiguration.segmented() ? cacheConfiguration.clustering().hash().numSegments() : 1;
+      segmented = storeConfiguration.segmented();
+      segmentCount = segmented ? cacheConfiguration.clustering().hash().numSegments() : 1;
       asyncConfiguration = storeConfiguration.async();
       modificationQueueSize = asyncConfiguration.modificationQueueSize();
+      modificationQueueMemory = asyncConfiguration.modificationQueueMemoryBytes();
+      flushInterval = asyncConfiguration.flushInterval();
+      flushSize = asyncConfiguration.flushSize();
+      int queueCount = segmented ? Math.min(asyncConfiguration.flushConcurrency(), segmentCount) : asyncConfiguration.flushConcurrency();
+      FlushQueue[] queues = new FlushQueue[queueCount];
+      for (int i = 0; i < queueCount; ++i) {
+         queues[i] = new FlushQueue();
+      }
+      this.queues = queues;
       nonBlockingExecutor = ctx.getNonBlockingExecutor();
+      timeService = ctx.getTimeService();
       stopped = false;
       return actual.start(ctx);
    }
@@ -142,101 +183,221 @@ public CompletionStage<Void> stop() {
     * Returns a stage that when complete, this store has submitted and completed all pending modifications
     */
    private CompletionStage<Void> awaitQuiescence() {
-      CompletionStage<Void> stage;
+      List<FlushQueue> queuesToFlush = new ArrayList<>();
+      AggregateCompletionStage<Void> stage = null;
       synchronized (this) {
-         stage = batchFuture;
+         for (FlushQueue queue : queues) {
+            // Don't wait for the flush interval of the queues that have not started a batch yet
+            if (queue.batchFuture == null && !queue.pendingModifications.isEmpty() && clearFuture == null) {
+               queue.batchFuture = new CompletableFuture<>();
+               queuesToFlush.add(queue);
+            }
+            if (queue.batchFuture != null) {
+               stage = stage == null ? CompletionStages.aggregateCompletionStage() : stage;
+               stage.dependsOn(queue.batchFuture);
+            }
+         }
+         if (clearFuture != null) {
+            stage = stage == null ? CompletionStages.aggregateCompletionStage() : stage;
+            stage.dependsOn(clearFuture);
+         }
       }
+      queuesToFlush.forEach(this::submitTask);
       if (stage == null) {
          return CompletableFutures.completedNull();
       }
       if (log.isTraceEnabled()) {
-         log.tracef("Must wait until prior batch completes for %s", actual);
+         log.tracef("Must wait until prior batches complete for %s", actual);
+      }
+      return stage.freeze().thenCompose(ignore -> awaitQuiescence());
+   }
+
+   private FlushQueue queueFor(int segment, Object wrappedKey) {
+      FlushQueue[] queues = this.queues;
+      if (queues.length == 1) {
+         return queues[0];
       }
-      return stage.thenCompose(ignore -> awaitQuiescence());
+      // Segments of non segmented stores are not always provided, so use the key instead
+      int hash = segmented ? segment : wrappedKey.hashCode() & Integer.MAX_VALUE;
+      return queues[hash % queues.length];
    }
 
+   private static long memoryOf(Modification modification) {
+      if (modification instanceof PutModification) {
+         MarshallableEntry<?, ?> entry = ((PutModification) modification).getEntry();
+         return MODIFICATION_OVERHEAD + length(entry.getKeyBytes()) + length(entry.getValueBytes()) +
+               length(entry.getMetadataBytes()) + length(entry.getInternalMetadataBytes());
+      }
+      return MODIFICATION_OVERHEAD;
+   }
+
+   private static int length(ByteBuffer buffer) {
+      return buffer == null ? 0 : buffer.getLength();
+   }
+
+   @GuardedBy("this")
+   private boolean isQueueFull() {
+      return modificationQueueMemory > 0 ? queueMemory > modificationQueueMemory : queueSize > modificationQueueSize;
+   }
+
+   @GuardedBy("this")
    void putModification(Object key, Modification modification) {
+      FlushQueue queue = queueFor(modification.getSegment(), key);
       if (log.isTraceEnabled()) {
-         log.tracef("Adding modification %s to %s", modification, System.identityHashCode(pendingModifications));
+         log.tracef("Adding modification %s to %s", modification, System.identityHashCode(queue.pendingModifications));
       }
-      pendingModifications.put(key, modification);
+      long memory = memoryOf(modification);
+      Modification previous = queue.pendingModifications.put(key, modification);
+      if (previous != null) {
+         long previousMemory = memoryOf(previous);
+         queue.pendingMemory -= previousMemory;
+         queueMemory -= previousMemory;
+         queueSize--;
+         coalescedModifications++;
+      }
+      queue.pendingMemory += memory;
+      queueMemory += memory;
+      queueSize++;
    }
 
+   @GuardedBy("this")
    void putClearModification() {
-      if (log.isTraceEnabled()) {
-         log.tracef("Clear modification encountered for %s", System.identityHashCode(pendingModifications));
+      for (FlushQueue queue : queues) {
+         if (log.isTraceEnabled()) {
+            log.tracef("Clear modification encountered for %s", System.identityHashCode(queue.pendingModifications));
+         }
+         int size = queue.pendingModifications.size();
+         queue.pendingModifications.clear();
+         queueSize -= size;
+         coalescedModifications += size;
+         queueMemory -= queue.pendingMemory;
+         queue.pendingMemory = 0;
       }
-      pendingModifications.clear();
       hasPendingClear = true;
    }
 
    /**
-    * This method submits a batch of modifications to the underlying store and completes {@code batchFuture}
-    * when the modifications are done.
-    *
-    * If there are any pending modifications at that time, it automatically submits a new batch,
-    * otherwise it sets {@code batchFuture} to null.
-    *
-    * Callers must atomically check that {@code batchFuture} is null and set it to a non-null value,
-    * to ensure that only one batch is being processed at any time.
+    * Starts the pending clear, if all the batches being written to the underlying store are complete.
+    * @return whether the caller must invoke {@link #submitClear()}
     */
-   private void submitTask() {
-      Map<Object, Modification> newMap = new HashMap<>();
-      if (log.isTraceEnabled()) {
-         log.tracef("Starting new batch with id %s", System.identityHashCode(newMap));
-      }
-      boolean ourClearToReplicate;
-      Map<Object, Modification> ourModificationsToReplicate;
-      synchronized (this) {
-         // The isReplicatingClear would be true or replicatingModifications non empty if an update was currently pending
-         // But we should only allow one at a time
-         assert replicatingModifications.isEmpty() && !isReplicatingClear;
-         replicatingModifications = pendingModifications;
-         ourModificationsToReplicate = pendingModifications;
-         pendingModifications = newMap;
-         isReplicatingClear = hasPendingClear;
-         ourClearToReplicate = hasPendingClear;
-         hasPendingClear = false;
+   @GuardedBy("this")
+   private boolean tryStartClear() {
+      if (!hasPendingClear || isReplicatingClear) {
+         return false;
       }
-
-      CompletionStage<Void> asyncBatchStage;
-      if (ourClearToReplicate) {
-         if (log.isTraceEnabled()) {
-            log.tracef("Sending clear to underlying store for id %s", System.identityHashCode(ourModificationsToReplicate));
+      for (FlushQueue queue : queues) {
+         if (queue.batchFuture != null) {
+            return false;
          }
-         asyncBatchStage = retry(actual::clear, persistenceConfiguration.connectionAttempts()).whenComplete((ignore, t) -> {
-            synchronized (this) {
-               isReplicatingClear = false;
-            }
-         });
-      } else {
-         asyncBatchStage = CompletableFutures.completedNull();
       }
+      hasPendingClear = false;
+      isReplicatingClear = true;
+      return true;
+   }
 
-      if (!ourModificationsToReplicate.isEmpty()) {
-         asyncBatchStage = asyncBatchStage.thenCompose(ignore -> {
-            if (log.isTraceEnabled()) {
-               log.tracef("Sending batch write/remove operations %s to underlying store with id %s", ourModificationsToReplicate.size(),
-                     System.identityHashCode(ourModificationsToReplicate));
-            }
-            return retry(() -> replicateModifications(ourModificationsToReplicate), persistenceConfiguration.connectionAttempts()).whenComplete((ignore2, t) -> {
-               synchronized (this) {
-                  replicatingModifications = Collections.emptyMap();
+   /**
+    * Runs the clear on the underlying store and completes {@code clearFuture} when it is done. Then it submits a
+    * batch for every queue that has pending modifications, or another clear if one was requested in the meantime.
+    * <p>
+    * Callers must have started the clear with {@link #tryStartClear()}.
+    */
+   private void submitClear() {
+      if (log.isTraceEnabled()) {
+         log.trace("Sending clear to underlying store");
+      }
+      retry(actual::clear, persistenceConfiguration.connectionAttempts()).whenComplete((ignore, t) -> {
+         List<FlushQueue> queuesToFlush = new ArrayList<>();
+         CompletableFuture<Void> future;
+         boolean submitNewClear;
+         synchronized (this) {
+            isReplicatingClear = false;
+            future = clearFuture;
+            if (submitNewClear = hasPendingClear) {
+               hasPendingClear = false;
+               isReplicatingClear = true;
+               clearFuture = new CompletableFuture<>();
+            } else {
+               clearFuture = null;
+               for (FlushQueue queue : queues) {
+                  if (!queue.pendingModifications.isEmpty()) {
+                     queue.batchFuture = new CompletableFuture<>();
+                     queuesToFlush.add(queue);
+                  }
                }
-            });
-         });
+            }
+         }
+         if (t != null) {
+            future.completeExceptionally(t);
+         } else {
+            future.complete(null);
+         }
+         if (submitNewClear) {
+            submitClear();
+         } else {
+            queuesToFlush.forEach(this::submitTask);
+         }
+      });
+   }
+
+   /**
+    * Submits the batch of the queue if it has not been started yet, once the flush interval has elapsed.
+    */
+   private void flushAfterInterval(FlushQueue queue) {
+      synchronized (this) {
+         queue.flushScheduled = false;
+         if (queue.batchFuture != null || clearFuture != null || queue.pendingModifications.isEmpty()) {
+            return;
+         }
+         queue.batchFuture = new CompletableFuture<>();
       }
+      submitTask(queue);
+   }
 
-      asyncBatchStage.whenComplete((ignore, t) -> {
+   /**
+    * This method submits a batch of modifications of the queue to the underlying store and completes the
+    * {@code batchFuture} of the queue when the modifications are done.
+    *
+    * If the queue has any pending modifications at that time, it automatically submits a new batch,
+    * otherwise it sets {@code batchFuture} to null. If there is a pending clear, the clear is submitted instead once
+    * all the queues are done.
+    *
+    * Callers must atomically check that {@code batchFuture} of the queue is null and set it to a non-null value,
+    * to ensure that only one batch is being processed at any time for each queue.
+    */
+   private void submitTask(FlushQueue queue) {
+      Map<Object, Modification> ourModificationsToReplicate;
+      synchronized (this) {
+         // But we should only allow one at a time
+         assert queue.replicatingModifications.isEmpty();
+         ourModificationsToReplicate = queue.takeBatch(flushSize);
+      }
+      if (log.isTraceEnabled()) {
+         log.tracef("Sending batch write/remove operations %s to underlying store with id %s", ourModificationsToReplicate.size(),
+               System.identityHashCode(ourModificationsToReplicate));
+      }
+      long start = timeService.time();
+      retry(() -> replicateModifications(ourModificationsToReplicate), persistenceConfiguration.connectionAttempts()).whenComplete((ignore, t) -> {
          if (log.isTraceEnabled()) {
             log.tracef("Async operations completed for id %s", System.identityHashCode(ourModificationsToReplicate));
          }
+         long flushTime = timeService.timeDuration(start, TimeUnit.NANOSECONDS);
          boolean submitNewBatch;
+         boolean submitClear;
          CompletableFuture<Void> future;
          synchronized (this) {
-            submitNewBatch = !pendingModifications.isEmpty() || hasPendingClear;
-            future = batchFuture;
-            batchFuture = submitNewBatch ? new CompletableFuture<>() : null;
+            queueSize -= ourModificationsToReplicate.size();
+            queueMemory -= queue.replicatingMemory;
+            queue.replicatingMemory = 0;
+            queue.replicatingModifications = Collections.emptyMap();
+            flushes++;
+            flushTimeNanos += flushTime;
+            maxFlushTimeNanos = Math.max(maxFlushTimeNanos, flushTime);
+
+            future = queue.batchFuture;
+            // A pending clear must run before any new batch
+            submitNewBatch = clearFuture == null && !queue.pendingModifications.isEmpty();
+            queue.batchFuture = submitNewBatch ? new CompletableFuture<>() : null;
+            submitClear = tryStartClear();
          }
          if (t != null) {
             future.completeExceptionally(t);
@@ -247,11 +408,22 @@ private void submitTask() {
             if (log.isTraceEnabled()) {
                log.trace("Submitting new batch after completion of prior");
             }
-            submitTask();
+            submitTask(queue);
+         }
+         if (submitClear) {
+            submitClear();
          }
       });
    }
 
+   /**
+    * Returns the statistics of the modification queue of this store.
+    */
+   public synchronized WriteBehindStatistics getStatistics() {
+      return new WriteBehindStatistics(queueSize, queueMemory, submittedModifications, coalescedModifications, flushes,
+            flushTimeNanos, maxFlushTimeNanos);
+   }
+
    /**
     * Attempts to run the given supplier, checking the stage if it contains an error. It will rerun the Supplier
     * until a supplied stage doesn't contain an exception or it has encountered retries amount of exceptions. In the
@@ -389,39 +561,81 @@ private <E> Publisher<E> abstractPublish(IntSet segments, Predicate<? super K> f
    }
 
    private Map.Entry<Boolean, Map<Object, Modification>> flattenModificationMaps() {
-      Map<Object, Modification> modificationCopy;
-      Map<Object, Modification> modificationsToReplicate;
+      Map<Object, Modification> pendingCopy = new HashMap<>();
+      List<Map<Object, Modification>> modificationsToReplicate = new ArrayList<>(queues.length);
       boolean clearToReplicate;
       synchronized (this) {
-         modificationCopy = new HashMap<>(pendingModifications);
+         for (FlushQueue queue : queues) {
+            pendingCopy.putAll(queue.pendingModifications);
+            modificationsToReplicate.add(queue.replicatingModifications);
+         }
          if (hasPendingClear) {
-            return new AbstractMap.SimpleImmutableEntry<>(Boolean.TRUE, modificationCopy);
+            return new AbstractMap.SimpleImmutableEntry<>(Boolean.TRUE, pendingCopy);
          }
-         modificationsToReplicate = this.replicatingModifications;
          clearToReplicate = this.isReplicatingClear;
       }
 
-      modificationCopy.putAll(modificationsToReplicate);
+      Map<Object, Modification> modificationCopy = new HashMap<>();
+      modificationsToReplicate.forEach(modificationCopy::putAll);
+      // The pending modifications are more recent than the ones being replicated
+      modificationCopy.putAll(pendingCopy);
       return new AbstractMap.SimpleImmutableEntry<>(clearToReplicate, modificationCopy);
    }
 
    @Override
    public CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
       assertNotStopped();
-      CompletionStage<MarshallableEntry<K, V>> pendingStage = getStageFromPending(key);
+      CompletionStage<MarshallableEntry<K, V>> pendingStage = getStageFromPending(segment, key);
       if (pendingStage != null) {
          return pendingStage;
       }
       return actual.load(segment, key);
    }
 
-   private CompletionStage<MarshallableEntry<K, V>> getStageFromPending(Object key) {
+   @Override
+   public Publisher<MarshallableEntry<K, V>> bulkLoad(int publisherCount,
+         Publisher<SegmentedPublisher<Object>> keyPublisher) {
+      assertNotStopped();
+      return Flowable.fromPublisher(keyPublisher)
+            .concatMapSingle(sp -> Flowable.fromPublisher(sp)
+                  .toList()
+                  .map(keys -> new AbstractMap.SimpleImmutableEntry<>(sp.getSegment(), keys)))
+            .toList()
+            .flatMapPublisher(segmentKeys -> {
+               // Keys with a pending modification are answered by it, only the others are loaded from the store
+               List<CompletionStage<MarshallableEntry<K, V>>> pendingStages = new ArrayList<>();
+               List<SegmentedPublisher<Object>> keysToLoad = new ArrayList<>(segmentKeys.size());
+               for (Map.Entry<Integer, List<Object>> entry : segmentKeys) {
+                  List<Object> keys = new ArrayList<>(entry.getValue().size());
+                  for (Object key : entry.getValue()) {
+                     CompletionStage<MarshallableEntry<K, V>> pendingStage = getStageFromPending(entry.getKey(), key);
+                     if (pendingStage != null) {
+                        pendingStages.add(pendingStage);
+                     } else {
+                        keys.add(key);
+                     }
+                  }
+                  if (!keys.isEmpty()) {
+                     keysToLoad.add(SingleSegmentPublisher.singleSegment(entry.getKey(), Flowable.fromIterable(keys)));
+                  }
+               }
+               Flowable<MarshallableEntry<K, V>> pendingFlowable = Flowable.fromIterable(pendingStages)
+                     .concatMapMaybe(Maybe::fromCompletionStage);
+               if (keysToLoad.isEmpty()) {
+                  return pendingFlowable;
+               }
+               return pendingFlowable.concatWith(actual.bulkLoad(publisherCount, Flowable.fromIterable(keysToLoad)));
+            });
+   }
+
+   private CompletionStage<MarshallableEntry<K, V>> getStageFromPending(int segment, Object key) {
       Object wrappedKey = wrapKeyIfNeeded(key);
+      FlushQueue queue = queueFor(segment, wrappedKey);
       Map<Object, Modification> modificationsToReplicate;
       boolean clearToReplicate;
       synchronized (this) {
          // Note that writes to this map are done only in synchronized block, so we have to do same for get
-         Modification modification = pendingModifications.get(wrappedKey);
+         Modification modification = queue.pendingModifications.get(wrappedKey);
          if (modification != null) {
             if (log.isTraceEnabled()) {
                log.tracef("Found entry was pending write in async store: %s", modification);
@@ -435,7 +649,7 @@ private CompletionStage<MarshallableEntry<K, V>> getStageFromPending(Object key)
             return CompletableFutures.completedNull();
          }
          // This map is never written to so just reading reference in synchronized block is sufficient
-         modificationsToReplicate = this.replicatingModifications;
+         modificationsToReplicate = queue.replicatingModifications;
          clearToReplicate = this.isReplicatingClear;
       }
       Modification modification = modificationsToReplicate.get(wrappedKey);
@@ -468,18 +682,36 @@ public CompletionStage<Void> batch(int publisherCount, Publisher<SegmentedPublis
    }
 
    CompletionStage<Void> submitModification(Modification modification) {
-      boolean startNewBatch;
-      CompletionStage<Void> submitStage;
+      FlushQueue queueToFlush = null;
+      FlushQueue queueToSchedule = null;
+      boolean startClear = false;
+      CompletionStage<Void> submitStage = null;
       synchronized (this) {
          modification.apply(this);
 
-         if (startNewBatch = batchFuture == null) {
-            batchFuture = new CompletableFuture<>();
+         if (modification == ClearModification.INSTANCE) {
+            if (clearFuture == null) {
+               clearFuture = new CompletableFuture<>();
+            }
+            startClear = tryStartClear();
+         } else {
+            submittedModifications++;
+            FlushQueue queue = queueFor(modification.getSegment(), wrapKeyIfNeeded(modification.getKey()));
+            boolean queueFull = isQueueFull();
+            // Batches wait for any clear to complete
+            if (queue.batchFuture == null && clearFuture == null) {
+               if (flushInterval == 0 || queueFull || queue.pendingModifications.size() >= flushSize) {
+                  queue.batchFuture = new CompletableFuture<>();
+                  queueToFlush = queue;
+               } else if (!queue.flushScheduled) {
+                  queue.flushScheduled = true;
+                  queueToSchedule = queue;
+               }
+            }
+            if (queueFull) {
+               submitStage = queue.batchFuture != null ? queue.batchFuture : clearFuture;
+            }
          }
-         int replicatingSize = replicatingModifications.size();
-
-         submitStage = pendingModifications.size() + replicatingSize > modificationQueueSize
-               ? batchFuture : null;
       }
 
       boolean isTraceEnabled = log.isTraceEnabled();
@@ -487,11 +719,16 @@ CompletionStage<Void> submitModification(Modification modification) {
          log.tracef("A new modification %s has been enqueued with async store", modification);
       }
 
-      if (startNewBatch) {
+      if (queueToFlush != null) {
          if (log.isTraceEnabled()) {
             log.tracef("Requesting a new async batch operation to be ran!");
          }
-         submitTask();
+         submitTask(queueToFlush);
+      } else if (queueToSchedule != null) {
+         FlushQueue queue = queueToSchedule;
+         scheduler.schedule(() -> flushAfterInterval(queue), flushInterval, TimeUnit.MILLISECONDS);
+      } else if (startClear) {
+         submitClear();
       }
       if (submitStage != null && isTraceEnabled) {
          log.tracef("Operation will not return immediately, must wait until current batch completes");
@@ -540,7 +777,18 @@ public CompletionStage<Void> addSegments(IntSet segments) {
    public CompletionStage<Void> removeSegments(IntSet segments) {
       assertNotStopped();
       synchronized (this) {
-         pendingModifications.values().removeIf(modification -> segments.contains(modification.getSegment()));
+         for (FlushQueue queue : queues) {
+            for (Iterator<Modification> iterator = queue.pendingModifications.values().iterator(); iterator.hasNext(); ) {
+               Modification modification = iterator.next();
+               if (segments.contains(modification.getSegment())) {
+                  iterator.remove();
+                  long memory = memoryOf(modification);
+                  queue.pendingMemory -= memory;
+                  queueMemory -= memory;
+                  queueSize--;
+               }
+            }
+         }
       }
       return actual.removeSegments(segments);
    }
@@ -584,11 +832,14 @@ public CompletionStage<Boolean> isAvailable() {
          }
 
          boolean delegateUnavailable;
-         boolean isReplicating;
-         int queueSize;
+         boolean isReplicating = false;
+         boolean queueFull;
          synchronized (this) {
-            isReplicating = !replicatingModifications.isEmpty() || isReplicatingClear;
-            queueSize = pendingModifications.size();
+            for (FlushQueue queue : queues) {
+               isReplicating |= !queue.replicatingModifications.isEmpty();
+            }
+            isReplicating |= isReplicatingClear;
+            queueFull = isQueueFull();
             if (delegateUnavailable = delegateAvailableFuture == null) {
                delegateAvailableFuture = new CompletableFuture<>();
             }
@@ -596,7 +847,7 @@ public CompletionStage<Boolean> isAvailable() {
          if (delegateUnavailable) {
             log.debugf("Underlying delegate %s is now unavailable!", actual);
          }
-         return queueSize < modificationQueueSize || !isReplicating;
+         return !queueFull || !isReplicating;
       });
    }
 
@@ -610,6 +861,53 @@ private void assertNotStopped() throws CacheException {
          throw new IllegalLifecycleStateException("AsyncCacheWriter stopped; no longer accepting more entries.");
    }
 
+   /**
+    * The modifications of a subset of the segments or keys, written to the underlying store one batch at a time.
+    * All the fields are guarded by the store.
+    */
+   private static class FlushQueue {
+      // Any pending modifications will be enqueued in this map
+      Map<Object, Modification> pendingModifications = new HashMap<>();
+      long pendingMemory;
+      // This map contains all the modifications currently being replicated to the delegating store, it is only
+      // written to via reference (thus the map is safe to read outside of the lock, but the reference must be read
+      // while holding it)
+      Map<Object, Modification> replicatingModifications = Collections.emptyMap();
+      long replicatingMemory;
+      // This variable will be non null if there is a pending batch being sent to the underlying store
+      // If a request causes the modification queue to overflow it will receive a stage back that is only complete
+      // when this future is completed (aka. previous replication has completed)
+      CompletableFuture<Void> batchFuture;
+      // True if a batch will be submitted once the flush interval elapses
+      boolean flushScheduled;
+
+      /**
+       * Moves up to {@code maxSize} pending modifications to a new batch, which becomes the replicating modifications.
+       */
+      Map<Object, Modification> takeBatch(int maxSize) {
+         Map<Object, Modification> batch;
+         if (pendingModifications.size() <= maxSize) {
+            batch = pendingModifications;
+            replicatingMemory = pendingMemory;
+            pendingModifications = new HashMap<>();
+            pendingMemory = 0;
+         } else {
+            batch = new HashMap<>(maxSize);
+            Iterator<Map.Entry<Object, Modification>> iterator = pendingModifications.entrySet().iterator();
+            while (batch.size() < maxSize) {
+               Map.Entry<Object, Modification> entry = iterator.next();
+               iterator.remove();
+               batch.put(entry.getKey(), entry.getValue());
+               long memory = memoryOf(entry.getValue());
+               pendingMemory -= memory;
+               replicatingMemory += memory;
+            }
+         }
+         replicatingModifications = batch;
+         return batch;
+      }
+   }
+
    /**
     * Wraps the provided key if necessary to provide equals to work properly
     * @param key the key to wrap
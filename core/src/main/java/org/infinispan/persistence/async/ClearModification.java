@@ -20,6 +20,11 @@ public int getSegment() {
       throw new UnsupportedOperationException("This should never be invoked");
    }
 
+   @Override
+   public Object getKey() {
+      throw new UnsupportedOperationException("This should never be invoked");
+   }
+
    @Override
    public <K, V> CompletionStage<MarshallableEntry<K, V>> asStage() {
       throw new UnsupportedOperationException("This should never be invoked");
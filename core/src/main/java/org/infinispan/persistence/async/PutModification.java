@@ -24,6 +24,11 @@ public int getSegment() {
       return segment;
    }
 
+   @Override
+   public Object getKey() {
+      return entry.getKey();
+   }
+
    @SuppressWarnings("unchecked")
    @Override
    public <K, V> CompletionStage<MarshallableEntry<K, V>> asStage() {
@@ -29,6 +29,7 @@ public <K, V> CompletionStage<MarshallableEntry<K, V>> asStage() {
       return CompletableFutures.completedNull();
    }
 
+   @Override
    public Object getKey() {
       return key;
    }
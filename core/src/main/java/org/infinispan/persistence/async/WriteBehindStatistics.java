@@ -0,0 +1,110 @@
+package org.infinispan.persistence.async;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot of the statistics of the modification queue of one or more {@link AsyncNonBlockingStore}s.
+ *
+ * @since 12.1
+ */
+public final class WriteBehindStatistics {
+   public static final WriteBehindStatistics EMPTY = new WriteBehindStatistics(0, 0, 0, 0, 0, 0, 0);
+
+   private final long queueSize;
+   private final long queueMemory;
+   private final long submittedModifications;
+   private final long coalescedModifications;
+   private final long flushes;
+   private final long flushTimeNanos;
+   private final long maxFlushTimeNanos;
+
+   WriteBehindStatistics(long queueSize, long queueMemory, long submittedModifications, long coalescedModifications,
+         long flushes, long flushTimeNanos, long maxFlushTimeNanos) {
+      this.queueSize = queueSize;
+      this.queueMemory = queueMemory;
+      this.submittedModifications = submittedModifications;
+      this.coalescedModifications = coalescedModifications;
+      this.flushes = flushes;
+      this.flushTimeNanos = flushTimeNanos;
+      this.maxFlushTimeNanos = maxFlushTimeNanos;
+   }
+
+   /**
+    * @return the statistics of both this and the other queues
+    */
+   public WriteBehindStatistics combine(WriteBehindStatistics other) {
+      return new WriteBehindStatistics(queueSize + other.queueSize, queueMemory + other.queueMemory,
+            submittedModifications + other.submittedModifications, coalescedModifications + other.coalescedModifications,
+            flushes + other.flushes, flushTimeNanos + other.flushTimeNanos, Math.max(maxFlushTimeNanos, other.maxFlushTimeNanos));
+   }
+
+   /**
+    * @return the number of modifications waiting to be written or being written to the store
+    */
+   public long getQueueSize() {
+      return queueSize;
+   }
+
+   /**
+    * @return the estimated memory in bytes used by the modifications waiting to be written or being written
+    */
+   public long getQueueMemory() {
+      return queueMemory;
+   }
+
+   /**
+    * @return the number of write and remove modifications submitted to the queue
+    */
+   public long getSubmittedModifications() {
+      return submittedModifications;
+   }
+
+   /**
+    * @return the number of modifications that were never written, as a later modification of the same key or a clear
+    * replaced them while they were queued
+    */
+   public long getCoalescedModifications() {
+      return coalescedModifications;
+   }
+
+   /**
+    * @return the fraction of the submitted modifications that were coalesced, between 0 and 1
+    */
+   public double getCoalescingRatio() {
+      return submittedModifications == 0 ? 0 : (double) coalescedModifications / submittedModifications;
+   }
+
+   /**
+    * @return the number of batches written to the store
+    */
+   public long getFlushes() {
+      return flushes;
+   }
+
+   /**
+    * @return the average time it took to write a batch to the store, including any retries
+    */
+   public long getAverageFlushTime(TimeUnit unit) {
+      return flushes == 0 ? 0 : unit.convert(flushTimeNanos / flushes, TimeUnit.NANOSECONDS);
+   }
+
+   /**
+    * @return the longest time it took to write a batch to the store, including any retries
+    */
+   public long getMaxFlushTime(TimeUnit unit) {
+      return unit.convert(maxFlushTimeNanos, TimeUnit.NANOSECONDS);
+   }
+
+   @Override
+   public String toString() {
+      return "WriteBehindStatistics{" +
+            "queueSize=" + queueSize +
+            ", queueMemory=" + queueMemory +
+            ", submittedModifications=" + submittedModifications +
+            ", coalescedModifications=" + coalescedModifications +
+            ", flushes=" + flushes +
+            ", flushTimeNanos=" + flushTimeNanos +
+            ", maxFlushTimeNanos=" + maxFlushTimeNanos +
+            '}';
+   }
+}
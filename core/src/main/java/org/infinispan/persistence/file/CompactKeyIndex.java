@@ -0,0 +1,236 @@
+package org.infinispan.persistence.file;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Index of the {@link SingleFileStore} that only holds a hash of the serialized key and the file offset of every
+ * entry, in two primitive arrays using open addressing with linear probing. The keys themselves are only kept in the
+ * file, so the store has to read the key of every candidate offset to find out which one, if any, holds a key.
+ * <p>
+ * The index also tracks which offsets are being read, so that their space in the file is not reused until the reads
+ * complete. All methods are thread safe.
+ *
+ * @since 12.1
+ */
+class CompactKeyIndex {
+   private static final int MIN_CAPACITY = 64;
+   private static final long[] NO_OFFSETS = new long[0];
+
+   // An offset of 0 marks an empty slot, no entry can start there as the file begins with the magic bytes
+   private long[] offsets;
+   private int[] hashes;
+   private int mask;
+   private int threshold;
+   private int size;
+   private final Map<Long, Integer> readers = new HashMap<>();
+
+   CompactKeyIndex() {
+      init(MIN_CAPACITY);
+   }
+
+   /**
+    * Computes the hash stored in the index for a serialized key.
+    */
+   static int hash(byte[] bytes, int offset, int length) {
+      int h = 1;
+      for (int i = offset; i < offset + length; ++i) {
+         h = 31 * h + bytes[i];
+      }
+      // The low bits select the slot, so make sure they depend on all of the bytes
+      h *= 0x9E3779B9;
+      return h ^ (h >>> 16);
+   }
+
+   private void init(int capacity) {
+      offsets = new long[capacity];
+      hashes = new int[capacity];
+      mask = capacity - 1;
+      threshold = capacity - (capacity >> 2);
+   }
+
+   /**
+    * Returns the offsets of all the entries with the given hash, locking each of them for reading. The caller must
+    * {@link #unlock(long)} every returned offset.
+    */
+   synchronized long[] lockCandidates(int hash) {
+      long[] candidates = NO_OFFSETS;
+      int count = 0;
+      for (int slot = hash & mask; offsets[slot] != 0; slot = (slot + 1) & mask) {
+         if (hashes[slot] == hash) {
+            if (count == candidates.length) {
+               candidates = Arrays.copyOf(candidates, Math.max(2, count << 1));
+            }
+            candidates[count++] = offsets[slot];
+            lock(offsets[slot]);
+         }
+      }
+      return count == candidates.length ? candidates : Arrays.copyOf(candidates, count);
+   }
+
+   synchronized void lock(long offset) {
+      readers.merge(offset, 1, Integer::sum);
+   }
+
+   synchronized void unlock(long offset) {
+      Integer count = readers.get(offset);
+      if (count == null) {
+         throw new IllegalStateException(String.format("Offset %d is not locked", offset));
+      }
+      if (count == 1) {
+         readers.remove(offset);
+         if (readers.isEmpty()) {
+            notifyAll();
+         }
+      } else {
+         readers.put(offset, count - 1);
+      }
+   }
+
+   synchronized boolean isLocked(long offset) {
+      return readers.containsKey(offset);
+   }
+
+   synchronized void waitUnlocked() {
+      while (!readers.isEmpty()) {
+         try {
+            wait();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+      }
+   }
+
+   /**
+    * Adds the entry at the given offset, replacing the entry at the previous offset if it is still present.
+    * @param hash the hash of the serialized key
+    * @param previousOffset the offset of the entry being replaced or 0 if the key is new
+    * @param offset the offset of the new entry
+    */
+   synchronized void put(int hash, long previousOffset, long offset) {
+      int slot = previousOffset != 0 ? find(hash, previousOffset) : -1;
+      if (slot >= 0) {
+         offsets[slot] = offset;
+         return;
+      }
+      if (size >= threshold) {
+         resize(offsets.length << 1);
+      }
+      insert(hash, offset);
+      size++;
+   }
+
+   /**
+    * Removes the entry at the given offset.
+    * @return whether the entry was present
+    */
+   synchronized boolean remove(int hash, long offset) {
+      int hole = find(hash, offset);
+      if (hole < 0) {
+         return false;
+      }
+      // Shift back the following entries of the probe sequence, so lookups never need tombstones
+      for (int slot = (hole + 1) & mask; offsets[slot] != 0; slot = (slot + 1) & mask) {
+         int ideal = hashes[slot] & mask;
+         if (((slot - ideal) & mask) >= ((slot - hole) & mask)) {
+            offsets[hole] = offsets[slot];
+            hashes[hole] = hashes[slot];
+            hole = slot;
+         }
+      }
+      offsets[hole] = 0;
+      hashes[hole] = 0;
+      size--;
+      return true;
+   }
+
+   synchronized void clear() {
+      init(MIN_CAPACITY);
+      size = 0;
+   }
+
+   synchronized int size() {
+      return size;
+   }
+
+   /**
+    * Locks the entry at the given offset for reading, provided it is still present.
+    * @return whether the entry was present and is now locked
+    */
+   synchronized boolean lockIfPresent(int hash, long offset) {
+      if (find(hash, offset) < 0) {
+         return false;
+      }
+      lock(offset);
+      return true;
+   }
+
+   /**
+    * @return a copy of the index tables, to iterate over the entries without holding any lock
+    */
+   synchronized Snapshot snapshot() {
+      return new Snapshot(offsets.clone(), hashes.clone());
+   }
+
+   /**
+    * @return the number of bytes used by the index tables
+    */
+   synchronized long memoryUsage() {
+      return (long) offsets.length * (Long.BYTES + Integer.BYTES);
+   }
+
+   private int find(int hash, long offset) {
+      for (int slot = hash & mask; offsets[slot] != 0; slot = (slot + 1) & mask) {
+         if (offsets[slot] == offset && hashes[slot] == hash) {
+            return slot;
+         }
+      }
+      return -1;
+   }
+
+   private void insert(int hash, long offset) {
+      int slot = hash & mask;
+      while (offsets[slot] != 0) {
+         slot = (slot + 1) & mask;
+      }
+      offsets[slot] = offset;
+      hashes[slot] = hash;
+   }
+
+   private void resize(int capacity) {
+      long[] oldOffsets = offsets;
+      int[] oldHashes = hashes;
+      init(capacity);
+      for (int i = 0; i < oldOffsets.length; ++i) {
+         if (oldOffsets[i] != 0) {
+            insert(oldHashes[i], oldOffsets[i]);
+         }
+      }
+   }
+
+   static final class Snapshot {
+      private final long[] offsets;
+      private final int[] hashes;
+
+      private Snapshot(long[] offsets, int[] hashes) {
+         this.offsets = offsets;
+         this.hashes = hashes;
+      }
+
+      int slots() {
+         return offsets.length;
+      }
+
+      /**
+       * @return the offset of the entry in the given slot or 0 if the slot is empty
+       */
+      long offset(int slot) {
+         return offsets[slot];
+      }
+
+      int hash(int slot) {
+         return hashes[slot];
+      }
+   }
+}
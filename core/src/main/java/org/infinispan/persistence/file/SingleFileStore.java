@@ -22,6 +22,7 @@
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Predicate;
@@ -68,6 +69,11 @@
  * data loss, and data can be recomputed or re-queried from the original data
  * source.
  * <p/>
+ * Alternatively the store can be configured to use a compact index, which only keeps a hash of each serialized key
+ * and the position of the entry in primitive arrays, about 16 to 32 bytes per entry without any object per entry.
+ * The keys are then only kept in the file, so lookups have to read the key from the file to compare it, and
+ * iterating over the keys has to read and deserialize them. The format of the file is the same with either index.
+ * <p/>
  * This class is fully thread safe, yet allows for concurrent load / store
  * of individual cache entries.
  *
@@ -108,6 +114,8 @@
    // bytes required by created and lastUsed timestamps
    private static final int TIMESTAMP_BYTES = 8 + 8;
    private static final int SMALLEST_ENTRY_SIZE = 128;
+   // Entries larger than this are written from the marshalled buffers instead of being copied into a single buffer
+   private static final int GATHER_WRITE_THRESHOLD = 8 * 1024;
 
    private SingleFileStoreConfiguration configuration;
 
@@ -115,6 +123,10 @@
 
    private FileChannel channel;
    private Map<K, FileEntry> entries;
+   // Replaces entries when the compact index is enabled
+   private CompactKeyIndex compactIndex;
+   // Makes the lookup and the update of the compact index atomic for writers, readers don't need it
+   private final Object compactIndexUpdateLock = new Object();
    private SortedSet<FileEntry> freeList;
    private long filePos = MAGIC_LATEST.length;
    private File file;
@@ -150,10 +162,14 @@ public void start() {
          channel = new RandomAccessFile(file, "rw").getChannel();
 
          // initialize data structures. Only use LinkedHashMap (LRU) for entries when cache store is bounded
-         Map<K, FileEntry> entryMap = configuration.maxEntries() > 0 ?
-               new LinkedHashMap<>(16, 0.75f, true) :
-               new HashMap<>();
-         entries = Collections.synchronizedMap(entryMap);
+         if (configuration.compactIndex()) {
+            compactIndex = new CompactKeyIndex();
+         } else {
+            Map<K, FileEntry> entryMap = configuration.maxEntries() > 0 ?
+                  new LinkedHashMap<>(16, 0.75f, true) :
+                  new HashMap<>();
+            entries = Collections.synchronizedMap(entryMap);
+         }
          freeList = Collections.synchronizedSortedSet(new TreeSet<>());
 
          // check file format and read persistent state if enabled for the cache
@@ -164,6 +180,11 @@ public void start() {
                processFreeEntries();
             } else if (Arrays.equals(MAGIC_11_0, header)) {
                migrateFromV11();
+               if (compactIndex != null) {
+                  // The migration doesn't fill the compact index, so index the migrated file
+                  filePos = MAGIC_LATEST.length;
+                  rebuildIndex();
+               }
                processFreeEntries();
             } else if (Arrays.equals(MAGIC_BEFORE_11, header)) {
                throw PERSISTENCE.persistedDataMigrationAcrossMajorVersions();
@@ -187,12 +208,13 @@ public void start() {
    public void stop() {
       try {
          if (channel != null) {
-            log.tracef("Stopping store %s, size = %d, file size = %d", ctx.getCache().getName(), entries.size(), channel.size());
+            log.tracef("Stopping store %s, size = %d, file size = %d", ctx.getCache().getName(), size(), channel.size());
 
             // reset state
             channel.close();
             channel = null;
             entries = null;
+            compactIndex = null;
             freeList = null;
             filePos = MAGIC_LATEST.length;
          }
@@ -220,6 +242,7 @@ public boolean isAvailable() {
     * Rebuilds the in-memory index from file.
     */
    private void rebuildIndex() throws Exception {
+      long start = timeService.time();
       ByteBuffer buf = ByteBuffer.allocate(KEY_POS_LATEST);
       for (; ; ) {
          // read FileEntry fields from file (size, keyLen etc.)
@@ -245,15 +268,26 @@ private void rebuildIndex() throws Exception {
             // load the key from file
             buf = readChannel(buf, fe.offset + KEY_POS_LATEST, fe.keyLen);
 
-            // deserialize key and add to entries map
-            // Marshaller should allow for provided type return for safety
-            K key = (K) ctx.getPersistenceMarshaller().objectFromByteBuffer(buf.array(), 0, fe.keyLen);
-            entries.put(key, fe);
+            if (compactIndex != null) {
+               // the compact index only needs the serialized key
+               indexCompact(buf.array(), 0, fe.keyLen, fe.offset);
+            } else {
+               // deserialize key and add to entries map
+               // Marshaller should allow for provided type return for safety
+               K key = (K) ctx.getPersistenceMarshaller().objectFromByteBuffer(buf.array(), 0, fe.keyLen);
+               entries.put(key, fe);
+            }
          } else {
             // add to free list
             freeList.add(fe);
          }
       }
+      long duration = timeService.timeDuration(start, TimeUnit.MILLISECONDS);
+      PERSISTENCE.fileStoreIndexRebuilt(size(), file.getPath(), duration);
+      if (compactIndex != null && size() > 0) {
+         long memory = compactIndex.memoryUsage();
+         PERSISTENCE.fileStoreCompactIndexMemory(file.getPath(), memory, memory / size());
+      }
    }
 
    private void migrateFromV11() {
@@ -320,7 +354,9 @@ private void migrateFromV11() {
                buf.flip();
                newChannel.write(buf, newFilePos);
                newFilePos += KEY_POS_LATEST; //size written
-               entries.put(key, newFe);
+               if (entries != null) {
+                  entries.put(key, newFe);
+               }
 
                //write the updated content to the new file
                newFilePos += newChannel.write(newKey, newFilePos);
@@ -340,7 +376,9 @@ private void migrateFromV11() {
                remainingLength = (newFe.expiryTime > 0 ? TIMESTAMP_BYTES : 0) + oldFe.internalMetadataLen + 8;
             } else {
                // Simply use the old FileEntry as only the magic bytes are updated
-               entries.put(key, oldFe);
+               if (entries != null) {
+                  entries.put(key, oldFe);
+               }
                remainingLength = oldFe.size - oldFe.keyLen - KEY_POS_11_0;
             }
 
@@ -423,10 +461,81 @@ private ByteBuffer allocate(ByteBuffer buf, int length) {
     */
    @Override
    public boolean contains(Object key) {
+      if (compactIndex != null) {
+         FileEntry fe = lockEntry(key);
+         if (fe != null) {
+            unlockEntry(fe);
+         }
+         return fe != null;
+      }
       FileEntry entry = entries.get(key);
       return entry != null && !entry.isExpired(timeService.wallClockTime());
    }
 
+   /**
+    * Looks up the entry of a serialized key in the compact index. The returned entry is locked for reading.
+    *
+    * @return the entry of the key, or null if there is none
+    */
+   private FileEntry lookupCompact(int hash, byte[] key, int keyOffset, int keyLength) throws IOException {
+      FileEntry found = null;
+      for (long offset : compactIndex.lockCandidates(hash)) {
+         if (found == null) {
+            // the key is compared in serialized form, so only the header and the key are read
+            ByteBuffer buf = ByteBuffer.allocate(KEY_POS_LATEST + keyLength);
+            channel.read(buf, offset);
+            buf.flip();
+            FileEntry fe = new FileEntry(offset, buf);
+            if (fe.keyLen == keyLength && equalBytes(buf.array(), KEY_POS_LATEST, key, keyOffset, keyLength)) {
+               found = fe;
+               continue;
+            }
+         }
+         compactIndex.unlock(offset);
+      }
+      return found;
+   }
+
+   private FileEntry lookupCompact(Object key) throws IOException, InterruptedException {
+      org.infinispan.commons.io.ByteBuffer keyBytes = ctx.getPersistenceMarshaller().objectToBuffer(key);
+      int hash = CompactKeyIndex.hash(keyBytes.getBuf(), keyBytes.getOffset(), keyBytes.getLength());
+      return lookupCompact(hash, keyBytes.getBuf(), keyBytes.getOffset(), keyBytes.getLength());
+   }
+
+   private static boolean equalBytes(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+      for (int i = 0; i < length; ++i) {
+         if (a[aOffset + i] != b[bOffset + i])
+            return false;
+      }
+      return true;
+   }
+
+   /**
+    * Adds the entry at the given offset to the compact index, replacing the entry with the same key if there is one.
+    *
+    * @return the replaced entry, or null if the key was not present
+    */
+   private FileEntry indexCompact(byte[] key, int keyOffset, int keyLength, long offset) throws IOException {
+      int hash = CompactKeyIndex.hash(key, keyOffset, keyLength);
+      synchronized (compactIndexUpdateLock) {
+         FileEntry previous = lookupCompact(hash, key, keyOffset, keyLength);
+         if (previous == null) {
+            compactIndex.put(hash, 0, offset);
+            return null;
+         }
+         try {
+            compactIndex.put(hash, previous.offset, offset);
+         } finally {
+            compactIndex.unlock(previous.offset);
+         }
+         return previous;
+      }
+   }
+
+   private boolean isLocked(FileEntry fe) {
+      return compactIndex != null ? compactIndex.isLocked(fe.offset) : fe.isLocked();
+   }
+
    /**
     * Allocates the requested space in the file.
     *
@@ -440,7 +549,7 @@ private FileEntry allocate(int len) {
          for (Iterator<FileEntry> it = candidates.iterator(); it.hasNext(); ) {
             FileEntry free = it.next();
             // ignore entries that are still in use by concurrent readers
-            if (free.isLocked())
+            if (isLocked(free))
                continue;
 
             // There's no race condition risk between locking the entry on
@@ -540,32 +649,59 @@ public void write(MarshallableEntry<? extends K, ? extends V> marshalledEntry) {
             newEntry = allocate(len);
             newEntry = new FileEntry(newEntry.offset, newEntry.size, key.getLength(), data.getLength(), metadataLength, internalMetadataLength, marshalledEntry.expiryTime());
 
-            ByteBuffer buf = ByteBuffer.allocate(len);
-            newEntry.writeToBuf(buf);
-            buf.put(key.getBuf(), key.getOffset(), key.getLength());
-            buf.put(data.getBuf(), data.getOffset(), data.getLength());
-            if (metadata != null) {
-               buf.put(metadata.getBuf(), metadata.getOffset(), metadata.getLength());
-
-               // Only write created & lastUsed if expiryTime is set
-               if (newEntry.expiryTime > 0) {
-                  buf.putLong(marshalledEntry.created());
-                  buf.putLong(marshalledEntry.lastUsed());
+            if (len <= GATHER_WRITE_THRESHOLD) {
+               ByteBuffer buf = ByteBuffer.allocate(len);
+               newEntry.writeToBuf(buf);
+               buf.put(key.getBuf(), key.getOffset(), key.getLength());
+               buf.put(data.getBuf(), data.getOffset(), data.getLength());
+               if (metadata != null) {
+                  buf.put(metadata.getBuf(), metadata.getOffset(), metadata.getLength());
+
+                  // Only write created & lastUsed if expiryTime is set
+                  if (newEntry.expiryTime > 0) {
+                     buf.putLong(marshalledEntry.created());
+                     buf.putLong(marshalledEntry.lastUsed());
+                  }
+               }
+               if (internalMetadata != null) {
+                  buf.put(internalMetadata.getBuf(), internalMetadata.getOffset(), internalMetadata.getLength());
+               }
+               buf.flip();
+               channel.write(buf, newEntry.offset);
+            } else {
+               // The entry is only indexed once all the parts are written, so readers can't observe a partial entry
+               ByteBuffer header = ByteBuffer.allocate(KEY_POS_LATEST);
+               newEntry.writeToBuf(header);
+               header.flip();
+               long position = writeFully(header, newEntry.offset);
+               position = writeFully(key, position);
+               position = writeFully(data, position);
+               if (metadata != null) {
+                  position = writeFully(metadata, position);
+                  if (newEntry.expiryTime > 0) {
+                     ByteBuffer timestamps = ByteBuffer.allocate(TIMESTAMP_BYTES);
+                     timestamps.putLong(marshalledEntry.created());
+                     timestamps.putLong(marshalledEntry.lastUsed());
+                     timestamps.flip();
+                     position = writeFully(timestamps, position);
+                  }
+               }
+               if (internalMetadata != null) {
+                  writeFully(internalMetadata, position);
                }
             }
-            if (internalMetadata != null) {
-               buf.put(internalMetadata.getBuf(), internalMetadata.getOffset(), internalMetadata.getLength());
-            }
-            buf.flip();
-            channel.write(buf, newEntry.offset);
             if (log.isTraceEnabled()) log.tracef("Wrote entry %s:%d at %d:%d", marshalledEntry.getKey(), len, newEntry.offset, newEntry.size);
 
             // add the new entry to in-memory index
-            oldEntry = entries.put(marshalledEntry.getKey(), newEntry);
+            if (compactIndex != null) {
+               oldEntry = indexCompact(key.getBuf(), key.getOffset(), key.getLength(), newEntry.offset);
+            } else {
+               oldEntry = entries.put(marshalledEntry.getKey(), newEntry);
 
-            // if we added an entry, check if we need to evict something
-            if (oldEntry == null)
-               oldEntry = evict();
+               // if we added an entry, check if we need to evict something
+               if (oldEntry == null)
+                  oldEntry = evict();
+            }
          } finally {
             // in case we replaced or evicted an entry, add to freeList
             try {
@@ -579,6 +715,22 @@ public void write(MarshallableEntry<? extends K, ? extends V> marshalledEntry) {
       }
    }
 
+   private long writeFully(org.infinispan.commons.io.ByteBuffer buffer, long position) throws IOException {
+      return writeFully(ByteBuffer.wrap(buffer.getBuf(), buffer.getOffset(), buffer.getLength()), position);
+   }
+
+   /**
+    * Writes all the remaining bytes of the buffer at the given position.
+    *
+    * @return the position after the written bytes
+    */
+   private long writeFully(ByteBuffer buffer, long position) throws IOException {
+      while (buffer.hasRemaining()) {
+         position += channel.write(buffer, position);
+      }
+      return position;
+   }
+
    /**
     * Try to evict an entry if the capacity of the cache store is reached.
     *
@@ -602,6 +754,19 @@ private FileEntry evict() {
    public void clear() {
       resizeLock.writeLock().lock();
       try {
+         if (compactIndex != null) {
+            synchronized (freeList) {
+               // wait until all readers are done reading file entries
+               compactIndex.waitUnlocked();
+
+               // clear in-memory state
+               compactIndex.clear();
+               freeList.clear();
+
+               resetFile();
+            }
+            return;
+         }
          synchronized (entries) {
             synchronized (freeList) {
                // wait until all readers are done reading file entries
@@ -614,11 +779,7 @@ public void clear() {
                entries.clear();
                freeList.clear();
 
-               // reset file
-               if (log.isTraceEnabled()) log.tracef("Truncating file, current size is %d", filePos);
-               channel.truncate(0);
-               channel.write(ByteBuffer.wrap(MAGIC_LATEST), 0);
-               filePos = MAGIC_LATEST.length;
+               resetFile();
             }
          }
       } catch (Exception e) {
@@ -628,11 +789,18 @@ public void clear() {
       }
    }
 
+   private void resetFile() throws IOException {
+      if (log.isTraceEnabled()) log.tracef("Truncating file, current size is %d", filePos);
+      channel.truncate(0);
+      channel.write(ByteBuffer.wrap(MAGIC_LATEST), 0);
+      filePos = MAGIC_LATEST.length;
+   }
+
    @Override
    public boolean delete(Object key) {
       resizeLock.readLock().lock();
       try {
-         FileEntry fe = entries.remove(key);
+         FileEntry fe = compactIndex != null ? removeCompact(key) : entries.remove(key);
          free(fe);
          return fe != null;
       } catch (Exception e) {
@@ -642,18 +810,46 @@ public boolean delete(Object key) {
       }
    }
 
+   private FileEntry removeCompact(Object key) throws IOException, InterruptedException {
+      org.infinispan.commons.io.ByteBuffer keyBytes = ctx.getPersistenceMarshaller().objectToBuffer(key);
+      int hash = CompactKeyIndex.hash(keyBytes.getBuf(), keyBytes.getOffset(), keyBytes.getLength());
+      synchronized (compactIndexUpdateLock) {
+         FileEntry fe = lookupCompact(hash, keyBytes.getBuf(), keyBytes.getOffset(), keyBytes.getLength());
+         if (fe == null)
+            return null;
+         try {
+            compactIndex.remove(hash, fe.offset);
+            return fe;
+         } finally {
+            compactIndex.unlock(fe.offset);
+         }
+      }
+   }
+
    @Override
    public MarshallableEntry<K, V> loadEntry(Object key) {
       return _load(key, true, true);
    }
 
-   private MarshallableEntry<K, V> _load(Object key, boolean loadValue, boolean loadMetadata) {
-      final FileEntry fe;
+   /**
+    * Looks up the entry of the given key and locks it for reading.
+    *
+    * @return the entry, or null if the key is not present or expired
+    */
+   private FileEntry lockEntry(Object key) {
       resizeLock.readLock().lock();
       try {
+         if (compactIndex != null) {
+            FileEntry fe = lookupCompact(key);
+            if (fe != null && fe.isExpired(timeService.wallClockTime())) {
+               compactIndex.unlock(fe.offset);
+               return null;
+            }
+            return fe;
+         }
          synchronized (entries) {
             // lookup FileEntry of the key
-            fe = entries.get(key);
+            FileEntry fe = entries.get(key);
             if (fe == null)
                return null;
 
@@ -663,20 +859,38 @@ private MarshallableEntry<K, V> _load(Object key, boolean loadValue, boolean loa
             } else {
                // lock entry for reading before releasing entries monitor
                fe.lock();
+               return fe;
             }
          }
+      } catch (IOException e) {
+         throw new PersistenceException(e);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new PersistenceException(e);
       } finally {
          resizeLock.readLock().unlock();
       }
+   }
 
-      org.infinispan.commons.io.ByteBuffer valueBb = null;
+   private void unlockEntry(FileEntry fe) {
+      if (compactIndex != null) {
+         compactIndex.unlock(fe.offset);
+      } else {
+         fe.unlock();
+      }
+   }
+
+   private MarshallableEntry<K, V> _load(Object key, boolean loadValue, boolean loadMetadata) {
+      final FileEntry fe = lockEntry(key);
+      if (fe == null)
+         return null;
 
       // If we only require the key, then no need to read disk
       if (!loadValue && !loadMetadata) {
          try {
             return entryFactory.create(key);
          } finally {
-            fe.unlock();
+            unlockEntry(fe);
          }
       }
 
@@ -691,11 +905,16 @@ private MarshallableEntry<K, V> _load(Object key, boolean loadValue, boolean loa
       } finally {
          // No need to keep the lock for deserialization.
          // FileEntry is immutable, so its members can't be changed by another thread.
-         fe.unlock();
+         unlockEntry(fe);
       }
 
       if (log.isTraceEnabled()) log.tracef("Read entry %s at %d:%d", key, fe.offset, fe.actualSize());
+      return createEntry(fe, data, loadValue, loadMetadata);
+   }
+
+   private MarshallableEntry<K, V> createEntry(FileEntry fe, byte[] data, boolean loadValue, boolean loadMetadata) {
       ByteBufferFactory factory = ctx.getByteBufferFactory();
+      org.infinispan.commons.io.ByteBuffer valueBb = null;
       org.infinispan.commons.io.ByteBuffer keyBb = factory.newByteBuffer(data, 0, fe.keyLen);
 
       if (loadValue) {
@@ -733,6 +952,9 @@ private MarshallableEntry<K, V> _load(Object key, boolean loadValue, boolean loa
 
    @Override
    public Flowable<K> publishKeys(Predicate<? super K> filter) {
+      if (compactIndex != null) {
+         return compactEntryPublisher(filter, false, false).map(MarshallableEntry::getKey);
+      }
       return Flowable.fromIterable(() -> {
          List<K> keys = new ArrayList<>(entries.size());
          long now = ctx.getTimeService().wallClockTime();
@@ -751,6 +973,9 @@ public Flowable<K> publishKeys(Predicate<? super K> filter) {
 
    @Override
    public Flowable<MarshallableEntry<K, V>> entryPublisher(Predicate<? super K> filter, boolean fetchValue, boolean fetchMetadata) {
+      if (compactIndex != null) {
+         return compactEntryPublisher(filter, fetchValue, fetchMetadata);
+      }
       if (fetchMetadata || fetchValue) {
          return Flowable.fromIterable(() -> {
             // This way the sorting of entries is lazily done on each invocation of the publisher
@@ -779,6 +1004,72 @@ public Flowable<MarshallableEntry<K, V>> entryPublisher(Predicate<? super K> fil
       }
    }
 
+   /**
+    * The compact index doesn't hold the keys, so they are read from the file, in file order, and only deserialized
+    * when needed.
+    */
+   private Flowable<MarshallableEntry<K, V>> compactEntryPublisher(Predicate<? super K> filter, boolean fetchValue,
+                                                                   boolean fetchMetadata) {
+      return Flowable.fromIterable(() -> {
+         // This way each invocation sees the entries present when it starts
+         CompactKeyIndex.Snapshot snapshot = compactIndex.snapshot();
+         List<long[]> entriesToLoad = new ArrayList<>(snapshot.slots());
+         for (int slot = 0; slot < snapshot.slots(); ++slot) {
+            if (snapshot.offset(slot) != 0) {
+               entriesToLoad.add(new long[]{snapshot.offset(slot), snapshot.hash(slot)});
+            }
+         }
+         entriesToLoad.sort(Comparator.comparingLong(e -> e[0]));
+         return entriesToLoad.iterator();
+      }).map(e -> {
+         MarshallableEntry<K, V> entry = loadCompact((int) e[1], e[0], filter, fetchValue, fetchMetadata);
+         if (entry == null) {
+            // Rxjava2 doesn't allow nulls
+            entry = entryFactory.getEmpty();
+         }
+         return entry;
+      }).filter(me -> me != entryFactory.getEmpty());
+   }
+
+   /**
+    * Loads the entry at the given offset, if it is still present in the compact index and not expired.
+    */
+   private MarshallableEntry<K, V> loadCompact(int hash, long offset, Predicate<? super K> filter, boolean loadValue,
+                                               boolean loadMetadata) throws IOException, ClassNotFoundException {
+      FileEntry fe;
+      byte[] data;
+      resizeLock.readLock().lock();
+      try {
+         if (!compactIndex.lockIfPresent(hash, offset))
+            return null;
+      } finally {
+         resizeLock.readLock().unlock();
+      }
+      try {
+         ByteBuffer header = ByteBuffer.allocate(KEY_POS_LATEST);
+         channel.read(header, offset);
+         header.flip();
+         fe = new FileEntry(offset, header);
+         if (fe.isExpired(timeService.wallClockTime()))
+            return null;
+         // If only the key is required, there is no need to read the rest of the entry
+         int length = !loadValue && !loadMetadata ? fe.keyLen :
+               fe.keyLen + fe.dataLen + (loadMetadata ? fe.metadataLen + fe.internalMetadataLen : 0);
+         data = new byte[length];
+         channel.read(ByteBuffer.wrap(data), offset + KEY_POS_LATEST);
+      } finally {
+         compactIndex.unlock(offset);
+      }
+      if (filter != null || (!loadValue && !loadMetadata)) {
+         K key = (K) ctx.getPersistenceMarshaller().objectFromByteBuffer(data, 0, fe.keyLen);
+         if (filter != null && !filter.test(key))
+            return null;
+         if (!loadValue && !loadMetadata)
+            return entryFactory.create(key);
+      }
+      return createEntry(fe, data, loadValue, loadMetadata);
+   }
+
    /**
     * Manipulates the free entries for optimizing disk space.
     */
@@ -810,7 +1101,7 @@ private void truncateFile(List<FileEntry> entries) {
          // Till we have free entries at the end of the file,
          // we can remove them and contract the file to release disk
          // space.
-         if (!fe.isLocked() && ((fe.offset + fe.size) == filePos)) {
+         if (!isLocked(fe) && ((fe.offset + fe.size) == filePos)) {
             truncateOffset = fe.offset;
             filePos = fe.offset;
             freeList.remove(fe);
@@ -846,7 +1137,7 @@ private void mergeFreeEntries(List<FileEntry> entries) {
       FileEntry newEntry = null;
       int mergeCounter = 0;
       for (FileEntry fe : entries) {
-         if (fe.isLocked())
+         if (isLocked(fe))
             continue;
 
          // Merge any holes created (consecutive free entries) in the file
@@ -887,6 +1178,10 @@ private void mergeAndLogEntry(FileEntry entry, int mergeCounter) {
    @Override
    public void purge(Executor threadPool, final PurgeListener task) {
       long now = timeService.wallClockTime();
+      if (compactIndex != null) {
+         purgeCompact(now, task);
+         return;
+      }
       List<KeyValuePair<Object, FileEntry>> entriesToPurge = new ArrayList<>();
       synchronized (entries) {
          for (Iterator<Map.Entry<K, FileEntry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
@@ -924,15 +1219,68 @@ public void purge(Executor threadPool, final PurgeListener task) {
       }
    }
 
+   /**
+    * The compact index doesn't hold the expiration time of the entries, so their headers are read from the file.
+    */
+   private void purgeCompact(long now, PurgeListener task) {
+      CompactKeyIndex.Snapshot snapshot = compactIndex.snapshot();
+      ByteBuffer buf = ByteBuffer.allocate(KEY_POS_LATEST);
+      resizeLock.readLock().lock();
+      try {
+         for (int slot = 0; slot < snapshot.slots(); ++slot) {
+            long offset = snapshot.offset(slot);
+            int hash = snapshot.hash(slot);
+            if (offset == 0 || !compactIndex.lockIfPresent(hash, offset))
+               continue;
+            FileEntry fe;
+            boolean removed = false;
+            try {
+               buf.clear();
+               channel.read(buf, offset);
+               buf.flip();
+               fe = new FileEntry(offset, buf);
+               if (fe.isExpired(now)) {
+                  synchronized (compactIndexUpdateLock) {
+                     removed = compactIndex.remove(hash, offset);
+                  }
+               }
+               if (removed && task != null) {
+                  byte[] key = new byte[fe.keyLen];
+                  channel.read(ByteBuffer.wrap(key), offset + KEY_POS_LATEST);
+                  task.entryPurged(ctx.getPersistenceMarshaller().objectFromByteBuffer(key));
+               }
+            } finally {
+               compactIndex.unlock(offset);
+            }
+            if (removed) {
+               free(fe);
+            }
+         }
+
+         // Disk space optimizations
+         synchronized (freeList) {
+            processFreeEntries();
+         }
+      } catch (IOException | ClassNotFoundException e) {
+         throw new PersistenceException(e);
+      } finally {
+         resizeLock.readLock().unlock();
+      }
+   }
+
    @Override
    public int size() {
-      return entries.size();
+      return compactIndex != null ? compactIndex.size() : entries.size();
    }
 
    Map<K, FileEntry> getEntries() {
       return entries;
    }
 
+   CompactKeyIndex getCompactIndex() {
+      return compactIndex;
+   }
+
    SortedSet<FileEntry> getFreeList() {
       return freeList;
    }
@@ -1,8 +1,13 @@
 package org.infinispan.persistence.manager;
 
 import java.lang.invoke.MethodHandles;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
@@ -15,12 +20,23 @@
 import org.infinispan.configuration.cache.StoreConfiguration;
 import org.infinispan.persistence.spi.MarshallableEntry;
 import org.infinispan.persistence.support.DelegatingPersistenceManager;
+import org.infinispan.util.concurrent.CompletionStages;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 import org.reactivestreams.Publisher;
 
 import io.reactivex.rxjava3.core.Flowable;
+import net.jcip.annotations.GuardedBy;
 
+/**
+ * Persistence manager used with passivation. The passivated entries are kept in memory until they are written to the
+ * stores, so that reads can still find them.
+ * <p>
+ * The entries are not written one by one: while a batch is being written, the entries passivated concurrently are
+ * queued in batches of at most the {@code max-batch-size} of the stores, and each batch is written with a single
+ * {@link org.infinispan.persistence.spi.NonBlockingStore#batch} invocation grouping its entries per segment. Only one
+ * batch is written at a time, so the writes of a burst of evictions coalesce instead of competing for the stores.
+ */
 public class PassivationPersistenceManager extends DelegatingPersistenceManager {
    public PassivationPersistenceManager(PersistenceManager persistenceManager) {
       super(persistenceManager);
@@ -30,19 +46,80 @@ public PassivationPersistenceManager(PersistenceManager persistenceManager) {
 
    private final ConcurrentMap<Object, MarshallableEntry> map = new ConcurrentHashMap<>();
 
+   @GuardedBy("batches")
+   private final Deque<PassivationBatch> batches = new ArrayDeque<>();
+   @GuardedBy("batches")
+   private boolean writing;
+   private int maxBatchSize = 1;
+
+   @Override
+   public void start() {
+      super.start();
+      maxBatchSize = componentRegistry.getConfiguration().persistence().stores().stream()
+            .mapToInt(StoreConfiguration::maxBatchSize)
+            .filter(size -> size > 0)
+            .min()
+            .orElse(1);
+   }
+
+   /**
+    * Writes the entry to the stores, along with the other entries passivated concurrently.
+    *
+    * @return a stage completed when the entry has been written to the stores
+    */
    public CompletionStage<Void> passivate(MarshallableEntry marshallableEntry, int segment) {
       Object key = marshallableEntry.getKey();
       if (log.isTraceEnabled()) {
          log.tracef("Storing entry temporarily during passivation for key %s", key);
       }
       map.put(key, marshallableEntry);
-      return writeToAllNonTxStores(marshallableEntry, segment, AccessMode.PRIVATE)
-            .whenComplete((ignore, ignoreT) -> {
-               map.remove(key);
-               if (log.isTraceEnabled()) {
-                  log.tracef("Removed temporary entry during passivation for key %s", key);
-               }
+      PassivationBatch batch;
+      boolean write;
+      synchronized (batches) {
+         batch = batches.peekLast();
+         if (batch == null || batch.entries.size() >= maxBatchSize) {
+            batch = new PassivationBatch();
+            batches.addLast(batch);
+         }
+         batch.entries.add(marshallableEntry);
+         write = !writing;
+         writing = true;
+      }
+      if (write) {
+         writeBatches();
+      }
+      return batch.future.whenComplete((ignore, ignoreT) -> {
+         // The key may have been passivated again in a later batch
+         map.remove(key, marshallableEntry);
+         if (log.isTraceEnabled()) {
+            log.tracef("Removed temporary entry during passivation for key %s", key);
+         }
+      });
+   }
+
+   private void writeBatches() {
+      while (true) {
+         PassivationBatch batch;
+         synchronized (batches) {
+            batch = batches.pollFirst();
+            if (batch == null) {
+               writing = false;
+               return;
+            }
+         }
+         if (log.isTraceEnabled()) {
+            log.tracef("Writing batch of %d passivated entries", batch.entries.size());
+         }
+         CompletionStage<Void> stage = writeEntries(batch.entries, AccessMode.PRIVATE);
+         if (!CompletionStages.isCompletedSuccessfully(stage)) {
+            stage.whenComplete((ignore, t) -> {
+               batch.complete(t);
+               writeBatches();
             });
+            return;
+         }
+         batch.complete(null);
+      }
    }
 
    @Override
@@ -71,6 +148,32 @@ public <K, V> CompletionStage<MarshallableEntry<K, V>> loadFromAllStores(Object
       return super.loadFromAllStores(key, localInvocation, includeStores);
    }
 
+   @Override
+   public <K, V> Publisher<MarshallableEntry<K, V>> loadFromAllStores(Collection<?> keys, boolean localInvocation,
+                                                                     boolean includeStores) {
+      if (map.isEmpty()) {
+         return super.loadFromAllStores(keys, localInvocation, includeStores);
+      }
+      List<MarshallableEntry<K, V>> passivatingEntries = new ArrayList<>();
+      List<Object> keysToLoad = new ArrayList<>(keys.size());
+      for (Object key : keys) {
+         MarshallableEntry<K, V> entry = map.get(key);
+         if (entry != null) {
+            if (log.isTraceEnabled()) {
+               log.tracef("Retrieved entry for key %s from temporary passivation map", key);
+            }
+            passivatingEntries.add(entry);
+         } else {
+            keysToLoad.add(key);
+         }
+      }
+      if (keysToLoad.isEmpty()) {
+         return Flowable.fromIterable(passivatingEntries);
+      }
+      return Flowable.fromIterable(passivatingEntries)
+            .concatWith(super.loadFromAllStores(keysToLoad, localInvocation, includeStores));
+   }
+
    @Override
    public <K> Publisher<K> publishKeys(Predicate<? super K> filter, Predicate<? super StoreConfiguration> predicate) {
       if (map.isEmpty()) {
@@ -177,4 +280,17 @@ public CompletionStage<Long> size(Predicate<? super StoreConfiguration> predicat
    public int pendingPassivations() {
       return map.size();
    }
+
+   private static class PassivationBatch {
+      final List<MarshallableEntry<Object, Object>> entries = new ArrayList<>();
+      final CompletableFuture<Void> future = new CompletableFuture<>();
+
+      void complete(Throwable t) {
+         if (t != null) {
+            future.completeExceptionally(t);
+         } else {
+            future.complete(null);
+         }
+      }
+   }
 }
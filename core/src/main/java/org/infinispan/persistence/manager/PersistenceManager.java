@@ -13,6 +13,7 @@
 import org.infinispan.configuration.cache.StoreConfiguration;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.impl.TxInvocationContext;
+import org.infinispan.persistence.async.WriteBehindStatistics;
 import org.infinispan.persistence.spi.AdvancedCacheLoader;
 import org.infinispan.persistence.spi.MarshallableEntry;
 import org.infinispan.persistence.spi.PersistenceException;
@@ -20,6 +21,9 @@
 import org.infinispan.util.concurrent.CompletableFutures;
 import org.reactivestreams.Publisher;
 
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Maybe;
+
 /**
  * Defines the logic for interacting with the chain of external storage.
  *
@@ -43,6 +47,8 @@ public interface PersistenceManager extends Lifecycle {
 
    /**
     * Loads the data from the external store into memory during cache startup.
+    * @return a stage that completes when all the entries have been loaded, which the cache doesn't wait for if
+    * {@link org.infinispan.configuration.cache.PersistenceConfiguration#preloadInBackground()} is enabled
     */
    CompletionStage<Void> preload();
 
@@ -55,6 +61,22 @@ public interface PersistenceManager extends Lifecycle {
 
    Collection<String> getStoresAsString();
 
+   /**
+    * Returns the statistics of the modification queues of the stores configured as write-behind, combined.
+    * @return the statistics, which are empty if no store is configured as write-behind
+    */
+   default WriteBehindStatistics getWriteBehindStatistics() {
+      return WriteBehindStatistics.EMPTY;
+   }
+
+   /**
+    * Returns the progress of the last preload of the cache.
+    * @return the statistics, which are empty if the cache has not been preloaded
+    */
+   default PreloadStatistics getPreloadStatistics() {
+      return PreloadStatistics.EMPTY;
+   }
+
    /**
     * Removes the expired entries from all the existing storage.
     */
@@ -165,6 +187,23 @@ default <K, V> CompletionStage<MarshallableEntry<K, V>> loadFromAllStores(Object
       return loadFromAllStores(key, localInvocation, includeStores);
    }
 
+   /**
+    * Loads the entries of the given keys from the persistence stores, publishing those that are found. Each store
+    * is only asked for the keys that were not found in the stores before it, with a single bulk load. The published
+    * entries are guaranteed to not be expired when they were loaded.
+    * @param keys keys to read the entries from
+    * @param localInvocation whether this invocation is a local invocation. Some loaders may be ignored if it is not local
+    * @param includeStores if a loader that is also a store can be loaded from
+    * @return publisher of the entries found, in any order
+    * @implSpec default implementation invokes {@link #loadFromAllStores(Object, boolean, boolean)} for each key
+    */
+   default <K, V> Publisher<MarshallableEntry<K, V>> loadFromAllStores(Collection<?> keys, boolean localInvocation,
+         boolean includeStores) {
+      return Flowable.fromIterable(keys)
+            .concatMapMaybe(key -> Maybe.fromCompletionStage(this.<K, V>loadFromAllStores(key, localInvocation,
+                  includeStores)));
+   }
+
    default CompletionStage<Long> size() {
        return size(AccessMode.BOTH);
    }
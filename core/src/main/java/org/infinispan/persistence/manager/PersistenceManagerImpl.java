@@ -6,13 +6,20 @@
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.StampedLock;
 import java.util.function.BiPredicate;
 import java.util.function.Predicate;
@@ -42,15 +49,19 @@
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.cache.AbstractSegmentedStoreConfiguration;
 import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.configuration.cache.PersistenceConfiguration;
 import org.infinispan.configuration.cache.StoreConfiguration;
 import org.infinispan.configuration.global.GlobalConfiguration;
+import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.container.entries.InternalCacheValue;
 import org.infinispan.container.entries.MVCCEntry;
+import org.infinispan.container.impl.InternalDataContainer;
 import org.infinispan.container.impl.InternalEntryFactory;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.impl.FlagBitSets;
 import org.infinispan.context.impl.TxInvocationContext;
 import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.LocalizedCacheTopology;
 import org.infinispan.distribution.ch.KeyPartitioner;
 import org.infinispan.encoding.DataConversion;
 import org.infinispan.expiration.impl.InternalExpirationManager;
@@ -68,10 +79,12 @@
 import org.infinispan.interceptors.impl.CacheWriterInterceptor;
 import org.infinispan.interceptors.impl.TransactionalStoreInterceptor;
 import org.infinispan.marshall.persistence.PersistenceMarshaller;
+import org.infinispan.metadata.Metadata;
 import org.infinispan.metadata.impl.InternalMetadataImpl;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
 import org.infinispan.persistence.InitializationContextImpl;
 import org.infinispan.persistence.async.AsyncNonBlockingStore;
+import org.infinispan.persistence.async.WriteBehindStatistics;
 import org.infinispan.persistence.internal.PersistenceUtil;
 import org.infinispan.persistence.spi.LocalOnlyCacheLoader;
 import org.infinispan.persistence.spi.MarshallableEntry;
@@ -85,6 +98,7 @@
 import org.infinispan.persistence.support.NonBlockingStoreAdapter;
 import org.infinispan.persistence.support.SegmentPublisherWrapper;
 import org.infinispan.persistence.support.SingleSegmentPublisher;
+import org.infinispan.statetransfer.CommitManager;
 import org.infinispan.transaction.impl.AbstractCacheTransaction;
 import org.infinispan.util.concurrent.AggregateCompletionStage;
 import org.infinispan.util.concurrent.BlockingManager;
@@ -98,8 +112,10 @@
 import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Scheduler;
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.functions.Function;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 import net.jcip.annotations.GuardedBy;
 
 @Scope(Scopes.NAMED_CACHE)
@@ -127,12 +143,17 @@ public class PersistenceManagerImpl implements PersistenceManager {
    @Inject ComponentRef<InvocationHelper> invocationHelper;
    @Inject ComponentRef<InternalExpirationManager<Object, Object>> expirationManager;
    @Inject DistributionManager distributionManager;
+   @Inject ComponentRef<InternalDataContainer<Object, Object>> dataContainer;
+   @Inject ComponentRef<CommitManager> commitManager;
+   @Inject @ComponentName(KnownComponentNames.TIMEOUT_SCHEDULE_EXECUTOR)
+   ScheduledExecutorService timeoutScheduledExecutor;
 
    // We use stamped lock since we require releasing locks in threads that may be the same that acquired it
    private final StampedLock lock = new StampedLock();
    // making it volatile as it might change after @Start, so it needs the visibility.
    private volatile boolean enabled;
    private volatile boolean preloaded;
+   private volatile PreloadProgress preloadProgress;
    private volatile boolean clearOnStop;
    private volatile AutoCloseable availabilityTask;
    private volatile String unavailableExceptionMessage;
@@ -164,9 +185,15 @@ private <K, V> NonBlockingStore<K, V> getStore(Predicate<StoreStatus> predicate)
 
    @GuardedBy("lock#readLock")
    private <K, V> NonBlockingStore<K, V> getStoreLocked(Predicate<StoreStatus> predicate) {
+      StoreStatus storeStatus = getStoreStatusLocked(predicate);
+      return storeStatus == null ? null : storeStatus.store();
+   }
+
+   @GuardedBy("lock#readLock")
+   private StoreStatus getStoreStatusLocked(Predicate<StoreStatus> predicate) {
       for (StoreStatus storeStatus : stores) {
          if (predicate.test(storeStatus)) {
-            return storeStatus.store();
+            return storeStatus;
          }
       }
       return null;
@@ -346,6 +373,7 @@ protected CompletionStage<Void> pollStoreAvailability() {
    @Override
    @Stop
    public void stop() {
+      cancelPreload();
       long stamp = lock.writeLock();
       try {
          stopAvailabilityTask();
@@ -367,6 +395,13 @@ public void stop() {
       }
    }
 
+   private void cancelPreload() {
+      PreloadProgress progress = preloadProgress;
+      if (progress != null) {
+         progress.cancelled.complete(Boolean.TRUE);
+      }
+   }
+
    private void stopAvailabilityTask() {
       AutoCloseable taskToClose = availabilityTask;
       if (taskToClose != null) {
@@ -409,15 +444,41 @@ public boolean isPreloaded() {
    @Override
    public CompletionStage<Void> preload() {
       long stamp = acquireReadLock();
-      NonBlockingStore<Object, Object> nonBlockingStore = getStoreLocked(status -> status.config.preload());
-      if (nonBlockingStore == null) {
+      StoreStatus storeStatus;
+      try {
+         storeStatus = getStoreStatusLocked(status -> status.config.preload());
+      } finally {
          releaseReadLock(stamp);
+      }
+      if (storeStatus == null) {
          return CompletableFutures.completedNull();
       }
-      Publisher<MarshallableEntry<Object, Object>> publisher = nonBlockingStore.publishEntries(
-            IntSets.immutableRangeSet(segmentCount), null, true);
+      PersistenceConfiguration persistenceConfiguration = configuration.persistence();
+      boolean background = persistenceConfiguration.preloadInBackground();
+      PreloadProgress progress = new PreloadProgress(storeStatus.store(), segmentCount, timeService.time());
+      preloadProgress = progress;
+      if (background) {
+         commitManager.wired().startTrackCommits(segmentCount);
+      }
 
-      long start = timeService.time();
+      // The lock is only held while reading a segment, so that disabling a store doesn't wait for the whole preload
+      Flowable<MarshallableEntry<Object, Object>> entries;
+      if (storeStatus.characteristics.contains(Characteristic.SEGMENTABLE) && storeStatus.config.segmented()) {
+         entries = Flowable.range(0, segmentCount)
+               .flatMap(segment -> Flowable.using(this::acquireReadLock,
+                     ignore -> publishPreloadEntries(progress, IntSets.immutableSet(segment)),
+                     this::releaseReadLock), false, Math.max(1, persistenceConfiguration.preloadConcurrency()));
+      } else {
+         entries = Flowable.using(this::acquireReadLock,
+               ignore -> publishPreloadEntries(progress, IntSets.immutableRangeSet(segmentCount)),
+               this::releaseReadLock);
+      }
+      // Stopping the cache, clearing the stores or disabling the store stops the preload
+      entries = entries.takeUntil(Flowable.fromCompletionStage(progress.cancelled));
+      int rate = persistenceConfiguration.preloadRate();
+      if (rate > 0) {
+         entries = throttle(entries, rate);
+      }
 
       final long maxEntries = getMaxEntries();
       final long flags = getFlagsForStateInsertion();
@@ -425,18 +486,125 @@ public CompletionStage<Void> preload() {
       DataConversion keyDataConversion = tmpCache.getKeyDataConversion();
       DataConversion valueDataConversion = tmpCache.getValueDataConversion();
 
-      return Flowable.fromPublisher(publisher)
-            .doFinally(() -> releaseReadLock(stamp))
-            .take(maxEntries)
-            .concatMapSingle(me -> preloadEntry(flags, me, keyDataConversion, valueDataConversion))
-            .count()
+      Single<Long> inserted;
+      if (background) {
+         // Insert directly in the data container, like the entries loaded on a miss, as the cache is already in use
+         inserted = entries
+               .take(maxEntries)
+               .filter(me -> preloadInDataContainer(progress, me, keyDataConversion, valueDataConversion))
+               .count();
+      } else {
+         inserted = entries
+               .take(maxEntries)
+               .concatMapSingle(me -> preloadEntry(flags, me, keyDataConversion, valueDataConversion))
+               .doOnNext(ignore -> progress.preloadedEntries.increment())
+               .count();
+      }
+      return inserted
+            .doFinally(() -> {
+               if (background) {
+                  commitManager.wired().stopTrackCommits();
+               }
+               progress.complete(timeService.time());
+            })
             .toCompletionStage()
             .thenAccept(insertAmount -> {
-               this.preloaded = insertAmount < maxEntries;
-               log.debugf("Preloaded %d keys in %s", insertAmount, Util.prettyPrintTime(timeService.timeDuration(start, MILLISECONDS)));
+               // The entries discarded by a preload in the background were loaded all the same
+               long loaded = insertAmount + progress.discardedEntries.sum();
+               this.preloaded = !progress.cancelled.isDone() && loaded < maxEntries;
+               log.debugf("Preloaded %d keys in %s", insertAmount, Util.prettyPrintTime(timeService.timeDuration(progress.start, MILLISECONDS)));
             });
    }
 
+   private Flowable<MarshallableEntry<Object, Object>> publishPreloadEntries(PreloadProgress progress, IntSet segments) {
+      // The store may have been disabled while the lock was not held
+      if (getStoreStatusLocked(status -> status.store == progress.store) == null) {
+         return Flowable.empty();
+      }
+      segments.forEach((int segment) -> progress.readStarted(segment, commitManager.wired().commitCount(segment)));
+      return Flowable.fromPublisher(progress.store.publishEntries(segments, null, true))
+            .doOnComplete(() -> progress.segmentsPreloaded(segments.size()));
+   }
+
+   /**
+    * Delays the entries so that no more than the given number are emitted per second, releasing them in batches of
+    * about 100 milliseconds worth of entries.
+    */
+   private <T> Flowable<T> throttle(Flowable<T> flowable, int entriesPerSecond) {
+      int batchSize = Math.max(1, entriesPerSecond / 10);
+      long batchNanos = TimeUnit.SECONDS.toNanos(batchSize) / entriesPerSecond;
+      Scheduler timeoutScheduler = Schedulers.from(timeoutScheduledExecutor);
+      Scheduler nonBlockingScheduler = Schedulers.from(nonBlockingExecutor);
+      return Flowable.defer(() -> {
+         long start = timeService.time();
+         ByRef.Long batches = new ByRef.Long(0);
+         return flowable.buffer(batchSize)
+               .concatMap(batch -> {
+                  long delay = start + batches.getAndAdd(1) * batchNanos - timeService.time();
+                  if (delay <= 0) {
+                     return Flowable.fromIterable(batch);
+                  }
+                  return Completable.timer(delay, TimeUnit.NANOSECONDS, timeoutScheduler)
+                        .observeOn(nonBlockingScheduler)
+                        .andThen(Flowable.fromIterable(batch));
+               });
+      });
+   }
+
+   /**
+    * Inserts the entry loaded by a preload running in the background unless the key is already in memory, an entry of
+    * its segment has been written or removed since the segment was read, or it belongs to a segment the node doesn't
+    * own.
+    *
+    * @return true if the entry was inserted
+    */
+   private boolean preloadInDataContainer(PreloadProgress progress, MarshallableEntry<Object, Object> me,
+         DataConversion keyDataConversion, DataConversion valueDataConversion) {
+      Object key = keyDataConversion.toStorage(me.getKey());
+      int segment = keyPartitioner.getSegment(key);
+      LocalizedCacheTopology cacheTopology = distributionManager == null ? null : distributionManager.getCacheTopology();
+      if (cacheTopology != null && !cacheTopology.isSegmentWriteOwner(segment)) {
+         progress.discardedEntries.increment();
+         return false;
+      }
+      Object value = valueDataConversion.toStorage(me.getValue());
+      Metadata metadata = me.getMetadata();
+      InternalCacheEntry<Object, Object> ice;
+      if (metadata != null) {
+         ice = internalEntryFactory.create(key, value, metadata, me.created(), metadata.lifespan(), me.lastUsed(),
+               metadata.maxIdle());
+      } else {
+         ice = internalEntryFactory.create(key, value, (Metadata) null, me.created(), -1, me.lastUsed(), -1);
+      }
+      ice.setInternalMetadata(me.getInternalMetadata());
+      if (ice.canExpire() && ice.isExpired(timeService.wallClockTime())) {
+         progress.discardedEntries.increment();
+         return false;
+      }
+      // The commits are counted before updating the data container, so checking in the compute is enough to never
+      // overwrite or resurrect a key written or removed after the store returned it, even if it was evicted since.
+      ByRef.Boolean inserted = new ByRef.Boolean(false);
+      dataContainer.running().compute(segment, key, (k, oldEntry, factory) -> {
+         if (oldEntry != null || progress.isWrittenSinceRead(segment, commitManager.wired().commitCount(segment))) {
+            return oldEntry;
+         }
+         inserted.set(true);
+         return ice;
+      });
+      if (inserted.get()) {
+         progress.preloadedEntries.increment();
+      } else {
+         progress.discardedEntries.increment();
+      }
+      return inserted.get();
+   }
+
+   @Override
+   public PreloadStatistics getPreloadStatistics() {
+      PreloadProgress progress = preloadProgress;
+      return progress == null ? PreloadStatistics.EMPTY : progress.statistics(timeService.time());
+   }
+
    private Single<Object> preloadEntry(long flags, MarshallableEntry<Object, Object> me, DataConversion keyDataConversion, DataConversion valueDataConversion) {
       // CallInterceptor will preserve the timestamps if the metadata is an InternalMetadataImpl instance
       InternalMetadataImpl metadata = new InternalMetadataImpl(me.getMetadata(), me.created(), me.lastUsed());
@@ -554,6 +722,11 @@ public CompletionStage<Void> disableStore(String storeType) {
       if (!enabled) {
          return CompletableFutures.completedNull();
       }
+      PreloadProgress progress = preloadProgress;
+      if (progress != null && isStoreType(progress.store, storeType)) {
+         // The preload can't complete without the store, and it would delay the write lock
+         progress.cancelled.complete(Boolean.TRUE);
+      }
       boolean stillHasAStore = false;
       AggregateCompletionStage<Void> aggregateCompletionStage = CompletionStages.aggregateCompletionStage();
       long stamp = lock.writeLock();
@@ -563,7 +736,7 @@ public CompletionStage<Void> disableStore(String storeType) {
          while (statusIterator.hasNext()) {
             StoreStatus status = statusIterator.next();
             NonBlockingStore<?, ?> nonBlockingStore = unwrapStore(status.store());
-            if (nonBlockingStore.getClass().getName().equals(storeType) || containedInAdapter(nonBlockingStore, storeType)) {
+            if (isStoreType(nonBlockingStore, storeType)) {
                statusIterator.remove();
                aggregateCompletionStage.dependsOn(nonBlockingStore.stop()
                      .whenComplete((v, t) -> {
@@ -612,6 +785,11 @@ public CompletionStage<Void> disableStore(String storeType) {
       return aggregateCompletionStage.freeze();
    }
 
+   private boolean isStoreType(NonBlockingStore<?, ?> store, String storeType) {
+      NonBlockingStore<?, ?> nonBlockingStore = unwrapStore(store);
+      return nonBlockingStore.getClass().getName().equals(storeType) || containedInAdapter(nonBlockingStore, storeType);
+   }
+
    private <K, V> NonBlockingStore<K, V> unwrapStore(NonBlockingStore<K, V> store) {
       if (store instanceof DelegatingNonBlockingStore) {
          return ((DelegatingNonBlockingStore<K, V>) store).delegate();
@@ -647,6 +825,22 @@ public <T> Set<T> getStores(Class<T> storeClass) {
       }
    }
 
+   @Override
+   public WriteBehindStatistics getWriteBehindStatistics() {
+      long stamp = acquireReadLock();
+      try {
+         WriteBehindStatistics statistics = WriteBehindStatistics.EMPTY;
+         for (StoreStatus storeStatus : stores) {
+            if (storeStatus.store instanceof AsyncNonBlockingStore) {
+               statistics = statistics.combine(((AsyncNonBlockingStore<?, ?>) storeStatus.store).getStatistics());
+            }
+         }
+         return statistics;
+      } finally {
+         releaseReadLock(stamp);
+      }
+   }
+
    @Override
    public Collection<String> getStoresAsString() {
       long stamp = acquireReadLock();
@@ -686,6 +880,7 @@ public CompletionStage<Void> purgeExpired() {
 
    @Override
    public CompletionStage<Void> clearAllStores(Predicate<? super StoreConfiguration> predicate) {
+      cancelPreload();
       return Completable.using(
             this::acquireReadLock,
             ignore -> {
@@ -822,6 +1017,52 @@ public <K, V> CompletionStage<MarshallableEntry<K, V>> loadFromAllStores(Object
       ).toCompletionStage(null);
    }
 
+   @Override
+   public <K, V> Publisher<MarshallableEntry<K, V>> loadFromAllStores(Collection<?> keys, boolean localInvocation,
+         boolean includeStores) {
+      return Flowable.using(
+            this::acquireReadLock,
+            ignore -> {
+               checkStoreAvailability();
+               if (log.isTraceEnabled()) {
+                  log.tracef("Loading entries for keys %s", keys);
+               }
+               List<StoreStatus> loaders = new ArrayList<>(stores.size());
+               for (StoreStatus storeStatus : stores) {
+                  if (allowLoad(storeStatus, localInvocation, includeStores)) {
+                     loaders.add(storeStatus);
+                  }
+               }
+               return this.<K, V>bulkLoad(loaders.iterator(), new HashSet<>(keys));
+            },
+            this::releaseReadLock);
+   }
+
+   /**
+    * Loads the remaining keys from the next store, the keys it doesn't find are then loaded from the store after it.
+    */
+   private <K, V> Flowable<MarshallableEntry<K, V>> bulkLoad(Iterator<StoreStatus> loaders, Set<Object> remaining) {
+      if (remaining.isEmpty() || !loaders.hasNext()) {
+         return Flowable.empty();
+      }
+      StoreStatus storeStatus = loaders.next();
+      boolean segmented = storeStatus.characteristics.contains(Characteristic.SEGMENTABLE);
+      Flowable<NonBlockingStore.SegmentedPublisher<Object>> keyFlowable;
+      if (segmented) {
+         Map<Integer, List<Object>> keysBySegment = new HashMap<>();
+         for (Object key : remaining) {
+            keysBySegment.computeIfAbsent(keyPartitioner.getSegment(key), ignore -> new ArrayList<>()).add(key);
+         }
+         keyFlowable = Flowable.fromIterable(keysBySegment.entrySet())
+               .map(entry -> SingleSegmentPublisher.singleSegment(entry.getKey(), Flowable.fromIterable(entry.getValue())));
+      } else {
+         keyFlowable = Flowable.just(SingleSegmentPublisher.singleSegment(Flowable.fromIterable(new ArrayList<>(remaining))));
+      }
+      return Flowable.fromPublisher(storeStatus.<K, V>store().bulkLoad(segmentCount(segmented), keyFlowable))
+            .doOnNext(me -> remaining.remove(me.getKey()))
+            .concatWith(Flowable.defer(() -> bulkLoad(loaders, remaining)));
+   }
+
    private boolean allowLoad(StoreStatus storeStatus, boolean localInvocation, boolean includeStores) {
       return !storeStatus.characteristics.contains(Characteristic.WRITE_ONLY) && (localInvocation || !isLocalOnlyLoader(storeStatus.store)) &&
             (includeStores || storeStatus.characteristics.contains(Characteristic.READ_ONLY) || storeStatus.config.ignoreModifications());
@@ -1343,6 +1584,52 @@ private void checkStoreAvailability() {
       }
    }
 
+   /**
+    * Progress of a preload. A preload running in the background also keeps the number of entries committed in each
+    * segment when the segment was read, so that it never inserts entries written or removed since.
+    */
+   private static class PreloadProgress {
+      final NonBlockingStore<Object, Object> store;
+      final int totalSegments;
+      final long start;
+      final CompletableFuture<Boolean> cancelled = new CompletableFuture<>();
+      final LongAdder preloadedEntries = new LongAdder();
+      final LongAdder discardedEntries = new LongAdder();
+      final AtomicInteger preloadedSegments = new AtomicInteger();
+      final AtomicLongArray commitsAtRead;
+      volatile long end = -1;
+
+      PreloadProgress(NonBlockingStore<Object, Object> store, int totalSegments, long start) {
+         this.store = store;
+         this.totalSegments = totalSegments;
+         this.start = start;
+         this.commitsAtRead = new AtomicLongArray(totalSegments);
+      }
+
+      void segmentsPreloaded(int segments) {
+         preloadedSegments.addAndGet(segments);
+      }
+
+      void readStarted(int segment, long commits) {
+         commitsAtRead.set(segment, commits);
+      }
+
+      boolean isWrittenSinceRead(int segment, long commits) {
+         // Not tracking the commits anymore means the preload was stopped
+         return commits < 0 || commits != commitsAtRead.get(segment);
+      }
+
+      void complete(long now) {
+         end = now;
+      }
+
+      PreloadStatistics statistics(long now) {
+         long last = end;
+         return new PreloadStatistics(last < 0, preloadedEntries.sum(), discardedEntries.sum(), preloadedSegments.get(),
+               totalSegments, (last < 0 ? now : last) - start);
+      }
+   }
+
    static class StoreStatus {
       final NonBlockingStore<?, ?> store;
       final StoreConfiguration config;
@@ -1,20 +1,75 @@
 package org.infinispan.persistence.manager;
 
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.scopes.Scope;
 import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
 import org.infinispan.util.concurrent.CompletionStages;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
 
 /**
  * Separate the preload into its own component
  */
+@MBean(objectName = "Preload", description = "Progress of the preload of the cache from its store")
 @Scope(Scopes.NAMED_CACHE)
 public class PreloadManager {
+   private static final Log log = LogFactory.getLog(MethodHandles.lookup().lookupClass());
+
    @Inject PersistenceManager persistenceManager;
+   @Inject Configuration configuration;
 
    @Start
    public void start() {
-      CompletionStages.join(persistenceManager.preload());
+      CompletionStage<Void> stage = persistenceManager.preload();
+      if (configuration.persistence().preloadInBackground()) {
+         stage.whenComplete((ignore, t) -> {
+            if (t != null) {
+               log.preloadFailed(t);
+            }
+         });
+      } else {
+         CompletionStages.join(stage);
+      }
+   }
+
+   @ManagedAttribute(description = "Whether the preload is running", displayName = "Preload in progress")
+   public boolean isPreloadInProgress() {
+      return persistenceManager.getPreloadStatistics().isInProgress();
+   }
+
+   @ManagedAttribute(description = "Number of entries inserted in the cache by the preload",
+         displayName = "Preloaded entries", measurementType = MeasurementType.TRENDSUP)
+   public long getPreloadedEntries() {
+      return persistenceManager.getPreloadStatistics().getPreloadedEntries();
+   }
+
+   @ManagedAttribute(description = "Number of entries loaded by the preload but not inserted, because they were " +
+         "already in memory, an entry of their segment was written or removed after they were read, they had expired " +
+         "or belong to a segment the node doesn't own",
+         displayName = "Discarded entries", measurementType = MeasurementType.TRENDSUP)
+   public long getDiscardedEntries() {
+      return persistenceManager.getPreloadStatistics().getDiscardedEntries();
+   }
+
+   @ManagedAttribute(description = "Percentage of the segments that have been preloaded",
+         displayName = "Preload progress", units = Units.PERCENTAGE)
+   public double getPreloadProgress() {
+      return persistenceManager.getPreloadStatistics().getProgress();
+   }
+
+   @ManagedAttribute(description = "Time the preload has been running, or took if it completed",
+         displayName = "Preload time", units = Units.MILLISECONDS)
+   public long getPreloadTime() {
+      return persistenceManager.getPreloadStatistics().getDuration(TimeUnit.MILLISECONDS);
    }
 }
@@ -0,0 +1,84 @@
+package org.infinispan.persistence.manager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot of the progress of the preload of a cache from its store.
+ *
+ * @since 12.1
+ */
+public final class PreloadStatistics {
+   public static final PreloadStatistics EMPTY = new PreloadStatistics(false, 0, 0, 0, 0, 0);
+
+   private final boolean inProgress;
+   private final long preloadedEntries;
+   private final long discardedEntries;
+   private final int preloadedSegments;
+   private final int totalSegments;
+   private final long durationNanos;
+
+   PreloadStatistics(boolean inProgress, long preloadedEntries, long discardedEntries, int preloadedSegments,
+         int totalSegments, long durationNanos) {
+      this.inProgress = inProgress;
+      this.preloadedEntries = preloadedEntries;
+      this.discardedEntries = discardedEntries;
+      this.preloadedSegments = preloadedSegments;
+      this.totalSegments = totalSegments;
+      this.durationNanos = durationNanos;
+   }
+
+   /**
+    * @return true if the preload is running
+    */
+   public boolean isInProgress() {
+      return inProgress;
+   }
+
+   /**
+    * @return the number of entries inserted in the cache by the preload
+    */
+   public long getPreloadedEntries() {
+      return preloadedEntries;
+   }
+
+   /**
+    * @return the number of entries loaded from the store but not inserted, because an entry of their segment was
+    * written or removed after they were read, they had expired, or belong to a segment the node doesn't own
+    */
+   public long getDiscardedEntries() {
+      return discardedEntries;
+   }
+
+   /**
+    * @return the number of segments whose entries have all been loaded from the store
+    */
+   public int getPreloadedSegments() {
+      return preloadedSegments;
+   }
+
+   /**
+    * @return the fraction of the segments that have been preloaded, between 0 and 1
+    */
+   public double getProgress() {
+      return totalSegments == 0 ? 0 : (double) preloadedSegments / totalSegments;
+   }
+
+   /**
+    * @return the time the preload has been running, or took if it completed
+    */
+   public long getDuration(TimeUnit unit) {
+      return unit.convert(durationNanos, TimeUnit.NANOSECONDS);
+   }
+
+   @Override
+   public String toString() {
+      return "PreloadStatistics{" +
+            "inProgress=" + inProgress +
+            ", preloadedEntries=" + preloadedEntries +
+            ", discardedEntries=" + discardedEntries +
+            ", preloadedSegments=" + preloadedSegments +
+            ", totalSegments=" + totalSegments +
+            ", durationNanos=" + durationNanos +
+            '}';
+   }
+}
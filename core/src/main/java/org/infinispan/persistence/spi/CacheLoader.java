@@ -1,5 +1,9 @@
 package org.infinispan.persistence.spi;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 import org.infinispan.commons.api.Lifecycle;
 
 import net.jcip.annotations.ThreadSafe;
@@ -34,6 +38,26 @@
     */
    MarshallableEntry<K, V> loadEntry(Object key);
 
+   /**
+    * Fetches the entries of the given keys from the storage. Keys that do not have an entry are not included in the
+    * returned collection. Loaders that can read multiple keys with a single request should override this method.
+    * <p>
+    * The default implementation invokes {@link #loadEntry(Object)} for each key.
+    *
+    * @return the entries found
+    * @throws PersistenceException in case of an error, e.g. communicating with the external storage
+    */
+   default Collection<MarshallableEntry<K, V>> loadEntries(Collection<?> keys) {
+      List<MarshallableEntry<K, V>> entries = new ArrayList<>(keys.size());
+      for (Object key : keys) {
+         MarshallableEntry<K, V> entry = loadEntry(key);
+         if (entry != null) {
+            entries.add(entry);
+         }
+      }
+      return entries;
+   }
+
    /**
     * Returns true if the storage contains an entry associated with the given key.
     *
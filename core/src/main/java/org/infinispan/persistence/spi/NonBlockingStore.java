@@ -21,6 +21,7 @@
 
 import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Maybe;
 
 /**
  * The contract for defining how caches interface with external sources of data, such as databases or filesystems.
@@ -259,6 +260,55 @@ default CompletionStage<Boolean> isAvailable() {
     */
    CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key);
 
+   /**
+    * Publishes the entries found in the store for the given keys. Keys that have no entry in the store are not
+    * published, and the entries may be published in any order. If a {@link MarshallableEntry} needs to be created
+    * here, {@link InitializationContext#getMarshallableEntryFactory()} should be used.
+    * <p>
+    * The keys are grouped by segment: the provided Publisher publishes a {@link SegmentedPublisher} for each segment
+    * that has keys to load. Stores that can retrieve multiple keys in a single operation should implement this method,
+    * so that loading the misses of a {@code getAll} doesn't require a round trip per key.
+    * <p>
+    * <h4>Summary of Characteristics Effects</h4>
+    * <table border="1" cellpadding="1" cellspacing="1" summary="Summary of Characteristics Effects">
+    *    <tr>
+    *       <th bgcolor="#CCCCFF" align="left">Characteristic</th>
+    *       <th bgcolor="#CCCCFF" align="left">Effect</th>
+    *    </tr>
+    *    <tr>
+    *       <td valign="top">{@link Characteristic#WRITE_ONLY}</td>
+    *       <td valign="top">This method will never be invoked.</td>
+    *    </tr>
+    *    <tr>
+    *       <td valign="top">{@link Characteristic#EXPIRATION}</td>
+    *       <td valign="top">When set this method must not publish expired entries.</td>
+    *    </tr>
+    *    <tr>
+    *       <td valign="top">{@link Characteristic#SEGMENTABLE}</td>
+    *       <td valign="top">If not set, the provided {@code publisherCount} parameter has a value of 1,
+    *          which means there is only one {@code SegmentedPublisher}, with segment 0, to subscribe to.</td>
+    *    </tr>
+    * </table>
+    * <p>
+    * If a problem is encountered, it is recommended to wrap any created/caught Throwable in a
+    * {@link PersistenceException} and the Publisher is completed exceptionally.
+    * <p>
+    * @implSpec
+    * The default implementation invokes {@link #load(int, Object)} for each of the keys, with up to
+    * {@code publisherCount} segments loaded concurrently and the keys of a segment loaded one after another.
+    * @param publisherCount the maximum number of {@code SegmentPublisher}s the key publisher will publish
+    * @param keyPublisher publishes the keys to load, grouped by segment
+    * @return a Publisher of the entries found in the store
+    */
+   default Publisher<MarshallableEntry<K, V>> bulkLoad(int publisherCount,
+         Publisher<SegmentedPublisher<Object>> keyPublisher) {
+      return Flowable.fromPublisher(keyPublisher)
+            .flatMap(sp ->
+                  Flowable.fromPublisher(sp)
+                        .concatMapMaybe(key -> Maybe.fromCompletionStage(load(sp.getSegment(), key)))
+                  , publisherCount);
+   }
+
    /**
     * Returns a stage that will contain whether the value can be found in the store.
     * <p>
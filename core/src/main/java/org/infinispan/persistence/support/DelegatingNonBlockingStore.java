@@ -40,6 +40,12 @@ public CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
       return delegate().load(segment, key);
    }
 
+   @Override
+   public Publisher<MarshallableEntry<K, V>> bulkLoad(int publisherCount,
+         Publisher<SegmentedPublisher<Object>> keyPublisher) {
+      return delegate().bulkLoad(publisherCount, keyPublisher);
+   }
+
    @Override
    public CompletionStage<Boolean> containsKey(int segment, Object key) {
       return delegate().containsKey(segment, key);
@@ -19,7 +19,9 @@
 import org.infinispan.factories.annotations.Stop;
 import org.infinispan.factories.scopes.Scope;
 import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.persistence.async.WriteBehindStatistics;
 import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.persistence.manager.PreloadStatistics;
 import org.infinispan.persistence.spi.MarshallableEntry;
 import org.infinispan.persistence.spi.PersistenceException;
 import org.infinispan.transaction.impl.AbstractCacheTransaction;
@@ -89,6 +91,16 @@ public Collection<String> getStoresAsString() {
       return persistenceManager.getStoresAsString();
    }
 
+   @Override
+   public WriteBehindStatistics getWriteBehindStatistics() {
+      return persistenceManager.getWriteBehindStatistics();
+   }
+
+   @Override
+   public PreloadStatistics getPreloadStatistics() {
+      return persistenceManager.getPreloadStatistics();
+   }
+
    @Override
    public CompletionStage<Void> purgeExpired() {
       return persistenceManager.purgeExpired();
@@ -206,6 +218,12 @@ public <K, V> Publisher<MarshallableEntry<K, V>> publishEntries(boolean fetchVal
       return persistenceManager.publishEntries(fetchValue, fetchMetadata);
    }
 
+   @Override
+   public <K, V> Publisher<MarshallableEntry<K, V>> loadFromAllStores(Collection<?> keys, boolean localInvocation,
+         boolean includeStores) {
+      return persistenceManager.loadFromAllStores(keys, localInvocation, includeStores);
+   }
+
    @Override
    public <K, V> CompletionStage<MarshallableEntry<K, V>> loadFromAllStores(Object key, int segment,
                                                                             boolean localInvocation,
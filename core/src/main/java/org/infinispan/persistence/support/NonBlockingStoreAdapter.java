@@ -204,6 +204,17 @@ public CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
             isSegmented() ? segmentedStore().get(segment, key) : loader().loadEntry(key), nextTraceId("load"));
    }
 
+   @Override
+   public Publisher<MarshallableEntry<K, V>> bulkLoad(int publisherCount,
+         Publisher<SegmentedPublisher<Object>> keyPublisher) {
+      // The keys of all the segments are loaded with a single blocking invocation
+      return Flowable.fromPublisher(keyPublisher)
+            .concatMap(Flowable::fromPublisher)
+            .toList()
+            .flatMapPublisher(keys -> blockingManager.blockingPublisher(Flowable.defer(() ->
+                  Flowable.fromIterable(loader().loadEntries(keys)))));
+   }
+
    @Override
    public CompletionStage<Boolean> containsKey(int segment, Object key) {
       return blockingManager.supplyBlocking(() ->
@@ -614,7 +614,8 @@ private void handleSegment(int segment, LocalizedCacheTopology topology, Address
    private void addToMap(Map<Address, IntSet> map, Address owner, int segment) {
       IntSet set = map.get(owner);
       if (set == null) {
-         set = IntSets.mutableEmptySet();
+         // Sized up front, so adding the segments never grows the backing words
+         set = IntSets.mutableEmptySet(maxSegment);
          map.put(owner, set);
       }
       set.set(segment);
@@ -51,6 +51,16 @@ public void addResponse(long requestId, Address sender, Response response) {
       request.onResponse(sender, response);
    }
 
+   /**
+    * Completes the request with the exception, e.g. when its command could not be sent.
+    */
+   public void cancelRequest(long requestId, Exception exception) {
+      Request<?> request = requests.get(requestId);
+      if (request != null) {
+         request.cancel(exception);
+      }
+   }
+
    public void removeRequest(long requestId) {
       requests.remove(requestId);
    }
@@ -0,0 +1,439 @@
+package org.infinispan.remoting.transport.jgroups;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+import org.infinispan.commons.CacheException;
+import org.infinispan.commons.io.ByteBuffer;
+import org.infinispan.remoting.transport.impl.Request;
+import org.infinispan.remoting.transport.impl.RequestRepository;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+import org.jgroups.Message;
+import org.jgroups.blocks.RequestCorrelator;
+
+import net.jcip.annotations.GuardedBy;
+
+/**
+ * Packs the commands sent to the same node with the same message flags in a single message.
+ * <p>
+ * The first command queued for a destination schedules the batch to be sent after the configured window, and the
+ * batch is sent immediately once it reaches the maximum size. A command that doesn't fit in a batch on its own is sent
+ * in its own message, after the commands queued before it, so that the commands sent with
+ * {@link org.infinispan.remoting.inboundhandler.DeliverOrder#PER_SENDER} are still received in order. The messages of
+ * a destination are sent outside the lock, by one thread at a time and in the order they were queued.
+ * <p>
+ * A message broadcast to all the members is sent after the commands already queued for any destination. Instead of
+ * waiting for them, the broadcast is queued as a barrier behind the pending messages of every destination: the sender
+ * that reaches the last barrier sends the broadcast, and the destinations stay paused at their barrier until then, so
+ * that the commands queued after the broadcast don't overtake it either.
+ * <p>
+ * When a message can't be sent, the requests of its commands are completed with the exception.
+ * <p>
+ * The buffer of a batch message contains the number of commands, then the request id, the length and the bytes of each
+ * command. Every request still gets its own response.
+ *
+ * @since 12.1
+ */
+class CommandBatcher {
+   private static final Log log = LogFactory.getLog(CommandBatcher.class);
+   // Request id and length
+   private static final int COMMAND_OVERHEAD = 8 + 4;
+   private static final int BATCH_OVERHEAD = 4;
+
+   private final JGroupsTransport transport;
+   private final RequestRepository requests;
+   private final ScheduledExecutorService timeoutExecutor;
+   private final Executor nonBlockingExecutor;
+   private final long windowMicros;
+   private final int maxBatchSize;
+   private final ConcurrentMap<BatchKey, Batch> batches = new ConcurrentHashMap<>();
+
+   CommandBatcher(JGroupsTransport transport, RequestRepository requests, ScheduledExecutorService timeoutExecutor,
+                  Executor nonBlockingExecutor, long windowMicros, int maxBatchSize) {
+      this.transport = transport;
+      this.requests = requests;
+      this.timeoutExecutor = timeoutExecutor;
+      this.nonBlockingExecutor = nonBlockingExecutor;
+      this.windowMicros = windowMicros;
+      this.maxBatchSize = maxBatchSize;
+   }
+
+   /**
+    * Queues a marshalled command for the given destination.
+    */
+   void send(org.jgroups.Address destination, short flags, long requestId, ByteBuffer command) {
+      Batch batch = batches.computeIfAbsent(new BatchKey(destination, flags), Batch::new);
+      batch.add(requestId, command);
+   }
+
+   /**
+    * Sends a message to all the members after the commands already queued for any destination, without waiting for
+    * them to be sent.
+    * <p>
+    * If no destination has pending messages, the message is sent by the caller thread and a failure is thrown to the
+    * caller. Otherwise it is sent by the thread sending the last pending message, and a failure completes the request
+    * with the exception.
+    */
+   void sendToAll(Message message, long requestId) {
+      addBarrier(new Barrier(message, requestId));
+   }
+
+   /**
+    * Sends the commands queued for all the destinations.
+    *
+    * @return A stage that completes after the commands queued so far are sent.
+    */
+   CompletionStage<Void> flushAll() {
+      Barrier barrier = new Barrier(null, Request.NO_REQUEST_ID);
+      addBarrier(barrier);
+      return barrier.sent;
+   }
+
+   private void addBarrier(Barrier barrier) {
+      batches.values().forEach(batch -> batch.addBarrier(barrier));
+      barrier.release();
+   }
+
+   /**
+    * Removes the batches of the nodes that are no longer members, without sending them.
+    */
+   void retainAll(List<org.jgroups.Address> members) {
+      batches.keySet().removeIf(key -> !members.contains(key.destination));
+   }
+
+   static void forEachCommand(byte[] buffer, int offset, int length, BatchedCommandConsumer consumer) {
+      java.nio.ByteBuffer bytes = java.nio.ByteBuffer.wrap(buffer, offset, length);
+      int count = bytes.getInt();
+      for (int i = 0; i < count; i++) {
+         long requestId = bytes.getLong();
+         int commandLength = bytes.getInt();
+         int commandOffset = bytes.position();
+         bytes.position(commandOffset + commandLength);
+         consumer.accept(requestId, buffer, commandOffset, commandLength);
+      }
+   }
+
+   static void forEachRequestId(byte[] buffer, int offset, int length, LongConsumer consumer) {
+      forEachCommand(buffer, offset, length, (requestId, b, o, l) -> {
+         if (requestId != Request.NO_REQUEST_ID) {
+            consumer.accept(requestId);
+         }
+      });
+   }
+
+   @FunctionalInterface
+   interface BatchedCommandConsumer {
+      void accept(long requestId, byte[] buffer, int offset, int length);
+   }
+
+   private static final class BatchKey {
+      final org.jgroups.Address destination;
+      final short flags;
+
+      BatchKey(org.jgroups.Address destination, short flags) {
+         this.destination = destination;
+         this.flags = flags;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o) return true;
+         if (o == null || getClass() != o.getClass()) return false;
+         BatchKey batchKey = (BatchKey) o;
+         return flags == batchKey.flags && destination.equals(batchKey.destination);
+      }
+
+      @Override
+      public int hashCode() {
+         return Objects.hash(destination, flags);
+      }
+   }
+
+   private final class Batch {
+      final BatchKey key;
+      @GuardedBy("this")
+      List<ByteBuffer> commands = new ArrayList<>();
+      @GuardedBy("this")
+      List<Long> requestIds = new ArrayList<>();
+      @GuardedBy("this")
+      int size = BATCH_OVERHEAD;
+      // Incremented whenever the commands are queued for sending, so that a late window flush is ignored
+      @GuardedBy("this")
+      long batchId;
+      @GuardedBy("this")
+      ScheduledFuture<?> windowFlush;
+      // The messages are sent outside the lock, in the order they were queued, by one thread at a time
+      @GuardedBy("this")
+      final Deque<OutgoingMessage> outgoing = new ArrayDeque<>();
+      // Also true while the batch is paused at a barrier
+      @GuardedBy("this")
+      boolean sending;
+
+      Batch(BatchKey key) {
+         this.key = key;
+      }
+
+      void add(long requestId, ByteBuffer command) {
+         synchronized (this) {
+            int commandSize = COMMAND_OVERHEAD + command.getLength();
+            if (BATCH_OVERHEAD + commandSize > maxBatchSize) {
+               queueCommands();
+               List<ByteBuffer> single = new ArrayList<>(1);
+               single.add(command);
+               outgoing.addLast(new OutgoingMessage(single, new long[]{requestId}, BATCH_OVERHEAD + commandSize));
+            } else {
+               if (size + commandSize > maxBatchSize) {
+                  queueCommands();
+               }
+               if (commands.isEmpty()) {
+                  long id = batchId;
+                  // The timeout executor only hands the flush over, the message is sent from a non-blocking thread
+                  windowFlush = timeoutExecutor.schedule(() -> nonBlockingExecutor.execute(() -> flushWindow(id)),
+                        windowMicros, TimeUnit.MICROSECONDS);
+               }
+               commands.add(command);
+               requestIds.add(requestId);
+               size += commandSize;
+               if (size >= maxBatchSize) {
+                  queueCommands();
+               }
+            }
+         }
+         sendOutgoing();
+      }
+
+      /**
+       * Queues the commands added so far and the barrier after them, unless there is nothing left to send.
+       */
+      void addBarrier(Barrier barrier) {
+         synchronized (this) {
+            queueCommands();
+            if (!sending && outgoing.isEmpty()) {
+               return;
+            }
+            barrier.register();
+            outgoing.addLast(new OutgoingMessage(barrier));
+         }
+         sendOutgoing();
+      }
+
+      private void flushWindow(long id) {
+         synchronized (this) {
+            // The batch the flush was scheduled for was already sent because it was full
+            if (id != batchId) {
+               return;
+            }
+            queueCommands();
+         }
+         sendOutgoing();
+      }
+
+      @GuardedBy("this")
+      private void queueCommands() {
+         int count = commands.size();
+         if (count == 0) {
+            return;
+         }
+         if (windowFlush != null) {
+            windowFlush.cancel(false);
+            windowFlush = null;
+         }
+         long[] ids = new long[count];
+         for (int i = 0; i < count; i++) {
+            ids[i] = requestIds.get(i);
+         }
+         outgoing.addLast(new OutgoingMessage(commands, ids, size));
+         batchId++;
+         commands = new ArrayList<>();
+         requestIds = new ArrayList<>();
+         size = BATCH_OVERHEAD;
+      }
+
+      private void sendOutgoing() {
+         synchronized (this) {
+            if (sending) {
+               // The thread already sending will also send the messages queued by this thread
+               return;
+            }
+            sending = true;
+         }
+         drainOutgoing();
+      }
+
+      private void drainOutgoing() {
+         while (true) {
+            OutgoingMessage message;
+            synchronized (this) {
+               message = outgoing.pollFirst();
+               if (message == null) {
+                  sending = false;
+                  return;
+               }
+            }
+            if (message.barrier != null) {
+               if (!message.barrier.arrive(this)) {
+                  // Paused until the broadcast is sent, the messages queued after it must not overtake it
+                  return;
+               }
+            } else {
+               send(message);
+            }
+         }
+      }
+
+      private void send(OutgoingMessage outgoingMessage) {
+         try {
+            transport.send(outgoingMessage.toMessage(key));
+         } catch (Throwable t) {
+            log.failedToSendCommands(outgoingMessage.requestIds.length, key.destination, t);
+            // Fail the requests instead of letting them time out
+            Exception exception = t instanceof Exception ? (Exception) t : new CacheException(t);
+            for (long requestId : outgoingMessage.requestIds) {
+               if (requestId != Request.NO_REQUEST_ID) {
+                  requests.cancelRequest(requestId, exception);
+               }
+            }
+         }
+      }
+   }
+
+   /**
+    * A message broadcast, or a flush, that waits for the messages queued before it for every destination.
+    * <p>
+    * {@code pending} counts the destinations that haven't reached the barrier yet, plus one for the thread adding the
+    * barrier until it has registered it with every destination.
+    */
+   private final class Barrier {
+      final Message message;
+      final long requestId;
+      final CompletableFuture<Void> sent = new CompletableFuture<>();
+      @GuardedBy("this")
+      int pending = 1;
+      @GuardedBy("this")
+      final List<Batch> paused = new ArrayList<>();
+
+      Barrier(Message message, long requestId) {
+         this.message = message;
+         this.requestId = requestId;
+      }
+
+      synchronized void register() {
+         pending++;
+      }
+
+      /**
+       * Called by the thread adding the barrier, sends the message if all the destinations already reached the barrier.
+       */
+      void release() {
+         synchronized (this) {
+            if (--pending > 0) {
+               return;
+            }
+         }
+         try {
+            if (message != null) {
+               transport.send(message);
+            }
+         } finally {
+            complete();
+         }
+      }
+
+      /**
+       * Called by the thread sending the messages of a destination when it reaches the barrier.
+       *
+       * @return {@code true} if the destination can go on sending, {@code false} if it is paused.
+       */
+      boolean arrive(Batch batch) {
+         synchronized (this) {
+            if (--pending > 0) {
+               paused.add(batch);
+               return false;
+            }
+         }
+         try {
+            if (message != null) {
+               transport.send(message);
+            }
+         } catch (Throwable t) {
+            log.failedToSendCommands(1, message.getDest(), t);
+            if (requestId != Request.NO_REQUEST_ID) {
+               requests.cancelRequest(requestId, t instanceof Exception ? (Exception) t : new CacheException(t));
+            }
+         } finally {
+            complete();
+         }
+         return true;
+      }
+
+      private void complete() {
+         sent.complete(null);
+         List<Batch> resumed;
+         synchronized (this) {
+            resumed = new ArrayList<>(paused);
+            paused.clear();
+         }
+         // Every paused destination still has a sending thread, it only needs to go on with its queue
+         resumed.forEach(batch -> nonBlockingExecutor.execute(batch::drainOutgoing));
+      }
+   }
+
+   private final class OutgoingMessage {
+      final List<ByteBuffer> commands;
+      final long[] requestIds;
+      final int size;
+      final Barrier barrier;
+
+      OutgoingMessage(List<ByteBuffer> commands, long[] requestIds, int size) {
+         this.commands = commands;
+         this.requestIds = requestIds;
+         this.size = size;
+         this.barrier = null;
+      }
+
+      OutgoingMessage(Barrier barrier) {
+         this.commands = null;
+         this.requestIds = null;
+         this.size = 0;
+         this.barrier = barrier;
+      }
+
+      Message toMessage(BatchKey key) {
+         int count = commands.size();
+         if (count == 1) {
+            return transport.newMessage(key.destination, key.flags, requestIds[0], commands.get(0));
+         }
+         byte[] buffer = new byte[size];
+         java.nio.ByteBuffer bytes = java.nio.ByteBuffer.wrap(buffer);
+         bytes.putInt(count);
+         for (int i = 0; i < count; i++) {
+            ByteBuffer command = commands.get(i);
+            bytes.putLong(requestIds[i]);
+            bytes.putInt(command.getLength());
+            bytes.put(command.getBuf(), command.getOffset(), command.getLength());
+         }
+         if (log.isTraceEnabled())
+            log.tracef("Sending batch of %d commands (%d bytes) to %s", count, size, key.destination);
+         Message message = new Message(key.destination, buffer);
+         message.setFlag(key.flags);
+         message.setTransientFlag(Message.TransientFlag.DONT_LOOPBACK.value());
+         message.putHeader(JGroupsTransport.HEADER_ID,
+               new RequestCorrelator.Header(JGroupsTransport.BATCH, Request.NO_REQUEST_ID,
+                                            JGroupsTransport.CORRELATOR_ID));
+         return message;
+      }
+   }
+}
@@ -59,6 +59,10 @@
 import org.infinispan.factories.scopes.Scopes;
 import org.infinispan.jmx.CacheManagerJmxRegistration;
 import org.infinispan.jmx.ObjectNameKeys;
+import org.infinispan.jmx.annotations.DataType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.MeasurementType;
 import org.infinispan.notifications.cachemanagerlistener.CacheManagerNotifier;
 import org.infinispan.remoting.inboundhandler.DeliverOrder;
 import org.infinispan.remoting.inboundhandler.InboundInvocationHandler;
@@ -128,6 +132,7 @@
  * @since 4.0
  */
 @Scope(Scopes.GLOBAL)
+@MBean(objectName = "Transport", description = "Statistics of the JGroups transport.")
 public class JGroupsTransport implements Transport {
    public static final String CONFIGURATION_STRING = "configurationString";
    public static final String CONFIGURATION_XML = "configurationXml";
@@ -140,11 +145,12 @@ public class JGroupsTransport implements Transport {
    public static final Log log = LogFactory.getLog(JGroupsTransport.class);
    private static final CompletableFuture<Map<Address, Response>> EMPTY_RESPONSES_FUTURE =
          CompletableFuture.completedFuture(Collections.emptyMap());
-   private static final short CORRELATOR_ID = (short) 0;
-   private static final short HEADER_ID = ClassConfigurator.getProtocolId(RequestCorrelator.class);
+   static final short CORRELATOR_ID = (short) 0;
+   static final short HEADER_ID = ClassConfigurator.getProtocolId(RequestCorrelator.class);
    private static final byte REQUEST = 0;
    private static final byte RESPONSE = 1;
    private static final byte SINGLE_MESSAGE = 2;
+   static final byte BATCH = 3;
 
    @Inject protected GlobalConfiguration configuration;
    @Inject @ComponentName(KnownComponentNames.INTERNAL_MARSHALLER)
@@ -174,6 +180,8 @@ public class JGroupsTransport implements Transport {
    private volatile Set<String>  sitesView = Collections.emptySet();
    private CompletableFuture<Void> nextViewFuture = new CompletableFuture<>();
    private RequestRepository requests;
+   private CommandBatcher commandBatcher;
+   private final ResponseLatencyTracker responseLatencies = new ResponseLatencyTracker();
 
    // ------------------------------------------------------------------------------------------------------------------
    // Lifecycle and setup stuff
@@ -439,6 +447,11 @@ public void start() {
       probeHandler.updateThreadPool(nonBlockingExecutor);
       props = TypedProperties.toTypedProperties(configuration.transport().properties());
       requests = new RequestRepository();
+      long commandBatchWindow = configuration.transport().commandBatchWindow();
+      if (commandBatchWindow > 0) {
+         commandBatcher = new CommandBatcher(this, requests, timeoutExecutor, nonBlockingExecutor, commandBatchWindow,
+                                             configuration.transport().commandBatchSize());
+      }
 
       String stack = configuration.transport().stack();
       if (stack != null) {
@@ -709,6 +722,10 @@ protected void receiveClusterView(View newView) {
          }
 
          this.clusterView = new ClusterView((int) viewId, members, address);
+         if (commandBatcher != null) {
+            commandBatcher.retainAll(newView.getMembers());
+         }
+         responseLatencies.retainAll(members);
 
          // Create a completable future for the new view
          oldFuture = nextViewFuture;
@@ -758,6 +775,9 @@ private static List<Address> fromJGroupsAddressList(List<org.jgroups.Address> li
    @Stop
    @Override
    public void stop() {
+      if (commandBatcher != null) {
+         CompletionStages.join(commandBatcher.flushAll());
+      }
       running = false;
 
       if (channel != null) {
@@ -982,9 +1002,10 @@ public <T> CompletionStage<T> invokeCommandStaggered(Collection<Address> targets
                                                         long timeout, TimeUnit unit) {
       long requestId = requests.newRequestId();
       logRequest(requestId, command, targets, "staggered");
+      responseLatencies.staggeredRequestStarted();
       StaggeredRequest<T> request =
-            new StaggeredRequest<>(collector, requestId, requests, targets, getAddress(), command, deliverOrder,
-                                   timeout, unit, this);
+            new StaggeredRequest<>(collector, requestId, requests, responseLatencies.preferFastest(targets),
+                                   getAddress(), command, deliverOrder, timeout, unit, this);
       try {
          addRequest(request);
          request.onNewView(clusterView.getMembersSet());
@@ -1050,6 +1071,12 @@ void sendCommand(Address target, ReplicableCommand command, long requestId, Deli
       if (checkView && !clusterView.contains(target))
          return;
 
+      if (commandBatcher != null && noRelay) {
+         short flags = (short) (encodeDeliverMode(deliverOrder) | Message.Flag.NO_RELAY.value());
+         commandBatcher.send(toJGroupsAddress(target), flags, requestId, marshallCommand(command));
+         return;
+      }
+
       Message message = new Message(toJGroupsAddress(target));
       marshallRequest(message, command, requestId);
       setMessageFlags(message, deliverOrder, noRelay);
@@ -1057,15 +1084,31 @@ void sendCommand(Address target, ReplicableCommand command, long requestId, Deli
       send(message);
    }
 
+   /**
+    * Creates the message of a single command, already marshalled.
+    */
+   Message newMessage(org.jgroups.Address target, short flags, long requestId, ByteBuffer command) {
+      Message message = new Message(target);
+      message.setBuffer(command.getBuf(), command.getOffset(), command.getLength());
+      addRequestHeader(message, requestId);
+      message.setFlag(flags);
+      message.setTransientFlag(Message.TransientFlag.DONT_LOOPBACK.value());
+      return message;
+   }
+
    private static org.jgroups.Address toJGroupsAddress(Address address) {
       return ((JGroupsAddress) address).getJGroupsAddress();
    }
 
    private void marshallRequest(Message message, ReplicableCommand command, long requestId) {
+      ByteBuffer bytes = marshallCommand(command);
+      message.setBuffer(bytes.getBuf(), bytes.getOffset(), bytes.getLength());
+      addRequestHeader(message, requestId);
+   }
+
+   private ByteBuffer marshallCommand(ReplicableCommand command) {
       try {
-         ByteBuffer bytes = marshaller.objectToBuffer(command);
-         message.setBuffer(bytes.getBuf(), bytes.getOffset(), bytes.getLength());
-         addRequestHeader(message, requestId);
+         return marshaller.objectToBuffer(command);
       } catch (RuntimeException e) {
          throw e;
       } catch (Exception e) {
@@ -1082,7 +1125,7 @@ private static void setMessageFlags(Message message, DeliverOrder deliverOrder,
       message.setTransientFlag(Message.TransientFlag.DONT_LOOPBACK.value());
    }
 
-   private void send(Message message) {
+   void send(Message message) {
       try {
          JChannel channel = this.channel;
          if (channel != null) {
@@ -1200,7 +1243,12 @@ private void sendCommandToAll(ReplicableCommand command, long requestId, Deliver
       Message message = new Message();
       marshallRequest(message, command, requestId);
       setMessageFlags(message, deliverOrder, true);
-      send(message);
+      if (commandBatcher != null) {
+         // Keep the order of the commands already queued for the members
+         commandBatcher.sendToAll(message, requestId);
+      } else {
+         send(message);
+      }
    }
 
    private void logRequest(long requestId, ReplicableCommand command, Object targets, String type) {
@@ -1245,6 +1293,10 @@ private void siteUnreachable(String site) {
    private void sendCommand(Collection<Address> targets, ReplicableCommand command, long requestId,
                             DeliverOrder deliverOrder, boolean checkView) {
       Objects.requireNonNull(targets);
+      if (commandBatcher != null) {
+         sendBatchedCommand(targets, command, requestId, deliverOrder, checkView);
+         return;
+      }
       Message message = new Message();
       marshallRequest(message, command, requestId);
       setMessageFlags(message, deliverOrder, true);
@@ -1269,6 +1321,22 @@ private void sendCommand(Collection<Address> targets, ReplicableCommand command,
       }
    }
 
+   private void sendBatchedCommand(Collection<Address> targets, ReplicableCommand command, long requestId,
+                                   DeliverOrder deliverOrder, boolean checkView) {
+      // Marshall once, the bytes are only copied in the batch of each target
+      ByteBuffer bytes = marshallCommand(command);
+      short flags = (short) (encodeDeliverMode(deliverOrder) | Message.Flag.NO_RELAY.value());
+      for (Address target : targets) {
+         if (checkView && !clusterView.contains(target))
+            continue;
+
+         if (target.equals(getAddress()))
+            continue;
+
+         commandBatcher.send(toJGroupsAddress(target), flags, requestId, bytes);
+      }
+   }
+
    TimeService getTimeService() {
       return timeService;
    }
@@ -1277,6 +1345,35 @@ ScheduledExecutorService getTimeoutExecutor() {
       return timeoutExecutor;
    }
 
+   ResponseLatencyTracker getResponseLatencies() {
+      return responseLatencies;
+   }
+
+   @ManagedAttribute(description = "Number of requests sent to one owner at a time, e.g. remote gets",
+         displayName = "Staggered requests", measurementType = MeasurementType.TRENDSUP)
+   public long getStaggeredRequestCount() {
+      return responseLatencies.getStaggeredRequests();
+   }
+
+   @ManagedAttribute(description = "Number of times a staggered request was sent to another owner because the " +
+         "previous one did not respond within its 95th percentile response time",
+         displayName = "Hedged messages", measurementType = MeasurementType.TRENDSUP)
+   public long getHedgedMessageCount() {
+      return responseLatencies.getHedgedMessages();
+   }
+
+   @ManagedAttribute(description = "Number of staggered requests completed by the response of a hedged message",
+         displayName = "Hedged responses", measurementType = MeasurementType.TRENDSUP)
+   public long getHedgedResponseCount() {
+      return responseLatencies.getHedgedResponses();
+   }
+
+   @ManagedAttribute(description = "Percentiles of the response times of each node to staggered requests, " +
+         "in microseconds", displayName = "Response times", dataType = DataType.TRAIT)
+   public String getResponseTimes() {
+      return responseLatencies.printResponseTimes();
+   }
+
    private void processMessage(Message message) {
       org.jgroups.Address src = message.src();
       short flags = message.getFlags();
@@ -1298,6 +1395,9 @@ private void processMessage(Message message) {
             log.tracef("Ignoring message received before start or after stop");
          if (type == REQUEST) {
             sendResponse(src, CacheNotFoundResponse.INSTANCE, requestId, null);
+         } else if (type == BATCH) {
+            CommandBatcher.forEachRequestId(buffer, offset, length,
+                  batchedRequestId -> sendResponse(src, CacheNotFoundResponse.INSTANCE, batchedRequestId, null));
          }
          return;
       }
@@ -1309,6 +1409,10 @@ private void processMessage(Message message) {
          case RESPONSE:
             processResponse(src, buffer, offset, length, requestId);
             break;
+         case BATCH:
+            CommandBatcher.forEachCommand(buffer, offset, length, (batchedRequestId, b, o, l) ->
+                  processRequest(src, flags, b, o, l, batchedRequestId));
+            break;
          default:
             CLUSTER.invalidMessageType(type, src);
       }
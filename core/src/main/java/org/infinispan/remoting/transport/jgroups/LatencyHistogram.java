@@ -0,0 +1,84 @@
+package org.infinispan.remoting.transport.jgroups;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of response times, with a resolution of about 25%.
+ * <p>
+ * Each power of 2 of microseconds is split in 4 buckets. The counts are halved every {@link #DECAY_INTERVAL} samples,
+ * so that the percentiles follow the current response times of a node, e.g. after a long GC pause, instead of its
+ * whole history.
+ *
+ * @since 12.1
+ */
+class LatencyHistogram {
+   static final int DECAY_INTERVAL = 1024;
+   static final int MIN_SAMPLES = 16;
+   private static final int SUB_BUCKETS_BITS = 2;
+   private static final int SUB_BUCKETS = 1 << SUB_BUCKETS_BITS;
+   // Values over 2^40 microseconds (~12 days) go in the last bucket
+   private static final int MAX_EXPONENT = 40;
+   private static final int BUCKETS = SUB_BUCKETS * (MAX_EXPONENT - SUB_BUCKETS_BITS + 1);
+
+   private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+   private final AtomicLong samples = new AtomicLong();
+
+   void record(long nanos) {
+      long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+      buckets.incrementAndGet(bucketIndex(micros));
+      if (samples.incrementAndGet() % DECAY_INTERVAL == 0) {
+         // Not atomic, but samples recorded concurrently only change the percentiles by a negligible amount
+         for (int i = 0; i < BUCKETS; i++) {
+            buckets.getAndUpdate(i, count -> count >> 1);
+         }
+      }
+   }
+
+   /**
+    * @return The given percentile of the response times, in nanoseconds,
+    *         or {@code -1} if there are fewer than {@link #MIN_SAMPLES} samples.
+    */
+   long percentile(double percentile) {
+      long[] counts = new long[BUCKETS];
+      long total = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+         counts[i] = buckets.get(i);
+         total += counts[i];
+      }
+      if (total < MIN_SAMPLES) {
+         return -1;
+      }
+      long threshold = (long) Math.ceil(total * percentile);
+      long cumulative = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+         cumulative += counts[i];
+         if (cumulative >= threshold) {
+            return TimeUnit.MICROSECONDS.toNanos(bucketUpperBound(i));
+         }
+      }
+      return TimeUnit.MICROSECONDS.toNanos(bucketUpperBound(BUCKETS - 1));
+   }
+
+   static int bucketIndex(long micros) {
+      if (micros < SUB_BUCKETS) {
+         return (int) micros;
+      }
+      int exponent = 63 - Long.numberOfLeadingZeros(micros);
+      if (exponent >= MAX_EXPONENT) {
+         return BUCKETS - 1;
+      }
+      int subBucket = (int) (micros >> (exponent - SUB_BUCKETS_BITS)) & (SUB_BUCKETS - 1);
+      return SUB_BUCKETS * (exponent - SUB_BUCKETS_BITS + 1) + subBucket;
+   }
+
+   static long bucketUpperBound(int index) {
+      if (index < SUB_BUCKETS) {
+         return index;
+      }
+      int exponent = index / SUB_BUCKETS + SUB_BUCKETS_BITS - 1;
+      int subBucket = index % SUB_BUCKETS;
+      return ((long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKETS_BITS)) - 1;
+   }
+}
@@ -0,0 +1,118 @@
+package org.infinispan.remoting.transport.jgroups;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.infinispan.remoting.transport.Address;
+
+/**
+ * Keeps a {@link LatencyHistogram} of the response times of each node, used by {@link StaggeredRequest} to pick the
+ * first target and the delay before sending the request to the next target.
+ *
+ * @since 12.1
+ */
+class ResponseLatencyTracker {
+   // A target is only moved ahead of the first one when it is at least this many times faster
+   private static final int PREFER_FASTER_RATIO = 2;
+
+   private final ConcurrentMap<Address, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+   private final LongAdder staggeredRequests = new LongAdder();
+   private final LongAdder hedgedMessages = new LongAdder();
+   private final LongAdder hedgedResponses = new LongAdder();
+
+   void recordResponseTime(Address target, long nanos) {
+      histograms.computeIfAbsent(target, t -> new LatencyHistogram()).record(nanos);
+   }
+
+   /**
+    * @return The given percentile of the response times of {@code target}, in nanoseconds,
+    *         or {@code -1} if there are not enough samples.
+    */
+   long percentile(Address target, double percentile) {
+      LatencyHistogram histogram = histograms.get(target);
+      return histogram != null ? histogram.percentile(percentile) : -1;
+   }
+
+   /**
+    * Moves the fastest target first, if the median response time of the first target is much higher.
+    * <p>
+    * The order is otherwise preserved, so the primary owner is still the first target when all the owners respond
+    * equally fast, or when there are no measurements yet.
+    */
+   Collection<Address> preferFastest(Collection<Address> targets) {
+      if (targets.size() < 2) {
+         return targets;
+      }
+      List<Address> ordered = new ArrayList<>(targets);
+      long firstMedian = percentile(ordered.get(0), 0.5);
+      if (firstMedian < 0) {
+         return targets;
+      }
+      int fastestIndex = 0;
+      long fastestMedian = firstMedian;
+      for (int i = 1; i < ordered.size(); i++) {
+         long median = percentile(ordered.get(i), 0.5);
+         if (median >= 0 && median < fastestMedian) {
+            fastestIndex = i;
+            fastestMedian = median;
+         }
+      }
+      if (fastestIndex == 0 || fastestMedian * PREFER_FASTER_RATIO > firstMedian) {
+         return targets;
+      }
+      ordered.add(0, ordered.remove(fastestIndex));
+      return ordered;
+   }
+
+   void retainAll(Collection<Address> members) {
+      histograms.keySet().retainAll(members);
+   }
+
+   void staggeredRequestStarted() {
+      staggeredRequests.increment();
+   }
+
+   void hedgedMessageSent() {
+      hedgedMessages.increment();
+   }
+
+   void hedgedResponseReceived() {
+      hedgedResponses.increment();
+   }
+
+   long getStaggeredRequests() {
+      return staggeredRequests.sum();
+   }
+
+   long getHedgedMessages() {
+      return hedgedMessages.sum();
+   }
+
+   long getHedgedResponses() {
+      return hedgedResponses.sum();
+   }
+
+   String printResponseTimes() {
+      StringBuilder sb = new StringBuilder();
+      histograms.forEach((address, histogram) -> {
+         if (sb.length() > 0) {
+            sb.append(", ");
+         }
+         sb.append(address)
+           .append("={p50=").append(toMicros(histogram.percentile(0.5)))
+           .append(", p95=").append(toMicros(histogram.percentile(0.95)))
+           .append(", p99=").append(toMicros(histogram.percentile(0.99)))
+           .append('}');
+      });
+      return sb.toString();
+   }
+
+   private static long toMicros(long nanos) {
+      return nanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMicros(nanos);
+   }
+}
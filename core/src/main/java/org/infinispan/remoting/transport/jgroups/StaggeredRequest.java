@@ -15,6 +15,12 @@
 import net.jcip.annotations.GuardedBy;
 
 /**
+ * Request sent to one target at a time, until one of them sends a valid response.
+ * <p>
+ * The request is sent to the next target if the current target doesn't respond within its 95th percentile response
+ * time, as measured by {@link ResponseLatencyTracker}, or within a fraction of the timeout if there aren't enough
+ * measurements yet.
+ *
  * @author Dan Berindei
  * @since 9.1
  */
@@ -27,6 +33,12 @@
    private long deadline;
    @GuardedBy("responseCollector")
    private int targetIndex;
+   @GuardedBy("responseCollector")
+   private final Address[] sentTargets;
+   @GuardedBy("responseCollector")
+   private final long[] sendTimes;
+   @GuardedBy("responseCollector")
+   private final boolean[] hedged;
 
    StaggeredRequest(ResponseCollector<T> responseCollector, long requestId, RequestRepository repository,
                     Collection<Address> targets, Address excludedTarget, ReplicableCommand command,
@@ -38,6 +50,9 @@
       this.transport = transport;
 
       this.deadline = transport.timeService.expectedEndTime(timeout, unit);
+      this.sentTargets = new Address[getTargetsSize()];
+      this.sendTimes = new long[getTargetsSize()];
+      this.hedged = new boolean[getTargetsSize()];
    }
 
    @Override
@@ -47,7 +62,28 @@ public void setTimeout(ScheduledExecutorService timeoutExecutor, long timeout, T
 
    @Override
    public synchronized void onResponse(Address sender, Response response) {
+      long responseTime = transport.getTimeService().time();
+      boolean sent = false;
+      boolean hedgedSender = false;
+      synchronized (responseCollector) {
+         for (int i = 0; i < targetIndex; i++) {
+            if (sender.equals(sentTargets[i])) {
+               sent = true;
+               hedgedSender = hedged[i];
+               responseTime -= sendTimes[i];
+               break;
+            }
+         }
+      }
+      boolean wasDone = isDone();
+      if (sent) {
+         transport.getResponseLatencies().recordResponseTime(sender, responseTime);
+      }
+
       super.onResponse(sender, response);
+      if (hedgedSender && !wasDone && isDone()) {
+         transport.getResponseLatencies().hedgedResponseReceived();
+      }
 
       sendNextMessage();
    }
@@ -63,20 +99,36 @@ protected void onTimeout() {
       if (isFinalTimeout) {
          super.onTimeout();
       } else {
-         sendNextMessage();
+         sendNextMessage(true);
       }
    }
 
    void sendNextMessage() {
+      sendNextMessage(false);
+   }
+
+   /**
+    * @param hedge {@code true} if the message is sent because the previous target did not respond in time.
+    */
+   private void sendNextMessage(boolean hedge) {
       try {
          Address target = null;
          boolean isFinalTarget;
+         Address slowTarget = null;
+         long slowResponseTime = 0;
          // Need synchronization because sendNextMessage can be called both directly and from addResponse()
          synchronized (responseCollector) {
             if (isDone() || targetIndex >= getTargetsSize()) {
                return;
             }
 
+            if (hedge && targetIndex > 0 && getTarget(targetIndex - 1) != null) {
+               // The response may never arrive, e.g. during a long GC pause, so count the time waited so far
+               // as a response time, otherwise the target would keep looking fast
+               slowTarget = sentTargets[targetIndex - 1];
+               slowResponseTime = transport.getTimeService().time() - sendTimes[targetIndex - 1];
+            }
+
             // Skip over targets that are no longer in the cluster view
             while (target == null && targetIndex < getTargetsSize()) {
                target = getTarget(targetIndex++);
@@ -93,17 +145,29 @@ void sendNextMessage() {
             }
 
             isFinalTarget = targetIndex >= getTargetsSize();
+            sentTargets[targetIndex - 1] = target;
+            sendTimes[targetIndex - 1] = transport.getTimeService().time();
+            hedged[targetIndex - 1] = hedge;
+         }
+
+         if (slowTarget != null) {
+            transport.getResponseLatencies().recordResponseTime(slowTarget, slowResponseTime);
          }
 
          // Sending may block in flow-control or even in TCP, so we must do it outside the critical section
          transport.sendCommand(target, command, requestId, deliverOrder, true, false);
+         if (hedge) {
+            transport.getResponseLatencies().hedgedMessageSent();
+         }
 
          // Scheduling the timeout task may also block
          // If this is the last target, set the request timeout at the deadline
          // Otherwise, schedule a timeout task to send a staggered request to the next target
          long delayNanos = transport.getTimeService().remainingTime(deadline, TimeUnit.NANOSECONDS);
          if (!isFinalTarget) {
-            delayNanos = delayNanos / 10 / getTargetsSize();
+            long maxDelayNanos = delayNanos / 10 / getTargetsSize();
+            long p95Nanos = transport.getResponseLatencies().percentile(target, 0.95);
+            delayNanos = p95Nanos < 0 ? maxDelayNanos : Math.min(p95Nanos, maxDelayNanos);
          }
          super.setTimeout(transport.getTimeoutExecutor(), delayNanos, TimeUnit.NANOSECONDS);
       } catch (Exception e) {
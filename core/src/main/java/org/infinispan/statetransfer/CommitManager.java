@@ -7,6 +7,7 @@
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import org.infinispan.commons.time.TimeService;
 import org.infinispan.commons.util.ByRef;
@@ -44,6 +45,8 @@ public class CommitManager {
 
    private volatile boolean trackStateTransfer;
    private volatile boolean trackXSiteStateTransfer;
+   // The number of entries committed in each segment, only counted while a preload runs in the background
+   private volatile AtomicLongArray commits;
 
    /**
     * It starts tracking keys committed. All the keys committed will be flagged with this flag. State transfer received
@@ -77,6 +80,32 @@ public final void stopTrack(Flag track) {
       }
    }
 
+   /**
+    * It starts counting the entries committed in each segment, so that a preload running in the background can
+    * discard the entries it read from the store before they were written or removed.
+    *
+    * @param numSegments the number of segments of the cache
+    */
+   public final void startTrackCommits(int numSegments) {
+      commits = new AtomicLongArray(numSegments);
+   }
+
+   /**
+    * It stops counting the entries committed.
+    */
+   public final void stopTrackCommits() {
+      commits = null;
+   }
+
+   /**
+    * @return the number of entries committed in the segment since {@link #startTrackCommits(int)}, or {@code -1} if
+    * the commits are not tracked.
+    */
+   public final long commitCount(int segment) {
+      AtomicLongArray counts = commits;
+      return counts == null ? -1 : counts.get(segment);
+   }
+
    /**
     * It tries to commit the cache entry. The entry is not committed if it is originated from state transfer and other
     * operation already has updated it.
@@ -90,6 +119,13 @@ public final CompletionStage<Void> commit(final CacheEntry entry, final Flag ope
          log.tracef("Trying to commit. Key=%s. Operation Flag=%s, L1 write/invalidation=%s", toStr(entry.getKey()),
                operation, l1Only);
       }
+      AtomicLongArray counts = commits;
+      if (counts != null) {
+         // Counted before the data container is updated, a preload that sees the old entry can't miss the write.
+         // The written keys can't be trusted to stay in the data container, they may be evicted before the preload
+         // inserts the value it read.
+         counts.incrementAndGet(segment);
+      }
       if (l1Only || (operation == null && !trackStateTransfer && !trackXSiteStateTransfer)) {
          //track == null means that it is a normal put and the tracking is not enabled!
          //if it is a L1 invalidation, commit without track it.
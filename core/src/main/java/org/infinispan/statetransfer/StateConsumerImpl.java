@@ -479,13 +479,8 @@ public CompletionStage<CompletionStage<Void>> onTopologyUpdate(final CacheTopolo
          // and the other partition was available) or when L1 is enabled.
          if ((isMember || wasMember) && cacheTopology.getPhase() == CacheTopology.Phase.NO_REBALANCE) {
             int numSegments = newWriteCh.getNumSegments();
-            IntSet removedSegments = IntSets.mutableEmptySet(numSegments);
-            IntSet newSegments = getOwnedSegments(newWriteCh);
-            for (int i = 0; i < numSegments; ++i) {
-               if (!newSegments.contains(i)) {
-                  removedSegments.add(i);
-               }
-            }
+            IntSet removedSegments = IntSets.mutableCopyFrom(IntSets.immutableRangeSet(numSegments));
+            removedSegments.removeAll(getOwnedSegments(newWriteCh));
 
             return removeStaleData(removedSegments)
                   .thenApply(ignored1 -> {
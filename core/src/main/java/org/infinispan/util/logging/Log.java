@@ -2140,4 +2140,55 @@ CacheConfigurationException storeConfiguredHasBothReadAndWriteOnly(String storeC
    @LogMessage(level = WARN)
    @Message(value = "Index path '%s' is not absolute and global state is disabled, will use a dir relative to the current working directory.", id = 626)
    void indexRelativeWorkingDir(String path);
+
+   @Message(value = "A mapped location can only be configured for OFF_HEAP storage without eviction or L1", id = 627)
+   CacheConfigurationException mappedLocationRequiresUnboundedOffHeap();
+
+   @LogMessage(level = WARN)
+   @Message(value = "Discarding off-heap segment file '%s' as it was not closed cleanly", id = 628)
+   void discardingMappedSegmentFile(Path file);
+
+   @Message(value = "The compact index of the file store cannot be used together with max-entries", id = 629)
+   CacheConfigurationException fileStoreCompactIndexWithMaxEntries();
+
+   @LogMessage(level = DEBUG)
+   @Message(value = "Rebuilt the index of %d entries of file store '%s' in %d ms", id = 630)
+   void fileStoreIndexRebuilt(int entries, String path, long durationMillis);
+
+   @LogMessage(level = DEBUG)
+   @Message(value = "The compact index of file store '%s' uses %d bytes, %d bytes per entry", id = 631)
+   void fileStoreCompactIndexMemory(String path, long bytes, long bytesPerEntry);
+
+   @Message(value = "Invalid value for the write-behind attribute '%s'", id = 632)
+   CacheConfigurationException invalidAsyncStoreFlushConfiguration(String attribute);
+
+   @Message(value = "Invalid value for the preload attribute '%s'", id = 633)
+   CacheConfigurationException invalidPreloadConfiguration(String attribute);
+
+   @LogMessage(level = ERROR)
+   @Message(value = "Preload in the background failed", id = 634)
+   void preloadFailed(@Cause Throwable t);
+
+   @Message(value = "Invalid value for the memory attribute '%s'", id = 635)
+   CacheConfigurationException invalidCompressionConfiguration(String attribute);
+
+   @Message(value = "Thread pool '%s' cannot use virtual threads because it is non-blocking", id = 636)
+   CacheConfigurationException virtualThreadsNonBlockingThreadPool(String name);
+
+   @Message(value = "The read owner mode and the maximum read staleness can only be used with distributed caches", id = 637)
+   CacheConfigurationException readOwnerModeAppliesOnlyToDistributed();
+
+   @LogMessage(level = WARN)
+   @Message(value = "Failed to send %d commands to %s", id = 638)
+   void failedToSendCommands(int count, org.jgroups.Address destination, @Cause Throwable t);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Thread pool '%s' cannot use virtual threads because the JVM doesn't support them, using a bounded thread pool instead", id = 639)
+   void virtualThreadsFallback(String name);
+
+   @Message(value = "Virtual threads are not supported by this JVM", id = 640)
+   CacheConfigurationException virtualThreadsNotSupported();
+
+   @Message(value = "Preload in the background cannot be used with passivation", id = 641)
+   CacheConfigurationException preloadInBackgroundWithPassivation();
 }
@@ -0,0 +1,95 @@
+package org.infinispan.compression;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.infinispan.commons.io.ByteBuffer;
+import org.infinispan.commons.io.ByteBufferImpl;
+import org.infinispan.commons.time.DefaultTimeService;
+import org.infinispan.configuration.cache.CompressionType;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.StorageType;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the values compressed in the off-heap container and in the stores are read back unchanged.
+ *
+ * @since 12.1
+ */
+@Test(groups = "functional", testName = "compression.ValueCompressionTest")
+public class ValueCompressionTest extends SingleCacheManagerTest {
+   private static final int NUM_KEYS = 200;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.memory()
+            .storageType(StorageType.OFF_HEAP)
+            .compression(CompressionType.DEFLATE)
+            .compressionThreshold(64)
+            .compressionDictionarySize(1024);
+      builder.persistence()
+            .addStore(DummyInMemoryStoreConfigurationBuilder.class)
+            .storeName(getClass().getName());
+      return TestCacheManagerFactory.createCacheManager(builder);
+   }
+
+   public void testRoundTrip() {
+      for (int i = 0; i < NUM_KEYS; i++) {
+         cache.put("k" + i, value(i));
+      }
+      cache.put("small", "v");
+
+      ValueCompressor compressor = TestingUtil.extractComponent(cache, ValueCompressor.class);
+      assertTrue(compressor.getCompressedValues() > 0);
+      assertTrue(compressor.getUncompressedValues() > 0);
+      assertTrue(compressor.isDictionaryTrained());
+      assertTrue(compressor.getBytesSaved() > 0);
+
+      assertValues();
+
+      // The off-heap container is empty after a restart, so the values are loaded from the store
+      cache.stop();
+      cache.start();
+      assertEquals(0, cache.getAdvancedCache().getDataContainer().size());
+      compressor = TestingUtil.extractComponent(cache, ValueCompressor.class);
+      long compressedValues = compressor.getCompressedValues();
+      assertValues();
+      // The loaded values are written with compute, and compressed after it releases the lock
+      assertTrue(compressor.getCompressedValues() > compressedValues);
+      assertValues();
+   }
+
+   public void testUncompressedValueWithMarker() {
+      ValueCompressor compressor = new ValueCompressor(64, 0, DefaultTimeService.INSTANCE);
+      // Too small to be compressed, but it starts like a compressed value
+      ByteBuffer value = ByteBufferImpl.create(new byte[]{0, (byte) 0xDF, 0, 0, 0, 0, 100, 1, 2, 3});
+      ByteBuffer written = compressor.compress(value);
+      assertFalse(value.equals(written));
+      assertEquals(value, compressor.decompress(written));
+
+      ByteBuffer other = ByteBufferImpl.create(new byte[]{1, 2, 3});
+      assertEquals(other, compressor.decompress(compressor.compress(other)));
+   }
+
+   private void assertValues() {
+      for (int i = 0; i < NUM_KEYS; i++) {
+         assertEquals(value(i), cache.get("k" + i));
+      }
+      assertEquals("v", cache.get("small"));
+   }
+
+   private static String value(int i) {
+      StringBuilder sb = new StringBuilder();
+      for (int j = 0; j < 20; j++) {
+         sb.append("{\"id\":").append(i).append(",\"name\":\"value\",\"tags\":[\"a\",\"b\"]}");
+      }
+      return sb.toString();
+   }
+}
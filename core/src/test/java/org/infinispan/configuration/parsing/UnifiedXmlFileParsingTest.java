@@ -113,6 +113,17 @@ public void testParseAndConstructUnifiedXmlFile(Path config) throws IOException
    }
 
    public enum ParserVersionCheck {
+      INFINISPAN_121(12, 1) {
+         @Override
+         public void check(ConfigurationBuilderHolder holder, int schemaMajor, int schemaMinor) {
+            Configuration c = getConfiguration(holder, "local-template");
+            AsyncStoreConfiguration async = c.persistence().stores().get(0).async();
+            assertEquals(10_000_000, async.modificationQueueMemoryBytes());
+            assertEquals(100, async.flushInterval());
+            assertEquals(512, async.flushSize());
+            assertEquals(8, async.flushConcurrency());
+         }
+      },
       INFINISPAN_120(12, 0) {
          @Override
          public void check(ConfigurationBuilderHolder holder, int schemaMajor, int schemaMinor) {
@@ -0,0 +1,119 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.infinispan.Cache;
+import org.infinispan.commons.test.CommonsTestingUtil;
+import org.infinispan.commons.util.Util;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.StorageType;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.container.impl.InternalDataContainer;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@Test(groups = "functional", testName = "container.offheap.MappedOffHeapDataContainerTest")
+public class MappedOffHeapDataContainerTest extends AbstractInfinispanTest {
+   private static final String CACHE_NAME = "mapped";
+
+   private String location;
+
+   @BeforeMethod
+   public void createLocation() {
+      location = CommonsTestingUtil.tmpDirectory(getClass());
+      Util.recursiveFileRemove(location);
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void removeLocation() {
+      Util.recursiveFileRemove(location);
+   }
+
+   private EmbeddedCacheManager createCacheManager() {
+      GlobalConfigurationBuilder globalBuilder = new GlobalConfigurationBuilder().nonClusteredDefault();
+      globalBuilder.globalState().enable().persistentLocation(location);
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.memory().storage(StorageType.OFF_HEAP).mappedLocation("mapped");
+      EmbeddedCacheManager cacheManager = TestCacheManagerFactory.createCacheManager(globalBuilder, new ConfigurationBuilder());
+      cacheManager.defineConfiguration(CACHE_NAME, builder.build());
+      return cacheManager;
+   }
+
+   public void testEntriesSurviveRestart() {
+      EmbeddedCacheManager cacheManager = createCacheManager();
+      try {
+         Cache<String, String> cache = cacheManager.getCache(CACHE_NAME);
+         assertTrue(TestingUtil.extractComponent(cache, InternalDataContainer.class) instanceof MappedOffHeapDataContainer);
+         for (int i = 0; i < 2_000; ++i) {
+            cache.put("key" + i, "value" + i);
+         }
+         cache.remove("key0");
+         cache.put("key1", "replaced");
+      } finally {
+         TestingUtil.killCacheManagers(cacheManager);
+      }
+
+      cacheManager = createCacheManager();
+      try {
+         Cache<String, String> cache = cacheManager.getCache(CACHE_NAME);
+         assertEquals(1_999, cache.size());
+         assertNull(cache.get("key0"));
+         assertEquals("replaced", cache.get("key1"));
+         for (int i = 2; i < 2_000; ++i) {
+            assertEquals("value" + i, cache.get("key" + i));
+         }
+         // The restored entries can be modified like any other
+         cache.put("key2", "updated");
+         assertEquals("updated", cache.get("key2"));
+         cache.clear();
+         assertTrue(cache.isEmpty());
+      } finally {
+         TestingUtil.killCacheManagers(cacheManager);
+      }
+   }
+
+   public void testSegmentFileReopen() throws IOException {
+      Path path = Paths.get(location, "segment.dat");
+      MappedSegmentFile file = new MappedSegmentFile(path, 4096);
+      assertEquals(0, file.open(address -> { }));
+      Set<Long> live = new HashSet<>();
+      for (int i = 0; i < 1_000; ++i) {
+         long address = file.allocate(24 + i % 64);
+         assertTrue(file.contains(address));
+         live.add(address);
+      }
+      long removed = live.iterator().next();
+      file.deallocate(removed, 0);
+      live.remove(removed);
+      long allocated = file.getAllocatedAmount();
+      file.close();
+
+      Set<Long> restored = new HashSet<>();
+      MappedSegmentFile reopened = new MappedSegmentFile(path, 4096);
+      assertEquals(live.size(), reopened.open(restored::add));
+      assertEquals(allocated, reopened.getAllocatedAmount());
+      assertEquals(live.size(), restored.size());
+
+      // Not closed cleanly, so the entries are discarded on the next open
+      MappedSegmentFile discarded = new MappedSegmentFile(path, 4096);
+      assertEquals(0, discarded.open(address -> { }));
+      assertEquals(0, discarded.getAllocatedAmount());
+      discarded.delete();
+      reopened.delete();
+      assertFalse(path.toFile().exists());
+   }
+}
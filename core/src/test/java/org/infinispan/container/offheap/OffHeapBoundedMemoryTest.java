@@ -2,6 +2,7 @@
 
 import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
 
 import java.util.concurrent.TimeUnit;
 
@@ -9,6 +10,7 @@
 import org.infinispan.Cache;
 import org.infinispan.commons.util.MemoryUnit;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.OffHeapAllocatorType;
 import org.infinispan.configuration.cache.StorageType;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.versioning.NumericVersion;
@@ -143,4 +145,39 @@ public void testAllocatedAmountEqualWithVersionAndExpiration() {
 
       assertEquals(allocator.getAllocatedAmount(), container.currentSize);
    }
+
+   public void testAllocatedAmountEqualPooled() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.memory()
+            .maxSize(String.valueOf(MemoryUnit.MEGABYTES.toBytes(20)))
+            .allocator(OffHeapAllocatorType.POOLED)
+            .storage(StorageType.OFF_HEAP);
+      EmbeddedCacheManager manager = TestCacheManagerFactory.createCacheManager(builder);
+      AdvancedCache<Object, Object> cache = manager.getCache().getAdvancedCache();
+
+      OffHeapMemoryAllocator allocator = cache.getComponentRegistry().getComponent(
+            OffHeapMemoryAllocator.class);
+      assertTrue(allocator instanceof PooledOffHeapMemoryAllocator);
+      BoundedOffHeapDataContainer container = (BoundedOffHeapDataContainer) getContainer(cache);
+      assertEquals(allocator.getAllocatedAmount(), container.currentSize);
+
+      cache.put(1, 2);
+      cache.put("lifespan", 2, new EmbeddedMetadata.Builder()
+            .lifespan(1, TimeUnit.MINUTES)
+            .version(new NumericVersion(23)).build());
+
+      assertEquals(allocator.getAllocatedAmount(), container.currentSize);
+
+      cache.clear();
+
+      assertEquals(allocator.getAllocatedAmount(), container.currentSize);
+   }
+
+   public void testLruStripeCount() {
+      // Small containers use a single LRU list so that eviction stays close to the least recently used
+      assertEquals(1, SegmentedBoundedOffHeapDataContainer.lruStripeCount(51));
+      int stripes = SegmentedBoundedOffHeapDataContainer.lruStripeCount(MemoryUnit.MEGABYTES.toBytes(20));
+      assertTrue(stripes >= 4);
+      assertEquals(1, Integer.bitCount(stripes));
+   }
 }
@@ -1,6 +1,7 @@
 package org.infinispan.container.offheap;
 
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
 import static org.testng.AssertJUnit.assertTrue;
 
 import java.util.ArrayList;
@@ -49,6 +50,22 @@ public void testMoreWriteThanSize() {
       assertEquals(COUNT, cache.size());
    }
 
+   public void testLeastRecentlyUsedIsEvicted() {
+      Cache<String, String> cache = cache(0);
+
+      for (int i = 0; i < COUNT; ++i) {
+         cache.put("key" + i, "value" + i);
+      }
+      // Reading the oldest entry moves it to the end of the LRU list
+      assertEquals("value0", cache.get("key0"));
+
+      cache.put("key" + COUNT, "value" + COUNT);
+
+      assertEquals(COUNT, cache.size());
+      assertEquals("value0", cache.get("key0"));
+      assertNull(cache.get("key1"));
+   }
+
    public void testMultiThreaded() throws ExecutionException, InterruptedException, TimeoutException {
       Cache<String, String> cache = cache(0);
 
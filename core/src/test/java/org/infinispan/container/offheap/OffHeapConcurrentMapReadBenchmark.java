@@ -0,0 +1,93 @@
+package org.infinispan.container.offheap;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.commons.marshall.WrappedByteArray;
+import org.infinispan.commons.marshall.WrappedBytes;
+import org.infinispan.container.entries.ImmortalCacheEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This benchmark tests how reads of {@link OffHeapConcurrentMap} scale with the number of reading threads. The
+ * {@code UNPOOLED} allocator always reads under the read lock, while the {@code POOLED} allocator allows optimistic
+ * reads.
+ */
+@State(Scope.Benchmark)
+@Fork(2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 4, time = 1)
+@Measurement(iterations = 8, time = 1)
+public class OffHeapConcurrentMapReadBenchmark {
+
+   @Param({ "UNPOOLED", "POOLED" })
+   public String allocatorType;
+   @Param({ "1024", "1048576" })
+   public int keyCount;
+   private OffHeapMemoryAllocator allocator;
+   private OffHeapConcurrentMap map;
+   private WrappedBytes[] keys;
+
+   @Setup
+   public void init() {
+      allocator = "POOLED".equals(allocatorType) ? new PooledOffHeapMemoryAllocator() :
+            new UnpooledOffHeapMemoryAllocator();
+      map = new OffHeapConcurrentMap(allocator, OffHeapConcurrentMapTest.createEntryFactory(allocator), null);
+      keys = new WrappedBytes[keyCount];
+      WrappedBytes value = new WrappedByteArray(new byte[64]);
+      for (int i = 0; i < keyCount; ++i) {
+         byte[] keyBytes = new byte[16];
+         ThreadLocalRandom.current().nextBytes(keyBytes);
+         keys[i] = new WrappedByteArray(keyBytes);
+         map.put(keys[i], new ImmortalCacheEntry(keys[i], value));
+      }
+   }
+
+   private Object peekRandom() {
+      return map.peek(keys[ThreadLocalRandom.current().nextInt(keyCount)]);
+   }
+
+   @Benchmark
+   public Object peek1() {
+      return peekRandom();
+   }
+
+   @Benchmark
+   @Threads(4)
+   public Object peek4() {
+      return peekRandom();
+   }
+
+   @Benchmark
+   @Threads(16)
+   public Object peek16() {
+      return peekRandom();
+   }
+
+   @Benchmark
+   @Threads(64)
+   public Object peek64() {
+      return peekRandom();
+   }
+
+   @TearDown
+   public void close() {
+      map.close();
+      if (allocator instanceof PooledOffHeapMemoryAllocator) {
+         ((PooledOffHeapMemoryAllocator) allocator).stop();
+      }
+   }
+}
@@ -4,10 +4,18 @@
 import static org.testng.AssertJUnit.assertNotNull;
 import static org.testng.AssertJUnit.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.infinispan.commons.marshall.WrappedByteArray;
 import org.infinispan.commons.marshall.WrappedBytes;
@@ -29,13 +37,16 @@ public class OffHeapConcurrentMapTest {
    @BeforeMethod
    void initializeMap() {
       OffHeapMemoryAllocator allocator = new UnpooledOffHeapMemoryAllocator();
+      map = new OffHeapConcurrentMap(allocator, createEntryFactory(allocator), null);
+   }
+
+   static OffHeapEntryFactoryImpl createEntryFactory(OffHeapMemoryAllocator allocator) {
       OffHeapEntryFactoryImpl offHeapEntryFactory = new OffHeapEntryFactoryImpl();
       offHeapEntryFactory.allocator = allocator;
       offHeapEntryFactory.internalEntryFactory = new InternalEntryFactoryImpl();
       offHeapEntryFactory.configuration = new ConfigurationBuilder().build();
       offHeapEntryFactory.start();
-
-      map = new OffHeapConcurrentMap(allocator, offHeapEntryFactory, null);
+      return offHeapEntryFactory;
    }
 
    @AfterMethod
@@ -132,6 +143,136 @@ public void testIterationCreatedButNotUsedUntilAfterAResize() {
       assertEquals(RESIZE_LIMITATION, entriesFound);
    }
 
+   public void testOptimisticReadsDuringConcurrentWrites() throws Exception {
+      PooledOffHeapMemoryAllocator allocator = new PooledOffHeapMemoryAllocator();
+      OffHeapConcurrentMap pooledMap = new OffHeapConcurrentMap(allocator, createEntryFactory(allocator), null);
+      int keyCount = 64;
+      WrappedBytes[] keys = new WrappedBytes[keyCount];
+      for (int i = 0; i < keyCount; ++i) {
+         keys[i] = new WrappedByteArray(new byte[] { (byte) i, (byte) (i >> 8) });
+         pooledMap.put(keys[i], new ImmortalCacheEntry(keys[i], valueFor(i, 1)));
+      }
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      AtomicBoolean stop = new AtomicBoolean();
+      try {
+         Future<?> writer = executor.submit(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (!stop.get()) {
+               int i = random.nextInt(keyCount);
+               if (random.nextInt(10) == 0) {
+                  pooledMap.remove(keys[i]);
+               } else {
+                  // Varying the length makes the freed chunks get reused by other keys
+                  pooledMap.put(keys[i], new ImmortalCacheEntry(keys[i], valueFor(i, random.nextInt(1, 200))));
+               }
+            }
+         });
+         List<Future<?>> readers = new ArrayList<>();
+         for (int r = 0; r < 3; ++r) {
+            readers.add(executor.submit(() -> {
+               ThreadLocalRandom random = ThreadLocalRandom.current();
+               for (int j = 0; j < 200_000; ++j) {
+                  int i = random.nextInt(keyCount);
+                  InternalCacheEntry<WrappedBytes, WrappedBytes> ice = pooledMap.peek(keys[i]);
+                  if (ice != null) {
+                     assertEquals(keys[i], ice.getKey());
+                     WrappedBytes value = ice.getValue();
+                     for (int b = 0; b < value.getLength(); ++b) {
+                        assertEquals((byte) i, value.getByte(b));
+                     }
+                  }
+               }
+            }));
+         }
+         for (Future<?> reader : readers) {
+            reader.get(1, TimeUnit.MINUTES);
+         }
+         stop.set(true);
+         writer.get(1, TimeUnit.MINUTES);
+      } finally {
+         stop.set(true);
+         executor.shutdownNow();
+         pooledMap.close();
+         allocator.stop();
+      }
+   }
+
+   public void testIncrementalResize() {
+      OffHeapMemoryAllocator allocator = new UnpooledOffHeapMemoryAllocator();
+      OffHeapResizeStatistics statistics = new OffHeapResizeStatistics();
+      OffHeapConcurrentMap resizingMap = new OffHeapConcurrentMap(allocator, createEntryFactory(allocator), null,
+            statistics);
+      try {
+         // Large enough that a lock region has more buckets than a single operation transfers
+         int keyCount = 1 << 17;
+         List<WrappedBytes> keys = new ArrayList<>(keyCount);
+         ThreadLocalRandom random = ThreadLocalRandom.current();
+         for (int i = 0; i < keyCount; ++i) {
+            keys.add(putInMap(resizingMap, valueByteArray));
+            // Keys must be found whether or not their bucket was transferred yet
+            WrappedBytes key = keys.get(random.nextInt(keys.size()));
+            assertNotNull(resizingMap.peek(key));
+            if (i % 64 == 0) {
+               double progress = statistics.getResizeProgress();
+               assertTrue(progress >= 0 && progress <= 1);
+            }
+         }
+         assertTrue(statistics.getResizeCount() > 0);
+         assertEquals(keyCount, resizingMap.size());
+
+         // Updates and removals also transfer buckets, and must find entries in both lookups
+         for (int i = 0; i < keyCount; i += 2) {
+            assertNotNull(resizingMap.replace(keys.get(i), new ImmortalCacheEntry(keys.get(i), valueByteArray)));
+            assertNotNull(resizingMap.remove(keys.get(i + 1)));
+         }
+         Set<WrappedBytes> found = new HashSet<>();
+         for (InternalCacheEntry<WrappedBytes, WrappedBytes> ice : resizingMap.values()) {
+            assertTrue(found.add(ice.getKey()));
+         }
+         assertEquals(keyCount / 2, found.size());
+         for (int i = 0; i < keyCount; i += 2) {
+            assertTrue(found.contains(keys.get(i)));
+         }
+
+         resizingMap.clear();
+         assertEquals(0, statistics.getResizesInProgress());
+         assertEquals(0, statistics.getPendingResizeBuckets());
+      } finally {
+         resizingMap.close();
+      }
+   }
+
+   public void testIterationDuringIncrementalResize() {
+      OffHeapMemoryAllocator allocator = new UnpooledOffHeapMemoryAllocator();
+      OffHeapResizeStatistics statistics = new OffHeapResizeStatistics();
+      OffHeapConcurrentMap resizingMap = new OffHeapConcurrentMap(allocator, createEntryFactory(allocator), null,
+            statistics);
+      try {
+         Set<WrappedBytes> expectedKeys = new HashSet<>();
+         // Insert until a resize is left in progress with enough entries that it can't be completed by a few writes
+         while (expectedKeys.size() < 1 << 16 || statistics.getResizesInProgress() == 0) {
+            expectedKeys.add(putInMap(resizingMap, valueByteArray));
+         }
+         Set<WrappedBytes> results = new HashSet<>();
+         Iterator<InternalCacheEntry<WrappedBytes, WrappedBytes>> iterator = resizingMap.values().iterator();
+         while (iterator.hasNext()) {
+            WrappedBytes key = iterator.next().getKey();
+            assertTrue(results.add(key));
+            // Keep transferring buckets while iterating
+            resizingMap.put(key, new ImmortalCacheEntry(key, valueByteArray));
+         }
+         assertEquals(expectedKeys, results);
+      } finally {
+         resizingMap.close();
+      }
+   }
+
+   private static WrappedBytes valueFor(int keyIndex, int length) {
+      byte[] bytes = new byte[length];
+      Arrays.fill(bytes, (byte) keyIndex);
+      return new WrappedByteArray(bytes);
+   }
+
    WrappedBytes putInMap(OffHeapConcurrentMap map, WrappedBytes value) {
       InternalCacheEntry<WrappedBytes, WrappedBytes> ice;
       WrappedBytes key;
@@ -0,0 +1,131 @@
+package org.infinispan.container.offheap;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * @since 12.1
+ */
+@Test(groups = "functional", testName = "container.offheap.PooledOffHeapMemoryAllocatorTest")
+public class PooledOffHeapMemoryAllocatorTest {
+
+   @DataProvider(name = "sizeClasses")
+   Object[][] sizeClasses() {
+      return new Object[][] {
+            { 1, 16 },
+            { 16, 16 },
+            { 17, 32 },
+            { 255, 256 },
+            { 257, 320 },
+            { 513, 640 },
+            { 65536, 65536 },
+            // Too large to be pooled, uses the unpooled estimate
+            { 65537, UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(65537) },
+      };
+   }
+
+   @Test(dataProvider = "sizeClasses")
+   public void testSizeClasses(long original, long expected) {
+      PooledOffHeapMemoryAllocator allocator = new PooledOffHeapMemoryAllocator(1);
+      assertEquals(expected, allocator.estimateAllocationSize(original));
+   }
+
+   public void testChunkReused() {
+      PooledOffHeapMemoryAllocator allocator = new PooledOffHeapMemoryAllocator(1);
+      try {
+         long first = allocator.allocate(100);
+         assertEquals(112, allocator.getAllocatedAmount());
+         assertEquals(1, allocator.getSlabCount());
+
+         allocator.deallocate(first, 100);
+         assertEquals(0, allocator.getAllocatedAmount());
+
+         // Same size class must get the freed chunk back instead of carving a new one
+         long second = allocator.allocate(97);
+         assertEquals(first, second);
+         assertEquals(1, allocator.getSlabCount());
+         allocator.deallocate(second, 97);
+      } finally {
+         allocator.stop();
+      }
+   }
+
+   public void testSlabsAndStatistics() {
+      PooledOffHeapMemoryAllocator allocator = new PooledOffHeapMemoryAllocator(4);
+      int chunks = PooledOffHeapMemoryAllocator.SLAB_SIZE / 64 + 1;
+      long[] addresses = new long[chunks];
+      try {
+         for (int i = 0; i < chunks; ++i) {
+            addresses[i] = allocator.allocate(64);
+         }
+         assertEquals(2, allocator.getSlabCount());
+         assertEquals(2L * PooledOffHeapMemoryAllocator.SLAB_SIZE, allocator.getSlabMemory());
+         assertEquals(chunks * 64L, allocator.getAllocatedAmount());
+         assertEquals(0, allocator.getFragmentation(), 0.0001);
+         assertTrue(allocator.getSlabOccupancy() > 0);
+
+         for (long address : addresses) {
+            allocator.deallocate(address, 64);
+         }
+         assertEquals(0, allocator.getAllocatedAmount());
+         assertEquals(0, allocator.getSlabOccupancy(), 0.0001);
+         // Slabs are kept until the allocator is stopped
+         assertEquals(2, allocator.getSlabCount());
+      } finally {
+         allocator.stop();
+      }
+      assertEquals(0, allocator.getSlabCount());
+   }
+
+   public void testLargeAllocationsReleasedAfterReaders() {
+      List<Long> released = new ArrayList<>();
+      DeferredReclamation reclamation = new DeferredReclamation(1, released::add);
+
+      long reader = reclamation.enter();
+      reclamation.retire(1);
+      // The reader may have read the address before it was retired
+      assertTrue(released.isEmpty());
+      assertTrue(reclamation.isPending());
+
+      // A reader registered after the address was retired can't delay its release
+      long laterReader = reclamation.enter();
+      reclamation.exit(reader);
+      reclamation.reclaim();
+      assertEquals(singletonList(1L), released);
+      assertTrue(!reclamation.isPending());
+
+      reclamation.retire(2);
+      assertEquals(singletonList(1L), released);
+      reclamation.exit(laterReader);
+      reclamation.reclaim();
+      assertEquals(asList(1L, 2L), released);
+
+      // Without readers retired addresses are released right away
+      reclamation.retire(3);
+      assertEquals(asList(1L, 2L, 3L), released);
+   }
+
+   public void testLargeAllocationNotPooled() {
+      PooledOffHeapMemoryAllocator allocator = new PooledOffHeapMemoryAllocator(1);
+      try {
+         long large = allocator.allocate(PooledOffHeapMemoryAllocator.MAX_POOLED_SIZE + 1);
+         assertEquals(0, allocator.getSlabCount());
+         long reader = allocator.beginOptimisticRead();
+         allocator.deallocate(large, PooledOffHeapMemoryAllocator.MAX_POOLED_SIZE + 1);
+         assertEquals(0, allocator.getAllocatedAmount());
+         // Still readable, it is only released once the reader is done
+         OffHeapMemory.INSTANCE.getLongNoTraceIfAbsent(large, 0);
+         allocator.endOptimisticRead(reader);
+      } finally {
+         allocator.stop();
+      }
+   }
+}
@@ -0,0 +1,178 @@
+package org.infinispan.distribution;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.infinispan.Cache;
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.remote.CacheRpcCommand;
+import org.infinispan.commands.remote.ClusteredGetCommand;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.ReadOwnerMode;
+import org.infinispan.container.versioning.NumericVersion;
+import org.infinispan.context.Flag;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.remoting.inboundhandler.AbstractDelegatingHandler;
+import org.infinispan.remoting.inboundhandler.DeliverOrder;
+import org.infinispan.remoting.inboundhandler.PerCacheInboundInvocationHandler;
+import org.infinispan.remoting.inboundhandler.Reply;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.rpc.RpcOptions;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.remoting.transport.ResponseCollector;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestDataSCI;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.util.AbstractDelegatingRpcManager;
+import org.testng.annotations.Test;
+
+/**
+ * Test reading from the backup owners with {@link ReadOwnerMode} and {@link Flag#READ_FROM_ANY_OWNER}, with and
+ * without a staleness bound.
+ *
+ * @since 12.1
+ */
+@Test(groups = "functional", testName = "distribution.ReadFromAnyOwnerTest")
+public class ReadFromAnyOwnerTest extends MultipleCacheManagersTest {
+   private static final String BALANCED_CACHE = "balanced";
+   private static final String BOUNDED_CACHE = "bounded";
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(2);
+      createCluster(TestDataSCI.INSTANCE, builder, 3);
+      ConfigurationBuilder balanced = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      balanced.clustering().hash().numOwners(2).readOwnerMode(ReadOwnerMode.BALANCED);
+      defineConfigurationOnAllManagers(BALANCED_CACHE, balanced);
+      ConfigurationBuilder bounded = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      bounded.clustering().hash().numOwners(2).maxReadStaleness(1, TimeUnit.MINUTES);
+      defineConfigurationOnAllManagers(BOUNDED_CACHE, bounded);
+      waitForClusterToForm();
+      waitForClusterToForm(BALANCED_CACHE);
+      waitForClusterToForm(BOUNDED_CACHE);
+   }
+
+   public void testPrimaryOwnerByDefault() {
+      Map<Address, AtomicInteger> firstTargets = readFromNonOwner(cache(0), cache(1), cache(2), false);
+      assertEquals(1, firstTargets.size());
+      assertEquals(100, firstTargets.get(address(0)).get());
+   }
+
+   public void testReadFromAnyOwnerFlag() {
+      Map<Address, AtomicInteger> firstTargets = readFromNonOwner(cache(0), cache(1), cache(2), true);
+      assertBothOwnersRead(firstTargets);
+   }
+
+   public void testBalancedReadOwnerMode() {
+      Map<Address, AtomicInteger> firstTargets =
+            readFromNonOwner(cache(0, BALANCED_CACHE), cache(1, BALANCED_CACHE), cache(2, BALANCED_CACHE), false);
+      assertBothOwnersRead(firstTargets);
+   }
+
+   public void testBoundedStalenessReadFromBackup() {
+      Cache<Object, Object> primary = cache(0, BOUNDED_CACHE);
+      Cache<Object, Object> nonOwner = cache(2, BOUNDED_CACHE);
+      MagicKey key = new MagicKey(primary, cache(1, BOUNDED_CACHE));
+      primary.getAdvancedCache().put(key, "value", new EmbeddedMetadata.Builder().version(new NumericVersion(1)).build());
+
+      FirstTargetRpcManager rpcManager =
+            TestingUtil.wrapComponent(nonOwner, RpcManager.class, FirstTargetRpcManager::new);
+      IgnoreRemoteGetHandler primaryHandler =
+            TestingUtil.wrapInboundInvocationHandler(primary, IgnoreRemoteGetHandler::new);
+      try {
+         Cache<Object, Object> reader = nonOwner.getAdvancedCache().withFlags(Flag.READ_FROM_ANY_OWNER);
+         // Without a previous read from the primary owner, a backup owner's value can't be checked
+         assertEquals("value", reader.get(key));
+         assertEquals(Collections.singletonList(Collections.singletonList(address(0))), rpcManager.targets);
+
+         // The primary owner doesn't respond, the value of the backup owner is not older than the one read above
+         primaryHandler.ignore = true;
+         assertEquals("value", reader.get(key));
+         assertEquals(2, rpcManager.targets.size());
+      } finally {
+         primaryHandler.ignore = false;
+         TestingUtil.replaceComponent(primary, PerCacheInboundInvocationHandler.class, primaryHandler.delegate(), true);
+         TestingUtil.replaceComponent(nonOwner, RpcManager.class, rpcManager.delegate(), true);
+      }
+   }
+
+   private Map<Address, AtomicInteger> readFromNonOwner(Cache<Object, Object> primary, Cache<Object, Object> backup,
+                                                         Cache<Object, Object> nonOwner, boolean withFlag) {
+      MagicKey key = new MagicKey(primary, backup);
+      primary.put(key, "value");
+
+      FirstTargetRpcManager rpcManager =
+            TestingUtil.wrapComponent(nonOwner, RpcManager.class, FirstTargetRpcManager::new);
+      try {
+         Cache<Object, Object> reader = withFlag ?
+               nonOwner.getAdvancedCache().withFlags(Flag.READ_FROM_ANY_OWNER) : nonOwner;
+         for (int i = 0; i < 100; i++) {
+            assertEquals("value", reader.get(key));
+         }
+         return rpcManager.firstTargets;
+      } finally {
+         TestingUtil.replaceComponent(nonOwner, RpcManager.class, rpcManager.delegate(), true);
+      }
+   }
+
+   private void assertBothOwnersRead(Map<Address, AtomicInteger> firstTargets) {
+      assertEquals(2, firstTargets.size());
+      assertTrue(firstTargets.get(address(0)).get() > 0);
+      assertTrue(firstTargets.get(address(1)).get() > 0);
+   }
+
+   private static class FirstTargetRpcManager extends AbstractDelegatingRpcManager {
+      final Map<Address, AtomicInteger> firstTargets = new ConcurrentHashMap<>();
+      final List<List<Address>> targets = Collections.synchronizedList(new ArrayList<>());
+
+      FirstTargetRpcManager(RpcManager realOne) {
+         super(realOne);
+      }
+
+      RpcManager delegate() {
+         return realOne;
+      }
+
+      @Override
+      protected <T> CompletionStage<T> performRequest(Collection<Address> targets, ReplicableCommand command,
+                                                      ResponseCollector<T> collector,
+                                                      Function<ResponseCollector<T>, CompletionStage<T>> invoker,
+                                                      RpcOptions rpcOptions) {
+         if (command instanceof ClusteredGetCommand) {
+            firstTargets.computeIfAbsent(targets.iterator().next(), a -> new AtomicInteger()).incrementAndGet();
+            this.targets.add(new ArrayList<>(targets));
+         }
+         return super.performRequest(targets, command, collector, invoker, rpcOptions);
+      }
+   }
+
+   private static class IgnoreRemoteGetHandler extends AbstractDelegatingHandler {
+      volatile boolean ignore;
+
+      IgnoreRemoteGetHandler(PerCacheInboundInvocationHandler delegate) {
+         super(delegate);
+      }
+
+      PerCacheInboundInvocationHandler delegate() {
+         return delegate;
+      }
+
+      @Override
+      protected boolean beforeHandle(CacheRpcCommand command, Reply reply, DeliverOrder order) {
+         return !(ignore && command instanceof ClusteredGetCommand);
+      }
+   }
+}
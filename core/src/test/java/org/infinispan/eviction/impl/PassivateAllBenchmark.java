@@ -0,0 +1,89 @@
+package org.infinispan.eviction.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.context.Flag;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.util.concurrent.CompletionStages;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This benchmark measures the throughput, in entries per second, of the passivation of all the entries of a cache
+ * when it is stopped. The container of a {@code DIST_SYNC} cache is segmented, so its segments are passivated in
+ * parallel.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PassivateAllBenchmark {
+   private static final int ENTRIES = 100_000;
+
+   @Param({ "LOCAL", "DIST_SYNC" })
+   public CacheMode cacheMode;
+   private EmbeddedCacheManager cacheManager;
+   private AdvancedCache<Object, Object> cache;
+   private PassivationManager passivationManager;
+   private PersistenceManager persistenceManager;
+
+   @Setup
+   public void init() {
+      GlobalConfigurationBuilder global = cacheMode.isClustered() ?
+            GlobalConfigurationBuilder.defaultClusteredBuilder() : new GlobalConfigurationBuilder().nonClusteredDefault();
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.clustering().cacheMode(cacheMode);
+      builder.persistence().passivation(true)
+            .addStore(DummyInMemoryStoreConfigurationBuilder.class)
+            .storeName(getClass().getName());
+      cacheManager = new DefaultCacheManager(global.build(), builder.build());
+      cache = cacheManager.getCache().getAdvancedCache();
+      passivationManager = TestingUtil.extractComponent(cache, PassivationManager.class);
+      persistenceManager = TestingUtil.extractComponent(cache, PersistenceManager.class);
+   }
+
+   @Setup(Level.Invocation)
+   public void fill() {
+      CompletionStages.join(persistenceManager.clearAllStores(PersistenceManager.AccessMode.BOTH));
+      Map<Object, Object> entries = new HashMap<>();
+      for (int i = 0; i < ENTRIES; ++i) {
+         entries.put("key" + i, "value" + i);
+      }
+      cache.withFlags(Flag.SKIP_CACHE_LOAD).putAll(entries);
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(ENTRIES)
+   public void passivateAll() {
+      passivationManager.passivateAll();
+   }
+
+   @TearDown
+   public void close() {
+      cacheManager.stop();
+   }
+}
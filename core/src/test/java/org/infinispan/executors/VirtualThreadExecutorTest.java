@@ -0,0 +1,131 @@
+package org.infinispan.executors;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import org.infinispan.commons.IllegalLifecycleStateException;
+import org.infinispan.commons.test.Exceptions;
+import org.infinispan.commons.test.skip.SkipTestNG;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.configuration.global.ThreadPoolConfiguration;
+import org.infinispan.factories.threads.DefaultThreadFactory;
+import org.infinispan.factories.threads.VirtualThreadExecutorFactory;
+import org.infinispan.factories.threads.VirtualThreads;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+/**
+ * Basic tests for {@link VirtualThreadExecutor}
+ *
+ * @since 12.1
+ */
+@Test(groups = "functional", testName = "executors.VirtualThreadExecutorTest")
+public class VirtualThreadExecutorTest extends AbstractInfinispanTest {
+   public static final String NAME = "Test";
+
+   public void testConcurrencyLimit() throws Exception {
+      VirtualThreadExecutor executor = new VirtualThreadExecutor(getTestThreadFactory(NAME), 2, 10);
+      try {
+         CountDownLatch blocker = new CountDownLatch(1);
+         CountDownLatch done = new CountDownLatch(5);
+         for (int i = 0; i < 5; i++) {
+            executor.execute(() -> {
+               try {
+                  blocker.await(10, SECONDS);
+               } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+               }
+               done.countDown();
+            });
+         }
+         eventuallyEquals(2, executor::getActiveCount);
+         assertEquals(3, executor.getQueueSize());
+
+         blocker.countDown();
+         assertTrue(done.await(10, SECONDS));
+         eventuallyEquals(0, executor::getActiveCount);
+         assertEquals(0, executor.getQueueSize());
+         assertEquals(2, executor.getLargestActiveCount());
+         assertEquals(5, executor.getCompletedTaskCount());
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   public void testFullQueueRunsInCaller() throws Exception {
+      VirtualThreadExecutor executor = new VirtualThreadExecutor(getTestThreadFactory(NAME), 1, 0);
+      try {
+         CountDownLatch blocker = new CountDownLatch(1);
+         executor.execute(() -> {
+            try {
+               blocker.await(10, SECONDS);
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+            }
+         });
+         eventuallyEquals(1, executor::getActiveCount);
+
+         CompletableFuture<Thread> cf = new CompletableFuture<>();
+         executor.execute(() -> cf.complete(Thread.currentThread()));
+         assertSame(Thread.currentThread(), cf.getNow(null));
+         blocker.countDown();
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   public void testShutdown() throws Exception {
+      VirtualThreadExecutor executor = new VirtualThreadExecutor(getTestThreadFactory(NAME), 1, 10);
+      CountDownLatch blocker = new CountDownLatch(1);
+      executor.execute(() -> {
+         try {
+            blocker.await(10, SECONDS);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+      });
+      executor.shutdown();
+      assertFalse(executor.awaitTermination(100, MILLISECONDS));
+      Exceptions.expectException(IllegalLifecycleStateException.class, () -> executor.execute(() -> { }));
+
+      blocker.countDown();
+      assertTrue(executor.awaitTermination(10, SECONDS));
+      assertTrue(executor.isTerminated());
+   }
+
+   public void testVirtualThreads() throws Exception {
+      SkipTestNG.skipIf(!VirtualThreads.isSupported(), "The JVM doesn't support virtual threads");
+      DefaultThreadFactory threadFactory = new DefaultThreadFactory(null, Thread.NORM_PRIORITY,
+            DefaultThreadFactory.DEFAULT_PATTERN, "node", NAME);
+      VirtualThreadExecutor executor = VirtualThreadExecutorFactory.create(2, 10).createExecutor(threadFactory);
+      try {
+         CompletableFuture<Thread> cf = new CompletableFuture<>();
+         executor.execute(() -> cf.complete(Thread.currentThread()));
+         Thread thread = cf.get(10, SECONDS);
+         assertTrue(isVirtual(thread));
+         assertTrue(thread.getName(), thread.getName().startsWith(NAME + "-node"));
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   public void testVirtualThreadsConfiguration() {
+      ThreadPoolConfiguration configuration = new GlobalConfigurationBuilder().threads()
+            .addBoundedThreadPool(NAME).virtualThreads(true).maxThreads(4).queueLength(10)
+            .asThreadPoolConfigurationBuilder();
+      // Falls back to a regular bounded pool when virtual threads are not supported
+      assertEquals(VirtualThreads.isSupported(),
+            configuration.threadPoolFactory() instanceof VirtualThreadExecutorFactory);
+   }
+
+   private static boolean isVirtual(Thread thread) throws Exception {
+      return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+   }
+}
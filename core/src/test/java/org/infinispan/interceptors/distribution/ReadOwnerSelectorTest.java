@@ -0,0 +1,120 @@
+package org.infinispan.interceptors.distribution;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.infinispan.configuration.cache.ReadOwnerMode;
+import org.infinispan.container.entries.InternalCacheValue;
+import org.infinispan.container.entries.metadata.MetadataImmortalCacheValue;
+import org.infinispan.container.versioning.NumericVersion;
+import org.infinispan.context.impl.FlagBitSets;
+import org.infinispan.distribution.TestTopologyAwareAddress;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.remoting.responses.SuccessfulResponse;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.util.ControlledTimeService;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link ReadOwnerSelector}.
+ *
+ * @since 12.1
+ */
+@Test(groups = "unit", testName = "interceptors.distribution.ReadOwnerSelectorTest")
+public class ReadOwnerSelectorTest extends AbstractInfinispanTest {
+   private final TestTopologyAwareAddress local = new TestTopologyAwareAddress(0, "s1", "r1", "m1");
+   private final TestTopologyAwareAddress otherSite = new TestTopologyAwareAddress(1, "s2", "r1", "m1");
+   private final TestTopologyAwareAddress sameRack = new TestTopologyAwareAddress(2, "s1", "r1", "m2");
+   private final TestTopologyAwareAddress sameMachine = new TestTopologyAwareAddress(3, "s1", "r1", "m1");
+   private final List<Address> owners = Arrays.asList(otherSite, sameRack, sameMachine);
+   private final ControlledTimeService timeService = new ControlledTimeService();
+
+   public void testPrimary() {
+      ReadOwnerSelector selector = new ReadOwnerSelector(ReadOwnerMode.PRIMARY, -1, timeService);
+      assertFalse(selector.readsFromBackups(0));
+      assertEquals(owners, selector.orderTargets(owners, local, 0));
+
+      assertTrue(selector.readsFromBackups(FlagBitSets.READ_FROM_ANY_OWNER));
+      assertFirstTargets(selector, FlagBitSets.READ_FROM_ANY_OWNER);
+   }
+
+   public void testLocalFirst() {
+      ReadOwnerSelector selector = new ReadOwnerSelector(ReadOwnerMode.LOCAL_FIRST, -1, timeService);
+      assertTrue(selector.readsFromBackups(0));
+      assertEquals(Arrays.asList(sameMachine, sameRack, otherSite), selector.orderTargets(owners, local, 0));
+   }
+
+   public void testBalanced() {
+      ReadOwnerSelector selector = new ReadOwnerSelector(ReadOwnerMode.BALANCED, -1, timeService);
+      assertTrue(selector.readsFromBackups(0));
+      assertFirstTargets(selector, 0);
+   }
+
+   public void testMaxStaleness() {
+      ReadOwnerSelector selector = new ReadOwnerSelector(ReadOwnerMode.BALANCED, 1000, timeService);
+      assertTrue(selector.hasStalenessBound());
+      assertFalse(selector.canReadFromBackups("k"));
+
+      selector.recordPrimaryRead("k", value(2));
+      assertTrue(selector.canReadFromBackups("k"));
+      assertTrue(selector.isFreshEnough("k", value(2)));
+      assertTrue(selector.isFreshEnough("k", value(3)));
+      assertFalse(selector.isFreshEnough("k", value(1)));
+      assertFalse(selector.isFreshEnough("k", null));
+      assertFalse(selector.isFreshEnough("k", new MetadataImmortalCacheValue("v", new EmbeddedMetadata.Builder().build())));
+
+      timeService.advance(1001);
+      assertFalse(selector.canReadFromBackups("k"));
+      assertFalse(selector.isFreshEnough("k", value(2)));
+
+      // A missing key stays missing
+      selector.recordPrimaryRead("missing", null);
+      assertTrue(selector.isFreshEnough("missing", null));
+      assertFalse(selector.isFreshEnough("missing", value(1)));
+
+      // Keys without a version are always read from the primary owner
+      selector.recordPrimaryRead("unversioned", new MetadataImmortalCacheValue("v", new EmbeddedMetadata.Builder().build()));
+      assertFalse(selector.canReadFromBackups("unversioned"));
+   }
+
+   public void testBoundedStalenessCollector() {
+      ReadOwnerSelector selector = new ReadOwnerSelector(ReadOwnerMode.PRIMARY, 1000, timeService);
+
+      // Without a value read from the primary owner, the backup owners' values can't be checked
+      BoundedStalenessCollector collector = new BoundedStalenessCollector(selector, "k", otherSite);
+      assertNull(collector.addResponse(sameRack, SuccessfulResponse.create(value(2))));
+      SuccessfulResponse primaryResponse = SuccessfulResponse.create(value(2));
+      assertSame(primaryResponse, collector.addResponse(otherSite, primaryResponse));
+      assertTrue(selector.canReadFromBackups("k"));
+
+      // A backup owner's value is accepted if it's not older than the primary owner's
+      collector = new BoundedStalenessCollector(selector, "k", otherSite);
+      assertNull(collector.addResponse(sameRack, SuccessfulResponse.create(value(1))));
+      SuccessfulResponse backupResponse = SuccessfulResponse.create(value(2));
+      assertSame(backupResponse, collector.addResponse(sameMachine, backupResponse));
+   }
+
+   private void assertFirstTargets(ReadOwnerSelector selector, long flags) {
+      Set<Address> firstTargets = new HashSet<>();
+      for (int i = 0; i < 1000; i++) {
+         List<Address> targets = selector.orderTargets(owners, local, flags);
+         assertEquals(new HashSet<>(owners), new HashSet<>(targets));
+         firstTargets.add(targets.get(0));
+      }
+      assertEquals(new HashSet<>(owners), firstTargets);
+   }
+
+   private static InternalCacheValue value(long version) {
+      return new MetadataImmortalCacheValue("v" + version,
+            new EmbeddedMetadata.Builder().version(new NumericVersion(version)).build());
+   }
+}
@@ -2,10 +2,17 @@
 
 import static org.infinispan.test.TestingUtil.checkMBeanOperationParameterNaming;
 import static org.infinispan.test.TestingUtil.getCacheObjectName;
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import javax.management.MBeanServer;
 import javax.management.ObjectName;
 
+import org.infinispan.Cache;
 import org.infinispan.commons.jmx.MBeanServerLookup;
 import org.infinispan.commons.jmx.TestMBeanServerLookup;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
@@ -15,6 +22,9 @@
 import org.infinispan.marshall.persistence.impl.MarshalledEntryUtil;
 import org.infinispan.persistence.dummy.DummyInMemoryStore;
 import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.persistence.spi.MarshallableEntry;
+import org.infinispan.persistence.support.DelegatingPersistenceManager;
 import org.infinispan.test.SingleCacheManagerTest;
 import org.infinispan.test.TestingUtil;
 import org.infinispan.test.fwk.TestCacheManagerFactory;
@@ -145,6 +155,46 @@ public void testFlagMissNotCounted() throws Exception {
       assertStoreAccess(0, 1, 1);
    }
 
+   public void testConcurrentLoadsCoalesced() throws Exception {
+      ConfigurationBuilder configuration = getDefaultStandaloneCacheConfig(false);
+      configuration
+            .statistics().enable()
+            .persistence()
+            .passivation(false)
+            .addStore(DummyInMemoryStoreConfigurationBuilder.class);
+      cacheManager.defineConfiguration("coalesced", configuration.build());
+      Cache<String, String> coalescedCache = cacheManager.getCache("coalesced");
+      ObjectName coalescedLoaderObjName = getCacheObjectName(JMX_DOMAIN, "coalesced(local)", "CacheLoader");
+
+      DummyInMemoryStore coalescedStore = TestingUtil.getFirstStore(coalescedCache);
+      coalescedStore.write(MarshalledEntryUtil.create("a", "b", coalescedCache));
+
+      CompletableFuture<Void> releaseLoads = new CompletableFuture<>();
+      PersistenceManager actual = TestingUtil.extractComponent(coalescedCache, PersistenceManager.class);
+      PersistenceManager blocking = new DelegatingPersistenceManager(actual) {
+         @Override
+         public <K, V> CompletionStage<MarshallableEntry<K, V>> loadFromAllStores(Object key, int segment,
+               boolean localInvocation, boolean includeStores) {
+            return releaseLoads.thenCompose(ignore -> super.loadFromAllStores(key, segment, localInvocation, includeStores));
+         }
+      };
+      TestingUtil.replaceComponent(coalescedCache, PersistenceManager.class, blocking, true);
+
+      Future<String> first = coalescedCache.getAsync("a");
+      Future<String> second = coalescedCache.getAsync("a");
+      Future<String> third = coalescedCache.getAsync("a");
+
+      MBeanServer mBeanServer = mBeanServerLookup.getMBeanServer();
+      eventually(() -> Long.valueOf(2).equals(mBeanServer.getAttribute(coalescedLoaderObjName, "CacheLoaderCoalescedLoads")));
+      releaseLoads.complete(null);
+
+      assertEquals("b", first.get(10, TimeUnit.SECONDS));
+      assertEquals("b", second.get(10, TimeUnit.SECONDS));
+      assertEquals("b", third.get(10, TimeUnit.SECONDS));
+      assertEquals(1L, mBeanServer.getAttribute(coalescedLoaderObjName, "CacheLoaderLoads"));
+      assertEquals(2L, mBeanServer.getAttribute(coalescedLoaderObjName, "CacheLoaderCoalescedLoads"));
+   }
+
    private void assertStoreAccess(int loadsCount, int missesCount, int storeCount) throws Exception {
       assertLoadCount(loadsCount, missesCount);
       assertStoreCount(storeCount);
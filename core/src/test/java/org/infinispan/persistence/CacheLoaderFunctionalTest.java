@@ -14,7 +14,9 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 import javax.transaction.NotSupportedException;
 import javax.transaction.SystemException;
@@ -515,6 +517,27 @@ public void testLoadingToMemory() throws PersistenceException {
       assertEquals("v2", cache.get("k2"));
    }
 
+   public void testGetAllLoadingToMemory() throws PersistenceException {
+      assertNotInCacheAndStore("k1", "k2", "k3", "k4");
+      if (Configurations.isTxVersioned(cache.getCacheConfiguration())) {
+         for (int i = 1; i < 4; i++) writer.write(MarshalledEntryUtil.createWithVersion("k" + i, "v" + i, cache));
+      } else {
+         for (int i = 1; i < 4; i++) writer.write(MarshalledEntryUtil.create("k" + i, "v" + i, cache));
+      }
+      cache.put("k1", "v1-IN-MEMORY");
+      assertInStoreNotInCache("k2", "k3");
+
+      Map<String, String> values = cache.getAll(new HashSet<>(Arrays.asList("k1", "k2", "k3", "k4")));
+      assertEquals(3, values.size());
+      assertEquals("v1-IN-MEMORY", values.get("k1"));
+      assertEquals("v2", values.get("k2"));
+      assertEquals("v3", values.get("k3"));
+      assertFalse(values.containsKey("k4"));
+      assertInCacheAndStore("k2", "v2");
+      assertInCacheAndStore("k3", "v3");
+      assertNoLocks(cache);
+   }
+
    public void testSkipLocking(Method m) {
       String name = m.getName();
       AdvancedCache<String, String> advancedCache = cache.getAdvancedCache();
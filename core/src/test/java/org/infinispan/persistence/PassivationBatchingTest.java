@@ -0,0 +1,315 @@
+package org.infinispan.persistence;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.infinispan.commons.configuration.BuiltBy;
+import org.infinispan.commons.configuration.ConfigurationFor;
+import org.infinispan.commons.configuration.attributes.AttributeSet;
+import org.infinispan.commons.test.Exceptions;
+import org.infinispan.commons.util.ProcessorInfo;
+import org.infinispan.configuration.cache.AsyncStoreConfiguration;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.PersistenceConfigurationBuilder;
+import org.infinispan.distribution.ch.KeyPartitioner;
+import org.infinispan.eviction.impl.PassivationManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.marshall.persistence.impl.MarshalledEntryUtil;
+import org.infinispan.persistence.dummy.DummyInMemoryStore;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfiguration;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.persistence.manager.PassivationPersistenceManager;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.persistence.spi.MarshallableEntry;
+import org.infinispan.persistence.spi.NonBlockingStore;
+import org.infinispan.persistence.spi.PersistenceException;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
+import org.infinispan.util.concurrent.CompletableFutures;
+import org.infinispan.util.concurrent.CompletionStages;
+import org.reactivestreams.Publisher;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+
+/**
+ * Tests that the entries passivated concurrently are written to the stores in batches, and that the entries passivated
+ * on stop are written per segment in parallel.
+ *
+ * @since 12.1
+ */
+@Test(groups = "functional", testName = "persistence.PassivationBatchingTest")
+public class PassivationBatchingTest extends SingleCacheManagerTest {
+   private static final int NUM_SEGMENTS = 16;
+   private static final int MAX_BATCH_SIZE = 3;
+
+   // The keys of every batch written to the store, in order
+   private static final List<List<Object>> batches = new CopyOnWriteArrayList<>();
+   // While blocked, the store waits for the futures in the queue to complete before writing a batch
+   private static final BlockingQueue<CompletableFuture<Void>> blockedBatches = new LinkedBlockingQueue<>();
+   private static volatile boolean blockBatches;
+   // The store fails the batches with this key
+   private static volatile Object failingKey;
+
+   private PassivationManager passivationManager;
+   private PassivationPersistenceManager persistenceManager;
+   private KeyPartitioner keyPartitioner;
+   private BatchRecordingStore store;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.clustering().cacheMode(CacheMode.DIST_SYNC).hash().numSegments(NUM_SEGMENTS);
+      builder.statistics().enable();
+      builder.persistence()
+            .passivation(true)
+            .addStore(BatchRecordingStoreConfigurationBuilder.class)
+            .storeName(getClass().getName())
+            .maxBatchSize(MAX_BATCH_SIZE);
+      EmbeddedCacheManager cm = TestCacheManagerFactory.createClusteredCacheManager(builder);
+      cache = cm.getCache();
+      passivationManager = TestingUtil.extractComponent(cache, PassivationManager.class);
+      persistenceManager = (PassivationPersistenceManager) TestingUtil.extractComponent(cache, PersistenceManager.class);
+      keyPartitioner = TestingUtil.extractComponent(cache, KeyPartitioner.class);
+      store = TestingUtil.getFirstStore(cache);
+      return cm;
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void resetStore() {
+      failingKey = null;
+      resumeBatches();
+      batches.clear();
+      passivationManager.resetStatistics();
+      cache.clear();
+      store.clearAndWait();
+   }
+
+   public void testConcurrentEvictionsAreBatched() throws Exception {
+      blockBatches = true;
+      Map<Object, Boolean> writtenOnCompletion = new ConcurrentHashMap<>();
+      List<CompletionStage<Void>> stages = new ArrayList<>();
+      // The first eviction is written alone, the ones evicted while it is written are coalesced
+      for (int i = 0; i < 8; ++i) {
+         String key = "k" + i;
+         CompletionStage<Void> stage = passivationManager.passivateAsync(TestInternalCacheEntryFactory.create(key, "v" + i));
+         stage.whenComplete((ignore, t) -> writtenOnCompletion.put(key, store.contains(key)));
+         stages.add(stage);
+      }
+      CompletableFuture<Void> firstBatch = blockedBatches.poll(10, TimeUnit.SECONDS);
+      assertNotNull(firstBatch);
+
+      for (int i = 0; i < 8; ++i) {
+         String key = "k" + i;
+         assertFalse(key, stages.get(i).toCompletableFuture().isDone());
+         assertFalse(key, store.contains(key));
+         // Still readable while waiting for the store
+         assertEquals("v" + i, load(key).getValue());
+      }
+      assertEquals(8, persistenceManager.pendingPassivations());
+
+      resumeBatches();
+      for (CompletionStage<Void> stage : stages) {
+         CompletionStages.join(stage);
+      }
+      assertEquals(Arrays.asList(1, MAX_BATCH_SIZE, MAX_BATCH_SIZE, 1),
+            batches.stream().map(List::size).collect(Collectors.toList()));
+      for (int i = 0; i < 8; ++i) {
+         assertEquals(Boolean.TRUE, writtenOnCompletion.get("k" + i));
+      }
+      assertEquals(0, persistenceManager.pendingPassivations());
+      assertEquals(8, passivationManager.getPassivations());
+   }
+
+   public void testKeyPassivatedAgainInLaterBatch() throws Exception {
+      blockBatches = true;
+      passivate("k0", "v0");
+      CompletableFuture<Void> firstBatch = blockedBatches.poll(10, TimeUnit.SECONDS);
+
+      CompletionStage<Void> oldValueStage = passivate("key", "old");
+      passivate("k1", "v1");
+      passivate("k2", "v2");
+      // The second batch is full, the new value goes in the third batch
+      CompletionStage<Void> newValueStage = passivate("key", "new");
+
+      firstBatch.complete(null);
+      CompletableFuture<Void> secondBatch = blockedBatches.poll(10, TimeUnit.SECONDS);
+      // The entries of a batch are grouped by segment
+      assertEquals(new HashSet<>(Arrays.asList("key", "k1", "k2")), new HashSet<>(batches.get(1)));
+      assertFalse(oldValueStage.toCompletableFuture().isDone());
+      assertEquals("new", load("key").getValue());
+
+      secondBatch.complete(null);
+      CompletableFuture<Void> thirdBatch = blockedBatches.poll(10, TimeUnit.SECONDS);
+      CompletionStages.join(oldValueStage);
+      assertFalse(newValueStage.toCompletableFuture().isDone());
+      // The store has the old value, but the new value is still in memory
+      assertEquals("old", store.loadEntry("key").getValue());
+      assertEquals("new", load("key").getValue());
+
+      thirdBatch.complete(null);
+      CompletionStages.join(newValueStage);
+      assertEquals(Collections.singletonList("key"), batches.get(2));
+      assertEquals(0, persistenceManager.pendingPassivations());
+      assertEquals("new", load("key").getValue());
+   }
+
+   public void testFailedBatchFailsItsEvictions() throws Exception {
+      blockBatches = true;
+      failingKey = "fail";
+      CompletionStage<Void> firstStage = passivate("k0", "v0");
+      CompletableFuture<Void> firstBatch = blockedBatches.poll(10, TimeUnit.SECONDS);
+      CompletionStage<Void> failingStage = passivate("fail", "v");
+      CompletionStage<Void> sameBatchStage = passivate("k1", "v1");
+
+      assertNotNull(firstBatch);
+
+      resumeBatches();
+      CompletionStages.join(firstStage);
+      Exceptions.expectCompletionException(PersistenceException.class, failingStage);
+      Exceptions.expectCompletionException(PersistenceException.class, sameBatchStage);
+      assertEquals(0, persistenceManager.pendingPassivations());
+      assertNull(load("fail"));
+      assertNull(load("k1"));
+
+      // The batches passivated after the failure are still written
+      CompletionStages.join(passivate("k2", "v2"));
+      assertEquals("v2", store.loadEntry("k2").getValue());
+
+      // The eviction doesn't count the entry as passivated
+      CompletionStages.join(passivationManager.passivateAsync(TestInternalCacheEntryFactory.create("fail", "v")));
+      assertEquals(0, passivationManager.getPassivations());
+   }
+
+   public void testPassivateAllWritesSegmentsInParallel() throws Exception {
+      int numEntries = 100;
+      for (int i = 0; i < numEntries; ++i) {
+         cache.put("k" + i, "v" + i);
+      }
+      assertEquals(0, store.size());
+
+      blockBatches = true;
+      CompletionStage<Void> stage = passivationManager.passivateAllAsync();
+      // One batch per segment, as many at the same time as there are processors
+      int parallelism = Math.min(ProcessorInfo.availableProcessors(), NUM_SEGMENTS);
+      eventuallyEquals(parallelism, blockedBatches::size);
+      assertFalse(stage.toCompletableFuture().isDone());
+      assertEquals(parallelism, batches.size());
+
+      resumeBatches();
+      CompletionStages.join(stage);
+      assertEquals(NUM_SEGMENTS, batches.size());
+      for (List<Object> batch : batches) {
+         Set<Integer> segments = batch.stream().map(keyPartitioner::getSegment).collect(Collectors.toSet());
+         assertTrue(segments.toString(), segments.size() <= 1);
+      }
+      for (int i = 0; i < numEntries; ++i) {
+         assertEquals("v" + i, store.loadEntry("k" + i).getValue());
+      }
+   }
+
+   private CompletionStage<Void> passivate(Object key, Object value) {
+      return persistenceManager.passivate(MarshalledEntryUtil.create(key, value, cache), keyPartitioner.getSegment(key));
+   }
+
+   private MarshallableEntry<Object, Object> load(Object key) {
+      return CompletionStages.join(persistenceManager.loadFromAllStores(key, true, true));
+   }
+
+   private static void resumeBatches() {
+      blockBatches = false;
+      CompletableFuture<Void> batch;
+      while ((batch = blockedBatches.poll()) != null) {
+         batch.complete(null);
+      }
+   }
+
+   public static class BatchRecordingStoreConfigurationBuilder extends DummyInMemoryStoreConfigurationBuilder {
+      public BatchRecordingStoreConfigurationBuilder(PersistenceConfigurationBuilder builder) {
+         super(builder);
+      }
+
+      @Override
+      public BatchRecordingStoreConfiguration create() {
+         return new BatchRecordingStoreConfiguration(attributes.protect(), async.create());
+      }
+   }
+
+   @ConfigurationFor(BatchRecordingStore.class)
+   @BuiltBy(BatchRecordingStoreConfigurationBuilder.class)
+   public static class BatchRecordingStoreConfiguration extends DummyInMemoryStoreConfiguration {
+      public BatchRecordingStoreConfiguration(AttributeSet attributes, AsyncStoreConfiguration async) {
+         super(attributes, async);
+      }
+   }
+
+   public static class BatchRecordingStore extends DummyInMemoryStore {
+      @Override
+      public CompletionStage<Void> batch(int publisherCount, Publisher removePublisher, Publisher writePublisher) {
+         // Passivation only writes, read the whole batch before writing any of its entries
+         Flowable<NonBlockingStore.SegmentedPublisher<MarshallableEntry>> segmentPublishers =
+               Flowable.fromPublisher(writePublisher);
+         return segmentPublishers
+               .flatMapSingle(sp -> Flowable.fromPublisher(sp).toList()
+                     .map(entries -> new SegmentEntries(sp.getSegment(), entries)))
+               .toList()
+               .toCompletionStage()
+               .thenCompose(this::writeBatch);
+      }
+
+      private CompletionStage<Void> writeBatch(List<SegmentEntries> segmentEntries) {
+         List<Object> keys = new ArrayList<>();
+         segmentEntries.forEach(se -> se.entries.forEach(me -> keys.add(me.getKey())));
+         // The empty segments of passivateAll are batches too
+         batches.add(keys);
+         CompletableFuture<Void> resume = CompletableFutures.completedNull();
+         if (blockBatches) {
+            resume = new CompletableFuture<>();
+            blockedBatches.add(resume);
+         }
+         return resume.thenCompose(ignore -> {
+            if (keys.contains(failingKey)) {
+               return CompletableFutures.completedExceptionFuture(new PersistenceException("Failing batch " + keys));
+            }
+            return Flowable.fromIterable(segmentEntries)
+                  .concatMapCompletable(se -> Flowable.fromIterable(se.entries)
+                        .concatMapCompletable(me -> Completable.fromCompletionStage(write(se.segment, me))))
+                  .toCompletionStage(null);
+         });
+      }
+   }
+
+   private static class SegmentEntries {
+      final int segment;
+      final List<MarshallableEntry> entries;
+
+      SegmentEntries(int segment, List<MarshallableEntry> entries) {
+         this.segment = segment;
+         this.entries = entries;
+      }
+   }
+}
@@ -0,0 +1,194 @@
+package org.infinispan.persistence;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.infinispan.commons.CacheConfigurationException;
+import org.infinispan.commons.configuration.BuiltBy;
+import org.infinispan.commons.configuration.ConfigurationFor;
+import org.infinispan.commons.configuration.attributes.AttributeSet;
+import org.infinispan.commons.test.Exceptions;
+import org.infinispan.commons.util.IntSet;
+import org.infinispan.configuration.cache.AsyncStoreConfiguration;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.PersistenceConfigurationBuilder;
+import org.infinispan.context.Flag;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.persistence.dummy.DummyInMemoryStore;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfiguration;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.persistence.manager.PreloadStatistics;
+import org.infinispan.persistence.spi.MarshallableEntry;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.util.concurrent.CompletableFutures;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Tests that a preload in the background doesn't overwrite the keys written while it runs.
+ *
+ * @since 12.1
+ */
+@Test(groups = "functional", testName = "persistence.PreloadInBackgroundTest")
+public class PreloadInBackgroundTest extends SingleCacheManagerTest {
+   private static final int NUM_KEYS = 50;
+
+   // The store holds back the entry of this key after reading it, until the future completes
+   private static volatile Object blockedKey;
+   private static volatile CompletableFuture<Void> blockedKeyRead = new CompletableFuture<>();
+   private static volatile CompletableFuture<Void> resumePreload = CompletableFutures.completedNull();
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.persistence()
+            .preloadInBackground(true)
+            .preloadConcurrency(4)
+            // Slow enough for the writes below to happen before the preload completes
+            .preloadRate(100)
+            .addStore(BlockingPublishStoreConfigurationBuilder.class)
+            .storeName(getClass().getName())
+            .preload(true);
+      return TestCacheManagerFactory.createCacheManager(builder);
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void resumePreload() {
+      blockedKey = null;
+      resumePreload.complete(null);
+   }
+
+   public void testWritesDuringPreload() {
+      writeKeys();
+      cache.stop();
+      cache.start();
+
+      cache.put("k0", "new");
+      cache.remove("k1");
+
+      PreloadStatistics statistics = awaitPreload();
+      assertEquals(1.0, statistics.getProgress());
+      assertFalse(statistics.isInProgress());
+
+      assertEquals(NUM_KEYS - 1, cache.getAdvancedCache().getDataContainer().size());
+      assertEquals("new", cache.get("k0"));
+      assertNull(cache.get("k1"));
+      for (int i = 2; i < NUM_KEYS; i++) {
+         assertEquals("v" + i, cache.get("k" + i));
+      }
+   }
+
+   public void testRemoveBetweenReadAndInsert() throws Exception {
+      testWriteBetweenReadAndInsert(() -> cache.remove("k1"), null, null);
+   }
+
+   public void testRemoveWithoutStoreBetweenReadAndInsert() throws Exception {
+      // The store still has the entry, only the data container must not get it back
+      testWriteBetweenReadAndInsert(() -> cache.getAdvancedCache().withFlags(Flag.SKIP_CACHE_STORE).remove("k1"),
+            null, "v1");
+   }
+
+   public void testPutBetweenReadAndInsert() throws Exception {
+      testWriteBetweenReadAndInsert(() -> cache.put("k1", "new"), "new", "new");
+   }
+
+   public void testPutAndEvictBetweenReadAndInsert() throws Exception {
+      // The written key is no longer in memory, the preload must not insert the value it read before the write
+      testWriteBetweenReadAndInsert(() -> {
+         cache.put("k1", "new");
+         cache.evict("k1");
+      }, null, "new");
+   }
+
+   public void testPassivationNotAllowed() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.persistence()
+            .passivation(true)
+            .preloadInBackground(true)
+            .addStore(DummyInMemoryStoreConfigurationBuilder.class)
+            .preload(true);
+      Exceptions.expectException(CacheConfigurationException.class, builder::build);
+   }
+
+   private void testWriteBetweenReadAndInsert(Runnable write, Object expectedInMemory, Object expectedValue)
+         throws Exception {
+      writeKeys();
+      cache.stop();
+      blockedKey = "k1";
+      blockedKeyRead = new CompletableFuture<>();
+      resumePreload = new CompletableFuture<>();
+      cache.start();
+
+      // The store has returned the entry, but the preload hasn't inserted it yet
+      blockedKeyRead.get(10, TimeUnit.SECONDS);
+      write.run();
+      resumePreload.complete(null);
+
+      PreloadStatistics statistics = awaitPreload();
+      assertTrue(statistics.getDiscardedEntries() > 0);
+
+      assertEquals(expectedInMemory, cache.getAdvancedCache().withFlags(Flag.SKIP_CACHE_LOAD).get("k1"));
+      assertEquals(expectedValue, cache.get("k1"));
+      for (int i = 2; i < NUM_KEYS; i++) {
+         assertEquals("v" + i, cache.getAdvancedCache().withFlags(Flag.SKIP_CACHE_LOAD).get("k" + i));
+      }
+   }
+
+   private void writeKeys() {
+      for (int i = 0; i < NUM_KEYS; i++) {
+         cache.put("k" + i, "v" + i);
+      }
+   }
+
+   private PreloadStatistics awaitPreload() {
+      PersistenceManager persistenceManager = TestingUtil.extractComponent(cache, PersistenceManager.class);
+      eventually(() -> !persistenceManager.getPreloadStatistics().isInProgress());
+      return persistenceManager.getPreloadStatistics();
+   }
+
+   public static class BlockingPublishStoreConfigurationBuilder extends DummyInMemoryStoreConfigurationBuilder {
+      public BlockingPublishStoreConfigurationBuilder(PersistenceConfigurationBuilder builder) {
+         super(builder);
+      }
+
+      @Override
+      public BlockingPublishStoreConfiguration create() {
+         return new BlockingPublishStoreConfiguration(attributes.protect(), async.create());
+      }
+   }
+
+   @ConfigurationFor(BlockingPublishStore.class)
+   @BuiltBy(BlockingPublishStoreConfigurationBuilder.class)
+   public static class BlockingPublishStoreConfiguration extends DummyInMemoryStoreConfiguration {
+      public BlockingPublishStoreConfiguration(AttributeSet attributes, AsyncStoreConfiguration async) {
+         super(attributes, async);
+      }
+   }
+
+   public static class BlockingPublishStore extends DummyInMemoryStore {
+      @Override
+      public Flowable<MarshallableEntry> publishEntries(IntSet segments, Predicate filter, boolean fetchValue) {
+         return super.publishEntries(segments, filter, fetchValue)
+               .concatMapSingle(me -> {
+                  if (!me.getKey().equals(blockedKey)) {
+                     return Single.just(me);
+                  }
+                  blockedKeyRead.complete(null);
+                  // Without blocking the thread, so the cache can start
+                  return Single.fromCompletionStage(resumePreload.thenApply(ignore -> me));
+               });
+      }
+   }
+}
@@ -0,0 +1,78 @@
+package org.infinispan.persistence.file;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.SingleFileStoreConfigurationBuilder;
+import org.infinispan.configuration.cache.StorageType;
+import org.infinispan.marshall.persistence.impl.MarshalledEntryUtil;
+import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Factory;
+import org.testng.annotations.Test;
+
+/**
+ * Low level single-file cache store tests with the compact index enabled.
+ *
+ * @since 12.1
+ */
+@Test(groups = "unit", testName = "persistence.file.CompactIndexSingleFileStoreTest")
+public class CompactIndexSingleFileStoreTest extends SingleFileStoreTest {
+
+   @Factory
+   @Override
+   public Object[] factory() {
+      return new Object[]{
+            new CompactIndexSingleFileStoreTest().withStorageType(StorageType.OBJECT),
+      };
+   }
+
+   @Override
+   protected AdvancedLoadWriteStore createStore() {
+      clearTempDir();
+      SingleFileStore store = new SingleFileStore();
+      ConfigurationBuilder configurationBuilder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      configurationBuilder
+            .persistence()
+               .addStore(SingleFileStoreConfigurationBuilder.class)
+                  .location(this.tmpDirectory)
+                  .compactIndex(true)
+            .memory()
+               .storageType(storage);
+      store.init(createContext(configurationBuilder.build()));
+      return store;
+   }
+
+   public void testIndexRebuiltOnRestart() {
+      assertEquals(0, cl.size());
+      int numEntries = 1_000;
+      for (int i = 0; i < numEntries; ++i) {
+         cl.write(MarshalledEntryUtil.create("k" + i, "v" + i, getMarshaller()));
+      }
+      for (int i = 0; i < numEntries; i += 2) {
+         cl.write(MarshalledEntryUtil.create("k" + i, "replaced" + i, getMarshaller()));
+      }
+      for (int i = 0; i < numEntries; i += 10) {
+         cl.delete("k" + i);
+      }
+      int expectedSize = numEntries - numEntries / 10;
+      assertEquals(expectedSize, ((SingleFileStore) cl).getCompactIndex().size());
+
+      cl.stop();
+      cl.start();
+      SingleFileStore store = (SingleFileStore) cl;
+      assertNull(store.getEntries());
+      assertEquals(expectedSize, store.getCompactIndex().size());
+      assertEquals(expectedSize, cl.size());
+      for (int i = 0; i < numEntries; ++i) {
+         if (i % 10 == 0) {
+            assertNull(cl.loadEntry("k" + i));
+         } else {
+            assertNotNull(cl.loadEntry("k" + i));
+            assertEquals((i % 2 == 0 ? "replaced" : "v") + i, cl.loadEntry("k" + i).getValue());
+         }
+      }
+   }
+}
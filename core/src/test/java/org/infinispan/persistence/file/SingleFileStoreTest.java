@@ -1,12 +1,17 @@
 package org.infinispan.persistence.file;
 
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+
 import org.infinispan.commons.test.CommonsTestingUtil;
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.configuration.cache.SingleFileStoreConfigurationBuilder;
 import org.infinispan.configuration.cache.StorageType;
+import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.persistence.BaseStoreTest;
 import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.infinispan.persistence.spi.MarshallableEntry;
 import org.infinispan.test.fwk.TestCacheManagerFactory;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
@@ -68,4 +73,22 @@ protected AdvancedLoadWriteStore createStore() {
       store.init(createContext(configurationBuilder.build()));
       return store;
    }
+
+   public void testLoadAndStoreLargeEntry() throws Exception {
+      // Larger than the threshold above which the entry parts are written separately
+      String value = new String(new char[16 * 1024]).replace('\0', 'v');
+      long lifespan = 120000;
+      InternalCacheEntry<Object, Object> se = internalCacheEntry("k", value, lifespan);
+      cl.write(marshalledEntry(se));
+      cl.write(marshalledEntry(internalCacheEntry("k2", "v2", lifespan)));
+
+      cl.stop();
+      cl.start();
+      MarshallableEntry<Object, Object> me = cl.loadEntry("k");
+      assertNotNull(me);
+      assertEquals(value, unwrap(me.getValue()));
+      assertEquals(lifespan, me.getMetadata().lifespan());
+      assertEquals(se.getCreated(), me.created());
+      assertEquals("v2", unwrap(cl.loadEntry("k2").getValue()));
+   }
 }
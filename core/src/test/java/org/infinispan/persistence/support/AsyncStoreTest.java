@@ -28,6 +28,7 @@
 import org.infinispan.marshall.TestObjectStreamMarshaller;
 import org.infinispan.marshall.persistence.impl.MarshalledEntryUtil;
 import org.infinispan.persistence.async.AsyncNonBlockingStore;
+import org.infinispan.persistence.async.WriteBehindStatistics;
 import org.infinispan.persistence.dummy.DummyInMemoryStore;
 import org.infinispan.persistence.dummy.DummyInMemoryStoreConfiguration;
 import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
@@ -362,6 +363,44 @@ public void testModificationQueueSize(final Method m) {
       }
    }
 
+   public void testCoalescingWithFlushInterval(final Method m) {
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      builder.persistence()
+            .addStore(DummyInMemoryStoreConfigurationBuilder.class)
+               .storeName(m.getName())
+               .segmented(false)
+            .async()
+               .enable()
+               .flushInterval(TimeUnit.MINUTES.toMillis(10))
+               .flushSize(3)
+               .flushConcurrency(1);
+      DummyInMemoryStore underlying = new DummyInMemoryStore();
+      store = new AsyncNonBlockingStore<>(underlying);
+      InitializationContext ctx = PersistenceMockUtil.createContext(getClass(), builder.build(), marshaller);
+      CompletionStages.join(store.start(ctx));
+
+      for (int i = 0; i < 10; i++) {
+         CompletionStages.join(store.write(0, MarshalledEntryUtil.create(k(m), v(m, i), marshaller)));
+      }
+      CompletionStages.join(store.write(0, MarshalledEntryUtil.create(k(m, 1), v(m, 1), marshaller)));
+      CompletionStages.join(store.delete(0, k(m, 1)));
+
+      // Nothing is written before the flush interval elapses or the flush size is reached
+      assertEquals(0, underlying.size());
+      assertEquals(v(m, 9), CompletionStages.join(store.load(0, k(m))).getValue());
+      assertNull(CompletionStages.join(store.load(0, k(m, 1))));
+      WriteBehindStatistics statistics = store.getStatistics();
+      assertEquals(12, statistics.getSubmittedModifications());
+      assertEquals(10, statistics.getCoalescedModifications());
+      assertEquals(2, statistics.getQueueSize());
+
+      CompletionStages.join(store.write(0, MarshalledEntryUtil.create(k(m, 2), v(m, 2), marshaller)));
+      eventually(() -> store.getStatistics().getQueueSize() == 0);
+      assertEquals(2, underlying.size());
+      assertEquals(v(m, 9), CompletionStages.join(underlying.load(0, k(m))).getValue());
+      assertEquals(1, store.getStatistics().getFlushes());
+   }
+
    private static abstract class OneEntryCacheManagerCallable extends CacheManagerCallable {
       protected final Cache<String, String> cache;
       protected final DelayableStore store;
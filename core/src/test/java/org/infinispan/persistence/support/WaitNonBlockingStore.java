@@ -1,6 +1,8 @@
 package org.infinispan.persistence.support;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletionStage;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -73,6 +75,16 @@ default List<K> publishKeysWait(IntSet segments, Predicate<? super K> filter) {
             .toCompletionStage());
    }
 
+   default List<MarshallableEntry<K, V>> bulkLoadWait(Collection<?> keys) {
+      Map<Integer, List<Object>> keysBySegment = keys.stream()
+            .collect(Collectors.<Object, Integer>groupingBy(getKeyPartitioner()::getSegment));
+      Flowable<SegmentedPublisher<Object>> keyPublisher = Flowable.fromIterable(keysBySegment.entrySet())
+            .map(e -> SingleSegmentPublisher.singleSegment(e.getKey(), Flowable.fromIterable(e.getValue())));
+      return join(Flowable.fromPublisher(bulkLoad(Math.max(1, keysBySegment.size()), keyPublisher))
+            .collect(Collectors.toList())
+            .toCompletionStage());
+   }
+
    default List<MarshallableEntry<K, V>> purge() {
       return join(Flowable.fromPublisher(purgeExpired())
             .collect(Collectors.toList())
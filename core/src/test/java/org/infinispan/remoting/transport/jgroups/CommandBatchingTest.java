@@ -0,0 +1,232 @@
+package org.infinispan.remoting.transport.jgroups;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyShort;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.Cache;
+import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.commons.CacheException;
+import org.infinispan.commons.io.ByteBufferImpl;
+import org.infinispan.commons.test.Exceptions;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.remoting.inboundhandler.DeliverOrder;
+import org.infinispan.remoting.inboundhandler.InboundInvocationHandler;
+import org.infinispan.remoting.inboundhandler.Reply;
+import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.remoting.transport.impl.PassthroughSingleResponseCollector;
+import org.infinispan.remoting.transport.impl.Request;
+import org.infinispan.remoting.transport.impl.RequestRepository;
+import org.infinispan.remoting.transport.impl.SingleTargetRequest;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.xsite.XSiteReplicateCommand;
+import org.jgroups.Message;
+import org.jgroups.util.UUID;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the commands batched by the transport are all executed, get their own responses and are received in the
+ * order they were sent, that a broadcast doesn't wait for the batches queued before it, and that a batch that can't be
+ * sent fails its requests.
+ *
+ * @since 12.1
+ */
+@Test(groups = "functional", testName = "remoting.transport.jgroups.CommandBatchingTest")
+public class CommandBatchingTest extends MultipleCacheManagersTest {
+   private static final int NUM_KEYS = 500;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.REPL_SYNC);
+      for (int i = 0; i < 2; i++) {
+         GlobalConfigurationBuilder global = GlobalConfigurationBuilder.defaultClusteredBuilder();
+         // Long enough for the asynchronous writes below to share batches
+         global.transport().commandBatchWindow(10, TimeUnit.MILLISECONDS).commandBatchSize(8192);
+         addClusterEnabledCacheManager(global, builder);
+      }
+      waitForClusterToForm();
+   }
+
+   public void testBatchedWrites() throws Exception {
+      Cache<String, String> cache = cache(0);
+      JGroupsTransport transport = (JGroupsTransport) manager(0).getTransport();
+      long initialMessages = transport.getChannel().getSentMessages();
+
+      List<CompletableFuture<String>> futures = new ArrayList<>(NUM_KEYS);
+      for (int i = 0; i < NUM_KEYS; i++) {
+         futures.add(cache.putAsync("k" + i, "v" + i));
+      }
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+      assertTrue(transport.getChannel().getSentMessages() - initialMessages < NUM_KEYS);
+      for (int i = 0; i < NUM_KEYS; i++) {
+         assertEquals("v" + i, cache(1).get("k" + i));
+      }
+   }
+
+   public void testBatchedCommandsOrder() throws Exception {
+      RecordingInboundInvocationHandler recorder = TestingUtil.wrapGlobalComponent(manager(1),
+            InboundInvocationHandler.class, RecordingInboundInvocationHandler::new, true);
+      JGroupsTransport transport = (JGroupsTransport) manager(0).getTransport();
+      CommandsFactory commandsFactory = TestingUtil.extractCommandsFactory(cache(0));
+
+      List<Object> sentKeys = new ArrayList<>();
+      for (int i = 0; i < NUM_KEYS; i++) {
+         String key = "order-" + i;
+         // Mix in commands too large for a batch, and let some batches be sent by the window flush
+         Object value = i % 7 == 0 ? new byte[10000] : "v" + i;
+         ReplicableCommand command = commandsFactory.buildPutKeyValueCommand(key, value, 0,
+               new EmbeddedMetadata.Builder().build(), 0);
+         if (i % 100 == 50) {
+            transport.sendToMany(null, command, DeliverOrder.PER_SENDER);
+         } else {
+            transport.sendTo(address(1), command, DeliverOrder.PER_SENDER);
+         }
+         sentKeys.add(key);
+         if (i % 50 == 0) {
+            Thread.sleep(20);
+         }
+      }
+      eventuallyEquals(NUM_KEYS, recorder.receivedKeys::size);
+      assertEquals(sentKeys, recorder.receivedKeys);
+   }
+
+   public void testBroadcastDoesNotWaitForBatches() throws Exception {
+      JGroupsTransport transport = mock(JGroupsTransport.class);
+      when(transport.newMessage(any(), anyShort(), anyLong(), any())).thenCallRealMethod();
+      Message broadcast = new Message();
+      List<String> sentMessages = Collections.synchronizedList(new ArrayList<>());
+      CountDownLatch sendStarted = new CountDownLatch(1);
+      CountDownLatch sendReleased = new CountDownLatch(1);
+      doAnswer(invocation -> {
+         Message message = invocation.getArgument(0);
+         if (message == broadcast) {
+            sentMessages.add("broadcast");
+         } else {
+            sendStarted.countDown();
+            assertTrue(sendReleased.await(10, TimeUnit.SECONDS));
+            sentMessages.add("unicast-" + message.getLength());
+         }
+         return null;
+      }).when(transport).send(any(Message.class));
+      ScheduledExecutorService timeoutExecutor = Executors.newSingleThreadScheduledExecutor(getTestThreadFactory("Timeout"));
+      try {
+         CommandBatcher batcher = new CommandBatcher(transport, new RequestRepository(), timeoutExecutor,
+               testExecutor(), TimeUnit.MILLISECONDS.toMicros(10), 8192);
+         org.jgroups.Address destination = UUID.randomUUID();
+
+         // The window flush blocks while sending the first command
+         batcher.send(destination, (short) 0, Request.NO_REQUEST_ID, ByteBufferImpl.create(new byte[100]));
+         assertTrue(sendStarted.await(10, TimeUnit.SECONDS));
+
+         // Returns without waiting for the first command
+         batcher.sendToAll(broadcast, Request.NO_REQUEST_ID);
+         assertFalse(sentMessages.contains("broadcast"));
+         // Must not overtake the broadcast
+         batcher.send(destination, (short) 0, Request.NO_REQUEST_ID, ByteBufferImpl.create(new byte[10000]));
+
+         sendReleased.countDown();
+         eventuallyEquals(3, sentMessages::size);
+         assertEquals(Arrays.asList("unicast-100", "broadcast", "unicast-10000"), sentMessages);
+      } finally {
+         sendReleased.countDown();
+         timeoutExecutor.shutdownNow();
+      }
+   }
+
+   public void testFailedBatchFailsRequests() throws Exception {
+      JGroupsTransport transport = mock(JGroupsTransport.class);
+      when(transport.newMessage(any(), anyShort(), anyLong(), any())).thenCallRealMethod();
+      doThrow(new CacheException("Send failure")).when(transport).send(any(Message.class));
+      RequestRepository requests = new RequestRepository();
+      ScheduledExecutorService timeoutExecutor = Executors.newSingleThreadScheduledExecutor(getTestThreadFactory("Timeout"));
+      try {
+         CommandBatcher batcher = new CommandBatcher(transport, requests, timeoutExecutor, testExecutor(),
+               TimeUnit.MILLISECONDS.toMicros(10), 8192);
+         org.jgroups.Address destination = UUID.randomUUID();
+         Address target = new JGroupsAddress(destination);
+
+         List<Request<Response>> batchedRequests = new ArrayList<>();
+         for (int i = 0; i < 3; i++) {
+            SingleTargetRequest<Response> request = new SingleTargetRequest<>(
+                  PassthroughSingleResponseCollector.INSTANCE, requests.newRequestId(), requests, target);
+            requests.addRequest(request);
+            batcher.send(destination, (short) 0, request.getRequestId(), ByteBufferImpl.create(new byte[100]));
+            batchedRequests.add(request);
+         }
+         // A command without a response shares the batch
+         batcher.send(destination, (short) 0, Request.NO_REQUEST_ID, ByteBufferImpl.create(new byte[100]));
+         // Sent on its own, after the batch
+         SingleTargetRequest<Response> largeRequest = new SingleTargetRequest<>(
+               PassthroughSingleResponseCollector.INSTANCE, requests.newRequestId(), requests, target);
+         requests.addRequest(largeRequest);
+         batcher.send(destination, (short) 0, largeRequest.getRequestId(), ByteBufferImpl.create(new byte[10000]));
+         batchedRequests.add(largeRequest);
+
+         for (Request<Response> request : batchedRequests) {
+            Exceptions.expectCompletionException(CacheException.class, "Send failure", request);
+         }
+
+         // Only sent by the window flush
+         SingleTargetRequest<Response> windowRequest = new SingleTargetRequest<>(
+               PassthroughSingleResponseCollector.INSTANCE, requests.newRequestId(), requests, target);
+         requests.addRequest(windowRequest);
+         batcher.send(destination, (short) 0, windowRequest.getRequestId(), ByteBufferImpl.create(new byte[100]));
+         Exceptions.expectCompletionException(CacheException.class, "Send failure", windowRequest);
+      } finally {
+         timeoutExecutor.shutdownNow();
+      }
+   }
+
+   static class RecordingInboundInvocationHandler implements InboundInvocationHandler {
+      final InboundInvocationHandler delegate;
+      final List<Object> receivedKeys = Collections.synchronizedList(new ArrayList<>());
+
+      RecordingInboundInvocationHandler(InboundInvocationHandler delegate) {
+         this.delegate = delegate;
+      }
+
+      @Override
+      public void handleFromCluster(Address origin, ReplicableCommand command, Reply reply, DeliverOrder order) {
+         if (command instanceof PutKeyValueCommand) {
+            Object key = ((PutKeyValueCommand) command).getKey();
+            if (key instanceof String && ((String) key).startsWith("order-")) {
+               // Only record the order, the commands are not meant to be executed
+               receivedKeys.add(key);
+               return;
+            }
+         }
+         delegate.handleFromCluster(origin, command, reply, order);
+      }
+
+      @Override
+      public void handleFromRemoteSite(String origin, XSiteReplicateCommand<?> command, Reply reply,
+                                       DeliverOrder order) {
+         delegate.handleFromRemoteSite(origin, command, reply, order);
+      }
+   }
+}
@@ -0,0 +1,95 @@
+package org.infinispan.remoting.transport.jgroups;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.jgroups.util.UUID;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link ResponseLatencyTracker} and {@link LatencyHistogram}.
+ *
+ * @since 12.1
+ */
+@Test(groups = "unit", testName = "remoting.transport.jgroups.ResponseLatencyTrackerTest")
+public class ResponseLatencyTrackerTest extends AbstractInfinispanTest {
+   private final Address a = new JGroupsAddress(UUID.randomUUID());
+   private final Address b = new JGroupsAddress(UUID.randomUUID());
+   private final Address c = new JGroupsAddress(UUID.randomUUID());
+
+   public void testBucketBounds() {
+      for (long micros = 0; micros < 100_000; micros++) {
+         int index = LatencyHistogram.bucketIndex(micros);
+         assertTrue(LatencyHistogram.bucketUpperBound(index) >= micros);
+         if (index > 0) {
+            assertTrue(LatencyHistogram.bucketUpperBound(index - 1) < micros);
+         }
+      }
+   }
+
+   public void testPercentiles() {
+      LatencyHistogram histogram = new LatencyHistogram();
+      assertEquals(-1, histogram.percentile(0.5));
+
+      for (int i = 1; i <= 100; i++) {
+         histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+      }
+      assertWithin(50, TimeUnit.NANOSECONDS.toMillis(histogram.percentile(0.5)));
+      assertWithin(95, TimeUnit.NANOSECONDS.toMillis(histogram.percentile(0.95)));
+   }
+
+   public void testDecay() {
+      LatencyHistogram histogram = new LatencyHistogram();
+      for (int i = 0; i < LatencyHistogram.DECAY_INTERVAL; i++) {
+         histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+      }
+      assertWithin(1, TimeUnit.NANOSECONDS.toMillis(histogram.percentile(0.95)));
+
+      // After a few decay intervals the old samples no longer matter
+      for (int i = 0; i < 3 * LatencyHistogram.DECAY_INTERVAL; i++) {
+         histogram.record(TimeUnit.MILLISECONDS.toNanos(100));
+      }
+      assertWithin(100, TimeUnit.NANOSECONDS.toMillis(histogram.percentile(0.5)));
+   }
+
+   public void testPreferFastest() {
+      ResponseLatencyTracker tracker = new ResponseLatencyTracker();
+      List<Address> targets = Arrays.asList(a, b, c);
+      // No measurements yet, keep the primary owner first
+      assertEquals(targets, tracker.preferFastest(targets));
+
+      record(tracker, a, 10);
+      record(tracker, b, 8);
+      // Not fast enough to move ahead
+      assertEquals(targets, tracker.preferFastest(targets));
+
+      record(tracker, c, 1);
+      assertEquals(Arrays.asList(c, a, b), tracker.preferFastest(targets));
+
+      tracker.retainAll(Arrays.asList(a, b));
+      assertEquals(targets, tracker.preferFastest(targets));
+
+      Collection<Address> single = Collections.singletonList(a);
+      assertEquals(single, tracker.preferFastest(single));
+   }
+
+   private void record(ResponseLatencyTracker tracker, Address target, long millis) {
+      for (int i = 0; i < LatencyHistogram.MIN_SAMPLES; i++) {
+         tracker.recordResponseTime(target, TimeUnit.MILLISECONDS.toNanos(millis));
+      }
+   }
+
+   private void assertWithin(long expected, long actual) {
+      // The histogram has a resolution of 25%
+      assertTrue("Expected ~" + expected + " but got " + actual,
+            actual >= expected && actual <= expected * 5 / 4 + 1);
+   }
+}
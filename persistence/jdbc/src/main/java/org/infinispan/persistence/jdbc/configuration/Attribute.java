@@ -29,6 +29,7 @@ public enum Attribute {
    PASSWORD("password"),
    PREFIX("prefix"),
    PROPERTIES_FILE("properties-file"),
+   SEGMENT_GROUPS("segment-groups"),
    TYPE("type"),
    USERNAME("username")
    ;
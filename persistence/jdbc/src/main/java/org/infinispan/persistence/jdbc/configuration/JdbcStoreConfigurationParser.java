@@ -213,6 +213,10 @@ private void parseTable(XMLExtendedStreamReader reader, TableManipulationConfigu
                builder.tableNamePrefix(value);
                break;
             }
+            case SEGMENT_GROUPS: {
+               builder.segmentGroups(Integer.parseInt(value));
+               break;
+            }
             default: {
                throw ParseUtils.unexpectedAttribute(reader, i);
             }
@@ -1,11 +1,13 @@
 package org.infinispan.persistence.jdbc.configuration;
 
+import static org.infinispan.configuration.cache.AbstractStoreConfiguration.SEGMENTED;
 import static org.infinispan.persistence.jdbc.configuration.Element.CONNECTION_POOL;
 import static org.infinispan.persistence.jdbc.configuration.Element.DATA_SOURCE;
 import static org.infinispan.persistence.jdbc.configuration.Element.SIMPLE_CONNECTION;
 import static org.infinispan.persistence.jdbc.configuration.Element.STRING_KEYED_TABLE;
 import static org.infinispan.persistence.jdbc.configuration.JdbcStringBasedStoreConfiguration.KEY2STRING_MAPPER;
 import static org.infinispan.persistence.jdbc.configuration.JdbcStringBasedStoreConfiguration.PROPERTIES;
+import static org.infinispan.persistence.jdbc.logging.Log.CONFIG;
 
 import java.util.Collection;
 import java.util.Collections;
@@ -104,6 +106,9 @@ public StringTableManipulationConfigurationBuilder table() {
    public void validate() {
       table.validate();
       super.validate();
+      if (table.segmentGroups() > 0 && !attributes.attribute(SEGMENTED).get()) {
+         throw CONFIG.segmentGroupsRequireSegmentation();
+      }
    }
 
    @Override
@@ -23,9 +23,10 @@ public class TableManipulationConfiguration implements ConfigurationInfo {
    public static final AttributeDefinition<Integer> FETCH_SIZE = AttributeDefinition.builder("fetchSize", TableManager.DEFAULT_FETCH_SIZE).immutable().build();
    public static final AttributeDefinition<Boolean> CREATE_ON_START = AttributeDefinition.builder("createOnStart", true).immutable().build();
    public static final AttributeDefinition<Boolean> DROP_ON_EXIT = AttributeDefinition.builder("dropOnExit", false).immutable().build();
+   public static final AttributeDefinition<Integer> SEGMENT_GROUPS = AttributeDefinition.builder("segmentGroups", 0).immutable().build();
 
    static AttributeSet attributeSet() {
-      return new AttributeSet(TableManipulationConfiguration.class, TABLE_NAME_PREFIX, CACHE_NAME, BATCH_SIZE, FETCH_SIZE, CREATE_ON_START, DROP_ON_EXIT);
+      return new AttributeSet(TableManipulationConfiguration.class, TABLE_NAME_PREFIX, CACHE_NAME, BATCH_SIZE, FETCH_SIZE, CREATE_ON_START, DROP_ON_EXIT, SEGMENT_GROUPS);
    }
 
    static ElementDefinition ELEMENT_DEFINITION = new DefaultElementDefinition(STRING_KEYED_TABLE.getLocalName());
@@ -37,6 +38,7 @@ static AttributeSet attributeSet() {
    private final Attribute<Integer> fetchSize;
    private final Attribute<Boolean> createOnStart;
    private final Attribute<Boolean> dropOnExit;
+   private final Attribute<Integer> segmentGroups;
    private final AttributeSet attributes;
 
    private final IdColumnConfiguration idColumn;
@@ -57,6 +59,7 @@ static AttributeSet attributeSet() {
       fetchSize = attributes.attribute(FETCH_SIZE);
       createOnStart = attributes.attribute(CREATE_ON_START);
       dropOnExit = attributes.attribute(DROP_ON_EXIT);
+      segmentGroups = attributes.attribute(SEGMENT_GROUPS);
       this.idColumn = idColumn;
       this.dataColumn = dataColumn;
       this.timeStamp = timestampColumn;
@@ -126,6 +129,13 @@ public int fetchSize() {
       return fetchSize.get();
    }
 
+   /**
+    * @return the number of groups the segments of the table are partitioned in or 0 if the table is not partitioned
+    */
+   public int segmentGroups() {
+      return segmentGroups.get();
+   }
+
    /**
     * @deprecated please use {@link org.infinispan.configuration.cache.AbstractStoreConfiguration#maxBatchSize()} instead.
     * @return the size of batches to process.  Guaranteed to be a power of two.
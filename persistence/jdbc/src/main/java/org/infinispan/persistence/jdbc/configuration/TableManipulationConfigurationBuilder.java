@@ -4,6 +4,7 @@
 import static org.infinispan.persistence.jdbc.configuration.TableManipulationConfiguration.CREATE_ON_START;
 import static org.infinispan.persistence.jdbc.configuration.TableManipulationConfiguration.DROP_ON_EXIT;
 import static org.infinispan.persistence.jdbc.configuration.TableManipulationConfiguration.FETCH_SIZE;
+import static org.infinispan.persistence.jdbc.configuration.TableManipulationConfiguration.SEGMENT_GROUPS;
 import static org.infinispan.persistence.jdbc.configuration.TableManipulationConfiguration.TABLE_NAME_PREFIX;
 import static org.infinispan.persistence.jdbc.logging.Log.CONFIG;
 
@@ -76,6 +77,22 @@ public S fetchSize(int fetchSize) {
       return self();
    }
 
+   /**
+    * Partitions the segments of the table in the given number of groups of contiguous segments. State transfer
+    * and size operations then run one query per group in parallel, bounded by the size of the connection pool, and on
+    * databases with native partitioning, like PostgreSQL, each group is stored in its own partition that is truncated
+    * when all of its segments are removed. Requires a segmented store and, for the partitions, a new table.
+    * Defaults to 0, which keeps all the segments in a single table.
+    */
+   public S segmentGroups(int segmentGroups) {
+      attributes.attribute(SEGMENT_GROUPS).set(segmentGroups);
+      return self();
+   }
+
+   int segmentGroups() {
+      return attributes.attribute(SEGMENT_GROUPS).get();
+   }
+
    /**
     * Sets the prefix for the name of the table where the data will be stored. "_<cache name>" will
     * be appended to this prefix in order to enforce unique table names for each cache.
@@ -176,6 +193,9 @@ public void validate() {
       dataColumn.validate();
       timeStampColumn.validate();
       segmentColumn.validate();
+      if (attributes.attribute(SEGMENT_GROUPS).get() < 0) {
+         throw CONFIG.invalidSegmentGroups(attributes.attribute(SEGMENT_GROUPS).get());
+      }
    }
 
    static void validateIfSet(AttributeSet attributes, AttributeDefinition<?>... definitions) {
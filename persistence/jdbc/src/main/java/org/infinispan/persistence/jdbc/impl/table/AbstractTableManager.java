@@ -15,6 +15,8 @@
 
 import org.infinispan.commons.io.ByteBuffer;
 import org.infinispan.commons.marshall.ProtoStreamTypeIds;
+import org.infinispan.commons.util.IntSet;
+import org.infinispan.commons.util.IntSets;
 import org.infinispan.commons.util.Version;
 import org.infinispan.persistence.jdbc.JdbcUtil;
 import org.infinispan.persistence.jdbc.configuration.TableManipulationConfiguration;
@@ -34,6 +36,7 @@ public abstract class AbstractTableManager implements TableManager {
 
    private static final String DEFAULT_IDENTIFIER_QUOTE_STRING = "\"";
    private static final String META_TABLE_SUFFIX = "_META";
+   private static final String SEGMENT_GROUP_TABLE_SUFFIX = "_P";
    private static final String META_TABLE_DATA_COLUMN = "data";
 
    private final Log log;
@@ -47,7 +50,9 @@ public abstract class AbstractTableManager implements TableManager {
    protected final DbMetaData dbMetadata;
    protected final TableName dataTableName;
    protected final TableName metaTableName;
+   protected final String cacheName;
    protected MetadataImpl metadata;
+   private final IntSet[] segmentGroups;
 
    // the field order is important because we are reusing some sql
    private final String insertRowSql;
@@ -77,7 +82,9 @@ public abstract class AbstractTableManager implements TableManager {
       this.dbMetadata = dbMetadata;
       this.dataTableName = new TableName(identifierQuoteString, config.tableNamePrefix(), cacheName);
       this.metaTableName = new TableName(identifierQuoteString, config.tableNamePrefix(), cacheName + META_TABLE_SUFFIX);
+      this.cacheName = cacheName;
       this.identifierQuoteString = identifierQuoteString;
+      this.segmentGroups = initSegmentGroups();
       this.log = log;
 
       // init row sql
@@ -96,6 +103,31 @@ public abstract class AbstractTableManager implements TableManager {
       ctx.getPersistenceMarshaller().register(new PersistenceContextInitializerImpl());
    }
 
+   private IntSet[] initSegmentGroups() {
+      if (config.segmentGroups() <= 0 || dbMetadata.isSegmentedDisabled()) {
+         return new IntSet[0];
+      }
+      int numSegments = ctx.getCache().getCacheConfiguration().clustering().hash().numSegments();
+      int numGroups = Math.min(config.segmentGroups(), numSegments);
+      IntSet[] groups = new IntSet[numGroups];
+      for (int group = 0; group < numGroups; ++group) {
+         IntSet segments = IntSets.mutableEmptySet(numSegments);
+         for (int segment = segmentGroupStart(group, numGroups, numSegments);
+              segment < segmentGroupStart(group + 1, numGroups, numSegments); ++segment) {
+            segments.set(segment);
+         }
+         groups[group] = IntSets.immutableSet(segments);
+      }
+      return groups;
+   }
+
+   /**
+    * @return the first segment of the given group, the groups hold contiguous ranges of segments of (almost) equal size
+    */
+   protected static int segmentGroupStart(int group, int numGroups, int numSegments) {
+      return (int) ((long) group * numSegments / numGroups);
+   }
+
    @Override
    public void start() throws PersistenceException {
       if (config.createOnStart()) {
@@ -140,7 +172,7 @@ public boolean tableExists(Connection connection, TableName tableName) {
          // explicit set of the schema to the current user one to make sure only tables of the current users are requested
          DatabaseMetaData metaData = connection.getMetaData();
          String schemaPattern = tableName.getSchema();
-         rs = metaData.getTables(null, schemaPattern, tableName.getName(), new String[]{"TABLE"});
+         rs = metaData.getTables(null, schemaPattern, tableName.getName(), getTableTypes());
          return rs.next();
       } catch (SQLException e) {
          if (log.isTraceEnabled())
@@ -151,6 +183,13 @@ public boolean tableExists(Connection connection, TableName tableName) {
       }
    }
 
+   /**
+    * @return the table types reported by the database metadata for the tables created by this manager
+    */
+   protected String[] getTableTypes() {
+      return new String[]{"TABLE"};
+   }
+
    @Override
    public void createMetaTable(Connection conn) throws PersistenceException {
       // Store using internal names for columns and store as binary using the provided dataColumnType so no additional configuration is required
@@ -323,6 +362,29 @@ public TableName getMetaTableName() {
       return metaTableName;
    }
 
+   @Override
+   public int getSegmentGroups() {
+      return segmentGroups.length;
+   }
+
+   @Override
+   public IntSet getSegmentGroup(int group) {
+      return segmentGroups[group];
+   }
+
+   @Override
+   public String getTruncateSegmentGroupSql(int group) {
+      return null;
+   }
+
+   /**
+    * @return the name of the table that holds the rows of the given segment group, for databases that store every
+    * segment group in its own partition
+    */
+   protected TableName getSegmentGroupTableName(int group) {
+      return new TableName(identifierQuoteString, config.tableNamePrefix(), cacheName + SEGMENT_GROUP_TABLE_SUFFIX + group);
+   }
+
    public String getIndexName(boolean withIdentifier, String indexExt) {
       String plainTableName = dataTableName.toString().replace(identifierQuoteString, "");
       String indexName = plainTableName + "_" + indexExt;
@@ -367,6 +429,35 @@ public String getSelectRowSql() {
       return selectRowSql;
    }
 
+   @Override
+   public String getSelectRowsSql(int numKeys) {
+      StringBuilder stringBuilder = new StringBuilder("SELECT ");
+      stringBuilder.append(config.idColumnName());
+      stringBuilder.append(", ");
+      stringBuilder.append(config.dataColumnName());
+      stringBuilder.append(" FROM ");
+      stringBuilder.append(dataTableName);
+      stringBuilder.append(" WHERE ");
+      stringBuilder.append(config.idColumnName());
+      stringBuilder.append(" IN (");
+      stringBuilder.append(idParameter());
+
+      for (int i = 1; i < numKeys; ++i) {
+         stringBuilder.append(",");
+         stringBuilder.append(idParameter());
+      }
+      stringBuilder.append(")");
+
+      return stringBuilder.toString();
+   }
+
+   /**
+    * @return the parameter used to compare against the id column
+    */
+   protected String idParameter() {
+      return "?";
+   }
+
    protected String initSelectIdRowSql() {
       return String.format("SELECT %s FROM %s WHERE %s = ?", config.idColumnName(), dataTableName, config.idColumnName());
    }
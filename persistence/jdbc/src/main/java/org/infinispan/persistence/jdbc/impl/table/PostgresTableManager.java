@@ -1,7 +1,13 @@
 package org.infinispan.persistence.jdbc.impl.table;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
 
+import org.infinispan.persistence.jdbc.JdbcUtil;
 import org.infinispan.persistence.jdbc.configuration.TableManipulationConfiguration;
 import org.infinispan.persistence.jdbc.connectionfactory.ConnectionFactory;
 import org.infinispan.persistence.jdbc.logging.Log;
@@ -16,8 +22,162 @@ class PostgresTableManager extends AbstractTableManager {
 
    private static final Log log = LogFactory.getLog(PostgresTableManager.class, Log.class);
 
+   private final String partitionedUpsertRowSql;
+   // The layout of the existing data table, which may have been created with a different configuration
+   private volatile boolean partitionedTable;
+   private volatile boolean partitionsMatchSegmentGroups;
+
    PostgresTableManager(InitializationContext ctx, ConnectionFactory connectionFactory, TableManipulationConfiguration config, DbMetaData metaData, String cacheName) {
       super(ctx, connectionFactory, config, metaData, cacheName, log);
+      // The primary key of a partitioned table includes the segment
+      partitionedUpsertRowSql = String.format("%1$s ON CONFLICT (%2$s, %3$s) DO UPDATE SET %4$s = EXCLUDED.%4$s, %5$s = EXCLUDED.%5$s",
+            getInsertRowSql(), config.idColumnName(), config.segmentColumnName(), config.dataColumnName(),
+            config.timestampColumnName());
+   }
+
+   /**
+    * Primary keys on partitioned tables were added in Postgres 11
+    */
+   private boolean isPartitioningSupported() {
+      return dbMetadata.getMajorVersion() >= 11;
+   }
+
+   @Override
+   public void start() throws PersistenceException {
+      Connection conn = null;
+      try {
+         conn = connectionFactory.getConnection();
+         readPartitionLayout(conn);
+      } finally {
+         connectionFactory.releaseConnection(conn);
+      }
+      super.start();
+      if (getSegmentGroups() > 0 && isPartitioningSupported() && !partitionsMatchSegmentGroups) {
+         log.partitionsDoNotMatchSegmentGroups(dataTableName, getSegmentGroups());
+      }
+   }
+
+   private void readPartitionLayout(Connection conn) throws PersistenceException {
+      partitionedTable = false;
+      partitionsMatchSegmentGroups = false;
+      if (!isPartitioningSupported()) {
+         return;
+      }
+      PreparedStatement ps = null;
+      ResultSet rs = null;
+      try {
+         ps = conn.prepareStatement("SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(?)");
+         ps.setString(1, dataTableName.toString());
+         rs = ps.executeQuery();
+         if (!rs.next()) {
+            // The table doesn't exist yet or it was created without segment groups
+            return;
+         }
+         JdbcUtil.safeClose(rs);
+         JdbcUtil.safeClose(ps);
+
+         Map<String, String> partitionBounds = new HashMap<>();
+         ps = conn.prepareStatement("SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) FROM pg_inherits i " +
+               "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = to_regclass(?)");
+         ps.setString(1, dataTableName.toString());
+         rs = ps.executeQuery();
+         while (rs.next()) {
+            partitionBounds.put(rs.getString(1), rs.getString(2));
+         }
+         partitionedTable = true;
+         partitionsMatchSegmentGroups = matchesSegmentGroups(partitionBounds);
+         if (log.isTraceEnabled()) {
+            log.tracef("Table %s is partitioned with bounds %s, matching the segment groups: %s", dataTableName,
+                  partitionBounds, partitionsMatchSegmentGroups);
+         }
+      } catch (SQLException e) {
+         throw new PersistenceException(e);
+      } finally {
+         JdbcUtil.safeClose(rs);
+         JdbcUtil.safeClose(ps);
+      }
+   }
+
+   /**
+    * A partition can only be truncated if it holds exactly the segments of its group, otherwise it may hold segments
+    * that are still owned, e.g. after the number of segment groups changed.
+    */
+   private boolean matchesSegmentGroups(Map<String, String> partitionBounds) {
+      int numGroups = getSegmentGroups();
+      if (numGroups == 0 || partitionBounds.size() != numGroups) {
+         return false;
+      }
+      int numSegments = ctx.getCache().getCacheConfiguration().clustering().hash().numSegments();
+      for (int group = 0; group < numGroups; ++group) {
+         String bounds = String.format("FOR VALUES FROM (%d) TO (%d)", segmentGroupStart(group, numGroups, numSegments),
+               segmentGroupStart(group + 1, numGroups, numSegments));
+         if (!bounds.equals(partitionBounds.get(getSegmentGroupTableName(group).getName()))) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   @Override
+   protected String[] getTableTypes() {
+      return new String[]{"TABLE", "PARTITIONED TABLE"};
+   }
+
+   @Override
+   public void createDataTable(Connection conn) throws PersistenceException {
+      if (getSegmentGroups() == 0 || !isPartitioningSupported()) {
+         super.createDataTable(conn);
+         return;
+      }
+      // The primary key of a partitioned table must include the partition key, the segment depends only on the id anyway
+      String ddl = String.format("CREATE TABLE %1$s (%2$s %3$s NOT NULL, %4$s %5$s NOT NULL, %6$s %7$s NOT NULL, %8$s %9$s NOT NULL, PRIMARY KEY (%2$s, %8$s)) PARTITION BY RANGE (%8$s)",
+            dataTableName, config.idColumnName(), config.idColumnType(), config.dataColumnName(),
+            config.dataColumnType(), config.timestampColumnName(), config.timestampColumnType(),
+            config.segmentColumnName(), config.segmentColumnType());
+      if (log.isTraceEnabled()) {
+         log.tracef("Creating table with following DDL: '%s'.", ddl);
+      }
+      executeUpdateSql(conn, ddl);
+
+      int numSegments = ctx.getCache().getCacheConfiguration().clustering().hash().numSegments();
+      for (int group = 0; group < getSegmentGroups(); ++group) {
+         ddl = String.format("CREATE TABLE %s PARTITION OF %s FOR VALUES FROM (%d) TO (%d)",
+               getSegmentGroupTableName(group), dataTableName,
+               segmentGroupStart(group, getSegmentGroups(), numSegments),
+               segmentGroupStart(group + 1, getSegmentGroups(), numSegments));
+         if (log.isTraceEnabled()) {
+            log.tracef("Creating partition with following DDL: '%s'.", ddl);
+         }
+         executeUpdateSql(conn, ddl);
+      }
+      partitionedTable = true;
+      partitionsMatchSegmentGroups = true;
+   }
+
+   @Override
+   protected boolean indexExists(String indexName, Connection conn) throws PersistenceException {
+      if (!partitionedTable) {
+         return super.indexExists(indexName, conn);
+      }
+      // The driver metadata does not report the indexes of partitioned tables
+      PreparedStatement ps = null;
+      ResultSet rs = null;
+      try {
+         ps = conn.prepareStatement("SELECT 1 FROM pg_indexes WHERE indexname = ?");
+         ps.setString(1, indexName);
+         rs = ps.executeQuery();
+         return rs.next();
+      } catch (SQLException e) {
+         throw new PersistenceException(e);
+      } finally {
+         JdbcUtil.safeClose(rs);
+         JdbcUtil.safeClose(ps);
+      }
+   }
+
+   @Override
+   public String getTruncateSegmentGroupSql(int group) {
+      return partitionsMatchSegmentGroups ? "TRUNCATE TABLE " + getSegmentGroupTableName(group) : null;
    }
 
    @Override
@@ -40,6 +200,11 @@ public String initSelectRowSql() {
                                    config.idColumnName(), config.idColumnType());
    }
 
+   @Override
+   protected String idParameter() {
+      return String.format("cast(? as %s)", config.idColumnType());
+   }
+
    @Override
    public String initSelectIdRowSql() {
       return String.format("SELECT %s FROM %s WHERE %s = cast(? as %s)",
@@ -66,4 +231,9 @@ public String initUpsertRowSql() {
                getInsertRowSql(), config.idColumnName(), config.dataColumnName(),
                config.timestampColumnName());
    }
+
+   @Override
+   public String getUpsertRowSql() {
+      return partitionedTable ? partitionedUpsertRowSql : super.getUpsertRowSql();
+   }
 }
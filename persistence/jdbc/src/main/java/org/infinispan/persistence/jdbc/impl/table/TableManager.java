@@ -5,6 +5,7 @@
 import java.sql.SQLException;
 
 import org.infinispan.commons.io.ByteBuffer;
+import org.infinispan.commons.util.IntSet;
 import org.infinispan.persistence.spi.PersistenceException;
 
 /**
@@ -61,6 +62,11 @@ default void dropTables(Connection conn) throws PersistenceException {
 
    String getSelectRowSql();
 
+   /**
+    * @return the select of the id and data columns of the rows with any of the given number of ids
+    */
+   String getSelectRowsSql(int numKeys);
+
    String getSelectIdRowSql();
 
    String getCountNonExpiredRowsSql();
@@ -81,6 +87,22 @@ default void dropTables(Connection conn) throws PersistenceException {
 
    String getSelectOnlyExpiredRowsSql();
 
+   /**
+    * @return the number of groups of contiguous segments the table is partitioned in or 0 if it is not partitioned
+    */
+   int getSegmentGroups();
+
+   /**
+    * @return the segments of the given segment group
+    */
+   IntSet getSegmentGroup(int group);
+
+   /**
+    * @return the statement that removes all the rows of the given segment group at once or {@code null} if the rows
+    * must be removed with {@link #getDeleteRowsSqlForSegments(int)}
+    */
+   String getTruncateSegmentGroupSql(int group);
+
    boolean isStringEncodingRequired();
 
    String encodeString(String stringToEncode);
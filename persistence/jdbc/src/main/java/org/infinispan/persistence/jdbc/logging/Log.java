@@ -185,4 +185,17 @@ public interface Log extends BasicLogger {
    @LogMessage(level = ERROR)
    @Message(value = "Error retrieving JDBC metadata", id = 8041)
    void sqlFailureMetaRetrieval(@Cause SQLException e);
+
+   @Message(value = "Error whilst reading keys in batch from the database. Keys: %s", id = 8042)
+   PersistenceException sqlFailureReadingBatch(Iterable<?> keys, @Cause Exception e);
+
+   @Message(value = "Invalid number of segment groups %d, it must be 0 or greater", id = 8043)
+   CacheConfigurationException invalidSegmentGroups(int segmentGroups);
+
+   @Message(value = "Segment groups require a segmented store", id = 8044)
+   CacheConfigurationException segmentGroupsRequireSegmentation();
+
+   @LogMessage(level = WARN)
+   @Message(value = "The partitions of table %s do not match the %d configured segment groups, the rows of removed segments will be deleted instead of truncated", id = 8045)
+   void partitionsDoNotMatchSegmentGroups(Object tableName, int segmentGroups);
 }
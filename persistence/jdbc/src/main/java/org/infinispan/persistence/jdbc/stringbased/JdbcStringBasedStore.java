@@ -10,9 +10,15 @@
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.PrimitiveIterator;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
@@ -31,6 +37,8 @@
 import org.infinispan.commons.time.TimeService;
 import org.infinispan.commons.util.AbstractIterator;
 import org.infinispan.commons.util.IntSet;
+import org.infinispan.commons.util.IntSets;
+import org.infinispan.commons.util.ProcessorInfo;
 import org.infinispan.commons.util.Util;
 import org.infinispan.distribution.ch.KeyPartitioner;
 import org.infinispan.marshall.persistence.PersistenceMarshaller;
@@ -39,6 +47,7 @@
 import org.infinispan.persistence.jdbc.JdbcUtil;
 import org.infinispan.persistence.jdbc.configuration.JdbcStringBasedStoreConfiguration;
 import org.infinispan.persistence.jdbc.connectionfactory.ConnectionFactory;
+import org.infinispan.persistence.jdbc.impl.connectionfactory.PooledConnectionFactory;
 import org.infinispan.persistence.jdbc.impl.table.TableManager;
 import org.infinispan.persistence.jdbc.impl.table.TableManagerFactory;
 import org.infinispan.persistence.jdbc.logging.Log;
@@ -58,6 +67,9 @@
 import org.reactivestreams.Publisher;
 
 import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 
 /**
  * {@link org.infinispan.persistence.spi.AdvancedCacheLoader} implementation that stores the entries in a database.
@@ -103,6 +115,8 @@
    private TableManager tableManager;
    private TimeService timeService;
    private KeyPartitioner keyPartitioner;
+   private Scheduler segmentGroupScheduler;
+   private int segmentGroupConcurrency;
 
    @Override
    public void init(InitializationContext ctx) {
@@ -174,6 +188,46 @@ public void start() {
       if (ctx.getCache().getCacheConfiguration() != null && ctx.getCache().getCacheConfiguration().clustering().cacheMode().isDistributed()) {
          enforceTwoWayMapper("distribution/rehashing");
       }
+      if (tableManager.getSegmentGroups() > 0) {
+         segmentGroupScheduler = Schedulers.from(ctx.getExecutor());
+         segmentGroupConcurrency = Math.min(tableManager.getSegmentGroups(), maxSegmentGroupQueries());
+      }
+   }
+
+   /**
+    * The segment groups are queried in parallel with at most half of the connections of the pool, so that the other
+    * operations of the store can still get a connection.
+    */
+   private int maxSegmentGroupQueries() {
+      if (connectionFactory instanceof PooledConnectionFactory) {
+         return Math.max(1, ((PooledConnectionFactory) connectionFactory).getMaxPoolSize() / 2);
+      }
+      return ProcessorInfo.availableProcessors();
+   }
+
+   /**
+    * Splits the given segments by segment group.
+    * @param segments the segments to split or {@code null} for all the segments
+    * @return the non empty subsets of the segments that belong to the same segment group or {@code null} if the table
+    * is not partitioned in segment groups
+    */
+   private List<IntSet> splitBySegmentGroup(IntSet segments) {
+      int segmentGroups = tableManager.getSegmentGroups();
+      if (segmentGroups == 0) {
+         return null;
+      }
+      List<IntSet> groups = new ArrayList<>(segmentGroups);
+      for (int group = 0; group < segmentGroups; ++group) {
+         IntSet groupSegments = tableManager.getSegmentGroup(group);
+         if (segments != null) {
+            groupSegments = IntSets.mutableCopyFrom(groupSegments);
+            groupSegments.retainAll(segments);
+         }
+         if (!groupSegments.isEmpty()) {
+            groups.add(groupSegments);
+         }
+      }
+      return groups;
    }
 
    private void migrateFromV11() throws SQLException {
@@ -488,6 +542,72 @@ public MarshallableEntry<K, V> loadEntry(Object key) {
       return entry;
    }
 
+   @Override
+   public Collection<MarshallableEntry<K, V>> loadEntries(Collection<?> keys) {
+      Map<String, Object> keysByString = new HashMap<>(keys.size());
+      for (Object key : keys) {
+         keysByString.put(key2Str(key), key);
+      }
+      List<MarshallableEntry<K, V>> entries = new ArrayList<>(keys.size());
+      Set<String> remaining = new HashSet<>(keysByString.keySet());
+      int batchSize = Math.max(1, configuration.maxBatchSize());
+      Iterator<String> iterator = keysByString.keySet().iterator();
+      long now = timeService.wallClockTime();
+      boolean unmatchedRows = false;
+      Connection conn = null;
+      PreparedStatement ps = null;
+      ResultSet rs = null;
+      try {
+         conn = connectionFactory.getConnection();
+         // Select the rows with an IN list of at most batch size ids, instead of a statement per key
+         int remainingKeys = keysByString.size();
+         while (remainingKeys > 0) {
+            int count = Math.min(batchSize, remainingKeys);
+            ps = conn.prepareStatement(tableManager.getSelectRowsSql(count));
+            for (int i = 1; i <= count; ++i) {
+               ps.setString(i, iterator.next());
+            }
+            rs = ps.executeQuery();
+            while (rs.next()) {
+               String keyStr = rs.getString(1);
+               Object key = keysByString.get(keyStr);
+               if (key == null) {
+                  // The database returned the id in another form, the keys without a row are loaded individually
+                  unmatchedRows = true;
+                  continue;
+               }
+               remaining.remove(keyStr);
+               MarshalledValue value = unmarshall(rs.getBinaryStream(2), marshaller);
+               MarshallableEntry<K, V> entry = marshalledEntryFactory.create(key, value);
+               if (entry.getMetadata() == null || !entry.isExpired(now)) {
+                  entries.add(entry);
+               }
+            }
+            JdbcUtil.safeClose(rs);
+            JdbcUtil.safeClose(ps);
+            rs = null;
+            ps = null;
+            remainingKeys -= count;
+         }
+      } catch (SQLException e) {
+         throw PERSISTENCE.sqlFailureReadingBatch(keys, e);
+      } finally {
+         JdbcUtil.safeClose(rs);
+         JdbcUtil.safeClose(ps);
+         connectionFactory.releaseConnection(conn);
+      }
+      if (!unmatchedRows) {
+         return entries;
+      }
+      for (String keyStr : remaining) {
+         MarshallableEntry<K, V> entry = loadEntry(keysByString.get(keyStr));
+         if (entry != null) {
+            entries.add(entry);
+         }
+      }
+      return entries;
+   }
+
    @Override
    public void clear() {
       Connection conn = null;
@@ -514,11 +634,15 @@ public void clear(IntSet segments) {
       Connection conn = null;
       PreparedStatement ps = null;
       try {
-         String sql = tableManager.getDeleteRowsSqlForSegments(segments.size());
          conn = connectionFactory.getConnection();
+         IntSet segmentsToDelete = truncateSegmentGroups(conn, segments);
+         if (segmentsToDelete.isEmpty()) {
+            return;
+         }
+         String sql = tableManager.getDeleteRowsSqlForSegments(segmentsToDelete.size());
          ps = conn.prepareStatement(sql);
          int offset = 0;
-         for (PrimitiveIterator.OfInt segIter = segments.iterator(); segIter.hasNext(); ) {
+         for (PrimitiveIterator.OfInt segIter = segmentsToDelete.iterator(); segIter.hasNext(); ) {
             ps.setInt(++offset, segIter.nextInt());
          }
          int result = ps.executeUpdate();
@@ -534,6 +658,32 @@ public void clear(IntSet segments) {
       }
    }
 
+   /**
+    * Truncates the partitions of the segment groups whose segments are all being removed.
+    * @return the segments whose rows must still be deleted
+    */
+   private IntSet truncateSegmentGroups(Connection conn, IntSet segments) throws SQLException {
+      IntSet remaining = segments;
+      for (int group = 0; group < tableManager.getSegmentGroups(); ++group) {
+         IntSet groupSegments = tableManager.getSegmentGroup(group);
+         String sql = tableManager.getTruncateSegmentGroupSql(group);
+         if (sql == null || !segments.containsAll(groupSegments)) {
+            continue;
+         }
+         if (log.isTraceEnabled()) {
+            log.tracef("Running sql '%s' for segments %s", sql, groupSegments);
+         }
+         try (Statement statement = conn.createStatement()) {
+            statement.executeUpdate(sql);
+         }
+         if (remaining == segments) {
+            remaining = IntSets.mutableCopyFrom(segments);
+         }
+         remaining.removeAll(groupSegments);
+      }
+      return remaining;
+   }
+
    @Override
    public boolean delete(int segment, Object key) {
       return delete(key);
@@ -577,12 +727,21 @@ public void purge(Executor executor, PurgeListener purgeListener) {
 
          try (PreparedStatement batchDelete = conn.prepareStatement(tableManager.getDeleteRowSql())) {
             int affectedRows = 0;
+            int batchSize = 0;
             boolean twoWayMapperExists = key2StringMapper instanceof TwoWayKey2StringMapper;
             while (rs.next()) {
                affectedRows++;
                String keyStr = rs.getString(2);
                batchDelete.setString(1, keyStr);
                batchDelete.addBatch();
+               batchSize++;
+
+               // Delete the rows in batches instead of accumulating all the expired rows in a single statement
+               if (batchSize == configuration.maxBatchSize()) {
+                  batchSize = 0;
+                  batchDelete.executeBatch();
+                  batchDelete.clearBatch();
+               }
 
                if (twoWayMapperExists && purgeListener != null) {
                   Object key = ((TwoWayKey2StringMapper) key2StringMapper).getKeyMapping(keyStr);
@@ -593,11 +752,11 @@ public void purge(Executor executor, PurgeListener purgeListener) {
             if (!twoWayMapperExists)
                PERSISTENCE.twoWayKey2StringMapperIsMissing(TwoWayKey2StringMapper.class.getSimpleName());
 
-            if (affectedRows > 0) {
-               int[] result = batchDelete.executeBatch();
-               if (log.isTraceEnabled()) {
-                  log.tracef("Successfully purged %d rows.", result.length);
-               }
+            if (batchSize > 0) {
+               batchDelete.executeBatch();
+            }
+            if (log.isTraceEnabled()) {
+               log.tracef("Successfully purged %d rows.", affectedRows);
             }
             conn.commit();
          }
@@ -628,6 +787,20 @@ public boolean contains(Object key) {
    }
 
    private <P> Flowable<P> publish(IntSet segments, Function<ResultSet, Flowable<P>> function) {
+      List<IntSet> groups = splitBySegmentGroup(segments);
+      if (groups == null) {
+         return publishSegments(segments, function);
+      }
+      if (groups.size() == 1) {
+         return publishSegments(groups.get(0), function);
+      }
+      // Every segment group is read with its own cursor, so that the database can scan the groups in parallel
+      return Flowable.fromIterable(groups)
+            .flatMap(groupSegments -> publishSegments(groupSegments, function).subscribeOn(segmentGroupScheduler),
+                  segmentGroupConcurrency);
+   }
+
+   private <P> Flowable<P> publishSegments(IntSet segments, Function<ResultSet, Flowable<P>> function) {
       return Flowable.using(() -> {
          String sql;
          if (segments != null) {
@@ -791,6 +964,9 @@ private void destroyTxConnection(Transaction tx) {
 
    @Override
    public int size() {
+      if (tableManager.getSegmentGroups() > 0) {
+         return sizeBySegmentGroup(splitBySegmentGroup(null));
+      }
       Connection conn = null;
       PreparedStatement ps = null;
       ResultSet rs = null;
@@ -814,6 +990,22 @@ public int size() {
 
    @Override
    public int size(IntSet segments) {
+      List<IntSet> groups = splitBySegmentGroup(segments);
+      return groups == null ? sizeOfSegments(segments) : sizeBySegmentGroup(groups);
+   }
+
+   private int sizeBySegmentGroup(List<IntSet> groups) {
+      if (groups.size() <= 1) {
+         return groups.isEmpty() ? 0 : sizeOfSegments(groups.get(0));
+      }
+      return Flowable.fromIterable(groups)
+            .flatMapSingle(groupSegments -> Single.fromCallable(() -> sizeOfSegments(groupSegments))
+                  .subscribeOn(segmentGroupScheduler), false, segmentGroupConcurrency)
+            .reduce(0, Integer::sum)
+            .blockingGet();
+   }
+
+   private int sizeOfSegments(IntSet segments) {
       Connection conn = null;
       PreparedStatement ps = null;
       ResultSet rs = null;
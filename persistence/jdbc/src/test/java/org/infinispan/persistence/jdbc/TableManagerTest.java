@@ -2,6 +2,7 @@
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -18,9 +19,11 @@
 import org.infinispan.persistence.jdbc.configuration.JdbcStringBasedStoreConfigurationBuilder;
 import org.infinispan.persistence.jdbc.configuration.PooledConnectionFactoryConfiguration;
 import org.infinispan.persistence.jdbc.configuration.SimpleConnectionFactoryConfiguration;
+import org.infinispan.persistence.jdbc.configuration.TableManipulationConfiguration;
 import org.infinispan.persistence.jdbc.connectionfactory.ConnectionFactory;
 import org.infinispan.persistence.jdbc.impl.connectionfactory.PooledConnectionFactory;
 import org.infinispan.persistence.jdbc.impl.connectionfactory.SimpleConnectionFactory;
+import org.infinispan.persistence.jdbc.impl.table.DbMetaData;
 import org.infinispan.persistence.jdbc.impl.table.TableManager;
 import org.infinispan.persistence.jdbc.impl.table.TableManagerFactory;
 import org.infinispan.persistence.jdbc.impl.table.TableName;
@@ -44,6 +47,7 @@ public class TableManagerTest extends AbstractInfinispanTest {
    protected Connection connection;
    protected TableManager tableManager;
    protected InitializationContext ctx;
+   protected TableManipulationConfiguration tableConfig;
 
    @BeforeClass
    public void createConnection() throws Exception {
@@ -75,6 +79,7 @@ public void createConnection() throws Exception {
 
       ctx = new DummyInitializationContext(null, cache, new TestObjectStreamMarshaller(), null, null, null, null, null, null);
       tableManager = TableManagerFactory.getManager(ctx, connectionFactory, storeBuilder.create(), "aName");
+      tableConfig = storeBuilder.create().table();
    }
 
    @AfterClass(alwaysRun = true)
@@ -152,6 +157,25 @@ public void testTableQuoting() throws Exception {
       assert existsTable(connection, tableManager.getDataTableName());
    }
 
+   public void testSelectRowsIdParameters() {
+      String idType = tableConfig.idColumnType();
+      assertSelectRowsIdParameter(DatabaseType.H2, "?");
+      // These compare the id column with a cast parameter, like the single row select
+      assertSelectRowsIdParameter(DatabaseType.POSTGRES, "cast(? as " + idType + ")");
+      assertSelectRowsIdParameter(DatabaseType.SYBASE, "convert(" + idType + ",?)");
+   }
+
+   private void assertSelectRowsIdParameter(DatabaseType type, String idParameter) {
+      DbMetaData metaData = new DbMetaData(type, null, null, false, false, false);
+      TableManager manager = TableManagerFactory.getManager(metaData, ctx, connectionFactory, tableConfig, "selectRows");
+      assertEquals(String.format("SELECT %s, %s FROM %s WHERE %s IN (%s,%s,%s)", tableConfig.idColumnName(),
+            tableConfig.dataColumnName(), manager.getDataTableName(), tableConfig.idColumnName(), idParameter,
+            idParameter, idParameter), manager.getSelectRowsSql(3));
+      assertEquals(String.format("SELECT %s, %s FROM %s WHERE %s IN (%s)", tableConfig.idColumnName(),
+            tableConfig.dataColumnName(), manager.getDataTableName(), tableConfig.idColumnName(), idParameter),
+            manager.getSelectRowsSql(1));
+   }
+
    static boolean existsTable(Connection connection, TableName tableName) throws Exception {
       Statement st = connection.createStatement();
       ResultSet rs = null;
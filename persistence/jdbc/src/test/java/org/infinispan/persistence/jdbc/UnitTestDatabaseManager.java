@@ -27,6 +27,8 @@ public class UnitTestDatabaseManager {
    private static AtomicInteger userIndex = new AtomicInteger(0);
    private static final String DB_TYPE = System.getProperty("infinispan.test.jdbc.db", "H2");
    private static final String H2_DRIVER = org.h2.Driver.class.getName();
+   private static final String POSTGRES_DRIVER = "org.postgresql.Driver";
+   private static final String POSTGRES_URL = System.getProperty("infinispan.test.jdbc.url", "jdbc:postgresql://localhost/infinispan");
    private static final String NON_EXISTENT_DRIVER = "non.existent.Driver";
    private static final DatabaseType dt;
 
@@ -36,6 +38,10 @@ public class UnitTestDatabaseManager {
          if (DB_TYPE.equalsIgnoreCase("mysql")) {
             driver = com.mysql.jdbc.Driver.class.getName();
             dt = DatabaseType.MYSQL;
+         } else if (DB_TYPE.equalsIgnoreCase("postgres") && isDriverAvailable(POSTGRES_DRIVER)) {
+            // The driver is not a dependency of the module, it must be added to the test classpath
+            driver = POSTGRES_DRIVER;
+            dt = DatabaseType.POSTGRES;
          } else {
             driver = H2_DRIVER;
             dt = DatabaseType.H2;
@@ -51,6 +57,19 @@ public class UnitTestDatabaseManager {
       }
    }
 
+   private static boolean isDriverAvailable(String driver) {
+      try {
+         Class.forName(driver);
+         return true;
+      } catch (ClassNotFoundException e) {
+         return false;
+      }
+   }
+
+   public static DatabaseType getDatabaseType() {
+      return dt;
+   }
+
    public static ConnectionFactoryConfigurationBuilder<?> configureUniqueConnectionFactory(AbstractJdbcStoreConfigurationBuilder<?, ?> store) {
       switch (dt) {
       case H2:
@@ -66,6 +85,13 @@ public static ConnectionFactoryConfigurationBuilder<?> configureUniqueConnection
                .connectionUrl("jdbc:mysql://localhost/infinispan?user=ispn&password=ispn")
                .username("ispn")
                .password("ispn");
+      case POSTGRES:
+         return store
+            .simpleConnection()
+               .driverClass(POSTGRES_DRIVER)
+               .connectionUrl(POSTGRES_URL)
+               .username("ispn")
+               .password("ispn");
       default:
          throw new RuntimeException("Cannot configure connection for database type "+dt);
       }
@@ -108,7 +134,7 @@ public static void buildTableManipulation(TableManipulationConfigurationBuilder<
          .idColumnName("ID_COLUMN")
          .idColumnType("VARCHAR(255)")
          .dataColumnName("DATA_COLUMN")
-         .dataColumnType("BLOB")
+         .dataColumnType(dt == DatabaseType.POSTGRES ? "BYTEA" : "BLOB")
          .timestampColumnName("TIMESTAMP_COLUMN")
          .timestampColumnType("BIGINT")
          .segmentColumnName("SEGMENT_COLUMN")
@@ -35,7 +35,7 @@ public void testStringKeyedJdbcStore() throws Exception {
             "       <string-keyed-jdbc-store xmlns=\"urn:infinispan:config:store:jdbc:"+ Version.getSchemaVersion() + "\" key-to-string-mapper=\"DummyKey2StringMapper\" shared=\"true\" " +
             "                                preload=\"true\" read-only=\"false\" fetch-state=\"true\" dialect=\"H2\">\n" +
             "         <connection-pool connection-url=\"jdbc:h2:mem:infinispan;DB_CLOSE_DELAY=-1\" username=\"dbuser\" password=\"dbpass\" driver=\"org.h2.Driver\"/>\n" +
-            "         <string-keyed-table prefix=\"entry\" fetch-size=\"34\" batch-size=\"128\" >\n" +
+            "         <string-keyed-table prefix=\"entry\" fetch-size=\"34\" batch-size=\"128\" segment-groups=\"8\" >\n" +
             "           <id-column name=\"id\" type=\"VARCHAR\" />\n" +
             "           <data-column name=\"datum\" type=\"BINARY\" />\n" +
             "           <timestamp-column name=\"version\" type=\"BIGINT\" />\n" +
@@ -54,6 +54,7 @@ public void testStringKeyedJdbcStore() throws Exception {
 
       assertEquals(128, store.table().batchSize());
       assertEquals(34, store.table().fetchSize());
+      assertEquals(8, store.table().segmentGroups());
       assertEquals("BINARY", store.table().dataColumnType());
       assertEquals("version", store.table().timestampColumnName());
       assertEquals("segfault", store.table().segmentColumnName());
@@ -0,0 +1,105 @@
+package org.infinispan.persistence.jdbc.stringbased;
+
+import static org.infinispan.test.TestingUtil.withCacheManager;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+
+import org.infinispan.Cache;
+import org.infinispan.commons.test.skip.SkipTestNG;
+import org.infinispan.commons.util.IntSet;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.distribution.ch.KeyPartitioner;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.marshall.persistence.impl.MarshalledEntryUtil;
+import org.infinispan.persistence.jdbc.DatabaseType;
+import org.infinispan.persistence.jdbc.UnitTestDatabaseManager;
+import org.infinispan.persistence.jdbc.configuration.JdbcStringBasedStoreConfigurationBuilder;
+import org.infinispan.persistence.jdbc.impl.table.TableManager;
+import org.infinispan.persistence.spi.MarshallableEntry;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Test that the segment groups of the JDBC string based store only truncate the partitions of an existing Postgres
+ * table when they match the configured groups. Only runs with {@code -Dinfinispan.test.jdbc.db=postgres} and the
+ * Postgres driver in the test classpath.
+ *
+ * @since 12.1
+ */
+@Test(groups = "functional", testName = "persistence.jdbc.stringbased.JdbcStringBasedPostgresSegmentGroupsTest")
+public class JdbcStringBasedPostgresSegmentGroupsTest extends AbstractInfinispanTest {
+   private static final int NUM_SEGMENTS = 16;
+   private static final int NUM_ENTRIES = 100;
+
+   @BeforeClass
+   public void requirePostgres() {
+      SkipTestNG.skipIf(UnitTestDatabaseManager.getDatabaseType() != DatabaseType.POSTGRES,
+            "Partitioned tables are only supported by Postgres");
+   }
+
+   public void testExistingTableWithoutSegmentGroups() {
+      testRemoveSegments("no_groups", 0, 4, false);
+   }
+
+   public void testChangedSegmentGroups() {
+      // The first partition holds the segments of the first two groups
+      testRemoveSegments("changed_groups", 4, 8, false);
+   }
+
+   public void testSameSegmentGroups() {
+      testRemoveSegments("same_groups", 4, 4, true);
+   }
+
+   private void testRemoveSegments(String cacheName, int initialSegmentGroups, int segmentGroups, boolean truncate) {
+      withCacheManager(() -> createCacheManager(cacheName, initialSegmentGroups, false),
+            cm -> writeEntries(cm.getCache(cacheName), "initial", NUM_ENTRIES));
+      withCacheManager(() -> createCacheManager(cacheName, segmentGroups, true), cm -> {
+         Cache<Object, Object> cache = cm.getCache(cacheName);
+         JdbcStringBasedStore<Object, Object> store = TestingUtil.getFirstLoader(cache);
+         TableManager tableManager = store.getTableManager(cacheName);
+         assertEquals(truncate, tableManager.getTruncateSegmentGroupSql(0) != null);
+
+         // Overwrite the existing rows and insert new ones
+         writeEntries(cache, "updated", 2 * NUM_ENTRIES);
+
+         IntSet removedSegments = tableManager.getSegmentGroup(0);
+         store.clear(removedSegments);
+
+         KeyPartitioner keyPartitioner = TestingUtil.extractComponent(cache, KeyPartitioner.class);
+         for (int i = 0; i < 2 * NUM_ENTRIES; ++i) {
+            String key = "key" + i;
+            MarshallableEntry<Object, Object> entry = store.loadEntry(key);
+            if (removedSegments.contains(keyPartitioner.getSegment(key))) {
+               assertNull(key, entry);
+            } else {
+               assertEquals(key, "updated" + i, entry.getValue());
+            }
+         }
+      });
+   }
+
+   private void writeEntries(Cache<Object, Object> cache, String valuePrefix, int numEntries) {
+      JdbcStringBasedStore<Object, Object> store = TestingUtil.getFirstLoader(cache);
+      for (int i = 0; i < numEntries; ++i) {
+         store.write(MarshalledEntryUtil.create("key" + i, valuePrefix + i, cache));
+      }
+   }
+
+   private EmbeddedCacheManager createCacheManager(String cacheName, int segmentGroups, boolean dropOnExit) {
+      ConfigurationBuilder cfg = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      cfg.clustering().hash().numSegments(NUM_SEGMENTS);
+      JdbcStringBasedStoreConfigurationBuilder storeBuilder =
+            cfg.persistence().addStore(JdbcStringBasedStoreConfigurationBuilder.class);
+      UnitTestDatabaseManager.configureUniqueConnectionFactory(storeBuilder);
+      UnitTestDatabaseManager.buildTableManipulation(storeBuilder.table());
+      storeBuilder.table().segmentGroups(segmentGroups).dropOnExit(dropOnExit);
+      storeBuilder.segmented(true);
+
+      EmbeddedCacheManager cm = TestCacheManagerFactory.createCacheManager();
+      cm.defineConfiguration(cacheName, cfg.build());
+      return cm;
+   }
+}
@@ -0,0 +1,24 @@
+package org.infinispan.persistence.jdbc.stringbased;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.persistence.SegmentedStoreTest;
+import org.infinispan.persistence.jdbc.UnitTestDatabaseManager;
+import org.infinispan.persistence.jdbc.configuration.JdbcStringBasedStoreConfigurationBuilder;
+import org.testng.annotations.Test;
+
+/**
+ * Test to ensure that JDBC string based store works properly when its segments are partitioned in groups
+ * @since 12.1
+ */
+@Test(groups = "functional", testName = "persistence.jdbc.stringbased.JdbcStringBasedSegmentGroupsStoreTest")
+public class JdbcStringBasedSegmentGroupsStoreTest extends SegmentedStoreTest {
+   @Override
+   protected void configurePersistence(ConfigurationBuilder cb) {
+      JdbcStringBasedStoreConfigurationBuilder storeBuilder =
+            cb.persistence().addStore(JdbcStringBasedStoreConfigurationBuilder.class);
+      UnitTestDatabaseManager.configureUniqueConnectionFactory(storeBuilder);
+      UnitTestDatabaseManager.buildTableManipulation(storeBuilder.table());
+      storeBuilder.table().segmentGroups(4);
+      storeBuilder.segmented(true);
+   }
+}
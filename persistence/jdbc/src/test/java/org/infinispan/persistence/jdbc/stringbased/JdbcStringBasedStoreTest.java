@@ -3,20 +3,36 @@
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertNull;
 import static org.testng.AssertJUnit.assertSame;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.infinispan.commons.util.Version;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.configuration.cache.HashConfiguration;
 import org.infinispan.persistence.BaseStoreTest;
 import org.infinispan.persistence.jdbc.DatabaseType;
 import org.infinispan.persistence.jdbc.UnitTestDatabaseManager;
+import org.infinispan.persistence.jdbc.configuration.ConnectionFactoryConfiguration;
 import org.infinispan.persistence.jdbc.configuration.JdbcStringBasedStoreConfigurationBuilder;
 import org.infinispan.persistence.jdbc.connectionfactory.ConnectionFactory;
 import org.infinispan.persistence.jdbc.impl.table.AbstractTableManager;
 import org.infinispan.persistence.jdbc.impl.table.TableManager;
 import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.infinispan.persistence.spi.MarshallableEntry;
 import org.infinispan.test.fwk.TestCacheManagerFactory;
 import org.testng.annotations.Factory;
 import org.testng.annotations.Test;
@@ -102,6 +118,136 @@ public void testNotCreateConnectionFactory() throws Exception {
       stringBasedCacheStore.stop();
    }
 
+   public void testLoadEntries() {
+      JdbcStringBasedStore<Object, Object> jdbcStore = (JdbcStringBasedStore<Object, Object>) cl;
+      // More keys than fit in a single IN list of max-batch-size ids, spread over many segments
+      int numKeys = 2 * 100 + 7;
+      List<Object> keys = new ArrayList<>(numKeys);
+      for (int i = 0; i < numKeys; ++i) {
+         keys.add("k" + i);
+         if (i % 3 == 0) {
+            // missing
+            continue;
+         }
+         cl.write(marshalledEntry(internalCacheEntry("k" + i, "v" + i, i % 5 == 0 ? 10 : -1)));
+      }
+      timeService.advance(11);
+
+      Map<Object, Object> loaded = toMap(jdbcStore.loadEntries(keys));
+      int found = 0;
+      for (int i = 0; i < numKeys; ++i) {
+         if (i % 3 == 0 || i % 5 == 0) {
+            // missing or expired
+            assertNull("k" + i, loaded.get("k" + i));
+         } else {
+            assertEquals("k" + i, "v" + i, loaded.get("k" + i));
+            found++;
+         }
+      }
+      assertEquals(found, loaded.size());
+   }
+
+   public void testLoadEntriesWithUnmatchedIds() {
+      JdbcStringBasedStore<Object, Object> jdbcStore = (JdbcStringBasedStore<Object, Object>) cl;
+      cl.write(marshalledEntry(internalCacheEntry("k1", "v1", -1)));
+      cl.write(marshalledEntry(internalCacheEntry("k2", "v2", -1)));
+
+      // Some databases return the ids in another form (e.g. padded), the IN list select must not lose those keys
+      ConnectionFactory connectionFactory = jdbcStore.getConnectionFactory();
+      jdbcStore.setConnectionFactory(new PaddedIdsConnectionFactory(connectionFactory));
+      try {
+         Map<Object, Object> loaded = toMap(jdbcStore.loadEntries(Arrays.asList("k1", "k2", "k3")));
+         assertEquals(2, loaded.size());
+         assertEquals("v1", loaded.get("k1"));
+         assertEquals("v2", loaded.get("k2"));
+      } finally {
+         jdbcStore.setConnectionFactory(connectionFactory);
+      }
+   }
+
+   private static Map<Object, Object> toMap(Iterable<MarshallableEntry<Object, Object>> entries) {
+      Map<Object, Object> map = new HashMap<>();
+      for (MarshallableEntry<Object, Object> entry : entries) {
+         assertNull("Duplicate " + entry.getKey(), map.put(entry.getKey(), entry.getValue()));
+      }
+      return map;
+   }
+
+   /**
+    * Pads the ids returned by the selects of multiple rows with a space.
+    */
+   private static class PaddedIdsConnectionFactory extends ConnectionFactory {
+      private final ConnectionFactory delegate;
+
+      PaddedIdsConnectionFactory(ConnectionFactory delegate) {
+         this.delegate = delegate;
+      }
+
+      @Override
+      public void start(ConnectionFactoryConfiguration factoryConfiguration, ClassLoader classLoader) {
+         delegate.start(factoryConfiguration, classLoader);
+      }
+
+      @Override
+      public void stop() {
+         delegate.stop();
+      }
+
+      @Override
+      public Connection getConnection() {
+         Connection connection = delegate.getConnection();
+         return proxy(Connection.class, connection, (name, args, result) -> {
+            if (name.equals("prepareStatement") && ((String) args[0]).contains(" IN (")) {
+               return proxy(PreparedStatement.class, (PreparedStatement) result, (psName, psArgs, psResult) -> {
+                  if (psName.equals("executeQuery")) {
+                     return proxy(ResultSet.class, (ResultSet) psResult, (rsName, rsArgs, rsResult) ->
+                           rsName.equals("getString") && rsResult != null ? rsResult + " " : rsResult);
+                  }
+                  return psResult;
+               });
+            }
+            return result;
+         });
+      }
+
+      @Override
+      public void releaseConnection(Connection conn) {
+         // The pooled connection factory only accepts the connections it handed out
+         delegate.releaseConnection(conn == null ? null : ((Handler) Proxy.getInvocationHandler(conn)).target());
+      }
+
+      private static <T> T proxy(Class<T> type, T target, ResultMapper mapper) {
+         return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new Handler(target, mapper)));
+      }
+   }
+
+   private interface ResultMapper {
+      Object map(String methodName, Object[] args, Object result);
+   }
+
+   private static class Handler implements InvocationHandler {
+      private final Object target;
+      private final ResultMapper mapper;
+
+      Handler(Object target, ResultMapper mapper) {
+         this.target = target;
+         this.mapper = mapper;
+      }
+
+      Connection target() {
+         return (Connection) target;
+      }
+
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+         try {
+            return mapper.map(method.getName(), args, method.invoke(target, args));
+         } catch (InvocationTargetException e) {
+            throw e.getCause();
+         }
+      }
+   }
+
    @Override
    protected boolean storePurgesAllExpired() {
       // expiration listener is not called for the entries
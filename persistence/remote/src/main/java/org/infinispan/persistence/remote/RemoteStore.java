@@ -1,6 +1,8 @@
 package org.infinispan.persistence.remote;
 
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -246,6 +248,41 @@ public CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
       }
    }
 
+   @Override
+   public Publisher<MarshallableEntry<K, V>> bulkLoad(int publisherCount, Publisher<SegmentedPublisher<Object>> keyPublisher) {
+      if (configuration.rawValues()) {
+         // getAll does not return the metadata of the entries
+         return NonBlockingStore.super.bulkLoad(publisherCount, keyPublisher);
+      }
+      return Flowable.fromPublisher(keyPublisher)
+            .concatMap(Flowable::fromPublisher)
+            .toList()
+            .flatMapPublisher(keys -> {
+               if (keys.isEmpty()) {
+                  return Flowable.empty();
+               }
+               // Remote keys are unwrapped, so map them back to the keys that were requested
+               Map<Object, Object> requestedKeys = new HashMap<>(keys.size());
+               Set<Object> unwrappedKeys = new HashSet<>(keys.size());
+               for (Object key : keys) {
+                  Object unwrappedKey = unwrap(key);
+                  requestedKeys.put(wrap(unwrappedKey), key);
+                  unwrappedKeys.add(unwrappedKey);
+               }
+               return Flowable.fromCompletionStage(remoteCache.getAllAsync(unwrappedKeys))
+                     .flatMapIterable(Map::entrySet)
+                     .filter(e -> e.getValue() != null)
+                     .map(e -> {
+                        Object key = requestedKeys.get(wrap(e.getKey()));
+                        Object value = e.getValue();
+                        if (value instanceof MarshalledValue) {
+                           return entryFactory.create(key, (MarshalledValue) value);
+                        }
+                        return entryFactory.create(key, value);
+                     });
+            });
+   }
+
    @Override
    public CompletionStage<Boolean> containsKey(int segment, Object key) {
       key = unwrap(key);
@@ -6,6 +6,10 @@
 import static org.testng.AssertJUnit.assertTrue;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Predicate;
 import java.util.function.ToIntBiFunction;
 
@@ -28,6 +32,7 @@
 import org.infinispan.persistence.BaseNonBlockingStoreTest;
 import org.infinispan.persistence.internal.PersistenceUtil;
 import org.infinispan.persistence.remote.configuration.RemoteStoreConfigurationBuilder;
+import org.infinispan.persistence.spi.MarshallableEntry;
 import org.infinispan.persistence.spi.NonBlockingStore;
 import org.infinispan.persistence.spi.PersistenceException;
 import org.infinispan.protostream.ProtobufUtil;
@@ -253,6 +258,39 @@ public void testPublishEntriesWithSegments() {
       });
    }
 
+   public void testBulkLoad() {
+      int numKeys = 30;
+      List<Object> keys = new ArrayList<>(numKeys);
+      IntSet segments = IntSets.mutableEmptySet(localCache.getCacheConfiguration().clustering().hash().numSegments());
+      for (int i = 0; i < numKeys; ++i) {
+         keys.add(keyToStorage("k" + i));
+         segments.set(getKeySegment("k" + i));
+         // Every third key is missing and every fifth one expires
+         if (i % 3 != 0) {
+            store.write(marshalledEntry(internalCacheEntry("k" + i, "v" + i, i % 5 == 0 ? 100 : -1)));
+         }
+      }
+      assertTrue(segments.size() > 1);
+      // Hot Rod rounds the lifespan to seconds
+      timeService.advance(1101);
+
+      Map<Object, Object> loaded = new HashMap<>();
+      for (MarshallableEntry<Object, Object> entry : store.bulkLoadWait(keys)) {
+         assertNull("Duplicate " + entry.getKey(), loaded.put(entry.getKey(), entry.getValue()));
+      }
+      int expectedCount = 0;
+      for (int i = 0; i < numKeys; ++i) {
+         Object value = loaded.get(keyToStorage("k" + i));
+         if (i % 3 != 0 && i % 5 != 0) {
+            assertEquals("k" + i, valueToStorage("v" + i), value);
+            expectedCount++;
+         } else {
+            assertNull("k" + i, value);
+         }
+      }
+      assertEquals(expectedCount, loaded.size());
+   }
+
    @Override
    @Test(enabled = false)
    public void testLoadAndStoreBytesValues() throws PersistenceException, IOException, InterruptedException {
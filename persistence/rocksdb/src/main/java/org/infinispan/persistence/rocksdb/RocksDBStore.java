@@ -5,6 +5,7 @@
 import java.io.File;
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
@@ -12,7 +13,6 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumSet;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -45,6 +45,7 @@
 import org.infinispan.metadata.impl.PrivateMetadata;
 import org.infinispan.persistence.internal.PersistenceUtil;
 import org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration;
+import org.infinispan.persistence.rocksdb.internal.RocksDBResources;
 import org.infinispan.persistence.rocksdb.logging.Log;
 import org.infinispan.persistence.spi.InitializationContext;
 import org.infinispan.persistence.spi.MarshallableEntry;
@@ -60,6 +61,8 @@
 import org.infinispan.util.concurrent.CompletionStages;
 import org.infinispan.util.logging.LogFactory;
 import org.reactivestreams.Publisher;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
 import org.rocksdb.BuiltinComparator;
 import org.rocksdb.ColumnFamilyDescriptor;
 import org.rocksdb.ColumnFamilyHandle;
@@ -73,8 +76,8 @@
 import org.rocksdb.WriteBatch;
 import org.rocksdb.WriteOptions;
 
+import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Flowable;
-import io.reactivex.rxjava3.core.Maybe;
 import io.reactivex.rxjava3.processors.FlowableProcessor;
 import io.reactivex.rxjava3.processors.UnicastProcessor;
 
@@ -89,10 +92,11 @@
    static final String COLUMN_FAMILY_PROPERTY_NAME_WITH_SUFFIX = "data.";
    static final byte[] META_COLUMN_FAMILY = "meta-cf".getBytes();
    static final byte[] META_COLUMN_FAMILY_KEY = "metadata".getBytes();
+   static final byte[] EXPIRATION_COLUMN_FAMILY = "expiration-cf".getBytes();
+   static final String BLOCK_BASED_TABLE_PROPERTY_NAME = "block_based_table_factory";
 
    protected RocksDBStoreConfiguration configuration;
    private RocksDB db;
-   private RocksDB expiredDb;
    private InitializationContext ctx;
    private TimeService timeService;
    private WriteOptions dataWriteOptions;
@@ -103,6 +107,10 @@
    private KeyPartitioner keyPartitioner;
    private MarshallableEntryFactory<K, V> entryFactory;
    private BlockingManager blockingManager;
+   private RocksDBResources resources;
+   private boolean ownsResources;
+   private boolean statisticsEnabled;
+   private BloomFilter bloomFilter;
 
    @Override
    public CompletionStage<Void> start(InitializationContext ctx) {
@@ -113,6 +121,14 @@ public CompletionStage<Void> start(InitializationContext ctx) {
       this.entryFactory = ctx.getMarshallableEntryFactory();
       this.blockingManager = ctx.getBlockingManager();
       this.keyPartitioner = ctx.getKeyPartitioner();
+      this.resources = ctx.getCache().getAdvancedCache().getComponentRegistry().getGlobalComponentRegistry()
+            .getComponent(RocksDBResources.class);
+      if (resources == null) {
+         // The module lifecycle did not run, e.g. the store is not started by a cache manager
+         resources = new RocksDBResources();
+         ownsResources = true;
+      }
+      this.statisticsEnabled = ctx.getCache().getCacheConfiguration().statistics().enabled();
 
       ctx.getPersistenceMarshaller().register(new PersistenceContextInitializerImpl());
 
@@ -144,6 +160,7 @@ public CompletionStage<Void> start(InitializationContext ctx) {
                migrateFromV11();
                PERSISTENCE.persistedDataSuccessfulMigrated(cacheName);
             }
+            migrateLegacyExpiration();
             // Update the metadata entry to use the current Infinispan version
             handler.writeMetadata();
          } catch (Exception e) {
@@ -153,17 +170,51 @@ public CompletionStage<Void> start(InitializationContext ctx) {
    }
 
    private void initDefaultHandler() throws RocksDBException {
-      this.handler = createHandler(getLocation(), getExpirationLocation());
+      this.handler = createHandler(getLocation());
       this.db = handler.db;
-      this.expiredDb = handler.expiredDb;
    }
 
-   private RocksDBHandler createHandler(Path data, Path expired) throws RocksDBException {
+   private RocksDBHandler createHandler(Path data) throws RocksDBException {
       AdvancedCache<?, ?> cache = ctx.getCache().getAdvancedCache();
       if (configuration.segmented()) {
-         return new SegmentedRocksDBHandler(data, expired, cache.getCacheConfiguration().clustering().hash().numSegments());
+         return new SegmentedRocksDBHandler(data, cache.getCacheConfiguration().clustering().hash().numSegments());
+      }
+      return new NonSegmentedRocksDBHandler(data, keyPartitioner);
+   }
+
+   /**
+    * Stores created before 12.1 kept the expiration times in a separate database, which is moved to the expiration
+    * column family of the data database and then removed.
+    */
+   private void migrateLegacyExpiration() throws RocksDBException {
+      Path expirationLocation = getExpirationLocation();
+      if (!expirationLocation.toFile().exists()) {
+         return;
+      }
+      if (!configuration.purgeOnStartup()) {
+         try (Options options = expiredDbOptions();
+              RocksDB legacyDb = openDatabase(expirationLocation, options);
+              ReadOptions readOptions = new ReadOptions().setFillCache(false);
+              RocksIterator it = legacyDb.newIterator(readOptions);
+              WriteBatch batch = new WriteBatch()) {
+            for (it.seekToFirst(); it.isValid(); it.next()) {
+               long expiry = unmarshall(it.key());
+               Object bucketKey = unmarshall(it.value());
+               if (bucketKey instanceof ExpiryBucket) {
+                  for (byte[] marshalledKey : ((ExpiryBucket) bucketKey).entries) {
+                     putExpiration(batch, handler, expiry, marshalledKey, keyPartitioner.getSegment(unmarshall(marshalledKey)));
+                  }
+               } else {
+                  // The bucketKey is an actual key
+                  putExpiration(batch, handler, expiry, it.value(), keyPartitioner.getSegment(bucketKey));
+               }
+            }
+            if (batch.count() > 0) {
+               db.write(dataWriteOptions(), batch);
+            }
+         }
       }
-      return new NonSegmentedRocksDBHandler(data, expired, keyPartitioner);
+      Util.recursiveFileRemove(expirationLocation);
    }
 
    private void migrateFromV11() throws IOException, RocksDBException {
@@ -180,10 +231,9 @@ private void migrateFromV11() throws IOException, RocksDBException {
          return;
 
       Path newDbLocation = getQualifiedLocation("new_data");
-      Path newExpiredDbLocation = getQualifiedLocation("new_expired");
       try {
          // Create new DB and open handle
-         RocksDBHandler migrationHandler = createHandler(newDbLocation, newExpiredDbLocation);
+         RocksDBHandler migrationHandler = createHandler(newDbLocation);
 
          Function<RocksIterator, Flowable<MarshallableEntry<K, V>>> function =
                it -> Flowable.fromIterable(() -> new RocksLegacyEntryIterator(it));
@@ -194,40 +244,35 @@ private void migrateFromV11() throws IOException, RocksDBException {
                handler.publish(-1, function);
 
          WriteBatch batch = new WriteBatch();
-         Set<MarshallableEntry<K, V>> expirableEntries = new HashSet<>();
          Flowable.fromPublisher(publisher)
                .subscribe(e -> {
-                  ColumnFamilyHandle handle = migrationHandler.getHandle(keyPartitioner.getSegment(e.getKey()));
-                  batch.put(handle, e.getKeyBytes().copy().getBuf(), marshall(e.getMarshalledValue()));
-                  if (e.expiryTime() > 1)
-                     expirableEntries.add(e);
+                  int segment = keyPartitioner.getSegment(e.getKey());
+                  ColumnFamilyHandle handle = migrationHandler.getHandle(segment);
+                  byte[] marshalledKey = e.getKeyBytes().copy().getBuf();
+                  batch.put(handle, marshalledKey, marshall(e.getMarshalledValue()));
+                  if (e.expiryTime() > -1)
+                     putExpiration(batch, migrationHandler, expiryTime(e), marshalledKey, segment);
                });
 
-         if (batch.count() <= 0)
-            batch.close();
-
-         migrationHandler.db.write(dataWriteOptions(), batch);
-         for (MarshallableEntry<K, V> e : expirableEntries)
-            addNewExpiry(migrationHandler.expiredDb, e);
+         if (batch.count() > 0)
+            migrationHandler.db.write(dataWriteOptions(), batch);
+         batch.close();
 
          // Close original and new handler
          handler.close();
          migrationHandler.close();
 
-         // Copy new db to original location
+         // Copy new db to original location, the expiration data was rebuilt from the entries
          Path dataLocation = getLocation();
-         Path expirationLocation = getExpirationLocation();
          Util.recursiveFileRemove(dataLocation);
-         Util.recursiveFileRemove(expirationLocation);
+         Util.recursiveFileRemove(getExpirationLocation());
          Files.move(newDbLocation, dataLocation, StandardCopyOption.REPLACE_EXISTING);
-         Files.move(newExpiredDbLocation, expirationLocation, StandardCopyOption.REPLACE_EXISTING);
 
          // Open db handle to new db at original location
          initDefaultHandler();
       } finally {
-         // In the event of a failure, always remove the new dbs
+         // In the event of a failure, always remove the new db
          Util.recursiveFileRemove(newDbLocation);
-         Util.recursiveFileRemove(newExpiredDbLocation);
       }
    }
 
@@ -259,14 +304,28 @@ protected DBOptions dataDbOptions() {
       } else {
          dbOptions = new DBOptions();
       }
-      return dbOptions
+      dbOptions
             .setCreateIfMissing(true)
             // We have to create missing column families on open.
             // Otherwise when we start we won't know what column families this database had if any - thus
             // we must specify all of them and later remove them.
             .setCreateMissingColumnFamilies(true);
+      if (configuration.writeBufferSize() > 0) {
+         // With a column family per segment, the memtables must be bounded across all of them
+         dbOptions.setWriteBufferManager(resources.writeBufferManager(configuration.writeBufferSize(), configuration.cacheSize()));
+      }
+      if (configuration.directIo()) {
+         dbOptions.setUseDirectReads(true).setUseDirectIoForFlushAndCompaction(true);
+      }
+      if (statisticsEnabled) {
+         dbOptions.setStatistics(resources.statistics());
+      }
+      return dbOptions;
    }
 
+   /**
+    * The options of the expiration database of stores created before 12.1, only opened to migrate it.
+    */
    protected Options expiredDbOptions() {
       return new Options()
             .setCreateIfMissing(true)
@@ -274,6 +333,30 @@ protected Options expiredDbOptions() {
             .setComparator(BuiltinComparator.BYTEWISE_COMPARATOR);
    }
 
+   /**
+    * The table options of the data column families: the shared block cache, the block size and the bloom filters used
+    * for point lookups.
+    */
+   private BlockBasedTableConfig dataTableConfig() {
+      BlockBasedTableConfig tableConfig = new BlockBasedTableConfig();
+      if (configuration.cacheSize() > 0) {
+         // Also cache the index and filter blocks in the shared cache, so that their memory is bounded too
+         tableConfig.setBlockCache(resources.blockCache(configuration.cacheSize()))
+               .setCacheIndexAndFilterBlocks(true)
+               .setPinL0FilterAndIndexBlocksInCache(true);
+      }
+      if (configuration.blockSize() > 0) {
+         tableConfig.setBlockSize(configuration.blockSize());
+      }
+      if (configuration.bloomFilterBitsPerKey() > 0) {
+         if (bloomFilter == null) {
+            bloomFilter = new BloomFilter(configuration.bloomFilterBitsPerKey(), false);
+         }
+         tableConfig.setFilterPolicy(bloomFilter);
+      }
+      return tableConfig;
+   }
+
    /**
     * Creates database if it doesn't exist.
     */
@@ -287,6 +370,13 @@ protected static RocksDB openDatabase(Path location, Options options) throws Roc
    public CompletionStage<Void> stop() {
       return blockingManager.runBlocking(() -> {
          handler.close();
+         if (bloomFilter != null) {
+            bloomFilter.close();
+            bloomFilter = null;
+         }
+         if (ownsResources) {
+            resources.close();
+         }
       }, "rocksdb-stop");
    }
 
@@ -297,7 +387,7 @@ public Set<Characteristic> characteristics() {
 
    @Override
    public CompletionStage<Boolean> isAvailable() {
-      return blockingManager.supplyBlocking(() -> getLocation().toFile().exists() && getExpirationLocation().toFile().exists(),
+      return blockingManager.supplyBlocking(() -> getLocation().toFile().exists(),
             "rocksdb-available");
    }
 
@@ -349,11 +439,16 @@ public CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
       return handler.load(segment, key);
    }
 
+   @Override
+   public Publisher<MarshallableEntry<K, V>> bulkLoad(int publisherCount,
+         Publisher<SegmentedPublisher<Object>> keyPublisher) {
+      return handler.bulkLoad(keyPublisher);
+   }
+
    @Override
    public CompletionStage<Void> batch(int publisherCount, Publisher<SegmentedPublisher<Object>> removePublisher,
          Publisher<SegmentedPublisher<MarshallableEntry<K, V>>> writePublisher) {
       WriteBatch batch = new WriteBatch();
-      Set<MarshallableEntry<K, V>> expirableEntries = new HashSet<>();
       Flowable.fromPublisher(removePublisher)
             .subscribe(sp -> {
                ColumnFamilyHandle handle = handler.getHandle(sp.getSegment());
@@ -365,9 +460,11 @@ public CompletionStage<Void> batch(int publisherCount, Publisher<SegmentedPublis
                ColumnFamilyHandle handle = handler.getHandle(sp.getSegment());
                Flowable.fromPublisher(sp)
                      .subscribe(me -> {
-                        batch.put(handle, marshall(me.getKey()), marshall(me.getMarshalledValue()));
+                        byte[] marshalledKey = marshall(me.getKey());
+                        batch.put(handle, marshalledKey, marshall(me.getMarshalledValue()));
                         if (me.expiryTime() > -1) {
-                           expirableEntries.add(me);
+                           // Same batch, so the expiration costs no additional write
+                           putExpiration(batch, handler, expiryTime(me), marshalledKey, sp.getSegment());
                         }
                      });
             });
@@ -378,9 +475,6 @@ public CompletionStage<Void> batch(int publisherCount, Publisher<SegmentedPublis
       return blockingManager.runBlocking(() -> {
          try {
             db.write(dataWriteOptions(), batch);
-            for (MarshallableEntry<K, V> me : expirableEntries) {
-               addNewExpiry(expiredDb, me);
-            }
          } catch (RocksDBException e) {
             throw new PersistenceException(e);
          }
@@ -404,63 +498,67 @@ public Publisher<MarshallableEntry<K, V>> purgeExpired() {
    }
 
    private Flowable<MarshallableEntry<K, V>> actualPurgeExpired(long now) {
-      // The following flowable is responsible for emitting entries that have expired from expiredDb and removing the
-      // given entries
-      Flowable<byte[]> expiredFlowable = Flowable.using(() -> {
+      // The expiration column family is sorted by expiration time, so the entries that expired are the ones before
+      // the first expiration time after now. Expirations recorded after the iterator was created are not visible to
+      // it, so only the ones up to the last key the iterator reached are removed
+      byte[][] lastExpirationKey = new byte[1][];
+      Flowable<MarshallableEntry<K, V>> expiredEntryFlowable = Flowable.using(() -> {
          ReadOptions readOptions = new ReadOptions().setFillCache(false);
-         return new AbstractMap.SimpleImmutableEntry<>(readOptions, expiredDb.newIterator(readOptions));
+         return new AbstractMap.SimpleImmutableEntry<>(readOptions, db.newIterator(handler.expirationColumnFamilyHandle, readOptions));
       }, entry -> {
-         if (entry.getValue() == null) {
-            return Flowable.empty();
-         }
          RocksIterator iterator = entry.getValue();
          iterator.seekToFirst();
 
          return Flowable.fromIterable(() ->
-               new AbstractIterator<byte[]>() {
+               new AbstractIterator<MarshallableEntry<K, V>>() {
                   @Override
-                  protected byte[] getNext() {
-                     if (!iterator.isValid()) {
-                        return null;
-                     }
-                     byte[] keyBytes = iterator.key();
-                     Long time = unmarshall(keyBytes);
-                     if (time > now)
-                        return null;
-                     try {
-                        expiredDb.delete(keyBytes);
-                     } catch (RocksDBException e) {
-                        throw new PersistenceException(e);
+                  protected MarshallableEntry<K, V> getNext() {
+                     while (iterator.isValid()) {
+                        byte[] expirationKey = iterator.key();
+                        if (ByteBuffer.wrap(expirationKey).getLong() > now) {
+                           return null;
+                        }
+                        byte[] marshalledKey = Arrays.copyOfRange(expirationKey, Long.BYTES, expirationKey.length);
+                        int segment = ByteBuffer.wrap(iterator.value()).getInt();
+                        lastExpirationKey[0] = expirationKey;
+                        iterator.next();
+                        ColumnFamilyHandle columnFamilyHandle = handler.getHandle(segment);
+                        if (columnFamilyHandle == null) {
+                           // The segment is no longer owned
+                           continue;
+                        }
+                        try {
+                           // The key may have been updated or removed since the expiration was recorded
+                           MarshalledValue mv = handlePossiblyExpiredKey(columnFamilyHandle, marshalledKey, now);
+                           if (mv != null) {
+                              return entryFactory.create(unmarshall(marshalledKey), mv);
+                           }
+                        } catch (RocksDBException e) {
+                           throw new PersistenceException(e);
+                        }
                      }
-                     byte[] value = iterator.value();
-                     iterator.next();
-                     return value;
+                     return null;
                   }
                });
       }, entry -> {
+         entry.getValue().close();
          entry.getKey().close();
-         RocksIterator rocksIterator = entry.getValue();
-         if (rocksIterator != null) {
-            rocksIterator.close();
-         }
       });
 
-      Flowable<MarshallableEntry<K, V>> expiredEntryFlowable = expiredFlowable.flatMap(expiredBytes -> {
-         Object bucketKey = unmarshall(expiredBytes);
-         if (bucketKey instanceof ExpiryBucket) {
-            return Flowable.fromIterable(((ExpiryBucket) bucketKey).entries)
-                  .flatMapMaybe(marshalledKey -> {
-                     ColumnFamilyHandle columnFamilyHandle = handler.getHandleForMarshalledKey(marshalledKey);
-                     MarshalledValue mv = handlePossiblyExpiredKey(columnFamilyHandle, marshalledKey, now);
-                     return mv == null ? Maybe.empty() : Maybe.just(entryFactory.create(unmarshall(marshalledKey), mv));
-                  });
-         } else {
-            // The bucketKey is an actual key
-            ColumnFamilyHandle columnFamilyHandle = handler.getHandle(bucketKey);
-            MarshalledValue mv = handlePossiblyExpiredKey(columnFamilyHandle, marshall(bucketKey), now);
-            return mv == null ? Flowable.empty() : Flowable.just(entryFactory.create(bucketKey, mv));
+      // Once all the expirations up to now have been processed, drop them with a single range tombstone, which
+      // compaction removes along with the records it covers. The end of the range is exclusive, so the last key is
+      // removed on its own
+      expiredEntryFlowable = expiredEntryFlowable.concatWith(Completable.fromAction(() -> {
+         byte[] lastKey = lastExpirationKey[0];
+         if (lastKey == null) {
+            return;
          }
-      });
+         try (WriteBatch batch = new WriteBatch()) {
+            batch.deleteRange(handler.expirationColumnFamilyHandle, expirationKey(0, Util.EMPTY_BYTE_ARRAY), lastKey);
+            batch.delete(handler.expirationColumnFamilyHandle, lastKey);
+            db.write(dataWriteOptions(), batch);
+         }
+      }));
 
       if (log.isTraceEnabled()) {
          // Note this tracing only works properly for one subscriber
@@ -539,7 +637,7 @@ private MarshallableEntry<K, V> unmarshallEntry(Object key, byte[] valueBytes) {
             value.getCreated(), value.getLastUsed());
    }
 
-   private void addNewExpiry(RocksDB expiredDb, MarshallableEntry<? extends K, ? extends V> entry) throws RocksDBException {
+   private long expiryTime(MarshallableEntry<? extends K, ? extends V> entry) {
       long expiry = entry.expiryTime();
       long maxIdle = entry.getMetadata().maxIdle();
       if (maxIdle > 0) {
@@ -547,22 +645,34 @@ private void addNewExpiry(RocksDB expiredDb, MarshallableEntry<? extends K, ? ex
          // which could lead to unexpected results, hence, InternalCacheEntry calls are required
          expiry = maxIdle + ctx.getTimeService().wallClockTime();
       }
-      byte[] keyBytes = entry.getKeyBytes().copy().getBuf();
-      putExpireDbData(expiredDb, new ExpiryEntry(expiry, keyBytes));
+      return expiry;
    }
 
+   /**
+    * Records the expiration of an entry in the same batch as the entry itself. The expiration column family is keyed
+    * by the expiration time followed by the marshalled key, so a key never needs to be read before being recorded,
+    * and the value is the segment of the key.
+    */
+   private void putExpiration(WriteBatch batch, RocksDBHandler handler, long expiry, byte[] marshalledKey, int segment)
+         throws RocksDBException {
+      batch.put(handler.expirationColumnFamilyHandle, expirationKey(expiry, marshalledKey),
+            ByteBuffer.allocate(Integer.BYTES).putInt(segment).array());
+   }
+
+   private static byte[] expirationKey(long expiry, byte[] marshalledKey) {
+      // Big endian, so that the keys sort by expiration time
+      return ByteBuffer.allocate(Long.BYTES + marshalledKey.length).putLong(expiry).put(marshalledKey).array();
+   }
+
+   /**
+    * The keys expiring at the same time in the expiration database of stores created before 12.1
+    */
    @ProtoTypeId(ProtoStreamTypeIds.ROCKSDB_EXPIRY_BUCKET)
    static final class ExpiryBucket {
       @ProtoField(number = 1, collectionImplementation = ArrayList.class)
       List<byte[]> entries;
 
       ExpiryBucket(){}
-
-      ExpiryBucket(byte[] existingKey, byte[] newKey) {
-         entries = new ArrayList<>(2);
-         entries.add(existingKey);
-         entries.add(newKey);
-      }
    }
 
    @ProtoTypeId(ProtoStreamTypeIds.ROCKSDB_PERSISTED_METADATA)
@@ -576,33 +686,6 @@ static final class MetadataImpl {
       }
    }
 
-   private static final class ExpiryEntry {
-
-      final long expiry;
-      final byte[] keyBytes;
-
-      ExpiryEntry(long expiry, byte[] keyBytes) {
-         this.expiry = expiry;
-         this.keyBytes = keyBytes;
-      }
-
-      @Override
-      public boolean equals(Object o) {
-         if (this == o) return true;
-         if (o == null || getClass() != o.getClass()) return false;
-         ExpiryEntry that = (ExpiryEntry) o;
-         return expiry == that.expiry &&
-               Arrays.equals(keyBytes, that.keyBytes);
-      }
-
-      @Override
-      public int hashCode() {
-         int result = Objects.hash(expiry);
-         result = 31 * result + Arrays.hashCode(keyBytes);
-         return result;
-      }
-   }
-
    private class RocksLegacyEntryIterator extends AbstractIterator<MarshallableEntry<K, V>> {
       private final RocksIterator it;
       private final long now;
@@ -673,8 +756,8 @@ protected MarshallableEntry<K, V> getNext() {
    private abstract class RocksDBHandler {
 
       protected RocksDB db;
-      protected RocksDB expiredDb;
       protected ColumnFamilyHandle metaColumnFamilyHandle;
+      protected ColumnFamilyHandle expirationColumnFamilyHandle;
 
       abstract RocksDB open(Path location, DBOptions options) throws RocksDBException;
 
@@ -708,9 +791,22 @@ ColumnFamilyDescriptor newDescriptor(byte[] name) {
          if (configuration.attributes().attribute(RocksDBStoreConfiguration.COMPRESSION_TYPE).isModified()) {
             columnFamilyOptions.setCompressionType(configuration.compressionType().getValue());
          }
+         if (columnFamilyProperties == null || !columnFamilyProperties.containsKey(BLOCK_BASED_TABLE_PROPERTY_NAME)) {
+            columnFamilyOptions.setTableFormatConfig(dataTableConfig());
+         }
          return new ColumnFamilyDescriptor(name, columnFamilyOptions);
       }
 
+      ColumnFamilyDescriptor newExpirationDescriptor() {
+         // Only ever iterated, so no bloom filter
+         ColumnFamilyOptions columnFamilyOptions = new ColumnFamilyOptions();
+         if (configuration.cacheSize() > 0) {
+            columnFamilyOptions.setTableFormatConfig(new BlockBasedTableConfig()
+                  .setBlockCache(resources.blockCache(configuration.cacheSize())));
+         }
+         return new ColumnFamilyDescriptor(EXPIRATION_COLUMN_FAMILY, columnFamilyOptions);
+      }
+
       CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
          ColumnFamilyHandle handle = getHandle(segment);
          if (handle == null) {
@@ -737,6 +833,53 @@ CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
          }
       }
 
+      Publisher<MarshallableEntry<K, V>> bulkLoad(Publisher<SegmentedPublisher<Object>> keyPublisher) {
+         return Flowable.defer(() -> {
+            List<ColumnFamilyHandle> handles = new ArrayList<>();
+            List<Object> keys = new ArrayList<>();
+            return Flowable.fromPublisher(keyPublisher)
+                  .concatMapCompletable(sp -> {
+                     ColumnFamilyHandle handle = getHandle(sp.getSegment());
+                     if (handle == null) {
+                        log.tracef("Ignoring load of segment %d as handle is not currently configured", sp.getSegment());
+                        return Flowable.fromPublisher(sp).ignoreElements();
+                     }
+                     return Flowable.fromPublisher(sp)
+                           .doOnNext(key -> {
+                              handles.add(handle);
+                              keys.add(key);
+                           })
+                           .ignoreElements();
+                  })
+                  .andThen(Flowable.defer(() -> keys.isEmpty() ? Flowable.empty() :
+                        blockingManager.blockingPublisher(Flowable.defer(() -> multiGet(handles, keys)))));
+         });
+      }
+
+      /**
+       * Reads all the keys with a single multi get, instead of a get per key.
+       */
+      private Flowable<MarshallableEntry<K, V>> multiGet(List<ColumnFamilyHandle> handles, List<Object> keys)
+            throws RocksDBException {
+         List<byte[]> marshalledKeys = new ArrayList<>(keys.size());
+         for (Object key : keys) {
+            marshalledKeys.add(marshall(key));
+         }
+         List<byte[]> values = db.multiGetAsList(handles, marshalledKeys);
+         long now = timeService.wallClockTime();
+         List<MarshallableEntry<K, V>> entries = new ArrayList<>(keys.size());
+         for (int i = 0; i < values.size(); ++i) {
+            byte[] valueBytes = values.get(i);
+            if (valueBytes != null) {
+               MarshallableEntry<K, V> me = unmarshallEntry(keys.get(i), valueBytes);
+               if (me != null && !me.isExpired(now)) {
+                  entries.add(me);
+               }
+            }
+         }
+         return Flowable.fromIterable(entries);
+      }
+
       CompletionStage<Void> write(int segment, MarshallableEntry<? extends K, ? extends V> me) {
          ColumnFamilyHandle handle = getHandle(segment);
          if (handle == null) {
@@ -748,9 +891,15 @@ CompletionStage<Void> write(int segment, MarshallableEntry<? extends K, ? extend
             byte[] marshalledValue = marshall(me.getMarshalledValue());
             return blockingManager.runBlocking(() -> {
                try {
-                  db.put(handle, marshalledKey, marshalledValue);
                   if (me.expiryTime() > -1) {
-                     addNewExpiry(expiredDb, me);
+                     // A single atomic write for the entry and its expiration
+                     try (WriteBatch batch = new WriteBatch()) {
+                        batch.put(handle, marshalledKey, marshalledValue);
+                        putExpiration(batch, this, expiryTime(me), marshalledKey, segment);
+                        db.write(dataWriteOptions(), batch);
+                     }
+                  } else {
+                     db.put(handle, marshalledKey, marshalledValue);
                   }
                } catch (RocksDBException e) {
                   throw new PersistenceException(e);
@@ -822,9 +971,8 @@ private final class NonSegmentedRocksDBHandler extends RocksDBHandler {
 
       private ColumnFamilyHandle defaultColumnFamilyHandle;
 
-      private NonSegmentedRocksDBHandler(Path data, Path expired, KeyPartitioner keyPartitioner) throws RocksDBException {
+      private NonSegmentedRocksDBHandler(Path data, KeyPartitioner keyPartitioner) throws RocksDBException {
          this.db = open(data, dataDbOptions());
-         this.expiredDb = openDatabase(expired, expiredDbOptions());
          this.keyPartitioner = keyPartitioner;
       }
 
@@ -847,14 +995,16 @@ ColumnFamilyHandle getHandleForMarshalledKey(byte[] marshalledKey) {
       RocksDB open(Path location, DBOptions options) throws RocksDBException {
          File dir = location.toFile();
          dir.mkdirs();
-         List<ColumnFamilyDescriptor> descriptors = new ArrayList<>(2);
-         List<ColumnFamilyHandle> handles = new ArrayList<>(2);
+         List<ColumnFamilyDescriptor> descriptors = new ArrayList<>(3);
+         List<ColumnFamilyHandle> handles = new ArrayList<>(3);
          descriptors.add(newDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY));
          descriptors.add(newDescriptor(META_COLUMN_FAMILY));
+         descriptors.add(newExpirationDescriptor());
          RocksDB rocksDB = RocksDB.open(options, location.toString(), descriptors, handles);
 
          defaultColumnFamilyHandle = handles.get(0);
          metaColumnFamilyHandle = handles.get(1);
+         expirationColumnFamilyHandle = handles.get(2);
          return rocksDB;
       }
 
@@ -867,6 +1017,7 @@ CompletionStage<Void> clear(IntSet segments) {
          return blockingManager.runBlocking(() -> {
             if (segments == null) {
                clearColumnFamily(defaultColumnFamilyHandle);
+               clearColumnFamily(expirationColumnFamilyHandle);
             } else {
                try (ReadOptions readOptions = new ReadOptions().setFillCache(false)) {
                   try (RocksIterator it = db.newIterator(defaultColumnFamilyHandle, readOptions)) {
@@ -889,9 +1040,10 @@ CompletionStage<Void> clear(IntSet segments) {
       @Override
       void close() {
          defaultColumnFamilyHandle.close();
+         metaColumnFamilyHandle.close();
+         expirationColumnFamilyHandle.close();
 
          db.close();
-         expiredDb.close();
       }
 
       protected RocksIterator wrapIterator(RocksDB db, ReadOptions readOptions, int segment) {
@@ -930,10 +1082,9 @@ CompletionStage<Void> removeSegments(IntSet segments) {
    private class SegmentedRocksDBHandler extends RocksDBHandler {
       private final AtomicReferenceArray<ColumnFamilyHandle> handles;
 
-      private SegmentedRocksDBHandler(Path data, Path expired, int segmentCount) throws RocksDBException {
+      private SegmentedRocksDBHandler(Path data, int segmentCount) throws RocksDBException {
          this.handles = new AtomicReferenceArray<>(segmentCount);
          this.db = open(data, dataDbOptions());
-         this.expiredDb = openDatabase(expired, expiredDbOptions());
       }
 
       byte[] byteArrayFromInt(int val) {
@@ -965,22 +1116,26 @@ RocksDB open(Path location, DBOptions options) throws RocksDBException {
          File dir = location.toFile();
          dir.mkdirs();
          int segmentCount = handles.length();
-         List<ColumnFamilyDescriptor> descriptors = new ArrayList<>(segmentCount + 2);
-         List<ColumnFamilyHandle> outHandles = new ArrayList<>(segmentCount + 2);
+         List<ColumnFamilyDescriptor> descriptors = new ArrayList<>(segmentCount + 3);
+         List<ColumnFamilyHandle> outHandles = new ArrayList<>(segmentCount + 3);
          // You have to open the default column family
          descriptors.add(new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY, new ColumnFamilyOptions()));
 
          // Create the meta column family
          descriptors.add(new ColumnFamilyDescriptor(META_COLUMN_FAMILY, new ColumnFamilyOptions()));
 
+         // Create the expiration column family
+         descriptors.add(newExpirationDescriptor());
+
          for (int i = 0; i < segmentCount; ++i) {
             descriptors.add(newDescriptor(byteArrayFromInt(i)));
          }
 
          RocksDB rocksDB = RocksDB.open(options, location.toString(), descriptors, outHandles);
          metaColumnFamilyHandle = outHandles.get(1);
+         expirationColumnFamilyHandle = outHandles.get(2);
          for (int i = 0; i < segmentCount; ++i) {
-            handles.set(i, outHandles.get(i + 2));
+            handles.set(i, outHandles.get(i + 3));
          }
          return rocksDB;
       }
@@ -991,6 +1146,7 @@ CompletionStage<Void> clear() {
             for (int i = 0; i < handles.length(); ++i) {
                clearForSegment(i);
             }
+            clearColumnFamily(expirationColumnFamilyHandle);
          }, "rocksdb-clear");
       }
 
@@ -1011,9 +1167,10 @@ void close() {
                handle.close();
             }
          }
+         metaColumnFamilyHandle.close();
+         expirationColumnFamilyHandle.close();
 
          db.close();
-         expiredDb.close();
       }
 
       @Override
@@ -1097,25 +1254,6 @@ CompletionStage<Void> removeSegments(IntSet segments) {
       }
    }
 
-   private void putExpireDbData(RocksDB expiredDb, ExpiryEntry entry) throws RocksDBException {
-      final byte[] expiryBytes = marshall(entry.expiry);
-      final byte[] existingBytes = expiredDb.get(expiryBytes);
-
-      if (existingBytes != null) {
-         // in the case of collision make the value a List ...
-         final Object existing = unmarshall(existingBytes);
-         if (existing instanceof ExpiryBucket) {
-            ((ExpiryBucket) existing).entries.add(entry.keyBytes);
-            expiredDb.put(expiryBytes, marshall(existing));
-         } else {
-            ExpiryBucket bucket = new ExpiryBucket(existingBytes, entry.keyBytes);
-            expiredDb.put(expiryBytes, marshall(bucket));
-         }
-      } else {
-         expiredDb.put(expiryBytes, entry.keyBytes);
-      }
-   }
-
    /*
     * Instead of iterate in RocksIterator we use the first and last byte array
     */
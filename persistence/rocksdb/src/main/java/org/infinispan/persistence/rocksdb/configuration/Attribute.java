@@ -13,9 +13,11 @@ public enum Attribute {
    UNKNOWN(null),
 
    BLOCK_SIZE("block-size"),
+   BLOOM_FILTER_BITS_PER_KEY("bloom-filter-bits-per-key"),
    CACHE_SIZE("cache-size"),
    CLEAR_THRESHOLD("clear-threshold"),
    COMPRESSION_TYPE("compressionType"),
+   DIRECT_IO("direct-io"),
    EXPIRED_LOCATION("expiredLocation"),
    EXPIRY_QUEUE_SIZE("expiryQueueSize"),
    IMPLEMENTATION_TYPE("implementationType"),
@@ -24,6 +26,7 @@ public enum Attribute {
    RELATIVE_TO("relative-to"),
    QUEUE_SIZE("queue-size"),
    TYPE("type"),
+   WRITE_BUFFER_SIZE("write-buffer-size"),
    ;
 
    private final String name;
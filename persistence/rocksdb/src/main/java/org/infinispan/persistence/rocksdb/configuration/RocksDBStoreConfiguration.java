@@ -33,10 +33,13 @@ public class RocksDBStoreConfiguration extends AbstractStoreConfiguration implem
    final static AttributeDefinition<Integer> BLOCK_SIZE = AttributeDefinition.builder("blockSize", 0).immutable().build();
    final static AttributeDefinition<Long> CACHE_SIZE = AttributeDefinition.builder("cacheSize", 0l).immutable().build();
    final static AttributeDefinition<Integer> CLEAR_THRESHOLD = AttributeDefinition.builder("clearThreshold", 10000).immutable().build();
+   final static AttributeDefinition<Long> WRITE_BUFFER_SIZE = AttributeDefinition.builder("writeBufferSize", 0l).immutable().build();
+   final static AttributeDefinition<Integer> BLOOM_FILTER_BITS_PER_KEY = AttributeDefinition.builder("bloomFilterBitsPerKey", 10).immutable().build();
+   final static AttributeDefinition<Boolean> DIRECT_IO = AttributeDefinition.builder("directIo", false).immutable().build();
 
    public static AttributeSet attributeDefinitionSet() {
       return new AttributeSet(RocksDBStoreConfiguration.class, AbstractStoreConfiguration.attributeDefinitionSet(), LOCATION, COMPRESSION_TYPE,
-            BLOCK_SIZE, CACHE_SIZE, CLEAR_THRESHOLD);
+            BLOCK_SIZE, CACHE_SIZE, CLEAR_THRESHOLD, WRITE_BUFFER_SIZE, BLOOM_FILTER_BITS_PER_KEY, DIRECT_IO);
    }
 
    public static final ElementDefinition ELEMENT_DEFINITION = new DefaultElementDefinition(ROCKSDB_STORE.getLocalName(), true, false);
@@ -46,6 +49,9 @@ public static AttributeSet attributeDefinitionSet() {
    private final Attribute<Integer> blockSize;
    private final Attribute<Long> cacheSize;
    private final Attribute<Integer> clearThreshold;
+   private final Attribute<Long> writeBufferSize;
+   private final Attribute<Integer> bloomFilterBitsPerKey;
+   private final Attribute<Boolean> directIo;
    private final RocksDBExpirationConfiguration expiration;
 
    public RocksDBStoreConfiguration(AttributeSet attributes, AsyncStoreConfiguration async, RocksDBExpirationConfiguration expiration) {
@@ -55,6 +61,9 @@ public RocksDBStoreConfiguration(AttributeSet attributes, AsyncStoreConfiguratio
       blockSize = attributes.attribute(BLOCK_SIZE);
       cacheSize = attributes.attribute(CACHE_SIZE);
       clearThreshold = attributes.attribute(CLEAR_THRESHOLD);
+      writeBufferSize = attributes.attribute(WRITE_BUFFER_SIZE);
+      bloomFilterBitsPerKey = attributes.attribute(BLOOM_FILTER_BITS_PER_KEY);
+      directIo = attributes.attribute(DIRECT_IO);
       this.expiration = expiration;
    }
 
@@ -93,10 +102,36 @@ public Integer blockSize() {
       return blockSize.get();
    }
 
+   /**
+    * @return the capacity in bytes of the block cache shared by all the RocksDB stores of the cache manager with the
+    * same cache size, or 0 to let RocksDB create a separate block cache for each column family
+    */
    public Long cacheSize() {
       return cacheSize.get();
    }
 
+   /**
+    * @return the total memory in bytes that the memtables of all the RocksDB stores of the cache manager with the same
+    * write buffer size can use, or 0 to let each column family size its memtables independently
+    */
+   public long writeBufferSize() {
+      return writeBufferSize.get();
+   }
+
+   /**
+    * @return the number of bits per key of the bloom filters used for point lookups, or 0 if bloom filters are disabled
+    */
+   public int bloomFilterBitsPerKey() {
+      return bloomFilterBitsPerKey.get();
+   }
+
+   /**
+    * @return whether reads, flushes and compactions bypass the operating system page cache
+    */
+   public boolean directIo() {
+      return directIo.get();
+   }
+
    /**
     * @deprecated There is no more queue in {@link org.infinispan.persistence.rocksdb.RocksDBStore}
     */
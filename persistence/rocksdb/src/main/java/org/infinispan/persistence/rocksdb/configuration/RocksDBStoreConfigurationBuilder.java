@@ -2,16 +2,22 @@
 
 import static org.infinispan.persistence.rocksdb.configuration.RocksDBExpirationConfiguration.EXPIRED_LOCATION;
 import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.BLOCK_SIZE;
+import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.BLOOM_FILTER_BITS_PER_KEY;
 import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.CACHE_SIZE;
 import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.CLEAR_THRESHOLD;
 import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.COMPRESSION_TYPE;
+import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.DIRECT_IO;
 import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.LOCATION;
+import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.WRITE_BUFFER_SIZE;
+import static org.infinispan.persistence.rocksdb.logging.Log.CONFIG;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 
 import org.infinispan.commons.configuration.Builder;
 import org.infinispan.commons.configuration.ConfigurationBuilderInfo;
+import org.infinispan.commons.configuration.attributes.AttributeDefinition;
 import org.infinispan.commons.configuration.attributes.AttributeSet;
 import org.infinispan.commons.configuration.elements.ElementDefinition;
 import org.infinispan.configuration.cache.AbstractStoreConfigurationBuilder;
@@ -57,6 +63,10 @@ public RocksDBStoreConfigurationBuilder location(String location) {
       return self();
    }
 
+   /**
+    * Sets the location of the expiration database of stores created before 12.1. The expiration times are now kept in
+    * a column family of the data database, and an existing expiration database is migrated to it on start and removed.
+    */
    public RocksDBStoreConfigurationBuilder expiredLocation(String expiredLocation) {
       expiration.expiredLocation(expiredLocation);
       return self();
@@ -67,11 +77,46 @@ public RocksDBStoreConfigurationBuilder blockSize(int blockSize) {
       return self();
    }
 
+   /**
+    * Sets the capacity in bytes of the block cache. The block cache is shared by all the column families of all the
+    * RocksDB stores in the cache manager configured with the same cache size, so it bounds the memory used to cache
+    * data blocks regardless of the number of caches and segments. Defaults to 0, which lets RocksDB create a separate
+    * block cache for each column family.
+    */
    public RocksDBStoreConfigurationBuilder cacheSize(long cacheSize) {
       attributes.attribute(CACHE_SIZE).set(cacheSize);
       return self();
    }
 
+   /**
+    * Sets the total memory in bytes that the memtables of all the RocksDB stores in the cache manager configured with
+    * the same write buffer size can use before they are flushed. When a {@link #cacheSize(long)} is also configured,
+    * the memtables are charged against the shared block cache. Defaults to 0, which lets each column family size its
+    * memtables independently.
+    */
+   public RocksDBStoreConfigurationBuilder writeBufferSize(long writeBufferSize) {
+      attributes.attribute(WRITE_BUFFER_SIZE).set(writeBufferSize);
+      return self();
+   }
+
+   /**
+    * Sets the number of bits per key of the bloom filters that allow point lookups to skip the files that cannot
+    * contain a key. Defaults to 10, which gives a false positive rate of about 1%. 0 disables the bloom filters.
+    */
+   public RocksDBStoreConfigurationBuilder bloomFilterBitsPerKey(int bloomFilterBitsPerKey) {
+      attributes.attribute(BLOOM_FILTER_BITS_PER_KEY).set(bloomFilterBitsPerKey);
+      return self();
+   }
+
+   /**
+    * Enables direct I/O for reads, flushes and compactions, bypassing the operating system page cache, so that the
+    * data is cached only once, in the block cache. Defaults to false.
+    */
+   public RocksDBStoreConfigurationBuilder directIo(boolean directIo) {
+      attributes.attribute(DIRECT_IO).set(directIo);
+      return self();
+   }
+
    /**
     * @deprecated Since 10.1, there is no more queue in {@link org.infinispan.persistence.rocksdb.RocksDBStore}
     */
@@ -99,6 +144,12 @@ public RocksDBStoreConfigurationBuilder compressionType(CompressionType compress
    public void validate() {
       // how do you validate required attributes?
       super.validate();
+      for (AttributeDefinition<? extends Number> definition : Arrays.asList(CACHE_SIZE, WRITE_BUFFER_SIZE, BLOOM_FILTER_BITS_PER_KEY)) {
+         Number value = attributes.attribute(definition).get();
+         if (value.longValue() < 0) {
+            throw CONFIG.rocksDBNegativeAttribute(definition.name(), value);
+         }
+      }
       expiration.validate();
    }
 
@@ -80,6 +80,18 @@ private void parseRocksDBCacheStore(XMLExtendedStreamReader reader, RocksDBStore
                builder.cacheSize(Long.parseLong(value));
                break;
             }
+            case WRITE_BUFFER_SIZE: {
+               builder.writeBufferSize(Long.parseLong(value));
+               break;
+            }
+            case BLOOM_FILTER_BITS_PER_KEY: {
+               builder.bloomFilterBitsPerKey(Integer.parseInt(value));
+               break;
+            }
+            case DIRECT_IO: {
+               builder.directIo(Boolean.parseBoolean(value));
+               break;
+            }
             default: {
                Parser.parseStoreAttribute(reader, i, builder);
             }
@@ -0,0 +1,25 @@
+package org.infinispan.persistence.rocksdb.internal;
+
+import org.infinispan.configuration.global.GlobalConfiguration;
+import org.infinispan.factories.GlobalComponentRegistry;
+import org.infinispan.factories.annotations.InfinispanModule;
+import org.infinispan.lifecycle.ModuleLifecycle;
+
+/**
+ * Registers the {@link RocksDBResources} shared by the RocksDB stores of a cache manager.
+ *
+ * @since 12.1
+ */
+@InfinispanModule(name = "cachestore-rocksdb", requiredModules = "core")
+public class LifecycleCallbacks implements ModuleLifecycle {
+
+   @Override
+   public void cacheManagerStarting(GlobalComponentRegistry gcr, GlobalConfiguration globalConfiguration) {
+      gcr.registerComponent(new RocksDBResources(), RocksDBResources.class);
+   }
+
+   @Override
+   public void cacheManagerStopping(GlobalComponentRegistry gcr) {
+      gcr.getComponent(RocksDBResources.class).close();
+   }
+}
@@ -0,0 +1,124 @@
+package org.infinispan.persistence.rocksdb.internal;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
+import org.rocksdb.Cache;
+import org.rocksdb.LRUCache;
+import org.rocksdb.Statistics;
+import org.rocksdb.TickerType;
+import org.rocksdb.WriteBufferManager;
+
+/**
+ * Native RocksDB resources shared by all the {@link org.infinispan.persistence.rocksdb.RocksDBStore}s of a cache
+ * manager, so that the memory used by the block caches and the memtables is bounded per node instead of per column
+ * family.
+ * <p>
+ * The block caches and write buffer managers are keyed by their size, so stores configured with the same sizes share
+ * them. The statistics are collected by all the stores of caches with statistics enabled, and are exported as the
+ * {@code RocksDB} component.
+ *
+ * @since 12.1
+ */
+@MBean(objectName = "RocksDB", description = "Statistics of the RocksDB stores of the cache manager")
+public class RocksDBResources {
+   private final Map<Long, LRUCache> blockCaches = new HashMap<>();
+   private final Map<List<Long>, WriteBufferManager> writeBufferManagers = new HashMap<>();
+   private Statistics statistics;
+
+   /**
+    * @return the block cache with the given capacity, creating it on first use
+    */
+   public synchronized Cache blockCache(long capacity) {
+      return blockCaches.computeIfAbsent(capacity, LRUCache::new);
+   }
+
+   /**
+    * @return the write buffer manager with the given size, charging the memtables against the block cache with the
+    * given capacity. A capacity of 0 only tracks the memtables usage.
+    */
+   public synchronized WriteBufferManager writeBufferManager(long bufferSize, long cacheCapacity) {
+      return writeBufferManagers.computeIfAbsent(Arrays.asList(bufferSize, cacheCapacity),
+            ignore -> new WriteBufferManager(bufferSize, blockCache(cacheCapacity)));
+   }
+
+   /**
+    * @return the statistics shared by all the stores that collect them
+    */
+   public synchronized Statistics statistics() {
+      if (statistics == null) {
+         statistics = new Statistics();
+      }
+      return statistics;
+   }
+
+   private synchronized long tickerCount(TickerType tickerType) {
+      return statistics == null ? 0 : statistics.getTickerCount(tickerType);
+   }
+
+   @ManagedAttribute(description = "Number of reads served by the block cache",
+         displayName = "Block cache hits", measurementType = MeasurementType.TRENDSUP)
+   public long getBlockCacheHits() {
+      return tickerCount(TickerType.BLOCK_CACHE_HIT);
+   }
+
+   @ManagedAttribute(description = "Number of reads that missed the block cache and had to read from disk",
+         displayName = "Block cache misses", measurementType = MeasurementType.TRENDSUP)
+   public long getBlockCacheMisses() {
+      return tickerCount(TickerType.BLOCK_CACHE_MISS);
+   }
+
+   @ManagedAttribute(description = "Percentage of the block reads served by the block cache",
+         displayName = "Block cache hit ratio", units = Units.PERCENTAGE)
+   public double getBlockCacheHitRatio() {
+      long hits = getBlockCacheHits();
+      long total = hits + getBlockCacheMisses();
+      return total == 0 ? 0 : (double) hits / total;
+   }
+
+   @ManagedAttribute(description = "Number of point lookups that a bloom filter allowed to skip a file",
+         displayName = "Bloom filter useful", measurementType = MeasurementType.TRENDSUP)
+   public long getBloomFilterUseful() {
+      return tickerCount(TickerType.BLOOM_FILTER_USEFUL);
+   }
+
+   @ManagedAttribute(description = "Time writes were stalled waiting for flushes and compactions to catch up",
+         displayName = "Write stall time", units = Units.MILLISECONDS, measurementType = MeasurementType.TRENDSUP)
+   public long getWriteStallTime() {
+      return TimeUnit.MICROSECONDS.toMillis(tickerCount(TickerType.STALL_MICROS));
+   }
+
+   @ManagedAttribute(description = "Number of bytes read by compactions",
+         displayName = "Compaction bytes read", units = Units.BYTES, measurementType = MeasurementType.TRENDSUP)
+   public long getCompactionBytesRead() {
+      return tickerCount(TickerType.COMPACT_READ_BYTES);
+   }
+
+   @ManagedAttribute(description = "Number of bytes written by compactions",
+         displayName = "Compaction bytes written", units = Units.BYTES, measurementType = MeasurementType.TRENDSUP)
+   public long getCompactionBytesWritten() {
+      return tickerCount(TickerType.COMPACT_WRITE_BYTES);
+   }
+
+   /**
+    * Releases the native resources. Invoked when the cache manager stops, after all the caches and their stores have
+    * been stopped.
+    */
+   public synchronized void close() {
+      writeBufferManagers.values().forEach(WriteBufferManager::close);
+      writeBufferManagers.clear();
+      blockCaches.values().forEach(LRUCache::close);
+      blockCaches.clear();
+      if (statistics != null) {
+         statistics.close();
+         statistics = null;
+      }
+   }
+}
@@ -2,6 +2,7 @@
 
 import org.infinispan.commons.CacheConfigurationException;
 import org.jboss.logging.BasicLogger;
+import org.jboss.logging.Logger;
 import org.jboss.logging.annotations.Message;
 import org.jboss.logging.annotations.MessageLogger;
 
@@ -11,6 +12,8 @@
  */
 @MessageLogger(projectCode = "ISPN")
 public interface Log extends BasicLogger {
+   Log CONFIG = Logger.getMessageLogger(Log.class, org.infinispan.util.logging.Log.LOG_ROOT + "CONFIG");
+
 //   @LogMessage(level = ERROR)
 //   @Message(value = "Error executing parallel store task", id = 252)
 //   void errorExecutingParallelStoreTask(@Cause Throwable cause);
@@ -21,4 +24,7 @@ public interface Log extends BasicLogger {
 
    @Message(value = "RocksDB properties %s, contains an unknown property", id = 294)
    CacheConfigurationException rocksDBUnknownPropertiesSupplied(String properties);
+
+   @Message(value = "The RocksDB store attribute '%s' cannot be negative, but was %s", id = 23001)
+   CacheConfigurationException rocksDBNegativeAttribute(String attributeName, Number value);
 }
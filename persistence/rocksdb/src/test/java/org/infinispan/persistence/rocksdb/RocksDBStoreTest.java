@@ -5,20 +5,27 @@
 import static org.infinispan.util.concurrent.CompletionStages.join;
 import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
 import static org.testng.AssertJUnit.assertTrue;
 import static org.testng.AssertJUnit.fail;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
 
 import org.infinispan.commons.io.ByteBufferImpl;
 import org.infinispan.commons.test.CommonsTestingUtil;
 import org.infinispan.commons.util.IntSet;
+import org.infinispan.commons.util.IntSets;
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
@@ -26,11 +33,18 @@
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.marshall.persistence.impl.MarshalledEntryUtil;
 import org.infinispan.persistence.BaseNonBlockingStoreTest;
+import org.infinispan.persistence.PersistenceUtil;
 import org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfigurationBuilder;
 import org.infinispan.persistence.spi.MarshallableEntry;
 import org.infinispan.persistence.spi.NonBlockingStore;
 import org.infinispan.persistence.spi.PersistenceException;
 import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
+import org.rocksdb.ColumnFamilyDescriptor;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.DBOptions;
+import org.rocksdb.Options;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksIterator;
 import org.testng.AssertJUnit;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.Factory;
@@ -176,6 +190,129 @@ public void testSegmentsRemovedAndAdded() {
       assertEquals(Arrays.asList(KEY_1, KEY_2), listKeys(null));
    }
 
+   public void testPurgeExpiredAfterOverwrite() {
+      long lifespan = 1000;
+      store.write(marshalledEntry(internalCacheEntry(KEY_1, "value1", lifespan)));
+      store.write(marshalledEntry(internalCacheEntry(KEY_2, "value2", lifespan)));
+      // The overwrite leaves the previous expiration of the key behind
+      store.write(marshalledEntry(internalCacheEntry(KEY_2, "value2", -1)));
+      timeService.advance(lifespan + 1);
+
+      purgeExpired(KEY_1);
+      assertContains(KEY_1, false);
+      assertContains(KEY_2, true);
+
+      // The expirations already processed are not processed again
+      purgeExpired();
+      assertContains(KEY_2, true);
+   }
+
+   public void testLegacyExpirationMigrated() throws Exception {
+      long lifespan = 10;
+      List<Object> keys = new ArrayList<>();
+      for (int i = 0; i < 6; ++i) {
+         String key = "key" + i;
+         keys.add(key);
+         store.write(marshalledEntry(internalCacheEntry(key, "value" + i, lifespan)));
+      }
+      long expiry = timeService.wallClockTime() + lifespan;
+      store.stopAndWait();
+
+      // Stores created before 12.1 kept the expirations in a separate database, with either a bucket of keys or a
+      // single key for each expiration time
+      removeExpirations(getQualifiedLocation("data"));
+      try (Options options = new Options().setCreateIfMissing(true);
+           RocksDB legacyDb = RocksDB.open(options, getQualifiedLocation("expired").toString())) {
+         RocksDBStore.ExpiryBucket bucket = new RocksDBStore.ExpiryBucket();
+         bucket.entries = new ArrayList<>();
+         for (Object key : keys.subList(0, 5)) {
+            bucket.entries.add(getMarshaller().objectToByteBuffer(key));
+         }
+         legacyDb.put(getMarshaller().objectToByteBuffer(expiry), getMarshaller().objectToByteBuffer(bucket));
+         legacyDb.put(getMarshaller().objectToByteBuffer(expiry - 1), getMarshaller().objectToByteBuffer(keys.get(5)));
+      }
+
+      store.startAndWait(createContext(configuration));
+      assertFalse(getQualifiedLocation("expired").toFile().exists());
+      assertEquals(keys, listKeys(null));
+
+      timeService.advance(lifespan + 1);
+      purgeExpired("key0", "key1", "key2", "key3", "key4", "key5");
+      assertEmpty(null);
+   }
+
+   private Path getQualifiedLocation(String qualifier) {
+      return PersistenceUtil.getQualifiedLocation(initializationContext.getGlobalConfiguration(), tmpDirectory,
+            initializationContext.getCache().getName(), qualifier);
+   }
+
+   /**
+    * Removes the expirations recorded by the store, as if the entries were written before 12.1
+    */
+   private void removeExpirations(Path location) throws Exception {
+      try (Options options = new Options();
+           DBOptions dbOptions = new DBOptions()) {
+         List<byte[]> names = RocksDB.listColumnFamilies(options, location.toString());
+         List<ColumnFamilyDescriptor> descriptors = new ArrayList<>(names.size());
+         for (byte[] name : names) {
+            descriptors.add(new ColumnFamilyDescriptor(name));
+         }
+         List<ColumnFamilyHandle> handles = new ArrayList<>(names.size());
+         try (RocksDB db = RocksDB.open(dbOptions, location.toString(), descriptors, handles)) {
+            for (int i = 0; i < names.size(); ++i) {
+               if (Arrays.equals(RocksDBStore.EXPIRATION_COLUMN_FAMILY, names.get(i))) {
+                  try (RocksIterator it = db.newIterator(handles.get(i))) {
+                     for (it.seekToFirst(); it.isValid(); it.next()) {
+                        db.delete(handles.get(i), it.key());
+                     }
+                  }
+               }
+            }
+            handles.forEach(ColumnFamilyHandle::close);
+         }
+      }
+   }
+
+   public void testBulkLoad() {
+      int numKeys = 50;
+      List<Object> keys = new ArrayList<>(numKeys);
+      IntSet segments = IntSets.mutableEmptySet(segmentCount);
+      for (int i = 0; i < numKeys; ++i) {
+         String key = "key" + i;
+         keys.add(key);
+         segments.set(keyPartitioner.getSegment(key));
+         // Every third key is missing and every fifth one expires
+         if (i % 3 != 0) {
+            store.write(marshalledEntry(internalCacheEntry(key, "value" + i, i % 5 == 0 ? 10 : -1)));
+         }
+      }
+      assertTrue(segments.size() > 1);
+      timeService.advance(11);
+      assertBulkLoad(keys, i -> i % 3 != 0 && i % 5 != 0);
+
+      // The keys of a removed segment are not loaded anymore
+      int removedSegment = keyPartitioner.getSegment("key1");
+      join(store.removeSegments(immutableSet(removedSegment)));
+      assertBulkLoad(keys, i -> i % 3 != 0 && i % 5 != 0 && keyPartitioner.getSegment("key" + i) != removedSegment);
+   }
+
+   private void assertBulkLoad(List<Object> keys, IntPredicate found) {
+      Map<Object, Object> loaded = new HashMap<>();
+      for (MarshallableEntry<Object, Object> entry : store.bulkLoadWait(keys)) {
+         assertNull("Duplicate " + entry.getKey(), loaded.put(entry.getKey(), entry.getValue()));
+      }
+      int expectedCount = 0;
+      for (int i = 0; i < keys.size(); ++i) {
+         if (found.test(i)) {
+            assertEquals("key" + i, "value" + i, loaded.get("key" + i));
+            expectedCount++;
+         } else {
+            assertNull("key" + i, loaded.get("key" + i));
+         }
+      }
+      assertEquals(expectedCount, loaded.size());
+   }
+
    public void testClear() {
       MarshallableEntry me1 = marshallableEntryFactory.create(KEY_1, "value");
       store.write(1, me1);
@@ -2,12 +2,14 @@
 
 import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
 import static org.testng.AssertJUnit.assertTrue;
 
 import java.io.IOException;
 import java.net.URL;
 
 import org.infinispan.Cache;
+import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.commons.test.CommonsTestingUtil;
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.cache.Configuration;
@@ -21,7 +23,9 @@
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration;
 import org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfigurationBuilder;
+import org.infinispan.persistence.rocksdb.internal.RocksDBResources;
 import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.test.TestingUtil;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.Test;
 
@@ -42,14 +46,19 @@ public void testConfigBuilder() {
             .globalState().persistentLocation(tmpDirectory)
             .build();
 
-      Configuration cacheConfig = new ConfigurationBuilder().persistence().addStore(RocksDBStoreConfigurationBuilder.class).location(tmpDataDirectory)
-            .expiredLocation(tmpExpiredDirectory).build();
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.statistics().enable();
+      Configuration cacheConfig = builder.persistence().addStore(RocksDBStoreConfigurationBuilder.class).location(tmpDataDirectory)
+            .expiredLocation(tmpExpiredDirectory).cacheSize(1 << 20).writeBufferSize(1 << 20).build();
 
       StoreConfiguration cacheLoaderConfig = cacheConfig.persistence().stores().get(0);
       assertTrue(cacheLoaderConfig instanceof RocksDBStoreConfiguration);
       RocksDBStoreConfiguration rocksdbConfig = (RocksDBStoreConfiguration) cacheLoaderConfig;
       assertEquals(tmpDataDirectory, rocksdbConfig.location());
       assertEquals(tmpExpiredDirectory, rocksdbConfig.expiredLocation());
+      assertEquals(1 << 20, rocksdbConfig.writeBufferSize());
+      assertEquals(10, rocksdbConfig.bloomFilterBitsPerKey());
+      assertFalse(rocksdbConfig.directIo());
 
       EmbeddedCacheManager cacheManager = new DefaultCacheManager(globalConfig);
 
@@ -59,10 +68,17 @@ public void testConfigBuilder() {
       Cache<String, String> cache = cacheManager.getCache("testCache");
 
       cache.put("hello", "there");
+      assertEquals("there", cache.get("hello"));
+      assertNotNull(TestingUtil.extractGlobalComponent(cacheManager, RocksDBResources.class));
       cache.stop();
       cacheManager.stop();
    }
 
+   @Test(expectedExceptions = CacheConfigurationException.class, expectedExceptionsMessageRegExp = "ISPN023001:.*")
+   public void testNegativeCacheSize() {
+      new ConfigurationBuilder().persistence().addStore(RocksDBStoreConfigurationBuilder.class).cacheSize(-1).build();
+   }
+
    public void testXmlConfig() throws IOException {
       URL config = ConfigurationTest.class.getResource("/config/rocksdb-config.xml");
       ConfigurationBuilderHolder configHolder = new ParserRegistry().parse(config);
@@ -82,5 +98,9 @@ public void testXmlConfig() throws IOException {
       RocksDBStoreConfiguration rocksdbConfig = (RocksDBStoreConfiguration) cacheLoaderConfig;
       assertEquals("/tmp/rocksdb/52/data", rocksdbConfig.location());
       assertEquals("/tmp/rocksdb/52/expired", rocksdbConfig.expiredLocation());
+      assertEquals(67108864L, rocksdbConfig.cacheSize().longValue());
+      assertEquals(33554432L, rocksdbConfig.writeBufferSize());
+      assertEquals(12, rocksdbConfig.bloomFilterBitsPerKey());
+      assertTrue(rocksdbConfig.directIo());
    }
 }
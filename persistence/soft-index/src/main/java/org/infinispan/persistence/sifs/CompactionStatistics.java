@@ -0,0 +1,122 @@
+package org.infinispan.persistence.sifs;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.infinispan.commons.time.TimeService;
+
+/**
+ * Collects the statistics of the {@link Compactor} of a {@link SoftIndexFileStore}. The store is not a component of the
+ * cache, so this is registered as a standard MBean by the store itself.
+ *
+ * @since 12.1
+ */
+public class CompactionStatistics implements CompactionStatisticsMBean {
+   private final Compactor compactor;
+   private final TimeService timeService;
+   private final int threads;
+   private final LongAdder filesCompacted = new LongAdder();
+   private final LongAdder bytesCompacted = new LongAdder();
+   private final LongAdder bytesMoved = new LongAdder();
+   private final LongAdder bytesAppended = new LongAdder();
+   // time during which at least one file was being compacted, guarded by this
+   private int compacting;
+   private long compactingSince;
+   private long compactingNanos;
+
+   CompactionStatistics(Compactor compactor, TimeService timeService, int threads) {
+      this.compactor = compactor;
+      this.timeService = timeService;
+      this.threads = threads;
+   }
+
+   synchronized void compactionStarted() {
+      if (compacting++ == 0) {
+         compactingSince = timeService.time();
+      }
+   }
+
+   synchronized void compactionCompleted() {
+      if (--compacting == 0) {
+         compactingNanos += timeService.timeDuration(compactingSince, TimeUnit.NANOSECONDS);
+      }
+   }
+
+   void fileCompacted() {
+      filesCompacted.increment();
+   }
+
+   void compacted(int bytes) {
+      bytesCompacted.add(bytes);
+   }
+
+   void moved(int bytes) {
+      bytesMoved.add(bytes);
+   }
+
+   void appended(int bytes) {
+      bytesAppended.add(bytes);
+   }
+
+   @Override
+   public int getCompactionThreads() {
+      return threads;
+   }
+
+   @Override
+   public Map<Integer, Double> getFileGarbageRatios() {
+      return compactor.getGarbageRatios();
+   }
+
+   @Override
+   public double getGarbageRatio() {
+      return compactor.getGarbageRatio();
+   }
+
+   @Override
+   public int getFilesScheduled() {
+      return compactor.getScheduledFiles();
+   }
+
+   @Override
+   public long getFilesCompacted() {
+      return filesCompacted.sum();
+   }
+
+   @Override
+   public long getBytesCompacted() {
+      return bytesCompacted.sum();
+   }
+
+   @Override
+   public long getBytesMoved() {
+      return bytesMoved.sum();
+   }
+
+   @Override
+   public long getBytesAppended() {
+      return bytesAppended.sum();
+   }
+
+   @Override
+   public double getCompactionRate() {
+      long nanos;
+      synchronized (this) {
+         nanos = compactingNanos;
+         if (compacting > 0) {
+            nanos += timeService.timeDuration(compactingSince, TimeUnit.NANOSECONDS);
+         }
+      }
+      return nanos == 0 ? 0 : bytesCompacted.sum() * (double) TimeUnit.SECONDS.toNanos(1) / nanos;
+   }
+
+   @Override
+   public double getWriteAmplification() {
+      long appended = bytesAppended.sum();
+      if (appended == 0) {
+         return 1;
+      }
+      return (double) (appended + bytesMoved.sum()) / appended;
+   }
+}
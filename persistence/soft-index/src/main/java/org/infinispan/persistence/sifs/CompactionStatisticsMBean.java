@@ -0,0 +1,62 @@
+package org.infinispan.persistence.sifs;
+
+import java.util.Map;
+
+/**
+ * Management interface exposing the statistics of the compaction of the data files of a {@link SoftIndexFileStore}.
+ *
+ * @since 12.1
+ */
+public interface CompactionStatisticsMBean {
+
+   /**
+    * @return number of threads compacting the data files
+    */
+   int getCompactionThreads();
+
+   /**
+    * @return share of unused space of every data file, by file id
+    */
+   Map<Integer, Double> getFileGarbageRatios();
+
+   /**
+    * @return share of unused space in all the data files
+    */
+   double getGarbageRatio();
+
+   /**
+    * @return number of data files waiting for compaction
+    */
+   int getFilesScheduled();
+
+   /**
+    * @return number of data files that have been compacted
+    */
+   long getFilesCompacted();
+
+   /**
+    * @return number of bytes read from the data files being compacted
+    */
+   long getBytesCompacted();
+
+   /**
+    * @return number of bytes of the live records moved by the compaction to new data files
+    */
+   long getBytesMoved();
+
+   /**
+    * @return number of bytes appended to the data files by the writes to the store
+    */
+   long getBytesAppended();
+
+   /**
+    * @return average number of bytes compacted per second, while any file was being compacted
+    */
+   double getCompactionRate();
+
+   /**
+    * @return ratio of all the bytes written to the data files, including the compaction, to the bytes written by the
+    * writes to the store
+    */
+   double getWriteAmplification();
+}
@@ -1,13 +1,17 @@
 package org.infinispan.persistence.sifs;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 import org.infinispan.commons.marshall.Marshaller;
 import org.infinispan.commons.time.TimeService;
@@ -17,14 +21,21 @@
  * Component keeping the data about log file usage - as soon as entries from some file are overwritten so that the file
  * becomes cluttered with old records, the valid records are moved to another file and the old ones are dropped.
  * Expired records are moved as tombstones without values (records of entry removal).
+ * <p>
+ * The scheduled files are compacted by a pool of threads, the files with the largest share of unused space first.
+ * While the store is being written to, the compaction is limited to the configured rate, so that it doesn't steal the
+ * disk bandwidth of the writes. The limit is lifted when the store is idle or when more files are waiting for
+ * compaction than there are threads, as the disk usage would keep growing otherwise.
  *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
-class Compactor extends Thread {
+class Compactor {
    private static final Log log = LogFactory.getLog(Compactor.class, Log.class);
+   // the writes are considered to be in progress if the last one happened less than this ago
+   private static final long FOREGROUND_IDLE_NANOS = TimeUnit.SECONDS.toNanos(1);
 
    private final ConcurrentMap<Integer, Stats> fileStats = new ConcurrentHashMap<Integer, Stats>();
-   private final BlockingQueue<Integer> scheduledCompaction = new LinkedBlockingQueue<Integer>();
+   private final BlockingQueue<ScheduledFile> scheduledCompaction = new PriorityBlockingQueue<>();
    private final BlockingQueue<IndexRequest> indexQueue;
    private final FileProvider fileProvider;
    private final TemporaryTable temporaryTable;
@@ -32,6 +43,12 @@ class Compactor extends Thread {
    private final TimeService timeService;
    private final int maxFileSize;
    private final double compactionThreshold;
+   private final long compactionRate;
+   private final Thread[] workers;
+   private final CompactionStatistics statistics;
+   // time when the compaction may read the next record without exceeding the rate
+   private final AtomicLong nextPermit = new AtomicLong();
+   private volatile long lastForegroundWrite;
 
    private Index index;
    // as processing single scheduled compaction takes a lot of time, we don't use the queue to signalize
@@ -44,8 +61,8 @@ class Compactor extends Thread {
    public Compactor(FileProvider fileProvider,
                     TemporaryTable temporaryTable,
                     BlockingQueue<IndexRequest> indexQueue,
-                    Marshaller marshaller, TimeService timeService, int maxFileSize, double compactionThreshold) {
-      super("BCS-Compactor");
+                    Marshaller marshaller, TimeService timeService, int maxFileSize, double compactionThreshold,
+                    int compactionThreads, long compactionRate) {
       this.fileProvider = fileProvider;
       this.temporaryTable = temporaryTable;
       this.indexQueue = indexQueue;
@@ -53,13 +70,65 @@ public Compactor(FileProvider fileProvider,
       this.timeService = timeService;
       this.maxFileSize = maxFileSize;
       this.compactionThreshold = compactionThreshold;
-      this.start();
+      this.compactionRate = compactionRate;
+      this.statistics = new CompactionStatistics(this, timeService, compactionThreads);
+      this.lastForegroundWrite = timeService.time() - FOREGROUND_IDLE_NANOS;
+      this.workers = new Thread[compactionThreads];
+      for (int i = 0; i < compactionThreads; ++i) {
+         workers[i] = new Thread(this::run, compactionThreads == 1 ? "BCS-Compactor" : "BCS-Compactor-" + i);
+         workers[i].start();
+      }
    }
 
    public void setIndex(Index index) {
       this.index = index;
    }
 
+   CompactionStatistics getStatistics() {
+      return statistics;
+   }
+
+   /**
+    * Records the bytes appended to the log by the writes of the store.
+    */
+   void appended(int bytes) {
+      statistics.appended(bytes);
+      lastForegroundWrite = timeService.time();
+   }
+
+   /**
+    * @return the share of unused space of every data file that has been completed
+    */
+   Map<Integer, Double> getGarbageRatios() {
+      Map<Integer, Double> ratios = new HashMap<>();
+      fileStats.forEach((file, stats) -> {
+         int total = stats.getTotal();
+         if (stats.isCompleted() && total > 0) {
+            ratios.put(file, Math.min(1d, (double) stats.getFree() / total));
+         }
+      });
+      return ratios;
+   }
+
+   /**
+    * @return the share of unused space in all the data files that have been completed
+    */
+   double getGarbageRatio() {
+      long free = 0;
+      long total = 0;
+      for (Stats stats : fileStats.values()) {
+         if (stats.isCompleted() && stats.getTotal() > 0) {
+            free += Math.min(stats.getFree(), stats.getTotal());
+            total += stats.getTotal();
+         }
+      }
+      return total == 0 ? 0 : (double) free / total;
+   }
+
+   int getScheduledFiles() {
+      return scheduledCompaction.size();
+   }
+
    public void releaseStats(int file) {
       fileStats.remove(file);
    }
@@ -112,7 +181,7 @@ private void schedule(int file, Stats stats) {
             if (!stats.isScheduled()) {
                log.debug(String.format("Scheduling file %d for compaction: %d/%d free", file, stats.free.get(), stats.total));
                stats.setScheduled();
-               scheduledCompaction.put(file);
+               scheduledCompaction.put(new ScheduledFile(file, stats.getTotal() > 0 ? (double) stats.getFree() / stats.getTotal() : 0));
             }
          }
       } catch (InterruptedException e) {
@@ -121,15 +190,15 @@ private void schedule(int file, Stats stats) {
       }
    }
 
-   @Override
-   public void run() {
+   private void run() {
       try {
          FileProvider.Log logFile = null;
          int currentOffset = 0;
          for(;;) {
             Integer scheduledFile = null;
             try {
-               scheduledFile = scheduledCompaction.poll(1, TimeUnit.MINUTES);
+               ScheduledFile scheduled = scheduledCompaction.poll(1, TimeUnit.MINUTES);
+               scheduledFile = scheduled == null || scheduled == ScheduledFile.SIGNAL ? null : scheduled.file;
             } catch (InterruptedException e) {
             }
             if (terminateSignal) {
@@ -159,6 +228,7 @@ public void run() {
             if (handle == null) {
                throw new IllegalStateException("Compactor should not get deleted file for compaction!");
             }
+            statistics.compactionStarted();
             try {
                while (!clearSignal && !terminateSignal) {
                   EntryHeader header = EntryRecord.readEntryHeader(handle, scheduledOffset);
@@ -171,6 +241,8 @@ public void run() {
                            + handle.getFileId() + ":" + scheduledOffset);
                   }
                   Object key = marshaller.objectFromByteBuffer(serializedKey);
+                  throttle(header.totalLength());
+                  statistics.compacted(header.totalLength());
 
                   int indexedOffset = header.valueLength() > 0 ? scheduledOffset : ~scheduledOffset;
                   boolean drop = true;
@@ -291,11 +363,13 @@ public void run() {
                            scheduledFile, indexedOffset));
 
                      currentOffset += writtenLength;
+                     statistics.moved(writtenLength);
                   }
                   scheduledOffset += header.totalLength();
                }
             } finally {
                handle.close();
+               statistics.compactionCompleted();
             }
             if (terminateSignal) {
                if (logFile != null) {
@@ -309,6 +383,7 @@ public void run() {
             } else {
                // The deletion must be executed only after the index is fully updated.
                log.debugf("Finished compacting %d, scheduling delete", scheduledFile);
+               statistics.fileCompacted();
                indexQueue.put(IndexRequest.deleteFileRequest(scheduledFile));
             }
          }
@@ -317,6 +392,27 @@ public void run() {
       }
    }
 
+   /**
+    * Waits until the compaction may read a record of the given size without exceeding the rate. The rate is only
+    * enforced while the store is being written to and the compaction keeps up with the scheduled files.
+    */
+   private void throttle(int bytes) {
+      if (compactionRate <= 0) {
+         return;
+      }
+      long now = timeService.time();
+      if (now - lastForegroundWrite > FOREGROUND_IDLE_NANOS || scheduledCompaction.size() > workers.length) {
+         return;
+      }
+      long cost = bytes * TimeUnit.SECONDS.toNanos(1) / compactionRate;
+      long permit = nextPermit.getAndUpdate(next -> Math.max(next, now) + cost);
+      long wait = permit - now;
+      while (wait > 0 && !clearSignal && !terminateSignal) {
+         LockSupport.parkNanos(wait);
+         wait = permit - timeService.time();
+      }
+   }
+
    private void pauseCompactor(FileProvider.Log logFile) throws IOException, InterruptedException {
       if (logFile != null) {
          logFile.close();
@@ -328,9 +424,9 @@ private void pauseCompactor(FileProvider.Log logFile) throws IOException, Interr
 
    public void clearAndPause() throws InterruptedException {
       compactorResume = new CountDownLatch(1);
-      compactorStop = new CountDownLatch(1);
+      compactorStop = new CountDownLatch(workers.length);
       clearSignal = true;
-      scheduledCompaction.put(-1);
+      wakeUpWorkers();
       compactorStop.await();
       scheduledCompaction.clear();
       fileStats.clear();
@@ -343,8 +439,35 @@ public void resumeAfterPause() {
 
    public void stopOperations() throws InterruptedException {
       terminateSignal = true;
-      scheduledCompaction.put(-1);
-      this.join();
+      wakeUpWorkers();
+      for (Thread worker : workers) {
+         worker.join();
+      }
+   }
+
+   private void wakeUpWorkers() {
+      for (int i = 0; i < workers.length; ++i) {
+         scheduledCompaction.put(ScheduledFile.SIGNAL);
+      }
+   }
+
+   private static class ScheduledFile implements Comparable<ScheduledFile> {
+      // wakes up a worker to check the signals, ahead of any file
+      static final ScheduledFile SIGNAL = new ScheduledFile(-1, Double.POSITIVE_INFINITY);
+
+      final int file;
+      final double garbageRatio;
+
+      ScheduledFile(int file, double garbageRatio) {
+         this.file = file;
+         this.garbageRatio = garbageRatio;
+      }
+
+      @Override
+      public int compareTo(ScheduledFile other) {
+         // the file with most garbage goes first
+         return Double.compare(other.garbageRatio, garbageRatio);
+      }
    }
 
    private static class Stats {
@@ -187,17 +187,60 @@ public static void writeEntry(FileChannel fileChannel, org.infinispan.commons.io
             serializedInternalMetadata == null ? 0 : (short) serializedInternalMetadata.getLength(),
             seqId, expiration);
       header.flip();
-      write(fileChannel, header);
-      write(fileChannel, ByteBuffer.wrap(serializedKey.getBuf(), serializedKey.getOffset(), serializedKey.getLength()));
+      // Gather the parts into a single write instead of one write per part
+      ByteBuffer[] buffers = new ByteBuffer[6];
+      int count = 0;
+      buffers[count++] = header;
+      buffers[count++] = wrap(serializedKey);
+      if (serializedMetadata != null) {
+         buffers[count++] = wrap(serializedMetadata);
+         ByteBuffer timestamps = ByteBuffer.allocate(EntryMetadata.TIMESTAMP_BYTES);
+         timestamps.putLong(created);
+         timestamps.putLong(lastUsed);
+         timestamps.flip();
+         buffers[count++] = timestamps;
+      }
+      if (serializedValue != null) {
+         buffers[count++] = wrap(serializedValue);
+      }
+      if (serializedInternalMetadata != null) {
+         buffers[count++] = wrap(serializedInternalMetadata);
+      }
+      ByteBuffer last = buffers[count - 1];
+      while (last.hasRemaining()) {
+         fileChannel.write(buffers, 0, count);
+      }
+   }
+
+   private static ByteBuffer wrap(org.infinispan.commons.io.ByteBuffer buffer) {
+      return ByteBuffer.wrap(buffer.getBuf(), buffer.getOffset(), buffer.getLength());
+   }
+
+   /**
+    * Serializes the record into the buffer, which must have at least {@link LogRequest#length()} bytes remaining.
+    */
+   public static void writeEntry(ByteBuffer buffer, org.infinispan.commons.io.ByteBuffer serializedKey,
+                                 org.infinispan.commons.io.ByteBuffer serializedMetadata,
+                                 org.infinispan.commons.io.ByteBuffer serializedInternalMetadata,
+                                 org.infinispan.commons.io.ByteBuffer serializedValue,
+                                 long seqId, long expiration, long created, long lastUsed) {
+      EntryHeader.writeHeader(buffer,
+            (short) serializedKey.getLength(),
+            EntryMetadata.size(serializedMetadata),
+            serializedValue == null ? 0 : serializedValue.getLength(),
+            serializedInternalMetadata == null ? 0 : (short) serializedInternalMetadata.getLength(),
+            seqId, expiration);
+      buffer.put(serializedKey.getBuf(), serializedKey.getOffset(), serializedKey.getLength());
       if (serializedMetadata != null) {
-         write(fileChannel, ByteBuffer.wrap(serializedMetadata.getBuf(), serializedMetadata.getOffset(), serializedMetadata.getLength()));
-         writeTimestamps(fileChannel, created, lastUsed);
+         buffer.put(serializedMetadata.getBuf(), serializedMetadata.getOffset(), serializedMetadata.getLength());
+         buffer.putLong(created);
+         buffer.putLong(lastUsed);
       }
       if (serializedValue != null) {
-         write(fileChannel, ByteBuffer.wrap(serializedValue.getBuf(), serializedValue.getOffset(), serializedValue.getLength()));
+         buffer.put(serializedValue.getBuf(), serializedValue.getOffset(), serializedValue.getLength());
       }
       if (serializedInternalMetadata != null) {
-         write(fileChannel, ByteBuffer.wrap(serializedInternalMetadata.getBuf(), serializedInternalMetadata.getOffset(), serializedInternalMetadata.getLength()));
+         buffer.put(serializedInternalMetadata.getBuf(), serializedInternalMetadata.getOffset(), serializedInternalMetadata.getLength());
       }
    }
 
@@ -209,7 +252,7 @@ private static void writeTimestamps(FileChannel fileChannel, long created, long
       write(fileChannel, buffer);
    }
 
-   private static void write(FileChannel fileChannel, ByteBuffer buffer) throws IOException {
+   static void write(FileChannel fileChannel, ByteBuffer buffer) throws IOException {
       while (buffer.hasRemaining()) fileChannel.write(buffer);
    }
 }
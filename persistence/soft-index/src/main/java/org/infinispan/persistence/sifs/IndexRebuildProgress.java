@@ -0,0 +1,108 @@
+package org.infinispan.persistence.sifs;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.infinispan.commons.time.TimeService;
+
+/**
+ * Tracks the progress of the index rebuild of a {@link SoftIndexFileStore}. The store is not a component of the cache,
+ * so this is registered as a standard MBean by the store itself.
+ *
+ * @since 12.1
+ */
+public class IndexRebuildProgress implements IndexRebuildProgressMBean {
+   private final TimeService timeService;
+   private final AtomicInteger filesScanned = new AtomicInteger();
+   private final LongAdder bytesScanned = new LongAdder();
+   private final LongAdder recordsScanned = new LongAdder();
+   private volatile boolean rebuilding;
+   private volatile int threads;
+   private volatile int filesTotal;
+   private volatile long bytesTotal;
+   private volatile long startNanos;
+   private volatile long durationNanos;
+
+   IndexRebuildProgress(TimeService timeService) {
+      this.timeService = timeService;
+   }
+
+   void rebuildStarted(int threads, int files, long bytes) {
+      filesScanned.set(0);
+      bytesScanned.reset();
+      recordsScanned.reset();
+      this.threads = threads;
+      filesTotal = files;
+      bytesTotal = bytes;
+      durationNanos = 0;
+      startNanos = timeService.time();
+      rebuilding = true;
+   }
+
+   void recordScanned(int bytes) {
+      recordsScanned.increment();
+      bytesScanned.add(bytes);
+   }
+
+   void fileScanned() {
+      filesScanned.incrementAndGet();
+   }
+
+   void rebuildCompleted() {
+      durationNanos = timeService.timeDuration(startNanos, TimeUnit.NANOSECONDS);
+      rebuilding = false;
+   }
+
+   @Override
+   public boolean isRebuilding() {
+      return rebuilding;
+   }
+
+   @Override
+   public int getThreads() {
+      return threads;
+   }
+
+   @Override
+   public int getFilesTotal() {
+      return filesTotal;
+   }
+
+   @Override
+   public int getFilesScanned() {
+      return filesScanned.get();
+   }
+
+   @Override
+   public long getBytesTotal() {
+      return bytesTotal;
+   }
+
+   @Override
+   public long getBytesScanned() {
+      return bytesScanned.sum();
+   }
+
+   @Override
+   public long getRecordsScanned() {
+      return recordsScanned.sum();
+   }
+
+   @Override
+   public double getProgress() {
+      long total = bytesTotal;
+      if (total <= 0) {
+         return rebuilding ? 0 : 100;
+      }
+      return Math.min(100, 100d * bytesScanned.sum() / total);
+   }
+
+   @Override
+   public long getElapsedTime() {
+      if (rebuilding) {
+         return timeService.timeDuration(startNanos, TimeUnit.MILLISECONDS);
+      }
+      return TimeUnit.NANOSECONDS.toMillis(durationNanos);
+   }
+}
@@ -0,0 +1,54 @@
+package org.infinispan.persistence.sifs;
+
+/**
+ * Management interface exposing the progress of the index rebuild of a {@link SoftIndexFileStore}.
+ *
+ * @since 12.1
+ */
+public interface IndexRebuildProgressMBean {
+
+   /**
+    * @return whether the index is being rebuilt from the data files
+    */
+   boolean isRebuilding();
+
+   /**
+    * @return number of threads scanning the data files
+    */
+   int getThreads();
+
+   /**
+    * @return number of data files that are scanned by the rebuild
+    */
+   int getFilesTotal();
+
+   /**
+    * @return number of data files that have been scanned completely
+    */
+   int getFilesScanned();
+
+   /**
+    * @return total size of the data files that are scanned by the rebuild, in bytes
+    */
+   long getBytesTotal();
+
+   /**
+    * @return number of bytes of the data files that have been scanned
+    */
+   long getBytesScanned();
+
+   /**
+    * @return number of records found in the data files so far
+    */
+   long getRecordsScanned();
+
+   /**
+    * @return percentage of the bytes of the data files that have been scanned
+    */
+   double getProgress();
+
+   /**
+    * @return duration of the rebuild in progress or of the last rebuild, in milliseconds
+    */
+   long getElapsedTime();
+}
@@ -84,4 +84,10 @@ public interface Log extends BasicLogger {
 
    @Message(value = "Index looks corrupt.", id = 29020)
    PersistenceException indexLooksCorrupt(@Cause Exception e);
+
+   @Message(value = "Group commit interval (%d) must not be negative and group commit size (%d) must be positive.", id = 29021)
+   CacheConfigurationException invalidGroupCommit(long interval, int size);
+
+   @Message(value = "Compaction threads (%d) must be positive and compaction rate (%d) must not be negative.", id = 29022)
+   CacheConfigurationException invalidCompaction(int threads, long rate);
 }
@@ -1,6 +1,10 @@
 package org.infinispan.persistence.sifs;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.infinispan.commons.io.ByteBuffer;
 import org.infinispan.util.logging.LogFactory;
@@ -9,6 +13,11 @@
  * This component has the only thread that polls the queue with requests to write some entry into the cache store.
  * It writes the records to append-only log files, inserts the entry position into TemporaryTable and queues the position
  * to be persisted in Index.
+ * <p>
+ * Concurrent writes are gathered into batches (group commit): the records of a batch are serialized into a single
+ * buffer that is written to the file at once and fsynced once (with sync writes), and only then all the requests of
+ * the batch are completed. A batch is closed when the queue is empty and its time window elapsed, or when it reaches
+ * the configured size.
  *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
@@ -22,6 +31,14 @@ public class LogAppender extends Thread {
    private final int maxFileSize;
    private final Compactor compactor;
    private final FileProvider fileProvider;
+   private final long groupCommitInterval;
+   private final int groupCommitSize;
+   private final java.nio.ByteBuffer writeBuffer;
+   private final List<LogRequest> batch = new ArrayList<>();
+   // file offset of the first record in the batch that is not yet written
+   private int batchOffset;
+   private int batchLength;
+   private long batchStart;
    private LogRequest pausedRequest;
    private long seqId = 0;
 
@@ -29,7 +46,8 @@ public class LogAppender extends Thread {
                BlockingQueue<IndexRequest> indexQueue,
                TemporaryTable temporaryTable,
                Compactor compactor,
-               FileProvider fileProvider, boolean syncWrites, int maxFileSize) {
+               FileProvider fileProvider, boolean syncWrites, int maxFileSize,
+               long groupCommitInterval, int groupCommitSize) {
       super("BCS-LogAppender");
       this.setDaemon(true);
       this.queue = inboundQueue;
@@ -39,6 +57,9 @@ public class LogAppender extends Thread {
       this.fileProvider = fileProvider;
       this.syncWrites = syncWrites;
       this.maxFileSize = maxFileSize;
+      this.groupCommitInterval = TimeUnit.MILLISECONDS.toNanos(groupCommitInterval);
+      this.groupCommitSize = groupCommitSize;
+      this.writeBuffer = java.nio.ByteBuffer.allocateDirect(groupCommitSize);
       start();
    }
 
@@ -72,41 +93,47 @@ public void run() {
             LogRequest request = queue.pop();
             if (request != null) {
                if (request.isClear()) {
+                  commit(logFile);
                   logFile.close();
-                  queue.notifyNoWait();
                   request.pause();
                   currentOffset = 0;
                   logFile = fileProvider.getFileForLog();
                   log.debug("Appending records to " + logFile.fileId);
                   continue;
                } else if (request.isStop()) {
-                  queue.notifyNoWait();
+                  commit(logFile);
                   break;
                } else if (request.isPause()) {
-                  queue.notifyNoWait();
+                  commit(logFile);
                   request.pause();
                   continue;
                }
                if (currentOffset + request.length() > maxFileSize) {
-                  // switch to next file
+                  // switch to next file, the batch must not span several files
+                  commit(logFile);
                   logFile.close();
                   compactor.completeFile(logFile.fileId);
                   currentOffset = 0;
                   logFile = fileProvider.getFileForLog();
                   log.debug("Appending records to " + logFile.fileId);
                }
-               long seqId = nextSeqId();
-               EntryRecord.writeEntry(logFile.fileChannel, request.getSerializedKey(), request.getSerializedMetadata(),
-                     request.getSerializedInternalMetadata(),
-                     request.getSerializedValue(), seqId, request.getExpiration(), request.getCreated(), request.getLastUsed());
-               int offset = request.getSerializedValue() == null ? ~currentOffset : currentOffset;
-               temporaryTable.set(request.getKey(), logFile.fileId, offset);
-               IndexRequest indexRequest = IndexRequest.update(request.getKey(), raw(request.getSerializedKey()),
-                     logFile.fileId, offset, request.length());
-               request.setIndexRequest(indexRequest);
-               indexQueue.put(indexRequest);
+               if (!batch.isEmpty() && batchLength + request.length() > groupCommitSize) {
+                  commit(logFile);
+               }
+               append(logFile, request, currentOffset);
                currentOffset += request.length();
+               if (batchLength >= groupCommitSize) {
+                  commit(logFile);
+               }
             } else {
+               if (!batch.isEmpty() && groupCommitInterval > 0) {
+                  // keep gathering writes until the time window of the batch elapses
+                  long remaining = batchStart + groupCommitInterval - System.nanoTime();
+                  if (remaining > 0 && queue.awaitNotEmpty(remaining, TimeUnit.NANOSECONDS)) {
+                     continue;
+                  }
+               }
+               writeBatch(logFile);
                if (syncWrites) {
                   logFile.fileChannel.force(false);
                }
@@ -119,6 +146,76 @@ public void run() {
       }
    }
 
+   /**
+    * Adds the record to the current batch. Records that don't fit into the write buffer are written to the file
+    * directly, after the records buffered before them.
+    */
+   private void append(FileProvider.Log logFile, LogRequest request, int offset) throws IOException {
+      if (batch.isEmpty()) {
+         batchStart = System.nanoTime();
+         batchOffset = offset;
+      }
+      long seqId = nextSeqId();
+      if (request.length() <= writeBuffer.remaining()) {
+         EntryRecord.writeEntry(writeBuffer, request.getSerializedKey(), request.getSerializedMetadata(),
+               request.getSerializedInternalMetadata(),
+               request.getSerializedValue(), seqId, request.getExpiration(), request.getCreated(), request.getLastUsed());
+         batch.add(request);
+      } else {
+         writeBatch(logFile);
+         EntryRecord.writeEntry(logFile.fileChannel, request.getSerializedKey(), request.getSerializedMetadata(),
+               request.getSerializedInternalMetadata(),
+               request.getSerializedValue(), seqId, request.getExpiration(), request.getCreated(), request.getLastUsed());
+         batch.add(request);
+         publishBatch(logFile);
+      }
+      batchLength += request.length();
+   }
+
+   /**
+    * Writes the batch to the file, fsyncs it if needed and completes the requests of the whole batch together.
+    */
+   private void commit(FileProvider.Log logFile) throws IOException, InterruptedException {
+      if (batchLength > 0) {
+         writeBatch(logFile);
+         if (syncWrites) {
+            logFile.fileChannel.force(false);
+         }
+      }
+      queue.notifyNoWait();
+   }
+
+   private void writeBatch(FileProvider.Log logFile) throws IOException, InterruptedException {
+      if (writeBuffer.position() > 0) {
+         writeBuffer.flip();
+         EntryRecord.write(logFile.fileChannel, writeBuffer);
+         writeBuffer.clear();
+      }
+      publishBatch(logFile);
+      batchLength = 0;
+   }
+
+   /**
+    * The positions are published only once the records are written, as other threads may read them right away.
+    */
+   private void publishBatch(FileProvider.Log logFile) throws InterruptedException {
+      int offset = batchOffset;
+      for (LogRequest request : batch) {
+         int recordOffset = request.getSerializedValue() == null ? ~offset : offset;
+         temporaryTable.set(request.getKey(), logFile.fileId, recordOffset);
+         IndexRequest indexRequest = IndexRequest.update(request.getKey(), raw(request.getSerializedKey()),
+               logFile.fileId, recordOffset, request.length());
+         request.setIndexRequest(indexRequest);
+         indexQueue.put(indexRequest);
+         offset += request.length();
+      }
+      if (offset > batchOffset) {
+         compactor.appended(offset - batchOffset);
+      }
+      batchOffset = offset;
+      batch.clear();
+   }
+
    private byte[] raw(ByteBuffer buffer) {
       if (buffer.getBuf().length == buffer.getLength()) {
          return buffer.getBuf();
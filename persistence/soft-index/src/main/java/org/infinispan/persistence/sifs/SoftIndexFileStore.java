@@ -6,13 +6,21 @@
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import org.infinispan.commons.io.ByteBuffer;
 import org.infinispan.commons.io.ByteBufferFactory;
 import org.infinispan.commons.marshall.Marshaller;
@@ -21,7 +29,10 @@
 import org.infinispan.commons.time.TimeService;
 import org.infinispan.commons.util.AbstractIterator;
 import org.infinispan.commons.util.CloseableIterator;
+import org.infinispan.commons.util.ProcessorInfo;
 import org.infinispan.commons.util.Util;
+import org.infinispan.configuration.global.GlobalConfiguration;
+import org.infinispan.jmx.CacheManagerJmxRegistration;
 import org.infinispan.metadata.Metadata;
 import org.infinispan.metadata.impl.PrivateMetadata;
 import org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration;
@@ -30,7 +41,6 @@
 import org.infinispan.persistence.spi.MarshallableEntry;
 import org.infinispan.persistence.spi.MarshallableEntryFactory;
 import org.infinispan.persistence.spi.PersistenceException;
-import org.infinispan.util.concurrent.CompletionStages;
 import org.infinispan.util.logging.LogFactory;
 import org.reactivestreams.Publisher;
 
@@ -114,6 +124,7 @@
 public class SoftIndexFileStore implements AdvancedLoadWriteStore<Object, Object> {
 
    private static final Log log = LogFactory.getLog(SoftIndexFileStore.class, Log.class);
+   private static final int KEY_LOCKS_PER_THREAD = 64;
 
    public static final String PREFIX_10_1 = "";
    public static final String PREFIX_11_0 = "ispn.";
@@ -135,6 +146,9 @@ public class SoftIndexFileStore implements AdvancedLoadWriteStore<Object, Object
    private TimeService timeService;
    private int maxKeyLength;
    private InitializationContext ctx;
+   private IndexRebuildProgress rebuildProgress;
+   private List<ObjectName> mBeanNames;
+   private MBeanServer mBeanServer;
 
    @Override
    public void init(InitializationContext ctx) {
@@ -157,8 +171,10 @@ public synchronized void start() {
       storeQueue = new SyncProcessingQueue<>();
       indexQueue = new IndexQueue(configuration.indexSegments(), configuration.indexQueueLength());
       fileProvider = new FileProvider(getDataLocation(), configuration.openFilesLimit(), PREFIX_LATEST);
-      compactor = new Compactor(fileProvider, temporaryTable, indexQueue, marshaller, timeService, configuration.maxFileSize(), configuration.compactionThreshold());
-      logAppender = new LogAppender(storeQueue, indexQueue, temporaryTable, compactor, fileProvider, configuration.syncWrites(), configuration.maxFileSize());
+      compactor = new Compactor(fileProvider, temporaryTable, indexQueue, marshaller, timeService, configuration.maxFileSize(), configuration.compactionThreshold(),
+            configuration.compactionThreads(), configuration.compactionRate());
+      logAppender = new LogAppender(storeQueue, indexQueue, temporaryTable, compactor, fileProvider, configuration.syncWrites(), configuration.maxFileSize(),
+            configuration.groupCommitInterval(), configuration.groupCommitSize());
       try {
          index = new Index(fileProvider, getIndexLocation(), configuration.indexSegments(),
                configuration.minNodeSize(), configuration.maxNodeSize(),
@@ -167,6 +183,8 @@ public synchronized void start() {
          throw log.cannotOpenIndex(configuration.indexLocation(), e);
       }
       compactor.setIndex(index);
+      rebuildProgress = new IndexRebuildProgress(timeService);
+      registerMBeans();
       startIndex();
       final AtomicLong maxSeqId = new AtomicLong(0);
       boolean migrateData = false;
@@ -269,33 +287,148 @@ private <T> T unmarshallLegacy(ByteBuffer buf, boolean allowInternal) throws Cla
       }
    }
 
+   /**
+    * Rebuilds the index by scanning the data files in parallel. The records of a key may be spread over several files,
+    * so the check of the sequence id against the current position of the key and the update of that position are
+    * done atomically for each key, and the index requests of a key are enqueued in the order they were decided.
+    * As each index segment applies its requests in order, the result is the same as if the files were scanned one
+    * after another. The files are only handed to the compactor once all of them have been scanned.
+    */
    private void buildIndex(final AtomicLong maxSeqId) {
-      Flowable<Integer> filePublisher = filePublisher();
-      CompletionStage<Void> stage = handleFilePublisher(filePublisher.doAfterNext(compactor::completeFile), false, false,
-            (file, offset, size, serializedKey, entryMetadata, serializedValue, serializedInternalMetadata, seqId, expiration) -> {
-               long prevSeqId;
-               while (seqId > (prevSeqId = maxSeqId.get()) && !maxSeqId.compareAndSet(prevSeqId, seqId)) {
-               }
-               Object key = marshaller.objectFromByteBuffer(serializedKey);
-               if (log.isTraceEnabled()) {
-                  log.tracef("Loaded %d:%d (seqId %d, expiration %d)", file, offset, seqId, expiration);
-               }
-               try {
-                  // We may check the seqId safely as we are the only thread writing to index
-                  if (isSeqIdOld(seqId, key, serializedKey)) {
-                     indexQueue.put(IndexRequest.foundOld(key, serializedKey, file, offset));
-                     return null;
-                  }
-                  temporaryTable.set(key, file, offset);
-                  indexQueue.put(IndexRequest.update(key, serializedKey, file, offset, size));
-               } catch (InterruptedException e) {
-                  log.error("Interrupted building of index, the index won't be built properly!", e);
+      List<Integer> files = new ArrayList<>();
+      long bytes = 0;
+      try (CloseableIterator<Integer> it = fileProvider.getFileIterator()) {
+         while (it.hasNext()) {
+            int file = it.next();
+            files.add(file);
+            bytes += Math.max(0, fileProvider.getFileSize(file));
+         }
+      }
+      int threads = Math.max(1, Math.min(files.size(), ProcessorInfo.availableProcessors()));
+      rebuildProgress.rebuildStarted(threads, files.size(), bytes);
+      Object[] keyLocks = new Object[Math.max(KEY_LOCKS_PER_THREAD * threads, configuration.indexSegments())];
+      for (int i = 0; i < keyLocks.length; ++i) {
+         keyLocks[i] = new Object();
+      }
+      EntryFunctor<Void> functor = (file, offset, size, serializedKey, entryMetadata, serializedValue, serializedInternalMetadata, seqId, expiration) -> {
+         rebuildProgress.recordScanned(size);
+         long prevSeqId;
+         while (seqId > (prevSeqId = maxSeqId.get()) && !maxSeqId.compareAndSet(prevSeqId, seqId)) {
+         }
+         Object key = marshaller.objectFromByteBuffer(serializedKey);
+         if (log.isTraceEnabled()) {
+            log.tracef("Loaded %d:%d (seqId %d, expiration %d)", file, offset, seqId, expiration);
+         }
+         try {
+            // Other threads may be loading records of the same key from other files
+            synchronized (keyLocks[(key.hashCode() & Integer.MAX_VALUE) % keyLocks.length]) {
+               if (isSeqIdOld(seqId, key, serializedKey)) {
+                  indexQueue.put(IndexRequest.foundOld(key, serializedKey, file, offset));
                   return null;
                }
+               temporaryTable.set(key, file, offset);
+               indexQueue.put(IndexRequest.update(key, serializedKey, file, offset, size));
+            }
+         } catch (InterruptedException e) {
+            log.error("Interrupted building of index, the index won't be built properly!", e);
+            throw e;
+         }
+         return null;
+      };
+
+      AtomicInteger threadCounter = new AtomicInteger();
+      ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+         Thread thread = new Thread(r, "BCS-IndexRebuild-" + threadCounter.getAndIncrement());
+         thread.setDaemon(true);
+         return thread;
+      });
+      try {
+         List<Future<?>> futures = new ArrayList<>(files.size());
+         for (int file : files) {
+            futures.add(executor.submit(() -> {
+               scanFile(file, functor);
+               rebuildProgress.fileScanned();
                return null;
-            }).ignoreElements()
-            .toCompletionStage(null);
-      CompletionStages.join(stage);
+            }));
+         }
+         for (Future<?> future : futures) {
+            future.get();
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new PersistenceException(e);
+      } catch (ExecutionException e) {
+         throw new PersistenceException(e.getCause());
+      } finally {
+         executor.shutdownNow();
+         rebuildProgress.rebuildCompleted();
+      }
+      for (int file : files) {
+         compactor.completeFile(file);
+      }
+      log.debugf("Scanned %d data files (%d records) with %d threads in %d ms", files.size(),
+            rebuildProgress.getRecordsScanned(), threads, rebuildProgress.getElapsedTime());
+   }
+
+   private void scanFile(int file, EntryFunctor<Void> functor) throws IOException {
+      log.debugf("Loading entries from file %d", file);
+      try (FileProvider.Handle handle = fileProvider.getFile(file)) {
+         if (handle == null) {
+            log.debugf("File %d was deleted during iteration", file);
+            return;
+         }
+         // The functor never returns an element, so the iterator consumes the whole file at once
+         HandleIterator<Void> iterator = new HandleIterator<>(new AtomicInteger(), handle, false, false, functor, file);
+         while (iterator.hasNext()) {
+            iterator.next();
+         }
+      }
+   }
+
+   private void registerMBeans() {
+      GlobalConfiguration globalConfiguration = ctx.getGlobalConfiguration();
+      if (!globalConfiguration.jmx().enabled()) {
+         return;
+      }
+      CacheManagerJmxRegistration jmxRegistration = ctx.getCache().getAdvancedCache().getComponentRegistry()
+            .getGlobalComponentRegistry().getComponent(CacheManagerJmxRegistration.class);
+      mBeanServer = jmxRegistration == null ? null : jmxRegistration.getMBeanServer();
+      if (mBeanServer == null) {
+         return;
+      }
+      // The cache may have a store instance per segment, so the data location identifies the store
+      String prefix = jmxRegistration.getDomain() + ":type=SoftIndexFileStore,manager=" +
+            ObjectName.quote(globalConfiguration.cacheManagerName()) + ",cache=" +
+            ObjectName.quote(ctx.getCache().getName()) + ",location=" +
+            ObjectName.quote(getDataLocation().toString()) + ",component=";
+      mBeanNames = new ArrayList<>(2);
+      registerMBean(rebuildProgress, prefix + "IndexRebuild");
+      registerMBean(compactor.getStatistics(), prefix + "Compaction");
+   }
+
+   private void registerMBean(Object mBean, String name) {
+      try {
+         ObjectName objectName = new ObjectName(name);
+         mBeanServer.registerMBean(mBean, objectName);
+         mBeanNames.add(objectName);
+      } catch (Exception e) {
+         log.debugf(e, "Cannot register the MBean %s", name);
+      }
+   }
+
+   private void unregisterMBeans() {
+      if (mBeanNames == null) {
+         return;
+      }
+      for (ObjectName objectName : mBeanNames) {
+         try {
+            mBeanServer.unregisterMBean(objectName);
+         } catch (Exception e) {
+            log.debugf(e, "Cannot unregister the MBean %s", objectName);
+         }
+      }
+      mBeanNames = null;
+      mBeanServer = null;
    }
 
    private Path getDataLocation() {
@@ -349,8 +482,17 @@ protected boolean isIndexLoaded() {
       return index.isLoaded();
    }
 
+   IndexRebuildProgress getRebuildProgress() {
+      return rebuildProgress;
+   }
+
+   CompactionStatistics getCompactionStatistics() {
+      return compactor.getStatistics();
+   }
+
    @Override
    public synchronized void stop() {
+      unregisterMBeans();
       try {
          logAppender.stopOperations();
          logAppender = null;
@@ -373,6 +515,7 @@ public synchronized void stop() {
 
    @Override
    public synchronized void destroy() {
+      unregisterMBeans();
       try {
          logAppender.stopOperations();
          logAppender = null;
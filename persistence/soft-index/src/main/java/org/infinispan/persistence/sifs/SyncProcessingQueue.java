@@ -4,6 +4,7 @@
 import io.reactivex.rxjava3.internal.queue.MpscLinkedQueue;
 
 import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.LockSupport;
 
@@ -185,6 +186,38 @@ public boolean notifyAndWait() {
       return true;
    }
 
+   /**
+    * Waits until an element is pushed or the timeout elapses. Unlike {@link #notifyAndWait()} the producers
+    * of the elements popped so far are not notified, so that they can be completed together later.
+    *
+    * @return {@code true} if not empty or {@code false} if the timeout elapsed or the consumer Thread is interrupted
+    */
+   public boolean awaitNotEmpty(long timeout, TimeUnit unit) {
+      assert !error;
+      final Thread currentThread = Thread.currentThread();
+      final long deadline = System.nanoTime() + unit.toNanos(timeout);
+      while (queue.isEmpty()) {
+         final long remaining = deadline - System.nanoTime();
+         if (remaining <= 0) {
+            return false;
+         }
+         blockedConsumer = currentThread;
+         // same StoreLoad as in notifyAndWait
+         try {
+            if (!queue.isEmpty()) {
+               return true;
+            }
+            LockSupport.parkNanos(remaining);
+            if (currentThread.isInterrupted()) {
+               return false;
+            }
+         } finally {
+            blockedConsumer = null;
+         }
+      }
+      return true;
+   }
+
    public void notifyError() {
       error = true;
       // first cleanup already popped elements first
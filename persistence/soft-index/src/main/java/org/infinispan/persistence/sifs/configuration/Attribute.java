@@ -11,7 +11,11 @@
 public enum Attribute {
    // must be first
    UNKNOWN(null),
+   COMPACTION_RATE("compaction-rate"),
+   COMPACTION_THREADS("compaction-threads"),
    COMPACTION_THRESHOLD("compaction-threshold"),
+   GROUP_COMMIT_INTERVAL("group-commit-interval"),
+   GROUP_COMMIT_SIZE("group-commit-size"),
    PATH("path"),
    INDEX_QUEUE_LENGTH("max-queue-length"),
    SEGMENTS("segments"),
@@ -12,10 +12,12 @@ public class DataConfiguration implements ConfigurationInfo {
    public static final AttributeDefinition<String> DATA_LOCATION = AttributeDefinition.builder("dataLocation", null, String.class).immutable().autoPersist(false).xmlName("path").build();
    public static final AttributeDefinition<Integer> MAX_FILE_SIZE = AttributeDefinition.builder("maxFileSize", 16 * 1024 * 1024).immutable().autoPersist(false).build();
    public static final AttributeDefinition<Boolean> SYNC_WRITES = AttributeDefinition.builder("syncWrites", false).immutable().autoPersist(false).build();
+   public static final AttributeDefinition<Long> GROUP_COMMIT_INTERVAL = AttributeDefinition.builder("groupCommitInterval", 0L).immutable().autoPersist(false).build();
+   public static final AttributeDefinition<Integer> GROUP_COMMIT_SIZE = AttributeDefinition.builder("groupCommitSize", 64 * 1024).immutable().autoPersist(false).build();
    private final AttributeSet attributes;
 
    public static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(DataConfiguration.class, DATA_LOCATION, MAX_FILE_SIZE, SYNC_WRITES);
+      return new AttributeSet(DataConfiguration.class, DATA_LOCATION, MAX_FILE_SIZE, SYNC_WRITES, GROUP_COMMIT_INTERVAL, GROUP_COMMIT_SIZE);
    }
 
    static ElementDefinition ELEMENT_DEFINITION = new DefaultElementDefinition(DATA.getLocalName());
@@ -42,6 +44,14 @@ public boolean syncWrites() {
       return attributes.attribute(SYNC_WRITES).get();
    }
 
+   public long groupCommitInterval() {
+      return attributes.attribute(GROUP_COMMIT_INTERVAL).get();
+   }
+
+   public int groupCommitSize() {
+      return attributes.attribute(GROUP_COMMIT_SIZE).get();
+   }
+
    public String dataLocation() {
       return attributes.attribute(DATA_LOCATION).get();
    }
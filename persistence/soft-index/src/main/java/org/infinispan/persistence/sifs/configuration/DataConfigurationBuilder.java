@@ -1,6 +1,8 @@
 package org.infinispan.persistence.sifs.configuration;
 
 import static org.infinispan.persistence.sifs.configuration.DataConfiguration.DATA_LOCATION;
+import static org.infinispan.persistence.sifs.configuration.DataConfiguration.GROUP_COMMIT_INTERVAL;
+import static org.infinispan.persistence.sifs.configuration.DataConfiguration.GROUP_COMMIT_SIZE;
 import static org.infinispan.persistence.sifs.configuration.DataConfiguration.MAX_FILE_SIZE;
 import static org.infinispan.persistence.sifs.configuration.DataConfiguration.SYNC_WRITES;
 
@@ -8,8 +10,11 @@
 import org.infinispan.commons.configuration.ConfigurationBuilderInfo;
 import org.infinispan.commons.configuration.attributes.AttributeSet;
 import org.infinispan.commons.configuration.elements.ElementDefinition;
+import org.infinispan.persistence.sifs.Log;
+import org.infinispan.util.logging.LogFactory;
 
 public class DataConfigurationBuilder implements ConfigurationBuilderInfo, Builder<DataConfiguration> {
+   private static final Log log = LogFactory.getLog(DataConfigurationBuilder.class, Log.class);
 
    private final AttributeSet attributes;
 
@@ -42,8 +47,23 @@ public DataConfigurationBuilder syncWrites(boolean syncWrites) {
       return this;
    }
 
+   public DataConfigurationBuilder groupCommitInterval(long groupCommitInterval) {
+      attributes.attribute(GROUP_COMMIT_INTERVAL).set(groupCommitInterval);
+      return this;
+   }
+
+   public DataConfigurationBuilder groupCommitSize(int groupCommitSize) {
+      attributes.attribute(GROUP_COMMIT_SIZE).set(groupCommitSize);
+      return this;
+   }
+
    @Override
    public void validate() {
+      long groupCommitInterval = attributes.attribute(GROUP_COMMIT_INTERVAL).get();
+      int groupCommitSize = attributes.attribute(GROUP_COMMIT_SIZE).get();
+      if (groupCommitInterval < 0 || groupCommitSize <= 0) {
+         throw log.invalidGroupCommit(groupCommitInterval, groupCommitSize);
+      }
    }
 
    @Override
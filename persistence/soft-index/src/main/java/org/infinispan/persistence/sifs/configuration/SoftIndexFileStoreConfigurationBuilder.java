@@ -1,6 +1,8 @@
 package org.infinispan.persistence.sifs.configuration;
 
 import static org.infinispan.configuration.cache.AbstractStoreConfiguration.SEGMENTED;
+import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.COMPACTION_RATE;
+import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.COMPACTION_THREADS;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.COMPACTION_THRESHOLD;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.OPEN_FILES_LIMIT;
 
@@ -136,6 +138,29 @@ public SoftIndexFileStoreConfigurationBuilder syncWrites(boolean syncWrites) {
       return this;
    }
 
+   /**
+    * Sets how long, in milliseconds, the writes are gathered into a single batch before they are written to the data
+    * file together and, with {@link #syncWrites(boolean)}, fsynced once. The writes are only confirmed after their
+    * batch is written, so a longer interval trades write latency for throughput when many threads write concurrently.
+    *
+    * Defaults to <code>0</code>, the batch only contains the writes that were queued while the previous one was written.
+    */
+   public SoftIndexFileStoreConfigurationBuilder groupCommitInterval(long groupCommitInterval) {
+      data.groupCommitInterval(groupCommitInterval);
+      return this;
+   }
+
+   /**
+    * Sets the maximum size of a batch of writes, in bytes. The batch is written to the data file as soon as it reaches
+    * this size, even if the {@link #groupCommitInterval(long)} has not elapsed.
+    *
+    * Defaults to <code>65536</code> (64KB).
+    */
+   public SoftIndexFileStoreConfigurationBuilder groupCommitSize(int groupCommitSize) {
+      data.groupCommitSize(groupCommitSize);
+      return this;
+   }
+
    /**
     * Sets the maximum number of open files.
     *
@@ -156,6 +181,29 @@ public SoftIndexFileStoreConfigurationBuilder compactionThreshold(double compact
       return this;
    }
 
+   /**
+    * Sets the number of threads compacting the data files in parallel. The files with most unused space are compacted
+    * first.
+    *
+    * Defaults to <code>1</code>.
+    */
+   public SoftIndexFileStoreConfigurationBuilder compactionThreads(int compactionThreads) {
+      attributes.attribute(COMPACTION_THREADS).set(compactionThreads);
+      return this;
+   }
+
+   /**
+    * Limits the rate, in bytes per second, at which the data files are compacted while the store is being written to.
+    * The limit does not apply when the store is idle or when more files are waiting for compaction than there are
+    * compaction threads.
+    *
+    * Defaults to <code>0</code>, the compaction is not limited.
+    */
+   public SoftIndexFileStoreConfigurationBuilder compactionRate(long compactionRate) {
+      attributes.attribute(COMPACTION_RATE).set(compactionRate);
+      return this;
+   }
+
    @Override
    public SoftIndexFileStoreConfiguration create() {
       return new SoftIndexFileStoreConfiguration(attributes.protect(), async.create(), index.create(), data.create());
@@ -183,10 +231,16 @@ protected void validate(boolean skipClassChecks) {
       }
       super.validate(skipClassChecks);
       index.validate();
+      data.validate();
       double compactionThreshold = attributes.attribute(COMPACTION_THRESHOLD).get();
       if (compactionThreshold <= 0 || compactionThreshold > 1) {
          throw log.invalidCompactionThreshold(compactionThreshold);
       }
+      int compactionThreads = attributes.attribute(COMPACTION_THREADS).get();
+      long compactionRate = attributes.attribute(COMPACTION_RATE).get();
+      if (compactionThreads <= 0 || compactionRate < 0) {
+         throw log.invalidCompaction(compactionThreads, compactionRate);
+      }
    }
 
    @Override
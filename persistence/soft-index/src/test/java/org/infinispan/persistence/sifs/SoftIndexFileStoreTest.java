@@ -1,10 +1,17 @@
 package org.infinispan.persistence.sifs;
 
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.assertNotNull;
 import static org.testng.AssertJUnit.assertNull;
 import static org.testng.AssertJUnit.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
 import org.infinispan.commons.test.CommonsTestingUtil;
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.cache.Configuration;
@@ -19,6 +26,7 @@
 import org.infinispan.test.fwk.TestCacheManagerFactory;
 import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
 import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
@@ -35,6 +43,9 @@ public class SoftIndexFileStoreTest extends BaseStoreTest {
    String tmpDirectory;
    boolean startIndex = true;
    boolean keepIndex = false;
+   boolean syncWrites = false;
+   int groupCommitSize = 64 * 1024;
+   long groupCommitInterval = 0;
 
    @BeforeClass
    protected void setUpTempDir() {
@@ -46,6 +57,13 @@ protected void clearTempDir() {
       Util.recursiveFileRemove(tmpDirectory);
    }
 
+   @AfterMethod(alwaysRun = true)
+   protected void resetGroupCommit() {
+      syncWrites = false;
+      groupCommitSize = 64 * 1024;
+      groupCommitInterval = 0;
+   }
+
    @Override
    protected AdvancedLoadWriteStore createStore() {
       store = new SoftIndexFileStore() {
@@ -80,7 +98,10 @@ public void stop() {
       builder.persistence()
             .addStore(SoftIndexFileStoreConfigurationBuilder.class)
             .indexLocation(tmpDirectory).dataLocation(tmpDirectory)
-            .maxFileSize(1000);
+            .maxFileSize(1000)
+            .syncWrites(syncWrites)
+            .groupCommitSize(groupCommitSize)
+            .groupCommitInterval(groupCommitInterval);
 
       Configuration c = builder.build();
       store.init(createContext(c));
@@ -180,6 +201,51 @@ public void testOverrideWithExpirableAndCompaction() throws InterruptedException
       assertNull(entry != null ? entry.getKey() + "=" + entry.getValue() : null, entry);
    }
 
+   public void testRebuildIndexFromManyFiles() {
+      int numEntries = 2000;
+      for (int round = 0; round < 3; ++round) {
+         for (int i = round; i < numEntries; ++i) {
+            store.write(marshalledEntry(internalCacheEntry(key(i), "value" + i + "-" + round, -1)));
+         }
+      }
+      for (int i = 0; i < numEntries; i += 7) {
+         store.delete(key(i));
+      }
+
+      store.stop();
+      store.start();
+
+      IndexRebuildProgress progress = store.getRebuildProgress();
+      assertFalse(progress.isRebuilding());
+      assertTrue(progress.getFilesTotal() > 1);
+      assertEquals(progress.getFilesTotal(), progress.getFilesScanned());
+      assertEquals(progress.getBytesTotal(), progress.getBytesScanned());
+      assertEquals(100d, progress.getProgress());
+      for (int i = 0; i < numEntries; ++i) {
+         MarshallableEntry entry = store.loadEntry(key(i));
+         if (i % 7 == 0) {
+            assertNull(key(i), entry);
+         } else {
+            assertNotNull(key(i), entry);
+            assertEquals("value" + i + "-" + Math.min(i, 2), entry.getValue());
+         }
+      }
+      assertEquals(numEntries - (numEntries + 6) / 7, store.size());
+   }
+
+   public void testCompactionStatistics() {
+      writeGibberish();
+      CompactionStatistics statistics = store.getCompactionStatistics();
+      eventually(() -> statistics.getFilesCompacted() > 0);
+      assertEquals(1, statistics.getCompactionThreads());
+      assertTrue(statistics.getBytesCompacted() > 0);
+      assertTrue(statistics.getBytesAppended() > 0);
+      assertTrue(statistics.getWriteAmplification() >= 1);
+      for (double ratio : statistics.getFileGarbageRatios().values()) {
+         assertTrue(String.valueOf(ratio), ratio >= 0 && ratio <= 1);
+      }
+   }
+
    public void testStopStartWithLoadDoesNotNukeValues() throws InterruptedException, PersistenceException {
       keepIndex = true;
       try {
@@ -189,6 +255,94 @@ public void testStopStartWithLoadDoesNotNukeValues() throws InterruptedException
       }
    }
 
+   public void testGroupCommitRecordsLargerThanWriteBuffer() throws Exception {
+      restartWithGroupCommit(256, 20);
+      // Small records are buffered, the large ones are written directly after the records buffered before them
+      String largeValue = String.format("%0600d", 0);
+      List<Future<Void>> writers = new ArrayList<>();
+      for (int t = 0; t < 4; ++t) {
+         int thread = t;
+         writers.add(fork(() -> {
+            for (int i = thread; i < 80; i += 4) {
+               String value = i % 5 == 0 ? largeValue + i : "value" + i;
+               store.write(marshalledEntry(internalCacheEntry(key(i), value, -1)));
+            }
+         }));
+      }
+      for (Future<Void> writer : writers) {
+         writer.get(10, TimeUnit.SECONDS);
+      }
+      assertGroupCommitValues(80, i -> i % 5 == 0 ? largeValue + i : "value" + i);
+
+      // The positions must match the records in the data files, not only the temporary table
+      store.stop();
+      store.start();
+      assertGroupCommitValues(80, i -> i % 5 == 0 ? largeValue + i : "value" + i);
+   }
+
+   public void testGroupCommitFileRolloverInBatch() throws Exception {
+      // The batch is larger than the data files, so it has to be committed whenever the file is switched
+      restartWithGroupCommit(64 * 1024, 50);
+      List<Future<Void>> writers = new ArrayList<>();
+      for (int t = 0; t < 8; ++t) {
+         int thread = t;
+         writers.add(fork(() -> {
+            for (int i = thread; i < 200; i += 8) {
+               store.write(marshalledEntry(internalCacheEntry(key(i), "value" + i, -1)));
+            }
+         }));
+      }
+      for (Future<Void> writer : writers) {
+         writer.get(10, TimeUnit.SECONDS);
+      }
+      assertGroupCommitValues(200, i -> "value" + i);
+
+      store.stop();
+      store.start();
+      assertTrue(store.getRebuildProgress().getFilesTotal() > 1);
+      assertGroupCommitValues(200, i -> "value" + i);
+      assertEquals(200, store.size());
+   }
+
+   public void testGroupCommitReadWhileBatchPending() throws Exception {
+      restartWithGroupCommit(64 * 1024, 1000);
+      store.write(marshalledEntry(internalCacheEntry("k1", "v1", -1)));
+      store.write(marshalledEntry(internalCacheEntry("k2", "v1", -1)));
+
+      // The batch is only written once its window elapsed, until then readers see the previous values
+      Future<Void> update = fork(() -> store.write(marshalledEntry(internalCacheEntry("k1", "v2", -1))));
+      Future<Boolean> delete = fork(() -> store.delete("k2"));
+      Future<Void> insert = fork(() -> store.write(marshalledEntry(internalCacheEntry("k3", "v1", -1))));
+      assertEquals("v1", store.loadEntry("k1").getValue());
+      assertEquals("v1", store.loadEntry("k2").getValue());
+      assertNull(store.loadEntry("k3"));
+      assertFalse(update.isDone());
+
+      update.get(10, TimeUnit.SECONDS);
+      delete.get(10, TimeUnit.SECONDS);
+      insert.get(10, TimeUnit.SECONDS);
+      assertEquals("v2", store.loadEntry("k1").getValue());
+      assertNull(store.loadEntry("k2"));
+      assertEquals("v1", store.loadEntry("k3").getValue());
+   }
+
+   private void restartWithGroupCommit(int groupCommitSize, long groupCommitInterval) {
+      store.stop();
+      syncWrites = true;
+      this.groupCommitSize = groupCommitSize;
+      this.groupCommitInterval = groupCommitInterval;
+      cl = createStore();
+      cl.start();
+   }
+
+   private void assertGroupCommitValues(int numEntries, IntFunction<String> expectedValue) {
+      for (int i = 0; i < numEntries; ++i) {
+         MarshallableEntry entry = store.loadEntry(key(i));
+         assertNotNull(key(i), entry);
+         assertEquals(key(i), expectedValue.apply(i), entry.getValue());
+      }
+   }
+
    private void writeGibberish() {
       for (int i = 0; i < 100; ++i) {
          store.write(marshalledEntry(internalCacheEntry("foo", "bar", -1)));
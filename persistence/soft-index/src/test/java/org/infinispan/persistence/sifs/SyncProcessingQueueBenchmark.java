@@ -19,6 +19,10 @@
 
 /**
  * This benchmark tests the performance of {@link SyncProcessingQueue}
+ * <p>
+ * The consumer can complete the elements in groups, as {@link LogAppender} does with group commit: a group is
+ * completed once it holds {@code groupCommitSize} elements or when the queue is empty and {@code groupCommitInterval}
+ * microseconds elapsed since its first element. {@code commitDelay} simulates the cost of the fsync of each group.
  *
  * @author Francesco Nigro &lt;fnigro@redhat.com&gt;
  */
@@ -35,6 +39,12 @@ public class SyncProcessingQueueBenchmark {
     public int producerDelay;
     @Param({ "0", "10", "100" })
     public int consumerDelay;
+    @Param({ "1", "16" })
+    public int groupCommitSize;
+    @Param({ "0", "50" })
+    public long groupCommitInterval;
+    @Param({ "0", "1000" })
+    public int commitDelay;
     private static final Integer ITEM = 0;
     private SyncProcessingQueue<Integer> queue;
     private Thread consumerThread;
@@ -45,6 +55,8 @@ public void init(Blackhole bh) throws InterruptedException {
         this.consumerThread = new Thread(() -> {
             final Thread currentThread = Thread.currentThread();
             final SyncProcessingQueue<Integer> queue = this.queue;
+            int grouped = 0;
+            long groupStart = 0;
             while (!currentThread.isInterrupted()) {
                 Integer value = queue.pop();
                 if (value != null) {
@@ -53,8 +65,25 @@ public void init(Blackhole bh) throws InterruptedException {
                     if (delay > 0) {
                         Blackhole.consumeCPU(delay);
                     }
-                    queue.notifyNoWait();
+                    if (grouped++ == 0) {
+                        groupStart = System.nanoTime();
+                    }
+                    if (grouped >= groupCommitSize) {
+                        commit();
+                        queue.notifyNoWait();
+                        grouped = 0;
+                    }
                 } else {
+                    if (grouped > 0 && groupCommitInterval > 0) {
+                        final long remaining = groupStart + TimeUnit.MICROSECONDS.toNanos(groupCommitInterval) - System.nanoTime();
+                        if (remaining > 0 && queue.awaitNotEmpty(remaining, TimeUnit.NANOSECONDS)) {
+                            continue;
+                        }
+                    }
+                    if (grouped > 0) {
+                        commit();
+                        grouped = 0;
+                    }
                     queue.notifyAndWait();
                 }
             }
@@ -82,6 +111,23 @@ public void pushAndWait2() throws InterruptedException {
         queue.pushAndWait(ITEM);
     }
 
+    @Benchmark
+    @Threads(8)
+    public void pushAndWait8() throws InterruptedException {
+        final int delay = this.producerDelay;
+        if (delay > 0) {
+            Blackhole.consumeCPU(delay);
+        }
+        queue.pushAndWait(ITEM);
+    }
+
+    private void commit() {
+        final int delay = this.commitDelay;
+        if (delay > 0) {
+            Blackhole.consumeCPU(delay);
+        }
+    }
+
     @TearDown
     public void clear() {
         synchronized (queue) {